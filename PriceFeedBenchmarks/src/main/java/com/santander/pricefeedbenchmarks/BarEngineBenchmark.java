@@ -0,0 +1,78 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.bars.BarEngine;
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of adding a tick to the 1s, 1m and 5m bars of its instrument in the {@link BarEngine}, with
+ * timestamps moving forward by 10 ms per tick so that bars are regularly opened, and of reading the latest bars.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BarEngineBenchmark {
+
+    private static final int TICK_COUNT = 1 << 16;
+
+    @Param({"1000"})
+    public int instrumentCount;
+
+    private String[] instrumentNames;
+    private BarEngine barEngine;
+    private Price[] ticks;
+    private int[] instrumentIds;
+    private long timestamp;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        instrumentNames = BenchmarkData.instrumentNames(instrumentCount);
+        barEngine = new BarEngine(new InstrumentRegistry(instrumentNames), new long[]{1000, 60_000, 300_000}, 120);
+        SplittableRandom random = new SplittableRandom(42);
+        ticks = new Price[TICK_COUNT];
+        instrumentIds = new int[TICK_COUNT];
+        for (int i = 0; i < TICK_COUNT; i++) {
+            instrumentIds[i] = random.nextInt(instrumentCount);
+            double mid = 1.0 + random.nextDouble() * 0.01;
+            ticks[i] = new Price(null, instrumentNames[instrumentIds[i]], mid - 0.0001, mid + 0.0001, 0);
+        }
+        for (int i = 0; i < TICK_COUNT; i++) {
+            update();
+        }
+    }
+
+    @Benchmark
+    public void update() {
+        index = (index + 1) & (TICK_COUNT - 1);
+        Price tick = ticks[index];
+        timestamp += 10;
+        tick.setTimestamp(timestamp);
+        barEngine.update(instrumentIds[index], tick);
+    }
+
+    @Benchmark
+    public int readMinuteBars(Blackhole blackhole) {
+        index = (index + 1) & (TICK_COUNT - 1);
+        return barEngine.getBars(instrumentNames[instrumentIds[index]], 60_000, 60,
+                (start, open, high, low, close, tickCount) -> blackhole.consume(close));
+    }
+}
@@ -0,0 +1,69 @@
+package com.santander.pricefeedbenchmarks;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates deterministic benchmark inputs in the format published by the price feed source.
+ */
+final class BenchmarkData {
+
+    private static final String LINE_FORMAT = "%s,%s,%.4f,%.4f,%d";
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Returns {@code count} distinct instrument names shaped like currency pairs.
+     */
+    static String[] instrumentNames(int count) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = code(i) + "/" + code(i / (26 * 26 * 26) + 7);
+        }
+        return names;
+    }
+
+    /**
+     * Returns {@code count} price lines spread over the given instruments.
+     */
+    static String[] lines(int count, String[] instrumentNames, long seed) {
+        Random random = new Random(seed);
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            double bid = random.nextDouble() * 2 + 1;
+            double ask = bid + random.nextDouble() * 0.005;
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            lines[i] = String.format(Locale.ROOT, LINE_FORMAT, id, instrumentNames[i % instrumentNames.length],
+                    bid, ask, 1_700_000_000_000L + i);
+        }
+        return lines;
+    }
+
+    /**
+     * Returns {@code count} messages made of {@code linesPerMessage} newline-terminated price lines each.
+     */
+    static String[] messages(int count, int linesPerMessage, String[] instrumentNames, long seed) {
+        String[] lines = lines(count * linesPerMessage, instrumentNames, seed);
+        String[] messages = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder message = new StringBuilder();
+            for (int j = 0; j < linesPerMessage; j++) {
+                message.append(lines[i * linesPerMessage + j]).append('\n');
+            }
+            messages[i] = message.toString();
+        }
+        return messages;
+    }
+
+    private static String code(int index) {
+        char[] code = new char[3];
+        int value = index;
+        for (int i = 2; i >= 0; i--) {
+            code[i] = (char) ('A' + value % 26);
+            value /= 26;
+        }
+        return new String(code);
+    }
+}
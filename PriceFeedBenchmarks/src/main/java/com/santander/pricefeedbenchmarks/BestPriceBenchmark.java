@@ -0,0 +1,70 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.aggregation.BestPriceAggregator;
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of a venue quote in the {@link BestPriceAggregator}, with quotes randomly spread around a mid
+ * price, so that most of them stay behind the top of their instrument and some move it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BestPriceBenchmark {
+
+    private static final int QUOTE_COUNT = 1 << 16;
+
+    @Param({"8", "32"})
+    public int venueCount;
+
+    @Param({"1000"})
+    public int instrumentCount;
+
+    private BestPriceAggregator aggregator;
+    private Price[] quotes;
+    private int[] venues;
+    private int index;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        String[] instrumentNames = BenchmarkData.instrumentNames(instrumentCount);
+        InstrumentRegistry instrumentRegistry = new InstrumentRegistry(instrumentNames);
+        aggregator = new BestPriceAggregator(instrumentRegistry, venueCount, Long.MAX_VALUE / 2, () -> 0L,
+                blackhole::consume);
+        SplittableRandom random = new SplittableRandom(42);
+        quotes = new Price[QUOTE_COUNT];
+        venues = new int[QUOTE_COUNT];
+        for (int i = 0; i < QUOTE_COUNT; i++) {
+            int instrumentId = random.nextInt(instrumentCount);
+            double spread = random.nextDouble() * 0.001;
+            quotes[i] = new Price(null, null, 1.0 - spread, 1.0 + spread, 0);
+            quotes[i].setInstrument(instrumentId, instrumentNames[instrumentId]);
+            venues[i] = random.nextInt(venueCount);
+        }
+    }
+
+    @Benchmark
+    public boolean update() {
+        index = (index + 1) & (QUOTE_COUNT - 1);
+        return aggregator.update(venues[index], quotes[index]);
+    }
+}
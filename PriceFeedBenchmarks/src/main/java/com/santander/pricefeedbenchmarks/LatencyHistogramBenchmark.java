@@ -0,0 +1,44 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.metrics.LatencyHistogram;
+import com.santander.pricefeedclient.metrics.LatencySnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of recording a latency in a {@link LatencyHistogram}, paid by the ingestion workers for every
+ * stage of every tick, and of merging histograms into a {@link LatencySnapshot} when the metrics are read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LatencyHistogramBenchmark {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LatencyHistogram[] histograms = {histogram, new LatencyHistogram()};
+    private long value;
+
+    @Benchmark
+    public void record() {
+        // values spread over a few magnitudes, like stage latencies in nanoseconds
+        value = (value * 6364136223846793005L + 1442695040888963407L);
+        histogram.record((value >>> 48) & 0x3FFF);
+    }
+
+    @Benchmark
+    public LatencySnapshot merge() {
+        return LatencySnapshot.merge(histograms);
+    }
+}
@@ -0,0 +1,353 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.ingest.PipelineMetrics;
+import com.santander.pricefeedclient.metrics.LatencyHistogram;
+import com.santander.pricefeedclient.metrics.LatencySnapshot;
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.service.PriceFeedService;
+import com.santander.pricefeedclient.service.PriceFeedServiceConfig;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.util.BinaryPriceDeserializer;
+import com.santander.pricefeedclient.util.FastPriceDeserializer;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import com.santander.pricefeedclient.util.PriceDeserializer;
+import com.santander.pricefeedsource.PriceFeedGenerator;
+import com.santander.pricefeedsource.PriceFeedSource;
+import com.santander.pricefeedsource.WireFormat;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Drives a {@link PriceFeedService} end to end with a generated feed, while reader threads read the latest prices
+ * and snapshots, and measures the sustained ingestion rate, the end-to-end latency, the allocation rate and the
+ * garbage collection pauses.
+ * <p>
+ * The feed is a {@link PriceFeedSource#runPriceFeed(PriceFeedGenerator, long, long)} stream, or its binary variant,
+ * of the instruments and at the rate of the {@link LoadTestConfig}, subscribed to by the service through its usual
+ * ingestion pipeline; with several venues every venue runs such a stream. Every price published by the pipeline is
+ * delivered to a subscriber, on the worker threads, which records the age of its tick in a histogram per worker. The
+ * timestamps of the feed being in milliseconds, so are the latencies.
+ * <p>
+ * The allocations are read per thread from the {@link com.sun.management.ThreadMXBean} of the JVM; the allocation per
+ * tick leaves out the reader threads, whose copies of the latest prices are not part of the ingestion cost. The
+ * pauses are collected from the notifications of the garbage collectors, leaving out their concurrent cycles.
+ * <p>
+ * Run it from the benchmarks jar, failing with exit status 1 when a threshold is exceeded, e.g.:
+ * <pre>
+ * java -Dloadtest.minTicksPerSecond=50000 -cp PriceFeedBenchmarks/target/benchmarks.jar \
+ *     com.santander.pricefeedbenchmarks.LoadTest
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final int SNAPSHOT_READ_INTERVAL = 64;
+
+    private LoadTest() {
+    }
+
+    /**
+     * Runs a load test with the given settings, the service being configured from the system properties.
+     *
+     * @param config the settings of the load test
+     * @return the measurements taken after the warmup
+     * @throws Exception if the service does not start, or if interrupted while the test runs
+     */
+    public static LoadTestReport run(LoadTestConfig config) throws Exception {
+        return run(config, PriceFeedServiceConfig.fromSystemProperties());
+    }
+
+    /**
+     * Runs a load test with the given settings.
+     *
+     * @param config the settings of the load test
+     * @param serviceConfig the settings of the service under load
+     * @return the measurements taken after the warmup
+     * @throws Exception if the service does not start, or if interrupted while the test runs
+     */
+    public static LoadTestReport run(LoadTestConfig config, PriceFeedServiceConfig serviceConfig) throws Exception {
+        PriceFeedGenerator generator = new PriceFeedGenerator(config.getSeed(), config.getInstruments());
+        String[] instruments = generator.getInstruments();
+        InstrumentRegistry instrumentRegistry = new InstrumentRegistry(instruments);
+        PriceDeserializer deserializer = serviceConfig.getWireFormat() == WireFormat.BINARY
+                ? new BinaryPriceDeserializer(instruments, instrumentRegistry)
+                : new FastPriceDeserializer(instrumentRegistry);
+        long messagesPerSecond = config.getMessagesPerSecond();
+        PriceFeedService service = new PriceFeedService(deserializer, new LatestPriceStore(instrumentRegistry), 0.1,
+                new Random(config.getSeed()), serviceConfig) {
+            @Override
+            public Stream<String> initPriceFeedSubscription() {
+                return PriceFeedSource.runPriceFeed(generator, PriceFeedSource.UNBOUNDED, messagesPerSecond);
+            }
+
+            @Override
+            public Stream<String> initPriceFeedSubscription(int venue) {
+                PriceFeedGenerator venueGenerator;
+                synchronized (generator) {
+                    venueGenerator = generator.split();
+                }
+                return PriceFeedSource.runPriceFeed(venueGenerator, PriceFeedSource.UNBOUNDED, messagesPerSecond);
+            }
+
+            @Override
+            public Stream<ByteBuffer> initBinaryPriceFeedSubscription() {
+                return PriceFeedSource.runBinaryPriceFeed(generator, PriceFeedSource.UNBOUNDED, messagesPerSecond);
+            }
+        };
+
+        LatencyRecorder latencyRecorder = new LatencyRecorder();
+        service.getPricePublisher().subscribe(latencyRecorder);
+        Reader[] readers = new Reader[config.getReaders()];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Reader(service, instruments, i);
+        }
+        GcPauseListener gcPauseListener = new GcPauseListener();
+        try {
+            service.start().get();
+            for (Reader reader : readers) {
+                reader.thread.start();
+            }
+            TimeUnit.SECONDS.sleep(config.getWarmupSeconds());
+
+            Set<Long> readerThreadIds = new HashSet<>();
+            for (Reader reader : readers) {
+                readerThreadIds.add(reader.thread.getId());
+            }
+            long[] startAllocatedBytes = allocatedBytes(readerThreadIds);
+            PipelineMetrics startMetrics = service.getPipelineMetrics();
+            long startReads = reads(readers);
+            long startNanos = System.nanoTime();
+            latencyRecorder.recording = true;
+            gcPauseListener.recording = true;
+
+            TimeUnit.SECONDS.sleep(config.getDurationSeconds());
+
+            gcPauseListener.recording = false;
+            latencyRecorder.recording = false;
+            long elapsedNanos = System.nanoTime() - startNanos;
+            long endReads = reads(readers);
+            PipelineMetrics endMetrics = service.getPipelineMetrics();
+            long[] endAllocatedBytes = allocatedBytes(readerThreadIds);
+
+            long allocatedBytes = startAllocatedBytes == null || endAllocatedBytes == null ? -1
+                    : endAllocatedBytes[0] - startAllocatedBytes[0];
+            long ingestionAllocatedBytes = startAllocatedBytes == null || endAllocatedBytes == null ? -1
+                    : endAllocatedBytes[1] - startAllocatedBytes[1];
+            return new LoadTestReport(elapsedNanos, ingestedLines(endMetrics) - ingestedLines(startMetrics),
+                    latencyRecorder.deliveredTicks.get(), endReads - startReads, latencyRecorder.getLatency(),
+                    allocatedBytes, ingestionAllocatedBytes, gcPauseListener.gcCount.get(),
+                    gcPauseListener.gcPauseMillis.get(), gcPauseListener.maxGcPauseMillis.get());
+        } finally {
+            gcPauseListener.close();
+            for (Reader reader : readers) {
+                reader.close();
+            }
+            service.stop();
+        }
+    }
+
+    /**
+     * Runs a load test configured from the system properties, see {@link LoadTestConfig#fromSystemProperties()},
+     * prints its report and exits with status 1 if a threshold is exceeded.
+     *
+     * @param args ignored
+     * @throws Exception if the service does not start
+     */
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        LoadTestReport report = run(config);
+        System.out.println(report);
+        List<String> violations = report.violations(config);
+        if (!violations.isEmpty()) {
+            violations.forEach(violation -> System.err.println("Load test failed: " + violation));
+            System.exit(1);
+        }
+    }
+
+    private static long ingestedLines(PipelineMetrics metrics) {
+        return metrics.getProcessedLines() + metrics.getConflatedLines() + metrics.getFailedLines()
+                + metrics.getRejectedLines();
+    }
+
+    private static long reads(Reader[] readers) {
+        long reads = 0;
+        for (Reader reader : readers) {
+            reads += reader.reads.get();
+        }
+        return reads;
+    }
+
+    /**
+     * Returns the bytes allocated so far by all the live threads, and by those which are not readers, or null if
+     * the JVM does not measure the allocations of threads.
+     */
+    private static long[] allocatedBytes(Set<Long> readerThreadIds) {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threadMXBean.isThreadAllocatedMemorySupported() || !threadMXBean.isThreadAllocatedMemoryEnabled()) {
+            return null;
+        }
+        long[] threadIds = threadMXBean.getAllThreadIds();
+        long[] threadAllocatedBytes = threadMXBean.getThreadAllocatedBytes(threadIds);
+        long[] allocatedBytes = new long[2];
+        for (int i = 0; i < threadIds.length; i++) {
+            if (threadAllocatedBytes[i] > 0) {
+                allocatedBytes[0] += threadAllocatedBytes[i];
+                if (!readerThreadIds.contains(threadIds[i])) {
+                    allocatedBytes[1] += threadAllocatedBytes[i];
+                }
+            }
+        }
+        return allocatedBytes;
+    }
+
+    /**
+     * Records the age of every price delivered while recording, in a histogram per delivering worker thread.
+     */
+    private static final class LatencyRecorder implements Flow.Subscriber<Price> {
+
+        private final Queue<LatencyHistogram> histograms = new ConcurrentLinkedQueue<>();
+        private final ThreadLocal<LatencyHistogram> histogram = ThreadLocal.withInitial(() -> {
+            LatencyHistogram threadHistogram = new LatencyHistogram();
+            histograms.add(threadHistogram);
+            return threadHistogram;
+        });
+        private final AtomicLong deliveredTicks = new AtomicLong();
+        private volatile boolean recording;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(Price price) {
+            if (recording) {
+                histogram.get().record(System.currentTimeMillis() - price.getTimestamp());
+                deliveredTicks.getAndIncrement();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        LatencySnapshot getLatency() {
+            return LatencySnapshot.merge(histograms.toArray(new LatencyHistogram[0]));
+        }
+    }
+
+    /**
+     * Reads the latest price of every instrument in turn, and the latest snapshot every
+     * {@value #SNAPSHOT_READ_INTERVAL} reads, until closed.
+     */
+    private static final class Reader {
+
+        private final PriceFeedService service;
+        private final String[] instruments;
+        private final Thread thread;
+        private final AtomicLong reads = new AtomicLong();
+        private volatile boolean running = true;
+
+        Reader(PriceFeedService service, String[] instruments, int index) {
+            this.service = service;
+            this.instruments = instruments;
+            this.thread = new Thread(this::read, "load-test-reader-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void read() {
+            long read = 0;
+            while (running) {
+                if (read % SNAPSHOT_READ_INTERVAL == 0) {
+                    service.getPriceSnapshot().getPrice(instruments[(int) (read % instruments.length)]);
+                } else {
+                    service.getLatestPrice(instruments[(int) (read % instruments.length)]);
+                }
+                reads.lazySet(++read);
+            }
+        }
+
+        void close() throws InterruptedException {
+            running = false;
+            if (thread.getState() != Thread.State.NEW) {
+                thread.join();
+            }
+        }
+    }
+
+    /**
+     * Collects the pauses of the garbage collections which end while recording.
+     */
+    private static final class GcPauseListener implements NotificationListener {
+
+        private final List<NotificationEmitter> emitters = new ArrayList<>();
+        private final AtomicLong gcCount = new AtomicLong();
+        private final AtomicLong gcPauseMillis = new AtomicLong();
+        private final AtomicLong maxGcPauseMillis = new AtomicLong();
+        private volatile boolean recording;
+
+        GcPauseListener() {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (collector instanceof NotificationEmitter) {
+                    NotificationEmitter emitter = (NotificationEmitter) collector;
+                    emitter.addNotificationListener(this, null, null);
+                    emitters.add(emitter);
+                }
+            }
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!recording || !GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+                    .equals(notification.getType())) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            // concurrent cycles run alongside the application, only their pauses are reported separately
+            if (info.getGcName().contains("Concurrent") || info.getGcName().contains("Cycles")) {
+                return;
+            }
+            long pauseMillis = info.getGcInfo().getDuration();
+            gcCount.incrementAndGet();
+            gcPauseMillis.addAndGet(pauseMillis);
+            maxGcPauseMillis.accumulateAndGet(pauseMillis, Math::max);
+        }
+
+        void close() {
+            for (NotificationEmitter emitter : emitters) {
+                try {
+                    emitter.removeNotificationListener(this);
+                } catch (ListenerNotFoundException e) {
+                    // already removed
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.santander.pricefeedbenchmarks;
+
+/**
+ * The settings of a {@link LoadTest} run and the thresholds its report is checked against. Every threshold set to 0
+ * is not checked.
+ * <p>
+ * The service under load is configured from the {@code pricefeed.*} system properties, see
+ * {@link com.santander.pricefeedclient.service.PriceFeedServiceConfig}, e.g. {@code pricefeed.workers} or
+ * {@code pricefeed.wireFormat}.
+ */
+public class LoadTestConfig {
+
+    /**
+     * The system property setting the number of instruments of the generated feed.
+     */
+    public static final String INSTRUMENTS_PROPERTY = "loadtest.instruments";
+
+    /**
+     * The system property setting the target rate of the feed, in messages per second, 0 for an unthrottled feed.
+     */
+    public static final String MESSAGES_PER_SECOND_PROPERTY = "loadtest.messagesPerSecond";
+
+    /**
+     * The system property setting the number of threads reading the latest prices and snapshots concurrently.
+     */
+    public static final String READERS_PROPERTY = "loadtest.readers";
+
+    /**
+     * The system property setting the time the feed runs before the measurements start, in seconds.
+     */
+    public static final String WARMUP_SECONDS_PROPERTY = "loadtest.warmupSeconds";
+
+    /**
+     * The system property setting the time the measurements last, in seconds.
+     */
+    public static final String DURATION_SECONDS_PROPERTY = "loadtest.durationSeconds";
+
+    /**
+     * The system property setting the seed of the generated feed.
+     */
+    public static final String SEED_PROPERTY = "loadtest.seed";
+
+    /**
+     * The system property setting the lowest acceptable number of ticks ingested per second.
+     */
+    public static final String MIN_TICKS_PER_SECOND_PROPERTY = "loadtest.minTicksPerSecond";
+
+    /**
+     * The system property setting the highest acceptable 99th percentile of the end-to-end latency, in milliseconds.
+     */
+    public static final String MAX_P99_LATENCY_PROPERTY = "loadtest.maxP99LatencyMillis";
+
+    /**
+     * The system property setting the highest acceptable number of bytes allocated per ingested tick.
+     */
+    public static final String MAX_ALLOCATED_BYTES_PER_TICK_PROPERTY = "loadtest.maxAllocatedBytesPerTick";
+
+    /**
+     * The system property setting the longest acceptable garbage collection pause, in milliseconds.
+     */
+    public static final String MAX_GC_PAUSE_PROPERTY = "loadtest.maxGcPauseMillis";
+
+    private int instruments = 100;
+    private long messagesPerSecond = 20_000;
+    private int readers = 2;
+    private int warmupSeconds = 2;
+    private int durationSeconds = 10;
+    private long seed = 42;
+    private long minTicksPerSecond;
+    private long maxP99LatencyMillis;
+    private long maxAllocatedBytesPerTick;
+    private long maxGcPauseMillis;
+
+    /**
+     * Creates a new configuration holding the default settings, without thresholds.
+     */
+    public LoadTestConfig() {
+    }
+
+    /**
+     * Creates a new configuration holding the default settings, overridden by the system properties which are set.
+     *
+     * @return a new configuration
+     * @throws NumberFormatException if a property is not a valid number
+     */
+    public static LoadTestConfig fromSystemProperties() {
+        LoadTestConfig config = new LoadTestConfig();
+        config.setInstruments(Integer.getInteger(INSTRUMENTS_PROPERTY, config.getInstruments()));
+        config.setMessagesPerSecond(Long.getLong(MESSAGES_PER_SECOND_PROPERTY, config.getMessagesPerSecond()));
+        config.setReaders(Integer.getInteger(READERS_PROPERTY, config.getReaders()));
+        config.setWarmupSeconds(Integer.getInteger(WARMUP_SECONDS_PROPERTY, config.getWarmupSeconds()));
+        config.setDurationSeconds(Integer.getInteger(DURATION_SECONDS_PROPERTY, config.getDurationSeconds()));
+        config.setSeed(Long.getLong(SEED_PROPERTY, config.getSeed()));
+        config.setMinTicksPerSecond(Long.getLong(MIN_TICKS_PER_SECOND_PROPERTY, config.getMinTicksPerSecond()));
+        config.setMaxP99LatencyMillis(Long.getLong(MAX_P99_LATENCY_PROPERTY, config.getMaxP99LatencyMillis()));
+        config.setMaxAllocatedBytesPerTick(Long.getLong(MAX_ALLOCATED_BYTES_PER_TICK_PROPERTY,
+                config.getMaxAllocatedBytesPerTick()));
+        config.setMaxGcPauseMillis(Long.getLong(MAX_GC_PAUSE_PROPERTY, config.getMaxGcPauseMillis()));
+        return config;
+    }
+
+    /**
+     * Gets the number of instruments of the generated feed.
+     *
+     * @return the number of instruments
+     */
+    public int getInstruments() {
+        return instruments;
+    }
+
+    /**
+     * Sets the number of instruments of the generated feed.
+     *
+     * @param instruments the number of instruments
+     */
+    public void setInstruments(int instruments) {
+        this.instruments = instruments;
+    }
+
+    /**
+     * Gets the target rate of the feed.
+     *
+     * @return the rate, in messages per second, 0 for an unthrottled feed
+     */
+    public long getMessagesPerSecond() {
+        return messagesPerSecond;
+    }
+
+    /**
+     * Sets the target rate of the feed.
+     *
+     * @param messagesPerSecond the rate, in messages per second, 0 for an unthrottled feed
+     */
+    public void setMessagesPerSecond(long messagesPerSecond) {
+        this.messagesPerSecond = messagesPerSecond;
+    }
+
+    /**
+     * Gets the number of threads reading the latest prices and snapshots concurrently.
+     *
+     * @return the number of reader threads
+     */
+    public int getReaders() {
+        return readers;
+    }
+
+    /**
+     * Sets the number of threads reading the latest prices and snapshots concurrently.
+     *
+     * @param readers the number of reader threads
+     */
+    public void setReaders(int readers) {
+        this.readers = readers;
+    }
+
+    /**
+     * Gets the time the feed runs before the measurements start.
+     *
+     * @return the warmup time, in seconds
+     */
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    /**
+     * Sets the time the feed runs before the measurements start.
+     *
+     * @param warmupSeconds the warmup time, in seconds
+     */
+    public void setWarmupSeconds(int warmupSeconds) {
+        this.warmupSeconds = warmupSeconds;
+    }
+
+    /**
+     * Gets the time the measurements last.
+     *
+     * @return the measurement time, in seconds
+     */
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /**
+     * Sets the time the measurements last.
+     *
+     * @param durationSeconds the measurement time, in seconds
+     */
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    /**
+     * Gets the seed of the generated feed.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed of the generated feed.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Gets the lowest acceptable number of ticks ingested per second.
+     *
+     * @return the throughput threshold, 0 if not checked
+     */
+    public long getMinTicksPerSecond() {
+        return minTicksPerSecond;
+    }
+
+    /**
+     * Sets the lowest acceptable number of ticks ingested per second.
+     *
+     * @param minTicksPerSecond the throughput threshold, 0 to not check it
+     */
+    public void setMinTicksPerSecond(long minTicksPerSecond) {
+        this.minTicksPerSecond = minTicksPerSecond;
+    }
+
+    /**
+     * Gets the highest acceptable 99th percentile of the end-to-end latency.
+     *
+     * @return the latency threshold, in milliseconds, 0 if not checked
+     */
+    public long getMaxP99LatencyMillis() {
+        return maxP99LatencyMillis;
+    }
+
+    /**
+     * Sets the highest acceptable 99th percentile of the end-to-end latency.
+     *
+     * @param maxP99LatencyMillis the latency threshold, in milliseconds, 0 to not check it
+     */
+    public void setMaxP99LatencyMillis(long maxP99LatencyMillis) {
+        this.maxP99LatencyMillis = maxP99LatencyMillis;
+    }
+
+    /**
+     * Gets the highest acceptable number of bytes allocated per ingested tick, by all the threads of the process.
+     *
+     * @return the allocation threshold, 0 if not checked
+     */
+    public long getMaxAllocatedBytesPerTick() {
+        return maxAllocatedBytesPerTick;
+    }
+
+    /**
+     * Sets the highest acceptable number of bytes allocated per ingested tick.
+     *
+     * @param maxAllocatedBytesPerTick the allocation threshold, 0 to not check it
+     */
+    public void setMaxAllocatedBytesPerTick(long maxAllocatedBytesPerTick) {
+        this.maxAllocatedBytesPerTick = maxAllocatedBytesPerTick;
+    }
+
+    /**
+     * Gets the longest acceptable garbage collection pause.
+     *
+     * @return the pause threshold, in milliseconds, 0 if not checked
+     */
+    public long getMaxGcPauseMillis() {
+        return maxGcPauseMillis;
+    }
+
+    /**
+     * Sets the longest acceptable garbage collection pause.
+     *
+     * @param maxGcPauseMillis the pause threshold, in milliseconds, 0 to not check it
+     */
+    public void setMaxGcPauseMillis(long maxGcPauseMillis) {
+        this.maxGcPauseMillis = maxGcPauseMillis;
+    }
+}
@@ -0,0 +1,239 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.metrics.LatencySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The measurements of a {@link LoadTest} run, taken over its measurement window only, after the warmup.
+ */
+public class LoadTestReport {
+
+    private final long elapsedNanos;
+    private final long ingestedTicks;
+    private final long publishedTicks;
+    private final long reads;
+    private final LatencySnapshot latency;
+    private final long allocatedBytes;
+    private final long ingestionAllocatedBytes;
+    private final long gcCount;
+    private final long gcPauseMillis;
+    private final long maxGcPauseMillis;
+
+    /**
+     * Creates a new report.
+     *
+     * @param elapsedNanos the duration of the measurement window, in nanoseconds
+     * @param ingestedTicks the number of ticks taken off the feed by the ingestion pipeline, whether published,
+     *                      conflated, failed or rejected
+     * @param publishedTicks the number of ticks delivered to the price subscriber
+     * @param reads the number of latest price and snapshot reads of the reader threads
+     * @param latency the end-to-end latencies, from the timestamp of the tick to its delivery, in milliseconds
+     * @param allocatedBytes the number of bytes allocated by all the threads of the process, -1 if unknown
+     * @param ingestionAllocatedBytes the number of bytes allocated by the threads of the process other than the
+     *                                reader threads, -1 if unknown
+     * @param gcCount the number of garbage collections
+     * @param gcPauseMillis the total duration of the garbage collection pauses, in milliseconds
+     * @param maxGcPauseMillis the longest garbage collection pause, in milliseconds
+     */
+    public LoadTestReport(long elapsedNanos, long ingestedTicks, long publishedTicks, long reads,
+                          LatencySnapshot latency, long allocatedBytes, long ingestionAllocatedBytes, long gcCount,
+                          long gcPauseMillis, long maxGcPauseMillis) {
+        this.elapsedNanos = elapsedNanos;
+        this.ingestedTicks = ingestedTicks;
+        this.publishedTicks = publishedTicks;
+        this.reads = reads;
+        this.latency = latency;
+        this.allocatedBytes = allocatedBytes;
+        this.ingestionAllocatedBytes = ingestionAllocatedBytes;
+        this.gcCount = gcCount;
+        this.gcPauseMillis = gcPauseMillis;
+        this.maxGcPauseMillis = maxGcPauseMillis;
+    }
+
+    /**
+     * Gets the duration of the measurement window.
+     *
+     * @return the elapsed time, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the number of ticks taken off the feed by the ingestion pipeline.
+     *
+     * @return the number of ingested ticks
+     */
+    public long getIngestedTicks() {
+        return ingestedTicks;
+    }
+
+    /**
+     * Gets the number of ticks delivered to the price subscriber.
+     *
+     * @return the number of published ticks
+     */
+    public long getPublishedTicks() {
+        return publishedTicks;
+    }
+
+    /**
+     * Gets the number of latest price and snapshot reads of the reader threads.
+     *
+     * @return the number of reads
+     */
+    public long getReads() {
+        return reads;
+    }
+
+    /**
+     * Gets the sustained ingestion rate.
+     *
+     * @return the number of ticks ingested per second
+     */
+    public double getTicksPerSecond() {
+        return perSecond(ingestedTicks);
+    }
+
+    /**
+     * Gets the rate at which ticks are delivered to the price subscriber.
+     *
+     * @return the number of ticks published per second
+     */
+    public double getPublishedPerSecond() {
+        return perSecond(publishedTicks);
+    }
+
+    /**
+     * Gets the rate of the reader threads.
+     *
+     * @return the number of reads per second
+     */
+    public double getReadsPerSecond() {
+        return perSecond(reads);
+    }
+
+    /**
+     * Gets the end-to-end latencies, from the timestamp of the tick to its delivery to the price subscriber. The
+     * timestamps of the feed are in milliseconds, and so are the latencies.
+     *
+     * @return the latencies, in milliseconds
+     */
+    public LatencySnapshot getLatency() {
+        return latency;
+    }
+
+    /**
+     * Gets the number of bytes allocated by all the threads of the process, -1 if the JVM does not measure it.
+     *
+     * @return the allocated bytes
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Gets the allocation rate of the process.
+     *
+     * @return the number of bytes allocated per second, -1 if unknown
+     */
+    public double getAllocatedBytesPerSecond() {
+        return allocatedBytes < 0 ? -1 : perSecond(allocatedBytes);
+    }
+
+    /**
+     * Gets the number of bytes allocated by the threads of the process other than the reader threads, i.e. by the
+     * feed, the ingestion pipeline and the service, -1 if the JVM does not measure it.
+     *
+     * @return the allocated bytes
+     */
+    public long getIngestionAllocatedBytes() {
+        return ingestionAllocatedBytes;
+    }
+
+    /**
+     * Gets the number of bytes allocated per ingested tick, leaving out the reader threads.
+     *
+     * @return the allocated bytes per tick, -1 if unknown
+     */
+    public double getAllocatedBytesPerTick() {
+        return ingestionAllocatedBytes < 0 || ingestedTicks == 0 ? -1
+                : (double) ingestionAllocatedBytes / ingestedTicks;
+    }
+
+    /**
+     * Gets the number of garbage collections.
+     *
+     * @return the number of collections
+     */
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    /**
+     * Gets the total duration of the garbage collection pauses.
+     *
+     * @return the pause time, in milliseconds
+     */
+    public long getGcPauseMillis() {
+        return gcPauseMillis;
+    }
+
+    /**
+     * Gets the longest garbage collection pause.
+     *
+     * @return the longest pause, in milliseconds
+     */
+    public long getMaxGcPauseMillis() {
+        return maxGcPauseMillis;
+    }
+
+    /**
+     * Checks this report against the thresholds of the given configuration.
+     *
+     * @param config the configuration holding the thresholds
+     * @return a description of every threshold exceeded, empty if none is
+     */
+    public List<String> violations(LoadTestConfig config) {
+        List<String> violations = new ArrayList<>();
+        if (config.getMinTicksPerSecond() > 0 && getTicksPerSecond() < config.getMinTicksPerSecond()) {
+            violations.add(String.format("%.0f ticks/s is below the minimum of %d ticks/s",
+                    getTicksPerSecond(), config.getMinTicksPerSecond()));
+        }
+        if (config.getMaxP99LatencyMillis() > 0 && latency.getP99() > config.getMaxP99LatencyMillis()) {
+            violations.add(String.format("p99 latency of %d ms is above the maximum of %d ms",
+                    latency.getP99(), config.getMaxP99LatencyMillis()));
+        }
+        if (config.getMaxAllocatedBytesPerTick() > 0
+                && getAllocatedBytesPerTick() > config.getMaxAllocatedBytesPerTick()) {
+            violations.add(String.format("%.0f bytes allocated per tick is above the maximum of %d bytes",
+                    getAllocatedBytesPerTick(), config.getMaxAllocatedBytesPerTick()));
+        }
+        if (config.getMaxGcPauseMillis() > 0 && maxGcPauseMillis > config.getMaxGcPauseMillis()) {
+            violations.add(String.format("GC pause of %d ms is above the maximum of %d ms",
+                    maxGcPauseMillis, config.getMaxGcPauseMillis()));
+        }
+        return violations;
+    }
+
+    private double perSecond(long count) {
+        return elapsedNanos == 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * Returns a string representation of this {@code LoadTestReport} instance.
+     *
+     * @return a string representation of this {@code LoadTestReport} instance
+     */
+    @Override
+    public String toString() {
+        return String.format("LoadTestReport{ticksPerSecond=%.0f, publishedPerSecond=%.0f, readsPerSecond=%.0f, "
+                        + "latencyMillis=%s, allocatedBytesPerSecond=%.0f, allocatedBytesPerTick=%.1f, gcCount=%d, "
+                        + "gcPauseMillis=%d, maxGcPauseMillis=%d}",
+                getTicksPerSecond(), getPublishedPerSecond(), getReadsPerSecond(), latency,
+                getAllocatedBytesPerSecond(), getAllocatedBytesPerTick(), gcCount, gcPauseMillis, maxGcPauseMillis);
+    }
+}
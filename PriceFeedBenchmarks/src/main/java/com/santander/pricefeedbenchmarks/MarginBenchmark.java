@@ -0,0 +1,74 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.margin.MarginEngine;
+import com.santander.pricefeedclient.margin.MarginSchedule;
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.service.PriceFeedService;
+import com.santander.pricefeedclient.util.FastPriceDeserializer;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import com.santander.pricefeedsource.PriceFeedSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of {@link PriceFeedService#addMargin(Price, double)} and its in-place overload, and of margining
+ * a tick for 8 client tiers and 3 notional bands with {@link MarginEngine#apply(int, Price)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MarginBenchmark {
+
+    private PriceFeedService service;
+    private Price price;
+    private Price target;
+    private double margin;
+    private MarginEngine marginEngine;
+    private int instrumentId;
+
+    @Setup
+    public void setUp() {
+        service = new PriceFeedService(new FastPriceDeserializer());
+        price = new Price(UUID.randomUUID(), "EUR/USD", 1.0812, 1.0815, System.currentTimeMillis());
+        target = new Price();
+        margin = service.retrieveMargin();
+        InstrumentRegistry instrumentRegistry = new InstrumentRegistry(PriceFeedSource.getCurrencyPairs());
+        MarginSchedule schedule = new MarginSchedule(8, 1_000_000, 10_000_000);
+        for (int band = 0; band < schedule.getBandCount(); band++) {
+            for (int tier = 0; tier < schedule.getTierCount(); tier++) {
+                schedule.setDefaultMargin(tier, band, 0.0001 * (tier + band + 1), 0.0001 * (tier + band + 1));
+            }
+        }
+        marginEngine = new MarginEngine(instrumentRegistry, schedule);
+        instrumentId = instrumentRegistry.idOf("EUR/USD");
+    }
+
+    @Benchmark
+    public Price addMargin() {
+        return service.addMargin(price, margin);
+    }
+
+    @Benchmark
+    public Price addMarginIntoTarget() {
+        return service.addMargin(price, margin, target);
+    }
+
+    @Benchmark
+    public void applyTiers() {
+        marginEngine.apply(instrumentId, price);
+    }
+}
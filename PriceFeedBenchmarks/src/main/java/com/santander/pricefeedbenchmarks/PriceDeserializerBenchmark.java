@@ -0,0 +1,91 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.model.PriceBatch;
+import com.santander.pricefeedclient.util.PriceDeserializer;
+import com.santander.pricefeedclient.util.PriceDeserializers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of deserializing single price lines and multi-line messages, split line by line or in one batch
+ * with {@link PriceDeserializer#deserializeAll}, for every {@link PriceDeserializer} implementation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PriceDeserializerBenchmark {
+
+    private static final int INPUT_COUNT = 4096;
+    private static final int LINES_PER_MESSAGE = 5;
+
+    @Param({PriceDeserializers.SPLIT, PriceDeserializers.FAST})
+    public String deserializer;
+
+    @Param({"6", "1000"})
+    public int instrumentCount;
+
+    private PriceDeserializer priceDeserializer;
+    private String[] lines;
+    private String[] messages;
+    private Price target;
+    private PriceBatch batch;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        String[] instrumentNames = BenchmarkData.instrumentNames(instrumentCount);
+        priceDeserializer = PriceDeserializers.create(deserializer);
+        lines = BenchmarkData.lines(INPUT_COUNT, instrumentNames, 42);
+        messages = BenchmarkData.messages(INPUT_COUNT, LINES_PER_MESSAGE, instrumentNames, 42);
+        target = new Price();
+        batch = new PriceBatch();
+    }
+
+    @Benchmark
+    public Price deserializeLine() {
+        return priceDeserializer.deserialize(lines[next()]);
+    }
+
+    @Benchmark
+    public Price deserializeLineIntoTarget() {
+        return priceDeserializer.deserialize(lines[next()], target);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES_PER_MESSAGE)
+    public void deserializeMultiLineMessage(Blackhole blackhole) {
+        for (String line : messages[next()].split("\n")) {
+            blackhole.consume(priceDeserializer.deserialize(line, target));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES_PER_MESSAGE)
+    public PriceBatch deserializeMultiLineMessageBatch() {
+        batch.clear();
+        priceDeserializer.deserializeAll(messages[next()], batch);
+        return batch;
+    }
+
+    private int next() {
+        index = (index + 1) & (INPUT_COUNT - 1);
+        return index;
+    }
+}
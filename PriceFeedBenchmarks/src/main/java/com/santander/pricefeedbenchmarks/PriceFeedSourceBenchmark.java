@@ -0,0 +1,63 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedsource.PriceFeedGenerator;
+import com.santander.pricefeedsource.PriceFeedSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of generating price feed messages in {@link PriceFeedSource} and {@link PriceFeedGenerator}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PriceFeedSourceBenchmark {
+
+    @Param({"6", "10000"})
+    public int instrumentCount;
+
+    private PriceFeedGenerator generator;
+    private StringBuilder message;
+
+    @Setup
+    public void setUp() {
+        generator = new PriceFeedGenerator(42, instrumentCount);
+        message = new StringBuilder();
+    }
+
+    @Benchmark
+    public String generateMessage() {
+        return PriceFeedSource.generateMessage();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public long runPriceFeed() {
+        return PriceFeedSource.runPriceFeed().mapToLong(String::length).sum();
+    }
+
+    @Benchmark
+    public String generatorNextMessage() {
+        return generator.nextMessage();
+    }
+
+    @Benchmark
+    public StringBuilder generatorAppendMessage() {
+        message.setLength(0);
+        return generator.appendMessage(message);
+    }
+}
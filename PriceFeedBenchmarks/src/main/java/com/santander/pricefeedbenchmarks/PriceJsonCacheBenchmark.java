@@ -0,0 +1,71 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.http.PriceJsonCache;
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of serving the JSON of a latest price, from the {@link PriceJsonCache} when the price is unchanged
+ * and when every request follows a tick, and the cost of serving the snapshot of all instruments.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PriceJsonCacheBenchmark {
+
+    @Param({"6", "1000"})
+    public int instrumentCount;
+
+    private final Price price = new Price(UUID.randomUUID(), null, 1.0, 1.1, 0);
+    private LatestPriceStore store;
+    private PriceJsonCache cache;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        String[] instrumentNames = BenchmarkData.instrumentNames(instrumentCount);
+        store = new LatestPriceStore(new InstrumentRegistry(instrumentNames));
+        cache = new PriceJsonCache(store);
+        for (int instrumentId = 0; instrumentId < instrumentCount; instrumentId++) {
+            price.setInstrumentName(instrumentNames[instrumentId]);
+            store.update(instrumentId, price);
+        }
+    }
+
+    @Benchmark
+    public byte[] cachedPrice() {
+        index = index + 1 == instrumentCount ? 0 : index + 1;
+        return cache.getLatestPrice(index);
+    }
+
+    @Benchmark
+    public byte[] changedPrice() {
+        index = index + 1 == instrumentCount ? 0 : index + 1;
+        price.setTimestamp(price.getTimestamp() + 1);
+        store.update(index, price);
+        return cache.getLatestPrice(index);
+    }
+
+    @Benchmark
+    public byte[] cachedSnapshot() {
+        return cache.getSnapshot();
+    }
+}
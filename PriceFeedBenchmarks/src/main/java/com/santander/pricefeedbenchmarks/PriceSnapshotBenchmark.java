@@ -0,0 +1,92 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.store.PriceChanges;
+import com.santander.pricefeedclient.store.PriceSnapshot;
+import com.santander.pricefeedclient.store.PriceSnapshotPublisher;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the snapshot reads of a lazy {@link PriceSnapshotPublisher}: an unchanged read, which returns the published
+ * snapshot, an unchanged read of all the prices, which returns the map built with the snapshot, a read after a single update, which rebuilds the snapshot around the changed price, the delta since the
+ * previous version, and the full copy of {@link LatestPriceStore#snapshot()} for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PriceSnapshotBenchmark {
+
+    @Param({"6", "1000"})
+    public int instrumentCount;
+
+    private final Price price = new Price(UUID.randomUUID(), null, 1.0, 1.1, 0);
+    private LatestPriceStore store;
+    private PriceSnapshotPublisher publisher;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        String[] instrumentNames = BenchmarkData.instrumentNames(instrumentCount);
+        store = new LatestPriceStore(new InstrumentRegistry(instrumentNames));
+        for (String instrumentName : instrumentNames) {
+            store.update(new Price(UUID.randomUUID(), instrumentName, 1.0, 1.1, 0));
+        }
+        publisher = new PriceSnapshotPublisher(store, PriceSnapshotPublisher.LAZY);
+        publisher.markDirty();
+        publisher.getSnapshot();
+    }
+
+    @Benchmark
+    public PriceSnapshot unchangedRead() {
+        return publisher.getSnapshot();
+    }
+
+    @Benchmark
+    public Map<String, Price> unchangedPricesRead() {
+        return publisher.getSnapshot().getPrices();
+    }
+
+    @Benchmark
+    public PriceSnapshot readAfterUpdate() {
+        update();
+        return publisher.getSnapshot();
+    }
+
+    @Benchmark
+    public PriceChanges changesAfterUpdate() {
+        PriceSnapshot snapshot = publisher.getSnapshot();
+        update();
+        return publisher.getSnapshot().changesSince(snapshot.getEpoch(), snapshot.getVersion());
+    }
+
+    @Benchmark
+    public Map<String, Price> storeCopy() {
+        return store.snapshot();
+    }
+
+    private void update() {
+        index = index + 1 == instrumentCount ? 0 : index + 1;
+        price.setTimestamp(price.getTimestamp() + 1);
+        store.update(index, price);
+        publisher.markDirty();
+    }
+}
@@ -0,0 +1,130 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures concurrent latest-price reads while a writer keeps publishing ticks, comparing the
+ * {@link LatestPriceStore} with the {@link ConcurrentHashMap} of new {@link Price} instances it replaced.
+ * Every group runs one writer thread and three reader threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class SnapshotReadBenchmark {
+
+    @Param({"6", "1000", "10000"})
+    public int instrumentCount;
+
+    private String[] instrumentNames;
+    private LatestPriceStore store;
+    private Map<String, Price> map;
+
+    @Setup
+    public void setUp() {
+        instrumentNames = BenchmarkData.instrumentNames(instrumentCount);
+        store = new LatestPriceStore(new InstrumentRegistry(instrumentNames));
+        map = new ConcurrentHashMap<>();
+        for (String instrumentName : instrumentNames) {
+            Price price = new Price(UUID.randomUUID(), instrumentName, 1.0, 1.1, 0);
+            store.update(price);
+            map.put(instrumentName, price);
+        }
+    }
+
+    /**
+     * The per-thread cursor over the instruments and the scratch instances.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private final Price price = new Price(UUID.randomUUID(), null, 1.0, 1.1, 0);
+        private int index;
+
+        private int next(int instrumentCount) {
+            index = index + 1 == instrumentCount ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    @Benchmark
+    @Group("store")
+    @GroupThreads(1)
+    public void storeWrite(Cursor cursor) {
+        int instrumentId = cursor.next(instrumentCount);
+        cursor.price.setTimestamp(cursor.price.getTimestamp() + 1);
+        store.update(instrumentId, cursor.price);
+    }
+
+    @Benchmark
+    @Group("store")
+    @GroupThreads(3)
+    public Price storeReadById(Cursor cursor) {
+        store.getLatestPrice(cursor.next(instrumentCount), cursor.price);
+        return cursor.price;
+    }
+
+    @Benchmark
+    @Group("storeByName")
+    @GroupThreads(1)
+    public void storeByNameWrite(Cursor cursor) {
+        storeWrite(cursor);
+    }
+
+    @Benchmark
+    @Group("storeByName")
+    @GroupThreads(3)
+    public Price storeReadByName(Cursor cursor) {
+        return store.getLatestPrice(instrumentNames[cursor.next(instrumentCount)]);
+    }
+
+    @Benchmark
+    @Group("map")
+    @GroupThreads(1)
+    public void mapWrite(Cursor cursor) {
+        String instrumentName = instrumentNames[cursor.next(instrumentCount)];
+        map.put(instrumentName, new Price(UUID.randomUUID(), instrumentName, 1.0, 1.1, System.nanoTime()));
+    }
+
+    @Benchmark
+    @Group("map")
+    @GroupThreads(3)
+    public Price mapRead(Cursor cursor) {
+        return map.get(instrumentNames[cursor.next(instrumentCount)]);
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(1)
+    public void snapshotWrite(Cursor cursor) {
+        storeWrite(cursor);
+    }
+
+    @Benchmark
+    @Group("snapshot")
+    @GroupThreads(1)
+    public Map<String, Price> snapshotRead() {
+        return store.snapshot();
+    }
+}
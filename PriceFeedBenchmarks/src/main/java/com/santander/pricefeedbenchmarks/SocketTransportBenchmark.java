@@ -0,0 +1,83 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.transport.FrameHandler;
+import com.santander.pricefeedclient.transport.FrameReader;
+import com.santander.pricefeedsource.PriceFeedGenerator;
+import com.santander.pricefeedsource.PriceFeedServer;
+import com.santander.pricefeedsource.PriceFeedSource;
+import com.santander.pricefeedsource.WireFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of the socket transport over the loopback interface: a {@link PriceFeedServer} publishes
+ * an unthrottled feed, and a {@link FrameReader} hands the messages to the benchmark as views of its pooled buffers.
+ * The time per message covers generating, framing, sending, receiving and decoding the frame.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SocketTransportBenchmark {
+
+    private static final int FRAMES_PER_INVOCATION = 1000;
+
+    @Param({"CSV", "BINARY"})
+    public WireFormat wireFormat;
+
+    private PriceFeedServer server;
+    private FrameReader reader;
+    private FrameHandler handler;
+    private long[] receivedBytes;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws IOException {
+        server = new PriceFeedServer(new PriceFeedGenerator(42, 1000), wireFormat, PriceFeedSource.UNBOUNDED,
+                PriceFeedSource.UNTHROTTLED);
+        InetSocketAddress address = server.bindTcp(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        reader = FrameReader.open(URI.create("tcp://" + address.getAddress().getHostAddress() + ":"
+                + address.getPort()), null, 1 << 20, 8, () -> () -> true);
+        receivedBytes = new long[1];
+        handler = (sequence, message) -> {
+            receivedBytes[0] += message.remaining();
+            blackhole.consume(message);
+        };
+        server.start();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        reader.close();
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES_PER_INVOCATION)
+    public long receive() throws IOException {
+        long target = reader.getReceivedFrames() + FRAMES_PER_INVOCATION;
+        while (reader.getReceivedFrames() < target) {
+            reader.read(handler);
+        }
+        return receivedBytes[0];
+    }
+}
@@ -0,0 +1,80 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.util.ThreadMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to run a burst of blocking tasks, like slow HTTP clients or feed subscriptions waiting for data,
+ * on the executors of each {@link ThreadMode}: a fixed pool of platform threads, or a virtual thread per task.
+ * The virtual mode requires Java 21 or later and fails its setup otherwise, e.g. run it with:
+ *
+ *     java -jar PriceFeedBenchmarks/target/benchmarks.jar ThreadModeBenchmark -p threadMode=PLATFORM
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ThreadModeBenchmark {
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ThreadMode threadMode;
+
+    @Param({"1000"})
+    public int taskCount;
+
+    @Param({"32"})
+    public int platformThreads;
+
+    @Param({"1"})
+    public long blockingMillis;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setUp() {
+        if (!threadMode.isSupported()) {
+            throw new IllegalStateException(threadMode + " threads are not supported on Java "
+                    + System.getProperty("java.version"));
+        }
+        executor = threadMode.newExecutor("benchmark-", platformThreads);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void blockingTasks() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(blockingMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+        done.await();
+    }
+}
@@ -0,0 +1,81 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.history.TickHistory;
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of appending a tick to the off-heap {@link TickHistory}, and of visiting the ticks of the latest
+ * second of an instrument, found by binary search, with full rings and a tick per instrument every millisecond.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TickHistoryBenchmark {
+
+    private static final int TICK_COUNT = 1 << 16;
+
+    @Param({"100"})
+    public int instrumentCount;
+
+    @Param({"10000"})
+    public int capacity;
+
+    private String[] instrumentNames;
+    private TickHistory tickHistory;
+    private Price[] ticks;
+    private int[] instrumentIds;
+    private long appended;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        instrumentNames = BenchmarkData.instrumentNames(instrumentCount);
+        tickHistory = new TickHistory(new InstrumentRegistry(instrumentNames), capacity);
+        SplittableRandom random = new SplittableRandom(42);
+        ticks = new Price[TICK_COUNT];
+        instrumentIds = new int[TICK_COUNT];
+        for (int i = 0; i < TICK_COUNT; i++) {
+            instrumentIds[i] = random.nextInt(instrumentCount);
+            double mid = 1.0 + random.nextDouble() * 0.01;
+            ticks[i] = new Price(null, instrumentNames[instrumentIds[i]], mid - 0.0001, mid + 0.0001, 0);
+        }
+        for (int i = 0; i < instrumentCount * capacity; i++) {
+            append();
+        }
+    }
+
+    @Benchmark
+    public void append() {
+        index = (index + 1) & (TICK_COUNT - 1);
+        Price tick = ticks[index];
+        tick.setTimestamp(++appended / instrumentCount);
+        tickHistory.update(instrumentIds[index], tick);
+    }
+
+    @Benchmark
+    public int latestSecond(Blackhole blackhole) {
+        index = (index + 1) & (TICK_COUNT - 1);
+        long now = appended / instrumentCount;
+        return tickHistory.getTicks(instrumentNames[instrumentIds[index]], now - 1000, now + 1,
+                (tickTimestamp, bid, ask) -> blackhole.consume(bid));
+    }
+}
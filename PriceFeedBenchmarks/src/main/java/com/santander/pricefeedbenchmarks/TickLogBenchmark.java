@@ -0,0 +1,81 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.log.AsyncTickLog;
+import com.santander.pricefeedclient.log.TickLog;
+import com.santander.pricefeedclient.log.TickLogLevel;
+import com.santander.pricefeedclient.model.Price;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost the tick log adds to the ingestion thread for every tick, compared with the
+ * {@code System.out.printf} calls it replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TickLogBenchmark {
+
+    @Param({"off", "info", "info-sampled"})
+    public String tickLog;
+
+    private TickLog log;
+    private PrintStream printStream;
+    private Price price;
+
+    @Setup
+    public void setUp() {
+        switch (tickLog) {
+            case "off":
+                log = TickLog.NO_OP;
+                break;
+            case "info":
+                log = new AsyncTickLog(TickLogLevel.INFO, 1, 1 << 16, OutputStream.nullOutputStream());
+                break;
+            case "info-sampled":
+                log = new AsyncTickLog(TickLogLevel.INFO, 100, 1 << 16, OutputStream.nullOutputStream());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown tick log: " + tickLog);
+        }
+        printStream = new PrintStream(OutputStream.nullOutputStream());
+        price = new Price(UUID.randomUUID(), "EUR/USD", 1.0812, 1.0815, System.currentTimeMillis());
+    }
+
+    @TearDown
+    public void tearDown() {
+        log.close();
+    }
+
+    @Benchmark
+    public Price logTick() {
+        if (log.isEnabled(TickLogLevel.INFO)) {
+            log.log(TickLogLevel.INFO, "margin.output", price);
+        }
+        return price;
+    }
+
+    @Benchmark
+    public Price printfTick() {
+        printStream.printf("AFTER ADDING THE MARGIN: bid: %1$s, ask: %2$s%n", price.getBid(), price.getAsk());
+        return price;
+    }
+}
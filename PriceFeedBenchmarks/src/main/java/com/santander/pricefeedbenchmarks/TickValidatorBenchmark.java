@@ -0,0 +1,97 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.model.PriceBatch;
+import com.santander.pricefeedclient.util.FastPriceDeserializer;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import com.santander.pricefeedclient.validation.TickQuarantine;
+import com.santander.pricefeedclient.validation.TickValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the validation of a tick by {@link TickValidator}, accepted or quarantined as crossed, and the cost of a
+ * truncated line handed to {@link FastPriceDeserializer#deserializeAll}, which counts it without throwing, compared
+ * with catching the exception thrown for it by {@link FastPriceDeserializer#deserialize(String, Price)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TickValidatorBenchmark {
+
+    private static final String TRUNCATED_LINE = "fc754b5f-1af9-4559-b90e-62a0cc2b0f96,EUR/USD,1.1";
+
+    @Param({"100"})
+    public int instrumentCount;
+
+    private TickValidator validator;
+    private FastPriceDeserializer deserializer;
+    private final PriceBatch batch = new PriceBatch();
+    private final Price scratch = new Price();
+    private Price[] ticks;
+    private Price[] crossedTicks;
+    private long timestamp;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        String[] instrumentNames = BenchmarkData.instrumentNames(instrumentCount);
+        InstrumentRegistry instrumentRegistry = new InstrumentRegistry(instrumentNames);
+        validator = new TickValidator(new TickQuarantine(64), 0);
+        deserializer = new FastPriceDeserializer(instrumentRegistry);
+        ticks = new Price[instrumentCount];
+        crossedTicks = new Price[instrumentCount];
+        for (int i = 0; i < instrumentCount; i++) {
+            ticks[i] = new Price(UUID.randomUUID(), instrumentNames[i], 1.1, 1.2, 0);
+            ticks[i].setInstrument(i, instrumentNames[i]);
+            crossedTicks[i] = new Price(UUID.randomUUID(), instrumentNames[i], 1.3, 1.2, 0);
+            crossedTicks[i].setInstrument(i, instrumentNames[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean accept() {
+        index = index + 1 == instrumentCount ? 0 : index + 1;
+        Price tick = ticks[index];
+        tick.setTimestamp(++timestamp);
+        return validator.validate(tick);
+    }
+
+    @Benchmark
+    public boolean quarantine() {
+        index = index + 1 == instrumentCount ? 0 : index + 1;
+        return validator.validate(crossedTicks[index]);
+    }
+
+    @Benchmark
+    public int truncatedLine() {
+        int invalidLines = deserializer.deserializeAll(TRUNCATED_LINE, batch);
+        batch.clear();
+        return invalidLines;
+    }
+
+    @Benchmark
+    public int truncatedLineThrowing() {
+        try {
+            deserializer.deserialize(TRUNCATED_LINE, scratch);
+            return 0;
+        } catch (IllegalArgumentException e) {
+            return 1;
+        }
+    }
+}
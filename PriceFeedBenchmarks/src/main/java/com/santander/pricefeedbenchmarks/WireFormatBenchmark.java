@@ -0,0 +1,109 @@
+package com.santander.pricefeedbenchmarks;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.BinaryPriceDeserializer;
+import com.santander.pricefeedclient.util.FastPriceDeserializer;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import com.santander.pricefeedclient.util.PriceDeserializer;
+import com.santander.pricefeedclient.util.PriceDeserializerImpl;
+import com.santander.pricefeedsource.BinaryPriceFormat;
+import com.santander.pricefeedsource.PriceFeedGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of encoding and decoding a price tick in the CSV and the binary wire formats, using the
+ * {@link PriceFeedGenerator} on the source side and the matching deserializers on the client side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WireFormatBenchmark {
+
+    private static final int INPUT_COUNT = 4096;
+
+    @Param({"6", "10000"})
+    public int instrumentCount;
+
+    private PriceFeedGenerator csvGenerator;
+    private PriceFeedGenerator binaryGenerator;
+    private StringBuilder csvMessage;
+    private ByteBuffer binaryMessage;
+    private PriceDeserializer splitDeserializer;
+    private PriceDeserializer fastDeserializer;
+    private BinaryPriceDeserializer binaryDeserializer;
+    private String[] lines;
+    private ByteBuffer[] records;
+    private Price target;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        csvGenerator = new PriceFeedGenerator(42, instrumentCount, 1, System::currentTimeMillis);
+        binaryGenerator = new PriceFeedGenerator(42, instrumentCount, 1, System::currentTimeMillis);
+        csvMessage = new StringBuilder();
+        binaryMessage = ByteBuffer.allocate(BinaryPriceFormat.RECORD_SIZE);
+        String[] instruments = csvGenerator.getInstruments();
+        splitDeserializer = new PriceDeserializerImpl();
+        fastDeserializer = new FastPriceDeserializer(new InstrumentRegistry(instruments));
+        binaryDeserializer = new BinaryPriceDeserializer(instruments, new InstrumentRegistry(instruments));
+        PriceFeedGenerator csvInput = new PriceFeedGenerator(7, instrumentCount, 1, System::currentTimeMillis);
+        PriceFeedGenerator binaryInput = new PriceFeedGenerator(7, instrumentCount, 1, System::currentTimeMillis);
+        lines = new String[INPUT_COUNT];
+        records = new ByteBuffer[INPUT_COUNT];
+        for (int i = 0; i < INPUT_COUNT; i++) {
+            String message = csvInput.nextMessage();
+            lines[i] = message.substring(0, message.length() - 1);
+            records[i] = binaryInput.nextBinaryMessage();
+        }
+        target = new Price();
+    }
+
+    @Benchmark
+    public StringBuilder encodeCsv() {
+        csvMessage.setLength(0);
+        return csvGenerator.appendMessage(csvMessage);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeBinary() {
+        binaryMessage.clear();
+        binaryGenerator.writeBinaryMessage(binaryMessage);
+        return binaryMessage;
+    }
+
+    @Benchmark
+    public Price decodeCsvSplit() {
+        return splitDeserializer.deserialize(lines[next()], target);
+    }
+
+    @Benchmark
+    public Price decodeCsvFast() {
+        return fastDeserializer.deserialize(lines[next()], target);
+    }
+
+    @Benchmark
+    public Price decodeBinary() {
+        return binaryDeserializer.deserialize(records[next()], target);
+    }
+
+    private int next() {
+        index = (index + 1) & (INPUT_COUNT - 1);
+        return index;
+    }
+}
@@ -0,0 +1,25 @@
+import com.santander.pricefeedbenchmarks.LoadTest;
+import com.santander.pricefeedbenchmarks.LoadTestConfig;
+import com.santander.pricefeedbenchmarks.LoadTestReport;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs the end-to-end load test, only with the load-test profile, which sets the thresholds: mvn -Pload-test install
+ */
+public class EndToEndLoadTest {
+
+    @Test
+    public void testSustainsTheLoadWithinTheThresholds() throws Exception {
+        assumeTrue(Boolean.getBoolean("loadtest.enabled"));
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        LoadTestReport report = LoadTest.run(config);
+        assertTrue(report.toString(), report.getIngestedTicks() > 0);
+        assertTrue(report.toString(), report.getReads() > 0);
+        assertEquals(report.toString(), Collections.emptyList(), report.violations(config));
+    }
+}
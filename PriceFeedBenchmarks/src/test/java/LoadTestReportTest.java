@@ -0,0 +1,62 @@
+import com.santander.pricefeedbenchmarks.LoadTestConfig;
+import com.santander.pricefeedbenchmarks.LoadTestReport;
+import com.santander.pricefeedclient.metrics.LatencyHistogram;
+import com.santander.pricefeedclient.metrics.LatencySnapshot;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class LoadTestReportTest {
+
+    @Test
+    public void testComputesRatesOverTheMeasurementWindow() {
+        LoadTestReport report = report(2, 5);
+        assertEquals(50_000, report.getTicksPerSecond(), 1e-9);
+        assertEquals(40_000, report.getPublishedPerSecond(), 1e-9);
+        assertEquals(1_000_000, report.getReadsPerSecond(), 1e-9);
+        assertEquals(5_000_000, report.getAllocatedBytesPerSecond(), 1e-9);
+        assertEquals(20, report.getAllocatedBytesPerTick(), 1e-9);
+        assertEquals(2, report.getLatency().getP99());
+    }
+
+    @Test
+    public void testThresholdsAreNotCheckedByDefault() {
+        assertTrue(report(1_000, 1_000).violations(new LoadTestConfig()).isEmpty());
+    }
+
+    @Test
+    public void testReportsEveryExceededThreshold() {
+        LoadTestConfig config = new LoadTestConfig();
+        config.setMinTicksPerSecond(60_000);
+        config.setMaxP99LatencyMillis(10);
+        config.setMaxAllocatedBytesPerTick(16);
+        config.setMaxGcPauseMillis(50);
+        assertEquals(2, report(10, 50).violations(config).size());
+        List<String> violations = report(11, 51).violations(config);
+        assertEquals(4, violations.size());
+        assertTrue(violations.get(0).contains("50000 ticks/s"));
+        assertTrue(violations.get(1).contains("p99 latency of 11 ms"));
+    }
+
+    @Test
+    public void testUnknownAllocationsAreNotChecked() {
+        LoadTestConfig config = new LoadTestConfig();
+        config.setMaxAllocatedBytesPerTick(1);
+        LoadTestReport report = new LoadTestReport(TimeUnit.SECONDS.toNanos(1), 100, 100, 0,
+                LatencySnapshot.merge(), -1, -1, 0, 0, 0);
+        assertEquals(-1, report.getAllocatedBytesPerTick(), 1e-9);
+        assertTrue(report.violations(config).isEmpty());
+    }
+
+    private static LoadTestReport report(long latencyMillis, long maxGcPauseMillis) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 100; i++) {
+            histogram.record(latencyMillis);
+        }
+        return new LoadTestReport(TimeUnit.SECONDS.toNanos(2), 100_000, 80_000, 2_000_000,
+                LatencySnapshot.merge(histogram), 10_000_000, 2_000_000, 3, maxGcPauseMillis, maxGcPauseMillis);
+    }
+}
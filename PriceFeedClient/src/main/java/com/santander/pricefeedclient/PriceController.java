@@ -3,17 +3,25 @@ package com.santander.pricefeedclient;
 import com.santander.pricefeedclient.model.Price;
 import com.santander.pricefeedclient.service.PriceFeedService;
 import com.santander.pricefeedclient.util.PriceDeserializer;
-import com.santander.pricefeedclient.util.PriceDeserializerImpl;
+import com.santander.pricefeedclient.util.PriceDeserializers;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.TimeoutException;
 
 public class PriceController {
     private static PriceFeedService service;
     private static final String INSTRUMENT_NAME = "EUR/USD";
+    private static final Duration INSTRUMENT_TIMEOUT = Duration.ofSeconds(1);
 
-    // emulating of the endpoint which returns the LatestPrice far call for one provided instrument(EUR/USD)
-    public static Price getLatestPrice(String instrumentName) {
-        return service.getLatestPrice(instrumentName);
+    // emulating of the endpoint which returns the LatestPrice far call for one provided instrument(EUR/USD),
+    // waiting for its first price if the feed did not publish it yet
+    public static Price getLatestPrice(String instrumentName) throws InterruptedException {
+        try {
+            return service.awaitInstrument(instrumentName, INSTRUMENT_TIMEOUT);
+        } catch (TimeoutException | IllegalArgumentException e) {
+            return null;
+        }
     }
 
     // emulating of the endpoint which returns the PriceFeed for all instruments
@@ -23,9 +31,17 @@ public class PriceController {
 
     // here we emulate HTTP call to rest controller
     public static void main(String[] args) throws InterruptedException {
-        PriceDeserializer priceDeserializer = new PriceDeserializerImpl();
+        PriceDeserializer priceDeserializer = PriceDeserializers.fromSystemProperties();
         service = new PriceFeedService(priceDeserializer);
+        service.start().join();
         System.out.println(getLatestPrice(INSTRUMENT_NAME));
         System.out.println(getLatestPriceFeedSnapshot());
+        if (service.getHttpAddress() != null || service.getStreamAddress() != null) {
+            // the real endpoints are enabled: serve them until the process is terminated
+            System.out.println("Serving prices on " + service.getHttpAddress() + ", streaming on "
+                    + service.getStreamAddress());
+            Thread.currentThread().join();
+        }
+        service.stop();
     }
 }
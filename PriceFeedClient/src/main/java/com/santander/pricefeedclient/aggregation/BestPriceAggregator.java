@@ -0,0 +1,368 @@
+package com.santander.pricefeedclient.aggregation;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Composes the quotes of several venues into the best bid and best offer of every instrument.
+ * <p>
+ * The latest quote of every venue is kept in a row per instrument, indexed by venue, along with the venues currently
+ * holding the best bid and the best ask. A quote only compares with the current best of its instrument: the row is
+ * rescanned when the best venue itself worsens its quote or its quote went stale, never on every tick. Whenever the
+ * best bid or best ask of an instrument changes, the listener receives the composite price, with the best bid and
+ * best ask and the timestamp of the newest of both quotes.
+ * <p>
+ * A quote is stale once older than the maximum quote age, compared with the clock. Stale quotes are ignored when
+ * looking for the best venue, and {@link #expireStaleQuotes()} sweeps the best quotes of all instruments at most every
+ * half of that age, so that an instrument whose best venue stopped quoting falls back to the other venues. While a
+ * side of an instrument has no live quote, the instrument has no best price and nothing is published.
+ * <p>
+ * Venues may be updated from different threads: the row of an instrument is locked while it is updated and while the
+ * listener runs, so the listener sees the composite prices of an instrument one at a time and in order.
+ */
+public class BestPriceAggregator {
+
+    /**
+     * The venue of a side without a live quote.
+     */
+    public static final int NO_VENUE = -1;
+
+    private final InstrumentRegistry instrumentRegistry;
+    private final int venueCount;
+    private final long maxQuoteAgeMillis;
+    private final LongSupplier clock;
+    private final Consumer<Price> listener;
+    private final ThreadLocal<Price> scratch = ThreadLocal.withInitial(Price::new);
+    private final AtomicLong nextSweepMillis = new AtomicLong(Long.MIN_VALUE);
+    private volatile Row[] rows = new Row[0];
+
+    /**
+     * Creates a new aggregator, without any quote, using the system clock.
+     *
+     * @param instrumentRegistry the registry of the instruments, whose ids index the quotes
+     * @param venueCount the number of venues
+     * @param maxQuoteAgeMillis the age from which a quote is stale, in milliseconds
+     * @param listener the receiver of the composite prices, which must not retain them
+     */
+    public BestPriceAggregator(InstrumentRegistry instrumentRegistry, int venueCount, long maxQuoteAgeMillis,
+                               Consumer<Price> listener) {
+        this(instrumentRegistry, venueCount, maxQuoteAgeMillis, System::currentTimeMillis, listener);
+    }
+
+    /**
+     * Creates a new aggregator, without any quote.
+     *
+     * @param instrumentRegistry the registry of the instruments, whose ids index the quotes
+     * @param venueCount the number of venues
+     * @param maxQuoteAgeMillis the age from which a quote is stale, in milliseconds
+     * @param clock the source of the current time, in milliseconds
+     * @param listener the receiver of the composite prices, which must not retain them
+     */
+    public BestPriceAggregator(InstrumentRegistry instrumentRegistry, int venueCount, long maxQuoteAgeMillis,
+                               LongSupplier clock, Consumer<Price> listener) {
+        if (venueCount <= 0) {
+            throw new IllegalArgumentException("Venue count must be positive: " + venueCount);
+        }
+        if (maxQuoteAgeMillis <= 0) {
+            throw new IllegalArgumentException("Maximum quote age must be positive: " + maxQuoteAgeMillis);
+        }
+        this.instrumentRegistry = instrumentRegistry;
+        this.venueCount = venueCount;
+        this.maxQuoteAgeMillis = maxQuoteAgeMillis;
+        this.clock = clock;
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the number of venues.
+     *
+     * @return the number of venues
+     */
+    public int getVenueCount() {
+        return venueCount;
+    }
+
+    /**
+     * Records the latest quote of a venue and publishes the composite price of its instrument if its best bid or best
+     * ask changed.
+     *
+     * @param venue the index of the venue, in {@code [0, getVenueCount())}
+     * @param quote the quote, which is not retained, whose instrument id is resolved in the registry
+     * @return true if the best bid or best ask of the instrument changed, and false otherwise
+     */
+    public boolean update(int venue, Price quote) {
+        if (venue < 0 || venue >= venueCount) {
+            throw new IndexOutOfBoundsException("Venue " + venue + " out of " + venueCount + " venues");
+        }
+        int instrumentId = quote.getInstrumentId();
+        if (instrumentId == InstrumentRegistry.UNKNOWN_ID) {
+            throw new IllegalArgumentException("Unresolved instrument: " + quote.getInstrumentName());
+        }
+        Row row = row(instrumentId);
+        synchronized (row) {
+            double bestBid = row.bestBid();
+            double bestAsk = row.bestAsk();
+            long staleBefore = clock.getAsLong() - maxQuoteAgeMillis;
+            row.bids[venue] = quote.getBid();
+            row.asks[venue] = quote.getAsk();
+            row.timestamps[venue] = quote.getTimestamp();
+            if (quote.getTimestamp() < staleBefore) {
+                // a late quote may still replace the previous quote of its venue, but never becomes the best
+                row.expire(venue);
+            }
+            row.updateBestBid(venue, bestBid, staleBefore);
+            row.updateBestAsk(venue, bestAsk, staleBefore);
+            return publishIfChanged(row, instrumentId, quote, bestBid, bestAsk);
+        }
+    }
+
+    /**
+     * Drops the best quotes which went stale and publishes the composite prices of their instruments which still have
+     * a best price, if the previous sweep is older than half the maximum quote age. Any thread may call this method
+     * as often as it likes: the sweep runs in at most one thread at a time.
+     *
+     * @return the number of expired quotes, 0 if no sweep was due
+     */
+    public int expireStaleQuotes() {
+        long now = clock.getAsLong();
+        long nextSweep = nextSweepMillis.get();
+        if (now < nextSweep || !nextSweepMillis.compareAndSet(nextSweep, now + Math.max(1, maxQuoteAgeMillis / 2))) {
+            return 0;
+        }
+        long staleBefore = now - maxQuoteAgeMillis;
+        int expired = 0;
+        Row[] current = rows;
+        for (int instrumentId = 0; instrumentId < current.length; instrumentId++) {
+            Row row = current[instrumentId];
+            if (row == null) {
+                continue;
+            }
+            synchronized (row) {
+                if (!row.isStale(row.bestBidVenue, staleBefore) && !row.isStale(row.bestAskVenue, staleBefore)) {
+                    continue;
+                }
+                double bestBid = row.bestBid();
+                double bestAsk = row.bestAsk();
+                for (int venue = 0; venue < venueCount; venue++) {
+                    if (row.isStale(venue, staleBefore)) {
+                        row.expire(venue);
+                        expired++;
+                    }
+                }
+                row.bestBidVenue = row.scanBestBid(staleBefore);
+                row.bestAskVenue = row.scanBestAsk(staleBefore);
+                publishIfChanged(row, instrumentId, null, bestBid, bestAsk);
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Copies the best price of the given instrument into the given price.
+     *
+     * @param instrumentName the name of the instrument
+     * @param target the price receiving the best bid and best ask
+     * @return the given target, or null if a side of the instrument has no live quote
+     */
+    public Price getBestPrice(String instrumentName, Price target) {
+        int instrumentId = instrumentRegistry.idOf(instrumentName);
+        Row[] current = rows;
+        if (instrumentId == InstrumentRegistry.UNKNOWN_ID || instrumentId >= current.length
+                || current[instrumentId] == null) {
+            return null;
+        }
+        Row row = current[instrumentId];
+        synchronized (row) {
+            return row.hasBestPrice() ? row.copyBestPrice(instrumentId, instrumentName, null, target) : null;
+        }
+    }
+
+    /**
+     * Gets the venue holding the best bid of the given instrument.
+     *
+     * @param instrumentName the name of the instrument
+     * @return the index of the venue, or {@link #NO_VENUE} if no venue has a live bid
+     */
+    public int getBestBidVenue(String instrumentName) {
+        Row row = existingRow(instrumentName);
+        if (row == null) {
+            return NO_VENUE;
+        }
+        synchronized (row) {
+            return row.bestBidVenue;
+        }
+    }
+
+    /**
+     * Gets the venue holding the best ask of the given instrument.
+     *
+     * @param instrumentName the name of the instrument
+     * @return the index of the venue, or {@link #NO_VENUE} if no venue has a live ask
+     */
+    public int getBestAskVenue(String instrumentName) {
+        Row row = existingRow(instrumentName);
+        if (row == null) {
+            return NO_VENUE;
+        }
+        synchronized (row) {
+            return row.bestAskVenue;
+        }
+    }
+
+    private boolean publishIfChanged(Row row, int instrumentId, Price quote, double bestBid, double bestAsk) {
+        if (Double.compare(bestBid, row.bestBid()) == 0 && Double.compare(bestAsk, row.bestAsk()) == 0) {
+            return false;
+        }
+        if (row.hasBestPrice()) {
+            listener.accept(row.copyBestPrice(instrumentId, instrumentRegistry.nameOf(instrumentId), quote,
+                    scratch.get()));
+        }
+        return true;
+    }
+
+    private Row existingRow(String instrumentName) {
+        int instrumentId = instrumentRegistry.idOf(instrumentName);
+        Row[] current = rows;
+        return instrumentId == InstrumentRegistry.UNKNOWN_ID || instrumentId >= current.length ? null
+                : current[instrumentId];
+    }
+
+    private Row row(int instrumentId) {
+        Row[] current = rows;
+        Row row = instrumentId < current.length ? current[instrumentId] : null;
+        return row != null ? row : createRow(instrumentId);
+    }
+
+    private synchronized Row createRow(int instrumentId) {
+        Row[] current = rows;
+        if (instrumentId >= current.length) {
+            current = Arrays.copyOf(current, Math.max(instrumentId + 1, Math.max(16, current.length * 2)));
+        } else if (current[instrumentId] != null) {
+            return current[instrumentId];
+        } else {
+            current = current.clone();
+        }
+        Row row = new Row(venueCount);
+        current[instrumentId] = row;
+        rows = current;
+        return row;
+    }
+
+    /**
+     * The latest quote of every venue for an instrument, and the venues holding its best bid and best ask. Expired
+     * quotes have NaN prices.
+     */
+    private static final class Row {
+        private final double[] bids;
+        private final double[] asks;
+        private final long[] timestamps;
+        private int bestBidVenue = NO_VENUE;
+        private int bestAskVenue = NO_VENUE;
+
+        private Row(int venueCount) {
+            this.bids = new double[venueCount];
+            this.asks = new double[venueCount];
+            this.timestamps = new long[venueCount];
+            Arrays.fill(bids, Double.NaN);
+            Arrays.fill(asks, Double.NaN);
+        }
+
+        private double bestBid() {
+            return bestBidVenue == NO_VENUE ? Double.NaN : bids[bestBidVenue];
+        }
+
+        private double bestAsk() {
+            return bestAskVenue == NO_VENUE ? Double.NaN : asks[bestAskVenue];
+        }
+
+        private boolean hasBestPrice() {
+            return bestBidVenue != NO_VENUE && bestAskVenue != NO_VENUE;
+        }
+
+        private boolean isStale(int venue, long staleBefore) {
+            return venue != NO_VENUE && !Double.isNaN(bids[venue] + asks[venue]) && timestamps[venue] < staleBefore;
+        }
+
+        private void expire(int venue) {
+            bids[venue] = Double.NaN;
+            asks[venue] = Double.NaN;
+        }
+
+        /**
+         * Updates the best bid after the quote of the given venue changed, given the best bid before the change.
+         */
+        private void updateBestBid(int venue, double previousBestBid, long staleBefore) {
+            double bid = bids[venue];
+            if (venue == bestBidVenue) {
+                // only a worse or expired bid may fall below another venue, written so that NaN rescans
+                if (!(bid >= previousBestBid)) {
+                    bestBidVenue = scanBestBid(staleBefore);
+                }
+            } else if (!Double.isNaN(bid)) {
+                if (bestBidVenue == NO_VENUE || isStale(bestBidVenue, staleBefore)) {
+                    bestBidVenue = scanBestBid(staleBefore);
+                } else if (bid > bids[bestBidVenue]) {
+                    bestBidVenue = venue;
+                }
+            }
+        }
+
+        /**
+         * Updates the best ask after the quote of the given venue changed, given the best ask before the change.
+         */
+        private void updateBestAsk(int venue, double previousBestAsk, long staleBefore) {
+            double ask = asks[venue];
+            if (venue == bestAskVenue) {
+                if (!(ask <= previousBestAsk)) {
+                    bestAskVenue = scanBestAsk(staleBefore);
+                }
+            } else if (!Double.isNaN(ask)) {
+                if (bestAskVenue == NO_VENUE || isStale(bestAskVenue, staleBefore)) {
+                    bestAskVenue = scanBestAsk(staleBefore);
+                } else if (ask < asks[bestAskVenue]) {
+                    bestAskVenue = venue;
+                }
+            }
+        }
+
+        private int scanBestBid(long staleBefore) {
+            int best = NO_VENUE;
+            for (int venue = 0; venue < bids.length; venue++) {
+                if (!Double.isNaN(bids[venue]) && timestamps[venue] >= staleBefore
+                        && (best == NO_VENUE || bids[venue] > bids[best])) {
+                    best = venue;
+                }
+            }
+            return best;
+        }
+
+        private int scanBestAsk(long staleBefore) {
+            int best = NO_VENUE;
+            for (int venue = 0; venue < asks.length; venue++) {
+                if (!Double.isNaN(asks[venue]) && timestamps[venue] >= staleBefore
+                        && (best == NO_VENUE || asks[venue] < asks[best])) {
+                    best = venue;
+                }
+            }
+            return best;
+        }
+
+        private Price copyBestPrice(int instrumentId, String instrumentName, Price quote, Price target) {
+            if (quote != null && quote.hasId()) {
+                target.setId(quote.getIdMostSignificantBits(), quote.getIdLeastSignificantBits());
+            } else {
+                target.setId(null);
+            }
+            target.setInstrument(instrumentId, instrumentName);
+            target.setBid(bids[bestBidVenue]);
+            target.setAsk(asks[bestAskVenue]);
+            target.setTimestamp(Math.max(timestamps[bestBidVenue], timestamps[bestAskVenue]));
+            return target;
+        }
+    }
+}
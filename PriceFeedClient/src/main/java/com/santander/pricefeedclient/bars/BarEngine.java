@@ -0,0 +1,242 @@
+package com.santander.pricefeedclient.bars;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maintains open/high/low/close bars of the mid prices of every instrument, for a few intervals, updated
+ * incrementally with every tick.
+ * <p>
+ * Every instrument and interval owns a ring of the latest bars, in a single array of primitive fields allocated on
+ * the first tick of the instrument, so the memory per instrument is bounded by the number of intervals times the
+ * history. A tick is added to the bar of the interval holding its timestamp: it updates the current bar, or opens a
+ * new one, overwriting the oldest bar once the ring is full. Intervals without ticks have no bar, and ticks older than
+ * the current bar are dropped and counted as late.
+ * <p>
+ * Each ring is guarded by a sequence counter, like {@link com.santander.pricefeedclient.store.LatestPriceStore}:
+ * there must be a single writer per instrument, which never waits, while readers visit the bars straight from the
+ * ring and retry a bar updated while they read it.
+ */
+public class BarEngine {
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * The ring layout: a header followed by one slot of longs per bar.
+     */
+    private static final int SEQUENCE = 0;
+    private static final int BAR_COUNT = 1;
+    private static final int HEADER_SIZE = 2;
+    private static final int START = 0;
+    private static final int OPEN = 1;
+    private static final int HIGH = 2;
+    private static final int LOW = 3;
+    private static final int CLOSE = 4;
+    private static final int TICK_COUNT = 5;
+    private static final int BAR_SIZE = 6;
+
+    private final InstrumentRegistry instrumentRegistry;
+    private final long[] intervalsMillis;
+    private final int history;
+    private final LongAdder lateTicks = new LongAdder();
+
+    /**
+     * The rings of every instrument, indexed by instrument id then by interval.
+     */
+    private volatile long[][][] rings = new long[0][][];
+
+    /**
+     * Creates a new engine, without any bar.
+     *
+     * @param instrumentRegistry the registry of the instruments, whose ids index the bars
+     * @param intervalsMillis the durations of the bars, in milliseconds
+     * @param history the number of bars kept per instrument and interval, including the current one
+     */
+    public BarEngine(InstrumentRegistry instrumentRegistry, long[] intervalsMillis, int history) {
+        if (intervalsMillis.length == 0) {
+            throw new IllegalArgumentException("At least one interval is required");
+        }
+        for (long intervalMillis : intervalsMillis) {
+            if (intervalMillis <= 0) {
+                throw new IllegalArgumentException("Interval must be positive: " + intervalMillis);
+            }
+        }
+        if (history <= 0) {
+            throw new IllegalArgumentException("History must be positive: " + history);
+        }
+        this.instrumentRegistry = instrumentRegistry;
+        this.intervalsMillis = intervalsMillis.clone();
+        this.history = history;
+    }
+
+    /**
+     * Gets the durations of the bars.
+     *
+     * @return a copy of the intervals, in milliseconds
+     */
+    public long[] getIntervalsMillis() {
+        return intervalsMillis.clone();
+    }
+
+    /**
+     * Gets the number of ticks dropped because they were older than the current bar of an interval.
+     *
+     * @return the number of late ticks, counted once per interval
+     */
+    public long getLateTicks() {
+        return lateTicks.sum();
+    }
+
+    /**
+     * Adds the mid price of the given tick to the bars of its instrument. Must only be called by the single writer
+     * of the instrument.
+     *
+     * @param instrumentId the id of the instrument in the registry
+     * @param price the tick
+     */
+    public void update(int instrumentId, Price price) {
+        long[][] instrumentRings = ringsForWrite(instrumentId);
+        double mid = (price.getBid() + price.getAsk()) / 2;
+        long timestamp = price.getTimestamp();
+        for (int interval = 0; interval < intervalsMillis.length; interval++) {
+            long intervalMillis = intervalsMillis[interval];
+            update(instrumentRings[interval], Math.floorDiv(timestamp, intervalMillis) * intervalMillis, mid);
+        }
+    }
+
+    private void update(long[] ring, long start, double mid) {
+        long barCount = ring[BAR_COUNT];
+        int base = barCount == 0 ? -1 : slot(barCount - 1);
+        if (base >= 0 && start < ring[base + START]) {
+            lateTicks.increment();
+            return;
+        }
+        long sequence = ring[SEQUENCE];
+        LONGS.setOpaque(ring, SEQUENCE, sequence + 1);
+        VarHandle.storeStoreFence();
+        if (base >= 0 && start == ring[base + START]) {
+            if (mid > Double.longBitsToDouble(ring[base + HIGH])) {
+                ring[base + HIGH] = Double.doubleToRawLongBits(mid);
+            }
+            if (mid < Double.longBitsToDouble(ring[base + LOW])) {
+                ring[base + LOW] = Double.doubleToRawLongBits(mid);
+            }
+            ring[base + CLOSE] = Double.doubleToRawLongBits(mid);
+            ring[base + TICK_COUNT]++;
+        } else {
+            base = slot(barCount);
+            long bits = Double.doubleToRawLongBits(mid);
+            ring[base + START] = start;
+            ring[base + OPEN] = bits;
+            ring[base + HIGH] = bits;
+            ring[base + LOW] = bits;
+            ring[base + CLOSE] = bits;
+            ring[base + TICK_COUNT] = 1;
+            ring[BAR_COUNT] = barCount + 1;
+        }
+        LONGS.setRelease(ring, SEQUENCE, sequence + 2);
+    }
+
+    /**
+     * Visits the latest bars of the given instrument and interval, from the oldest to the current one. Every bar is
+     * consistent on its own; a bar overwritten by a new bar while the query runs is skipped.
+     *
+     * @param instrumentName the name of the instrument
+     * @param intervalMillis the duration of the bars, one of {@link #getIntervalsMillis()}
+     * @param count the maximum number of bars to visit
+     * @param visitor the receiver of the bars
+     * @return the number of visited bars
+     * @throws IllegalArgumentException if the engine does not maintain bars of the given interval
+     */
+    public int getBars(String instrumentName, long intervalMillis, int count, BarVisitor visitor) {
+        int interval = indexOf(intervalMillis);
+        int instrumentId = instrumentRegistry.idOf(instrumentName);
+        long[][][] currentRings = rings;
+        if (instrumentId == InstrumentRegistry.UNKNOWN_ID || instrumentId >= currentRings.length
+                || currentRings[instrumentId] == null) {
+            return 0;
+        }
+        long[] ring = currentRings[instrumentId][interval];
+        long barCount = (long) LONGS.getAcquire(ring, BAR_COUNT);
+        long first = Math.max(0, Math.max(barCount - count, barCount - history));
+        int visited = 0;
+        for (long bar = first; bar < barCount; bar++) {
+            if (visit(ring, bar, visitor)) {
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Reads the given bar consistently and hands it to the visitor, unless it was overwritten.
+     */
+    private boolean visit(long[] ring, long bar, BarVisitor visitor) {
+        int base = slot(bar);
+        while (true) {
+            long sequence = (long) LONGS.getAcquire(ring, SEQUENCE);
+            if ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long barCount = ring[BAR_COUNT];
+            long start = ring[base + START];
+            long open = ring[base + OPEN];
+            long high = ring[base + HIGH];
+            long low = ring[base + LOW];
+            long close = ring[base + CLOSE];
+            long tickCount = ring[base + TICK_COUNT];
+            VarHandle.loadLoadFence();
+            if (sequence == (long) LONGS.getOpaque(ring, SEQUENCE)) {
+                if (bar < barCount - history) {
+                    return false;
+                }
+                visitor.onBar(start, Double.longBitsToDouble(open), Double.longBitsToDouble(high),
+                        Double.longBitsToDouble(low), Double.longBitsToDouble(close), tickCount);
+                return true;
+            }
+        }
+    }
+
+    private int indexOf(long intervalMillis) {
+        for (int interval = 0; interval < intervalsMillis.length; interval++) {
+            if (intervalsMillis[interval] == intervalMillis) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("No bars of " + intervalMillis + " ms, only of "
+                + Arrays.toString(intervalsMillis) + " ms");
+    }
+
+    private int slot(long bar) {
+        return HEADER_SIZE + (int) (bar % history) * BAR_SIZE;
+    }
+
+    private long[][] ringsForWrite(int instrumentId) {
+        long[][][] currentRings = rings;
+        long[][] instrumentRings = instrumentId < currentRings.length ? currentRings[instrumentId] : null;
+        return instrumentRings != null ? instrumentRings : createRings(instrumentId);
+    }
+
+    private synchronized long[][] createRings(int instrumentId) {
+        long[][][] currentRings = rings;
+        if (instrumentId < currentRings.length && currentRings[instrumentId] != null) {
+            return currentRings[instrumentId];
+        }
+        if (instrumentId >= currentRings.length) {
+            currentRings = Arrays.copyOf(currentRings,
+                    Math.max(instrumentId + 1, Math.max(16, 2 * currentRings.length)));
+        } else {
+            currentRings = currentRings.clone();
+        }
+        long[][] instrumentRings = new long[intervalsMillis.length][HEADER_SIZE + history * BAR_SIZE];
+        currentRings[instrumentId] = instrumentRings;
+        rings = currentRings;
+        return instrumentRings;
+    }
+}
@@ -0,0 +1,20 @@
+package com.santander.pricefeedclient.bars;
+
+/**
+ * Receives the bars of a {@link BarEngine} query, one consistent bar at a time, without any bar object being created.
+ */
+@FunctionalInterface
+public interface BarVisitor {
+
+    /**
+     * Receives a bar.
+     *
+     * @param startMillis the start of the interval of the bar, in milliseconds
+     * @param open the first price of the interval
+     * @param high the highest price of the interval
+     * @param low the lowest price of the interval
+     * @param close the last price of the interval, so far for the current bar
+     * @param tickCount the number of ticks of the interval
+     */
+    void onBar(long startMillis, double open, double high, double low, double close, long tickCount);
+}
@@ -0,0 +1,236 @@
+package com.santander.pricefeedclient.history;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the latest ticks of every instrument off the heap, for recent history queries, such as the last ticks or the
+ * ticks since a given time.
+ * <p>
+ * Every instrument owns a ring of fixed-width tick records (timestamp, bid and ask) in a direct buffer, allocated on
+ * the first tick of the instrument, holding the latest {@code capacity} ticks: the history costs the garbage collector
+ * one buffer per instrument, whatever the tick rate. Ticks are kept in timestamp order, so that time ranges are found
+ * by binary search; ticks older than the latest tick of their instrument are dropped and counted as late.
+ * <p>
+ * There must be a single writer per instrument, which never waits. It claims a record before overwriting it and
+ * publishes it once written, like a sequence counter per record, so readers visit the ticks straight from the buffer
+ * and skip the ticks overwritten while they read them.
+ */
+public class TickHistory {
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.nativeOrder());
+
+    /**
+     * The ring layout: a header of two counters, the number of claimed records and the number of published records,
+     * followed by the records.
+     */
+    private static final int CLAIMED = 0;
+    private static final int PUBLISHED = Long.BYTES;
+    private static final int HEADER_SIZE = 2 * Long.BYTES;
+    private static final int TIMESTAMP = 0;
+    private static final int BID = Long.BYTES;
+    private static final int ASK = 2 * Long.BYTES;
+
+    /**
+     * The size of a tick record, in bytes.
+     */
+    public static final int RECORD_SIZE = 3 * Long.BYTES;
+
+    private final InstrumentRegistry instrumentRegistry;
+    private final int capacity;
+    private final LongAdder lateTicks = new LongAdder();
+
+    /**
+     * The rings of every instrument, indexed by instrument id.
+     */
+    private volatile ByteBuffer[] rings = new ByteBuffer[0];
+
+    /**
+     * Creates a new empty history.
+     *
+     * @param instrumentRegistry the registry of the instruments, whose ids index the rings
+     * @param capacity the number of ticks kept per instrument
+     */
+    public TickHistory(InstrumentRegistry instrumentRegistry, int capacity) {
+        if (capacity <= 0 || capacity > (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        this.instrumentRegistry = instrumentRegistry;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the number of ticks kept per instrument.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the number of ticks dropped because they were older than the latest tick of their instrument.
+     *
+     * @return the number of late ticks
+     */
+    public long getLateTicks() {
+        return lateTicks.sum();
+    }
+
+    /**
+     * Appends the given tick to the history of its instrument, overwriting the oldest tick once the ring is full.
+     * Must only be called by the single writer of the instrument.
+     *
+     * @param instrumentId the id of the instrument in the registry
+     * @param price the tick
+     */
+    public void update(int instrumentId, Price price) {
+        ByteBuffer ring = ringForWrite(instrumentId);
+        long published = ring.getLong(PUBLISHED);
+        long timestamp = price.getTimestamp();
+        if (published > 0 && timestamp < ring.getLong(offset(published - 1) + TIMESTAMP)) {
+            lateTicks.increment();
+            return;
+        }
+        LONGS.setOpaque(ring, CLAIMED, published + 1);
+        VarHandle.storeStoreFence();
+        int offset = offset(published);
+        ring.putLong(offset + TIMESTAMP, timestamp);
+        ring.putDouble(offset + BID, price.getBid());
+        ring.putDouble(offset + ASK, price.getAsk());
+        LONGS.setRelease(ring, PUBLISHED, published + 1);
+    }
+
+    /**
+     * Visits the latest ticks of the given instrument, from the oldest to the latest one.
+     *
+     * @param instrumentName the name of the instrument
+     * @param count the maximum number of ticks to visit
+     * @param visitor the receiver of the ticks
+     * @return the number of visited ticks
+     */
+    public int getLatestTicks(String instrumentName, int count, TickVisitor visitor) {
+        ByteBuffer ring = ringForRead(instrumentName);
+        if (ring == null) {
+            return 0;
+        }
+        long published = (long) LONGS.getAcquire(ring, PUBLISHED);
+        return visit(ring, Math.max(0, published - count), published, Long.MAX_VALUE, visitor);
+    }
+
+    /**
+     * Visits the ticks of the given instrument whose timestamp is in the given range, from the oldest to the latest
+     * one. Ticks overwritten while the query runs are skipped.
+     *
+     * @param instrumentName the name of the instrument
+     * @param fromMillis the lowest timestamp, inclusive
+     * @param toMillis the highest timestamp, exclusive
+     * @param visitor the receiver of the ticks
+     * @return the number of visited ticks
+     */
+    public int getTicks(String instrumentName, long fromMillis, long toMillis, TickVisitor visitor) {
+        ByteBuffer ring = ringForRead(instrumentName);
+        if (ring == null || fromMillis >= toMillis) {
+            return 0;
+        }
+        long published = (long) LONGS.getAcquire(ring, PUBLISHED);
+        return visit(ring, search(ring, published, fromMillis), published, toMillis, visitor);
+    }
+
+    /**
+     * Returns the first record of the ring, below the given number of published records, whose timestamp is not
+     * lower than the given one. Searches again if the oldest records are overwritten during the search.
+     */
+    private long search(ByteBuffer ring, long published, long timestamp) {
+        while (true) {
+            long oldest = oldest(ring);
+            long low = oldest;
+            long high = published;
+            while (low < high) {
+                long middle = (low + high) >>> 1;
+                if (ring.getLong(offset(middle) + TIMESTAMP) < timestamp) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            VarHandle.loadLoadFence();
+            if (oldest >= oldest(ring)) {
+                return low;
+            }
+        }
+    }
+
+    /**
+     * Visits the records from the first one, inclusive, to the last one, exclusive, up to the given timestamp, and
+     * skips the records overwritten while they are read.
+     */
+    private int visit(ByteBuffer ring, long first, long last, long toMillis, TickVisitor visitor) {
+        int visited = 0;
+        for (long record = first; record < last; record++) {
+            int offset = offset(record);
+            long timestamp = ring.getLong(offset + TIMESTAMP);
+            double bid = ring.getDouble(offset + BID);
+            double ask = ring.getDouble(offset + ASK);
+            VarHandle.loadLoadFence();
+            if (record < oldest(ring)) {
+                continue;
+            }
+            if (timestamp >= toMillis) {
+                break;
+            }
+            visitor.onTick(timestamp, bid, ask);
+            visited++;
+        }
+        return visited;
+    }
+
+    /**
+     * Returns the oldest record which is not being overwritten.
+     */
+    private long oldest(ByteBuffer ring) {
+        return Math.max(0, (long) LONGS.getOpaque(ring, CLAIMED) - capacity);
+    }
+
+    private int offset(long record) {
+        return HEADER_SIZE + (int) (record % capacity) * RECORD_SIZE;
+    }
+
+    private ByteBuffer ringForRead(String instrumentName) {
+        int instrumentId = instrumentRegistry.idOf(instrumentName);
+        ByteBuffer[] currentRings = rings;
+        return instrumentId == InstrumentRegistry.UNKNOWN_ID || instrumentId >= currentRings.length ? null
+                : currentRings[instrumentId];
+    }
+
+    private ByteBuffer ringForWrite(int instrumentId) {
+        ByteBuffer[] currentRings = rings;
+        ByteBuffer ring = instrumentId < currentRings.length ? currentRings[instrumentId] : null;
+        return ring != null ? ring : createRing(instrumentId);
+    }
+
+    private synchronized ByteBuffer createRing(int instrumentId) {
+        ByteBuffer[] currentRings = rings;
+        if (instrumentId < currentRings.length && currentRings[instrumentId] != null) {
+            return currentRings[instrumentId];
+        }
+        if (instrumentId >= currentRings.length) {
+            currentRings = Arrays.copyOf(currentRings,
+                    Math.max(instrumentId + 1, Math.max(16, 2 * currentRings.length)));
+        } else {
+            currentRings = currentRings.clone();
+        }
+        ByteBuffer ring = ByteBuffer.allocateDirect(HEADER_SIZE + capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+        currentRings[instrumentId] = ring;
+        rings = currentRings;
+        return ring;
+    }
+}
@@ -0,0 +1,18 @@
+package com.santander.pricefeedclient.history;
+
+/**
+ * Receives the ticks of a {@link TickHistory} query, one consistent tick at a time, read straight from off-heap memory
+ * without any price object being created.
+ */
+@FunctionalInterface
+public interface TickVisitor {
+
+    /**
+     * Receives a tick.
+     *
+     * @param timestamp the timestamp of the tick, in milliseconds
+     * @param bid the bid price of the tick
+     * @param ask the ask price of the tick
+     */
+    void onTick(long timestamp, double bid, double ask);
+}
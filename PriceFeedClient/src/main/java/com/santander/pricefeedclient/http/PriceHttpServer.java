@@ -0,0 +1,125 @@
+package com.santander.pricefeedclient.http;
+
+import com.santander.pricefeedclient.util.ThreadMode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An embedded HTTP server, built on the JDK {@link HttpServer}, serving the latest prices of a
+ * {@link PriceJsonCache} as JSON:
+ * <ul>
+ *     <li>{@code GET /prices} returns the snapshot of all instruments, an object keyed by instrument name;</li>
+ *     <li>{@code GET /prices/{instrument}} returns the latest price of one instrument, e.g. {@code /prices/EUR/USD},
+ *     or 404 if it has no price.</li>
+ * </ul>
+ * Responses are the cached JSON bytes, written with a fixed length: handling a request for an unchanged price neither
+ * formats nor allocates the body. Requests are handled by a fixed pool of platform threads, or by a virtual thread
+ * each, see {@link ThreadMode}.
+ */
+public class PriceHttpServer implements AutoCloseable {
+
+    private static final String PRICES_PATH = "/prices";
+    private static final String JSON_CONTENT_TYPE = "application/json";
+    private static final int BACKLOG = 1024;
+    private static final int NO_BODY = -1;
+
+    private final PriceJsonCache cache;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a new server handling requests on platform threads and starts listening.
+     *
+     * @param cache the JSON of the prices to serve
+     * @param address the address to listen on, with port 0 for an ephemeral port
+     * @param threads the number of threads handling requests
+     * @throws IOException if the server cannot be bound
+     */
+    public PriceHttpServer(PriceJsonCache cache, InetSocketAddress address, int threads) throws IOException {
+        this(cache, address, threads, ThreadMode.PLATFORM);
+    }
+
+    /**
+     * Creates a new server and starts listening.
+     *
+     * @param cache the JSON of the prices to serve
+     * @param address the address to listen on, with port 0 for an ephemeral port
+     * @param threads the number of platform threads handling requests, ignored for virtual threads
+     * @param threadMode the kind of threads handling requests
+     * @throws IOException if the server cannot be bound
+     * @throws IllegalStateException if the running JVM does not support the thread mode
+     */
+    public PriceHttpServer(PriceJsonCache cache, InetSocketAddress address, int threads, ThreadMode threadMode)
+            throws IOException {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        this.cache = cache;
+        this.executor = threadMode.newExecutor("price-http-", threads);
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext(PRICES_PATH, this::handle);
+        server.start();
+    }
+
+    /**
+     * Returns the address the server listens on.
+     *
+     * @return the bound address, with the actual port
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops the server, letting the requests in progress complete for up to a second.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                exchange.sendResponseHeaders(405, NO_BODY);
+                return;
+            }
+            String path = exchange.getRequestURI().getRawPath();
+            byte[] body;
+            if (path.equals(PRICES_PATH) || path.equals(PRICES_PATH + "/")) {
+                body = cache.getSnapshot();
+            } else if (path.startsWith(PRICES_PATH + "/")) {
+                String instrumentName = URLDecoder.decode(path.substring(PRICES_PATH.length() + 1),
+                        StandardCharsets.UTF_8);
+                body = cache.getLatestPrice(instrumentName);
+            } else {
+                body = null;
+            }
+            if (body == null) {
+                exchange.sendResponseHeaders(404, NO_BODY);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", JSON_CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
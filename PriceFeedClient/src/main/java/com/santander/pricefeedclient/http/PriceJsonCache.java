@@ -0,0 +1,236 @@
+package com.santander.pricefeedclient.http;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import com.santander.pricefeedclient.util.Json;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The JSON representation of the latest prices of a {@link LatestPriceStore}, serialized once per price.
+ * <p>
+ * The encoded JSON of every instrument is cached along with the sequence of the price it was built from, and only
+ * rebuilt when the store holds a newer price: serving an unchanged price costs a sequence read and no allocation.
+ * The snapshot of all instruments is cached the same way, and rebuilt from the per-instrument entries when any of
+ * them changed. Concurrent readers may occasionally build the same entry twice; entries are immutable, so the last one
+ * stored simply wins.
+ */
+public class PriceJsonCache {
+
+    private static final VarHandle ENTRIES = MethodHandles.arrayElementVarHandle(Entry[].class);
+    private static final byte[] EMPTY_SNAPSHOT = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private final LatestPriceStore store;
+    private final InstrumentRegistry instrumentRegistry;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private final LongAdder rebuilds = new LongAdder();
+    private volatile Entry[] entries = new Entry[0];
+    private volatile Snapshot snapshot = new Snapshot(new long[0], EMPTY_SNAPSHOT);
+
+    /**
+     * Creates a new, empty cache of the prices of the given store.
+     *
+     * @param store the store holding the latest prices
+     */
+    public PriceJsonCache(LatestPriceStore store) {
+        this.store = store;
+        this.instrumentRegistry = store.getInstrumentRegistry();
+    }
+
+    /**
+     * Returns the registry of the instruments of the cached store.
+     *
+     * @return the instrument registry
+     */
+    public InstrumentRegistry getInstrumentRegistry() {
+        return instrumentRegistry;
+    }
+
+    /**
+     * Returns the store whose prices are cached.
+     *
+     * @return the latest price store
+     */
+    public LatestPriceStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the JSON object of the latest price of the given instrument.
+     *
+     * @param instrumentName the name of the instrument
+     * @return the UTF-8 encoded JSON, which must not be modified, or null if no price is available
+     */
+    public byte[] getLatestPrice(String instrumentName) {
+        int instrumentId = instrumentRegistry.idOf(instrumentName);
+        return instrumentId == InstrumentRegistry.UNKNOWN_ID ? null : getLatestPrice(instrumentId);
+    }
+
+    /**
+     * Returns the JSON object of the latest price of the instrument with the given id.
+     *
+     * @param instrumentId the id of the instrument in the registry
+     * @return the UTF-8 encoded JSON, which must not be modified, or null if no price is available
+     */
+    public byte[] getLatestPrice(int instrumentId) {
+        Entry entry = entry(instrumentId);
+        return entry != null ? entry.json : null;
+    }
+
+    /**
+     * Returns the JSON object mapping the name of every instrument with a price to its latest price, like
+     * {@link LatestPriceStore#snapshot()}. Every price is consistent, but the snapshot is not a point-in-time view
+     * of all the instruments.
+     *
+     * @return the UTF-8 encoded JSON, which must not be modified
+     */
+    public byte[] getSnapshot() {
+        Snapshot current = snapshot;
+        int size = instrumentRegistry.size();
+        if (current.sequences.length == size) {
+            boolean unchanged = true;
+            for (int instrumentId = 0; instrumentId < size && unchanged; instrumentId++) {
+                unchanged = store.getSequence(instrumentId) == current.sequences[instrumentId];
+            }
+            if (unchanged) {
+                return current.json;
+            }
+        }
+        long[] sequences = new long[size];
+        ByteArrayOutputStream json = new ByteArrayOutputStream(Math.max(current.json.length, 64));
+        json.write('{');
+        for (int instrumentId = 0; instrumentId < size; instrumentId++) {
+            Entry entry = entry(instrumentId);
+            if (entry != null) {
+                if (json.size() > 1) {
+                    json.write(',');
+                }
+                sequences[instrumentId] = entry.sequence;
+                json.writeBytes(entry.key);
+                json.writeBytes(entry.json);
+            }
+        }
+        json.write('}');
+        byte[] bytes = json.toByteArray();
+        snapshot = new Snapshot(sequences, bytes);
+        return bytes;
+    }
+
+    /**
+     * Gets the number of JSON objects built because a price changed or was not cached yet.
+     *
+     * @return the number of rebuilt entries
+     */
+    public long getRebuilds() {
+        return rebuilds.sum();
+    }
+
+    /**
+     * Returns the entry of the latest price of the instrument, rebuilding it if the store holds a newer price.
+     */
+    private Entry entry(int instrumentId) {
+        long sequence = store.getSequence(instrumentId);
+        if (sequence == 0) {
+            return null;
+        }
+        Entry[] current = entries;
+        Entry entry = instrumentId < current.length ? (Entry) ENTRIES.getAcquire(current, instrumentId) : null;
+        if (entry != null && entry.sequence == sequence) {
+            return entry;
+        }
+        Scratch builder = scratch.get();
+        long readSequence = store.getLatestPrice(instrumentId, builder.price);
+        entry = new Entry(readSequence, entry != null ? entry.key : key(builder), format(builder));
+        rebuilds.increment();
+        if (instrumentId >= current.length) {
+            current = grow(instrumentId);
+        }
+        ENTRIES.setRelease(current, instrumentId, entry);
+        return entry;
+    }
+
+    private synchronized Entry[] grow(int instrumentId) {
+        Entry[] current = entries;
+        if (instrumentId >= current.length) {
+            current = Arrays.copyOf(current, Math.max(instrumentId + 1, Math.max(16, current.length * 2)));
+            entries = current;
+        }
+        return current;
+    }
+
+    /**
+     * Formats the instrument name of the price of the scratch as the key of a JSON member.
+     */
+    private static byte[] key(Scratch builder) {
+        StringBuilder json = builder.json;
+        json.setLength(0);
+        Json.appendString(json, builder.price.getInstrumentName()).append(':');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Formats the price of the scratch as a JSON object.
+     */
+    private static byte[] format(Scratch builder) {
+        Price price = builder.price;
+        StringBuilder json = builder.json;
+        json.setLength(0);
+        json.append("{\"id\":");
+        if (price.hasId()) {
+            json.append('"').append(new UUID(price.getIdMostSignificantBits(), price.getIdLeastSignificantBits()))
+                    .append('"');
+        } else {
+            json.append("null");
+        }
+        json.append(",\"instrumentName\":");
+        Json.appendString(json, price.getInstrumentName()).append(",\"bid\":");
+        Json.appendNumber(json, price.getBid()).append(",\"ask\":");
+        Json.appendNumber(json, price.getAsk())
+                .append(",\"timestamp\":").append(price.getTimestamp())
+                .append('}');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The JSON of a price, the sequence of that price in the store and the key of the price in the snapshot.
+     */
+    private static final class Entry {
+        private final long sequence;
+        private final byte[] key;
+        private final byte[] json;
+
+        private Entry(long sequence, byte[] key, byte[] json) {
+            this.sequence = sequence;
+            this.key = key;
+            this.json = json;
+        }
+    }
+
+    /**
+     * The JSON of all the prices and the sequences of the prices it was built from, indexed by instrument id.
+     */
+    private static final class Snapshot {
+        private final long[] sequences;
+        private final byte[] json;
+
+        private Snapshot(long[] sequences, byte[] json) {
+            this.sequences = sequences;
+            this.json = json;
+        }
+    }
+
+    /**
+     * The per-thread buffers used to build entries.
+     */
+    private static final class Scratch {
+        private final Price price = new Price();
+        private final StringBuilder json = new StringBuilder(256);
+    }
+}
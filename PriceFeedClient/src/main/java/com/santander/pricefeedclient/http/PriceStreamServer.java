@@ -0,0 +1,423 @@
+package com.santander.pricefeedclient.http;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A server streaming the prices of a {@link PriceJsonCache} to many HTTP clients as server-sent events, from a single
+ * selector thread.
+ * <p>
+ * Any {@code GET} request is answered with an endless {@code text/event-stream} response, on which every price change
+ * is sent as a {@code price} event whose data is the JSON of the price; clients get the current prices from
+ * {@link PriceHttpServer} beforehand. The server subscribes to a publisher of ticks, but a tick only wakes the
+ * selector thread up: the thread then looks for the instruments whose sequence changed in the store and writes the
+ * cached JSON of their latest price once into the buffer of every client. Ticks arriving faster than the thread can
+ * write are thus conflated to the latest price of each instrument, and formatting does not depend on the number of
+ * clients.
+ * <p>
+ * Each client has a bounded output buffer. When a slow client has no room left for an event, the instrument is marked
+ * pending for that client and counted, rather than buffering without limit or holding up the other clients; once the
+ * client catches up, it is sent the cached JSON of the latest price of each of its pending instruments. Events are
+ * thus conflated for slow clients, never lost: every client ends up with the latest price of every instrument.
+ */
+public class PriceStreamServer implements AutoCloseable {
+
+    private static final byte[] RESPONSE_HEADERS = ("HTTP/1.1 200 OK\r\n"
+            + "Content-Type: text/event-stream\r\n"
+            + "Cache-Control: no-cache\r\n"
+            + "Connection: keep-alive\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BAD_REQUEST = ("HTTP/1.1 405 Method Not Allowed\r\n"
+            + "Allow: GET\r\nContent-Length: 0\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EVENT_PREFIX = "event: price\ndata: ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EVENT_SUFFIX = "\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_REQUEST_SIZE = 8192;
+
+    private final PriceJsonCache cache;
+    private final LatestPriceStore store;
+    private final int clientBufferSize;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread thread;
+    private final List<Client> clients = new ArrayList<>();
+    private final AtomicBoolean ticked = new AtomicBoolean();
+    private final LongAdder conflatedEvents = new LongAdder();
+    private final LongAdder sentEvents = new LongAdder();
+    private long[] sentSequences = new long[0];
+    private volatile Flow.Subscription subscription;
+    private volatile boolean running = true;
+
+    /**
+     * Creates a new server, starts listening and subscribes to the given ticks.
+     *
+     * @param cache the JSON of the prices to stream
+     * @param ticks the publisher signalling that prices changed, whose prices are not read
+     * @param address the address to listen on, with port 0 for an ephemeral port
+     * @param clientBufferSize the size of the output buffer of each client, in bytes
+     * @throws IOException if the server cannot be bound
+     */
+    public PriceStreamServer(PriceJsonCache cache, Flow.Publisher<Price> ticks, InetSocketAddress address,
+                             int clientBufferSize) throws IOException {
+        this.cache = cache;
+        this.store = cache.getStore();
+        this.clientBufferSize = clientBufferSize;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.thread = new Thread(this::run, "price-stream-selector");
+        thread.setDaemon(true);
+        thread.start();
+        ticks.subscribe(new TickSubscriber());
+    }
+
+    /**
+     * Returns the address the server listens on.
+     *
+     * @return the bound address, with the actual port
+     */
+    public InetSocketAddress getAddress() {
+        return new InetSocketAddress(serverChannel.socket().getInetAddress(), serverChannel.socket().getLocalPort());
+    }
+
+    /**
+     * Gets the number of events written to the buffers of the clients.
+     *
+     * @return the number of sent events
+     */
+    public long getSentEvents() {
+        return sentEvents.sum();
+    }
+
+    /**
+     * Gets the number of events deferred because the buffer of a client was full, whose instrument was sent later
+     * with its latest price, or events too large for the buffer of a client, which are never sent.
+     *
+     * @return the number of conflated events
+     */
+    public long getConflatedEvents() {
+        return conflatedEvents.sum();
+    }
+
+    /**
+     * Stops the server, disconnects the clients and cancels the subscription to the ticks.
+     *
+     * @throws InterruptedException if interrupted while waiting for the selector thread
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+        selector.wakeup();
+        thread.join();
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                if (ticked.getAndSet(false)) {
+                    broadcast();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            // the server cannot accept clients any more, so it stops like on close
+        } finally {
+            for (Client client : new ArrayList<>(clients)) {
+                client.close();
+            }
+            closeQuietly();
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        Client client = (Client) key.attachment();
+        try {
+            if (key.isReadable()) {
+                client.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                client.flush();
+            }
+        } catch (IOException e) {
+            client.close();
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel = serverChannel.accept();
+            if (channel != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                Client client = new Client(channel);
+                client.key = channel.register(selector, SelectionKey.OP_READ, client);
+            }
+        } catch (IOException e) {
+            // a failed accept only affects that connection
+        }
+    }
+
+    /**
+     * Writes the latest price of every instrument updated since the previous broadcast to every streaming client.
+     */
+    private void broadcast() {
+        int size = cache.getInstrumentRegistry().size();
+        if (sentSequences.length < size) {
+            sentSequences = Arrays.copyOf(sentSequences, Math.max(size, sentSequences.length * 2));
+        }
+        for (int instrumentId = 0; instrumentId < size; instrumentId++) {
+            long sequence = store.getSequence(instrumentId);
+            if (sequence == sentSequences[instrumentId] || sequence == 0) {
+                continue;
+            }
+            sentSequences[instrumentId] = sequence;
+            byte[] json = cache.getLatestPrice(instrumentId);
+            if (json == null) {
+                continue;
+            }
+            for (Client client : clients) {
+                if (client.isPending(instrumentId)) {
+                    // sent with its latest price once the client catches up
+                    conflatedEvents.increment();
+                } else if (!client.writeEvent(json)) {
+                    conflatedEvents.increment();
+                    if (eventSize(json) <= clientBufferSize) {
+                        client.markPending(instrumentId);
+                    }
+                }
+            }
+        }
+        for (Client client : new ArrayList<>(clients)) {
+            try {
+                client.flush();
+            } catch (IOException e) {
+                client.close();
+            }
+        }
+    }
+
+    private static int eventSize(byte[] json) {
+        return EVENT_PREFIX.length + json.length + EVENT_SUFFIX.length;
+    }
+
+    private void closeQuietly() {
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            // nothing left to release
+        }
+    }
+
+    /**
+     * A connection, reading its request until the end of the headers, then streaming events.
+     */
+    private final class Client {
+        private final SocketChannel channel;
+        private final ByteBuffer input = ByteBuffer.allocate(MAX_REQUEST_SIZE);
+        private final ByteBuffer output = ByteBuffer.allocate(clientBufferSize);
+        private SelectionKey key;
+        private boolean streaming;
+
+        /**
+         * The bit set of the ids of the instruments whose latest price is yet to be sent to this client.
+         */
+        private long[] pendingInstruments = new long[0];
+        private int pendingCount;
+
+        private Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private void read() throws IOException {
+            int read = channel.read(streaming ? input.clear() : input);
+            if (read < 0) {
+                close();
+                return;
+            }
+            if (streaming || !hasHeaders()) {
+                if (!streaming && !input.hasRemaining()) {
+                    close();
+                }
+                return;
+            }
+            if (startsWith("GET ")) {
+                streaming = true;
+                output.put(RESPONSE_HEADERS);
+                clients.add(this);
+            } else {
+                output.put(BAD_REQUEST);
+            }
+            flush();
+        }
+
+        /**
+         * Writes the given price event into the output buffer, if it has room for it.
+         */
+        private boolean writeEvent(byte[] json) {
+            if (output.remaining() < eventSize(json)) {
+                return false;
+            }
+            output.put(EVENT_PREFIX).put(json).put(EVENT_SUFFIX);
+            sentEvents.increment();
+            return true;
+        }
+
+        private boolean isPending(int instrumentId) {
+            int word = instrumentId >>> 6;
+            return pendingCount > 0 && word < pendingInstruments.length
+                    && (pendingInstruments[word] & (1L << instrumentId)) != 0;
+        }
+
+        private void markPending(int instrumentId) {
+            int word = instrumentId >>> 6;
+            if (word >= pendingInstruments.length) {
+                pendingInstruments = Arrays.copyOf(pendingInstruments,
+                        Math.max(word + 1, pendingInstruments.length * 2));
+            }
+            long bit = 1L << instrumentId;
+            if ((pendingInstruments[word] & bit) == 0) {
+                pendingInstruments[word] |= bit;
+                pendingCount++;
+            }
+        }
+
+        /**
+         * Writes the latest price of the pending instruments into the output buffer, as long as it has room.
+         */
+        private void writePendingEvents() {
+            for (int word = 0; word < pendingInstruments.length && pendingCount > 0; word++) {
+                while (pendingInstruments[word] != 0) {
+                    int instrumentId = (word << 6) + Long.numberOfTrailingZeros(pendingInstruments[word]);
+                    byte[] json = cache.getLatestPrice(instrumentId);
+                    if (json != null && !writeEvent(json)) {
+                        return;
+                    }
+                    pendingInstruments[word] &= pendingInstruments[word] - 1;
+                    pendingCount--;
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            output.flip();
+            channel.write(output);
+            output.compact();
+            if (pendingCount > 0) {
+                writePendingEvents();
+                output.flip();
+                channel.write(output);
+                output.compact();
+            }
+            boolean pending = output.position() > 0;
+            if (!key.isValid()) {
+                return;
+            }
+            if (pending) {
+                key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+            } else if (!streaming) {
+                close();
+            } else {
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+            }
+        }
+
+        private boolean hasHeaders() {
+            for (int i = 3; i < input.position(); i++) {
+                if (input.get(i - 3) == '\r' && input.get(i - 2) == '\n' && input.get(i - 1) == '\r'
+                        && input.get(i) == '\n') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean startsWith(String method) {
+            for (int i = 0; i < method.length(); i++) {
+                if (i >= input.position() || input.get(i) != method.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void close() {
+            clients.remove(this);
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // the connection is gone either way
+            }
+        }
+    }
+
+    /**
+     * Wakes the selector thread up on every tick, at most once until the thread handles it.
+     */
+    private final class TickSubscriber implements Flow.Subscriber<Price> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            PriceStreamServer.this.subscription = subscription;
+            if (running) {
+                subscription.request(Long.MAX_VALUE);
+            } else {
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onNext(Price price) {
+            if (!ticked.get() && ticked.compareAndSet(false, true)) {
+                selector.wakeup();
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            // the prices no longer change, the clients stay connected until the server is closed
+        }
+
+        @Override
+        public void onComplete() {
+            // the prices no longer change, the clients stay connected until the server is closed
+        }
+    }
+}
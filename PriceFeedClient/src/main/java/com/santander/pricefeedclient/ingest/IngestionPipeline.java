@@ -0,0 +1,534 @@
+package com.santander.pricefeedclient.ingest;
+
+import com.santander.pricefeedclient.metrics.LatencyHistogram;
+import com.santander.pricefeedclient.metrics.LatencySnapshot;
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.model.PriceBatch;
+import com.santander.pricefeedclient.model.PricePool;
+import com.santander.pricefeedclient.util.BinaryPriceDeserializer;
+import com.santander.pricefeedclient.util.PriceDeserializer;
+import com.santander.pricefeedsource.BinaryPriceFormat;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A multi-threaded pipeline which parses, margins and publishes price feed lines.
+ * <p>
+ * A single reader thread calls {@link #submit(String)} with the raw messages of the feed. Every line is routed to
+ * one of N shards by a hash of its instrument name, so all the ticks of an instrument are handled in order
+ * by the same worker thread. Each shard owns a bounded {@link SpscRingBuffer}; when the reader finds it full it waits for
+ * the worker. With a single worker there is nothing to route, so whole messages are handed over without being split.
+ * <p>
+ * Workers deserialize text lines and messages in batches, with {@link PriceDeserializer#deserializeAll}, and only
+ * margin and publish the newest tick of every instrument of a message, counting the superseded ones as conflated.
+ * When a worker falls behind, i.e. it finds at least {@code conflationThreshold} lines queued, it conflates all the
+ * queued ticks the same way, binary records included.
+ * <p>
+ * Messages of the binary wire format are submitted with {@link #submit(ByteBuffer)}: every record is routed by the
+ * wire id of its instrument, which only identifies the instrument within the feed and is never used as a registry
+ * id, and handed to the workers as a view of the message buffer, so the deserializer must be a
+ * {@link BinaryPriceDeserializer}.
+ * <p>
+ * An optional validation stage checks every deserialized tick as it enters the batch, before conflation, so that a
+ * rejected tick never supersedes an older valid tick of its instrument; the ticks it rejects are counted and dropped.
+ * The text lines which cannot be deserialized are counted as failed and handed to an optional handler.
+ * <p>
+ * Every worker records the time it spends parsing, margining and publishing, and the age of the prices it publishes,
+ * into histograms of its own, merged by {@link #getMetrics()}.
+ */
+public class IngestionPipeline implements AutoCloseable {
+
+    private static final char LINE_DELIMITER = '\n';
+    private static final char COLUMN_DELIMITER = ',';
+    private static final int NO_INSTRUMENT = -1;
+    private static final int IDLE_SPINS = 100;
+    private static final long MAX_PARK_NANOS = 1_000_000L;
+
+    private final PriceDeserializer priceDeserializer;
+    private final BinaryPriceDeserializer binaryDeserializer;
+    private final Predicate<Price> validator;
+    private final Consumer<String> malformedLineHandler;
+    private final BiFunction<Price, Price, Price> margin;
+    private final Consumer<Price> publisher;
+    private final PricePool pricePool;
+    private final int conflationThreshold;
+    private final Shard[] shards;
+    private final AtomicLong producerWaits = new AtomicLong();
+    private volatile boolean running;
+    private volatile long startNanos;
+
+    /**
+     * Creates a new pipeline. No thread is started until {@link #start()} is called.
+     *
+     * @param priceDeserializer the deserializer used to parse the lines
+     * @param margin the margin stage, applying the margin of its first argument into its second argument
+     * @param publisher the publishing stage, which must not retain the prices it receives
+     * @param pricePool the pool providing the scratch instances of the workers
+     * @param workerCount the number of worker threads, i.e. of shards
+     * @param ringCapacity the capacity of the ring buffer of each shard
+     * @param conflationThreshold the queue depth from which a worker conflates the ticks of the same instrument
+     */
+    public IngestionPipeline(PriceDeserializer priceDeserializer, BiFunction<Price, Price, Price> margin,
+                             Consumer<Price> publisher, PricePool pricePool, int workerCount, int ringCapacity,
+                             int conflationThreshold) {
+        this(priceDeserializer, price -> true, null, margin, publisher, pricePool, workerCount, ringCapacity,
+                conflationThreshold);
+    }
+
+    /**
+     * Creates a new pipeline validating the ticks before their margin. No thread is started until {@link #start()}
+     * is called.
+     *
+     * @param priceDeserializer the deserializer used to parse the lines
+     * @param validator the validation stage, accepting or rejecting every deserialized tick, called by the single
+     *                  worker of the instrument of the tick, in order
+     * @param malformedLineHandler the receiver of every text line which cannot be deserialized, or null to only count
+     *                             them
+     * @param margin the margin stage, applying the margin of its first argument into its second argument
+     * @param publisher the publishing stage, which must not retain the prices it receives
+     * @param pricePool the pool providing the scratch instances of the workers
+     * @param workerCount the number of worker threads, i.e. of shards
+     * @param ringCapacity the capacity of the ring buffer of each shard
+     * @param conflationThreshold the queue depth from which a worker conflates the ticks of the same instrument
+     */
+    public IngestionPipeline(PriceDeserializer priceDeserializer, Predicate<Price> validator,
+                             Consumer<String> malformedLineHandler,
+                             BiFunction<Price, Price, Price> margin, Consumer<Price> publisher, PricePool pricePool,
+                             int workerCount, int ringCapacity, int conflationThreshold) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("Worker count must be positive: " + workerCount);
+        }
+        this.priceDeserializer = priceDeserializer;
+        this.binaryDeserializer = priceDeserializer instanceof BinaryPriceDeserializer
+                ? (BinaryPriceDeserializer) priceDeserializer : null;
+        this.validator = validator;
+        this.malformedLineHandler = malformedLineHandler;
+        this.margin = margin;
+        this.publisher = publisher;
+        this.pricePool = pricePool;
+        this.conflationThreshold = conflationThreshold;
+        this.shards = new Shard[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            shards[i] = new Shard(i, ringCapacity);
+        }
+    }
+
+    /**
+     * Starts the worker threads.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        startNanos = System.nanoTime();
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    /**
+     * Routes every line of the given message to the shard of its instrument, waiting while that shard is full.
+     * Must only be called from the reader thread.
+     *
+     * @param message the raw message, made of newline-separated lines
+     */
+    public void submit(String message) {
+        if (shards.length == 1) {
+            submitMessage(message);
+            return;
+        }
+        int lineStart = 0;
+        while (lineStart < message.length()) {
+            int lineEnd = message.indexOf(LINE_DELIMITER, lineStart);
+            if (lineEnd < 0) {
+                lineEnd = message.length();
+            }
+            if (lineEnd > lineStart) {
+                submitLine(message.substring(lineStart, lineEnd));
+            }
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    /**
+     * Hands a whole message to the single shard, counting its lines as submitted.
+     */
+    private void submitMessage(String message) {
+        offer(shards[0], message, lineCount(message));
+    }
+
+    private static int lineCount(String message) {
+        int lineCount = 0;
+        int lineStart = 0;
+        while (lineStart < message.length()) {
+            int lineEnd = message.indexOf(LINE_DELIMITER, lineStart);
+            if (lineEnd < 0) {
+                lineEnd = message.length();
+            }
+            if (lineEnd > lineStart) {
+                lineCount++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return lineCount;
+    }
+
+    /**
+     * Routes every record of the given binary message to the shard of its instrument, waiting while that shard is
+     * full. Must only be called from the reader thread, which must not modify the buffer afterwards.
+     *
+     * @param message the records of the message, between the position and the limit of the buffer
+     * @throws IllegalArgumentException if the message is not made of whole records
+     * @throws IllegalStateException if the deserializer of the pipeline does not decode binary records
+     */
+    public void submit(ByteBuffer message) {
+        if (binaryDeserializer == null) {
+            throw new IllegalStateException(priceDeserializer.getClass().getSimpleName()
+                    + " does not decode binary records");
+        }
+        int start = message.position();
+        int end = message.limit();
+        if ((end - start) % BinaryPriceFormat.RECORD_SIZE != 0) {
+            throw new IllegalArgumentException("Invalid message format: " + (end - start)
+                    + " bytes is not a whole number of records");
+        }
+        for (int recordStart = start; recordStart < end; recordStart += BinaryPriceFormat.RECORD_SIZE) {
+            ByteBuffer record = message.duplicate();
+            record.limit(recordStart + BinaryPriceFormat.RECORD_SIZE).position(recordStart);
+            submitLine(record);
+        }
+    }
+
+    /**
+     * Hands a line, either a {@code String} or a binary record, to the shard of its instrument.
+     */
+    private void submitLine(Object line) {
+        int instrumentId = instrumentIdOf(line);
+        offer(shards[instrumentId == NO_INSTRUMENT ? 0 : instrumentId % shards.length], line, 1);
+    }
+
+    /**
+     * Hands an entry holding the given number of lines to the given shard, waiting while it is full.
+     *
+     * @throws IllegalStateException if the worker of the shard terminated, so that the reader does not wait forever
+     */
+    private void offer(Shard shard, Object entry, int lineCount) {
+        if (!shard.ring.offer(entry)) {
+            producerWaits.incrementAndGet();
+            do {
+                if (!shard.thread.isAlive()) {
+                    throw new IllegalStateException(shard.thread.getName() + " terminated");
+                }
+                Thread.onSpinWait();
+            } while (!shard.ring.offer(entry));
+        }
+        shard.submittedLines.lazySet(shard.submittedLines.get() + lineCount);
+        shard.submittedEntries.lazySet(shard.submittedEntries.get() + 1);
+    }
+
+    /**
+     * Returns a condition which becomes true once the workers are done with everything submitted so far, after which
+     * the reader may reuse the buffers of the binary messages it submitted. Must only be called from the reader
+     * thread.
+     *
+     * @return a condition which can be checked from the reader thread
+     */
+    public BooleanSupplier submittedEntriesConsumed() {
+        long[] submittedEntries = new long[shards.length];
+        for (Shard shard : shards) {
+            submittedEntries[shard.index] = shard.submittedEntries.get();
+        }
+        return () -> {
+            for (Shard shard : shards) {
+                if (shard.consumedEntries.get() < submittedEntries[shard.index]) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /**
+     * Returns the id routing the given line to its shard, a hash of the instrument name in the second column of a text
+     * line or the wire id of the instrument of a binary record.
+     */
+    private int instrumentIdOf(Object line) {
+        if (line instanceof ByteBuffer) {
+            int wireId = BinaryPriceDeserializer.wireIdOf((ByteBuffer) line);
+            return wireId < 0 ? NO_INSTRUMENT : wireId;
+        }
+        return instrumentIdOf((String) line);
+    }
+
+    /**
+     * Returns a hash of the instrument name of the given text line, the same for every line of the instrument. Names
+     * are hashed rather than looked up in a registry, so that routing reads nothing shared and registers nothing:
+     * instruments are only registered once their ticks are deserialized and validated.
+     */
+    private static int instrumentIdOf(String line) {
+        int nameStart = line.indexOf(COLUMN_DELIMITER) + 1;
+        int nameEnd = line.indexOf(COLUMN_DELIMITER, nameStart);
+        if (nameStart == 0 || nameEnd < 0) {
+            return NO_INSTRUMENT;
+        }
+        int hash = 0;
+        for (int i = nameStart; i < nameEnd; i++) {
+            hash = 31 * hash + line.charAt(i);
+        }
+        // spread the high bits, which differ between names sharing their last characters, and keep the sign bit clear
+        return (hash ^ hash >>> 16) & Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the current counters of the pipeline.
+     *
+     * @return a point-in-time view of the counters
+     */
+    public PipelineMetrics getMetrics() {
+        int[] queueDepths = new int[shards.length];
+        long submittedLines = 0;
+        long processedLines = 0;
+        long conflatedLines = 0;
+        long failedLines = 0;
+        long rejectedLines = 0;
+        long parseNanos = 0;
+        long marginNanos = 0;
+        long publishNanos = 0;
+        LatencyHistogram[] parseLatencies = new LatencyHistogram[shards.length];
+        LatencyHistogram[] marginLatencies = new LatencyHistogram[shards.length];
+        LatencyHistogram[] publishLatencies = new LatencyHistogram[shards.length];
+        LatencyHistogram[] tickAges = new LatencyHistogram[shards.length];
+        for (Shard shard : shards) {
+            queueDepths[shard.index] = shard.ring.size();
+            submittedLines += shard.submittedLines.get();
+            processedLines += shard.processedLines.get();
+            conflatedLines += shard.conflatedLines.get();
+            failedLines += shard.failedLines.get();
+            rejectedLines += shard.rejectedLines.get();
+            parseNanos += shard.parseNanos.get();
+            marginNanos += shard.marginNanos.get();
+            publishNanos += shard.publishNanos.get();
+            parseLatencies[shard.index] = shard.parseLatency;
+            marginLatencies[shard.index] = shard.marginLatency;
+            publishLatencies[shard.index] = shard.publishLatency;
+            tickAges[shard.index] = shard.tickAge;
+        }
+        long started = startNanos;
+        return new PipelineMetrics(queueDepths, submittedLines, processedLines, conflatedLines, failedLines,
+                rejectedLines, producerWaits.get(), parseNanos, marginNanos, publishNanos,
+                started == 0 ? 0 : System.nanoTime() - started, LatencySnapshot.merge(parseLatencies),
+                LatencySnapshot.merge(marginLatencies), LatencySnapshot.merge(publishLatencies),
+                LatencySnapshot.merge(tickAges));
+    }
+
+    /**
+     * Stops the worker threads once they have processed the lines already submitted, and waits for them.
+     *
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards) {
+            if (shard.thread.isAlive()) {
+                shard.thread.join();
+            }
+        }
+    }
+
+    /**
+     * A ring buffer and the worker thread draining it. Counters are only written by the worker thread, except for
+     * {@code submittedLines} and {@code submittedEntries} which are only written by the reader thread.
+     */
+    private final class Shard implements Runnable {
+        private final int index;
+        private final SpscRingBuffer<Object> ring;
+        private final Thread thread;
+        private final AtomicLong submittedLines = new AtomicLong();
+        private final AtomicLong submittedEntries = new AtomicLong();
+        private final AtomicLong consumedEntries = new AtomicLong();
+        private final AtomicLong processedLines = new AtomicLong();
+        private final AtomicLong conflatedLines = new AtomicLong();
+        private final AtomicLong failedLines = new AtomicLong();
+        private final AtomicLong rejectedLines = new AtomicLong();
+        private final AtomicLong parseNanos = new AtomicLong();
+        private final AtomicLong marginNanos = new AtomicLong();
+        private final AtomicLong publishNanos = new AtomicLong();
+        private final LatencyHistogram parseLatency = new LatencyHistogram();
+        private final LatencyHistogram marginLatency = new LatencyHistogram();
+        private final LatencyHistogram publishLatency = new LatencyHistogram();
+        private final LatencyHistogram tickAge = new LatencyHistogram();
+
+        private final Object[] batch;
+        private final PriceBatch priceBatch = new PriceBatch();
+        private final Predicate<Price> accepted = this::accept;
+
+        private Shard(int index, int ringCapacity) {
+            this.index = index;
+            this.ring = new SpscRingBuffer<>(ringCapacity);
+            this.batch = new Object[ring.capacity()];
+            this.thread = new Thread(this, "price-feed-worker-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            Price price = pricePool.acquire();
+            Price marginPrice = pricePool.acquire();
+            try {
+                drain(price, marginPrice);
+            } finally {
+                pricePool.release(price);
+                pricePool.release(marginPrice);
+            }
+        }
+
+        private void drain(Price price, Price marginPrice) {
+            int idleCount = 0;
+            while (running || ring.size() > 0) {
+                int queueDepth = ring.size();
+                int count = ring.drainTo(batch, batch.length);
+                if (count == 0) {
+                    idle(idleCount++);
+                    continue;
+                }
+                idleCount = 0;
+                boolean behind = queueDepth >= conflationThreshold;
+                for (int i = 0; i < count; i++) {
+                    Object line = batch[i];
+                    batch[i] = null;
+                    if (line instanceof ByteBuffer) {
+                        process((ByteBuffer) line, price, marginPrice, behind);
+                    } else {
+                        parse((String) line, price);
+                        if (!behind) {
+                            flush(price, marginPrice);
+                        }
+                    }
+                }
+                flush(price, marginPrice);
+                consumedEntries.lazySet(consumedEntries.get() + count);
+            }
+        }
+
+        /**
+         * Deserializes and validates a binary record, then publishes it, or adds it to the price batch to be
+         * conflated with the queued ticks if the worker is behind.
+         */
+        private void process(ByteBuffer record, Price price, Price marginPrice, boolean behind) {
+            try {
+                long start = System.nanoTime();
+                binaryDeserializer.deserialize(record, price);
+                long parse = System.nanoTime() - start;
+                parseNanos.lazySet(parseNanos.get() + parse);
+                parseLatency.record(parse);
+            } catch (RuntimeException e) {
+                failedLines.lazySet(failedLines.get() + 1);
+                return;
+            }
+            if (!accept(price)) {
+                return;
+            }
+            if (behind) {
+                priceBatch.add(price);
+            } else {
+                publish(price, marginPrice);
+            }
+        }
+
+        /**
+         * Deserializes the lines of a text message, or a single line, into the price batch, then drops the ticks the
+         * validation stage rejects. The parse time of a message is recorded as the same time for each of its lines.
+         * If the deserializer throws, the lines it did not add to the batch are counted as failed and the worker
+         * carries on.
+         */
+        private void parse(String lines, Price price) {
+            int batchSize = priceBatch.size();
+            int invalidLines;
+            try {
+                long start = System.nanoTime();
+                invalidLines = priceDeserializer.deserializeAll(lines, priceBatch, malformedLineHandler);
+                long parse = System.nanoTime() - start;
+                parseNanos.lazySet(parseNanos.get() + parse);
+                int lineCount = priceBatch.size() - batchSize + invalidLines;
+                if (lineCount > 0) {
+                    parseLatency.record(parse / lineCount, lineCount);
+                }
+            } catch (RuntimeException e) {
+                invalidLines = Math.max(0, lineCount(lines) - (priceBatch.size() - batchSize));
+            }
+            if (invalidLines > 0) {
+                failedLines.lazySet(failedLines.get() + invalidLines);
+            }
+            priceBatch.filter(batchSize, accepted, price);
+        }
+
+        /**
+         * Runs the validation stage on the given tick, counting it as rejected, or as failed if the stage throws.
+         */
+        private boolean accept(Price price) {
+            try {
+                if (validator.test(price)) {
+                    return true;
+                }
+                rejectedLines.lazySet(rejectedLines.get() + 1);
+            } catch (RuntimeException e) {
+                failedLines.lazySet(failedLines.get() + 1);
+            }
+            return false;
+        }
+
+        /**
+         * Margins and publishes the newest tick of every instrument of the price batch, then empties it.
+         */
+        private void flush(Price price, Price marginPrice) {
+            if (priceBatch.size() == 0) {
+                return;
+            }
+            int conflated = priceBatch.conflate(0);
+            if (conflated > 0) {
+                conflatedLines.lazySet(conflatedLines.get() + conflated);
+            }
+            for (int i = 0; i < priceBatch.size(); i++) {
+                publish(priceBatch.copyTo(i, price), marginPrice);
+            }
+            priceBatch.clear();
+        }
+
+        private void publish(Price price, Price marginPrice) {
+            try {
+                long start = System.nanoTime();
+                margin.apply(price, marginPrice);
+                long margined = System.nanoTime();
+                publisher.accept(marginPrice);
+                long published = System.nanoTime();
+                marginNanos.lazySet(marginNanos.get() + margined - start);
+                publishNanos.lazySet(publishNanos.get() + published - margined);
+                marginLatency.record(margined - start);
+                publishLatency.record(published - margined);
+                tickAge.record(System.currentTimeMillis() - price.getTimestamp());
+                processedLines.lazySet(processedLines.get() + 1);
+            } catch (RuntimeException e) {
+                failedLines.lazySet(failedLines.get() + 1);
+            }
+        }
+
+        private void idle(int idleCount) {
+            if (idleCount < IDLE_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L * (idleCount - IDLE_SPINS + 1)));
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.santander.pricefeedclient.ingest;
+
+import com.santander.pricefeedclient.metrics.LatencySnapshot;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point-in-time view of the counters and latency histograms of an {@link IngestionPipeline}.
+ */
+public class PipelineMetrics {
+    private final int[] queueDepths;
+    private final long submittedLines;
+    private final long processedLines;
+    private final long conflatedLines;
+    private final long failedLines;
+    private final long rejectedLines;
+    private final long producerWaits;
+    private final long parseNanos;
+    private final long marginNanos;
+    private final long publishNanos;
+    private final long elapsedNanos;
+    private final LatencySnapshot parseLatency;
+    private final LatencySnapshot marginLatency;
+    private final LatencySnapshot publishLatency;
+    private final LatencySnapshot tickAge;
+
+    /**
+     * Creates a new instance of the {@code PipelineMetrics} class.
+     *
+     * @param queueDepths the number of lines waiting in the ring buffer of each shard
+     * @param submittedLines the number of lines handed to the workers
+     * @param processedLines the number of lines parsed, margined and published
+     * @param conflatedLines the number of lines dropped because a newer tick of the same instrument was queued
+     * @param failedLines the number of lines which could not be processed
+     * @param rejectedLines the number of well-formed lines rejected by the validation stage
+     * @param producerWaits the number of times the reader thread found a ring buffer full
+     * @param parseNanos the total time spent parsing lines, in nanoseconds
+     * @param marginNanos the total time spent applying margins, in nanoseconds
+     * @param publishNanos the total time spent publishing prices, in nanoseconds
+     * @param elapsedNanos the time elapsed since the pipeline was started, in nanoseconds
+     * @param parseLatency the time spent parsing each line, in nanoseconds
+     * @param marginLatency the time spent applying the margin to each price, in nanoseconds
+     * @param publishLatency the time spent publishing each price, in nanoseconds
+     * @param tickAge the age of each price once published, from its timestamp, in milliseconds
+     */
+    public PipelineMetrics(int[] queueDepths, long submittedLines, long processedLines, long conflatedLines,
+                           long failedLines, long rejectedLines, long producerWaits, long parseNanos, long marginNanos,
+                           long publishNanos, long elapsedNanos, LatencySnapshot parseLatency,
+                           LatencySnapshot marginLatency, LatencySnapshot publishLatency, LatencySnapshot tickAge) {
+        this.queueDepths = queueDepths;
+        this.submittedLines = submittedLines;
+        this.processedLines = processedLines;
+        this.conflatedLines = conflatedLines;
+        this.failedLines = failedLines;
+        this.rejectedLines = rejectedLines;
+        this.producerWaits = producerWaits;
+        this.parseNanos = parseNanos;
+        this.marginNanos = marginNanos;
+        this.publishNanos = publishNanos;
+        this.elapsedNanos = elapsedNanos;
+        this.parseLatency = parseLatency;
+        this.marginLatency = marginLatency;
+        this.publishLatency = publishLatency;
+        this.tickAge = tickAge;
+    }
+
+    /**
+     * Gets the number of lines waiting in the ring buffer of each shard.
+     *
+     * @return a copy of the queue depths, indexed by shard
+     */
+    public int[] getQueueDepths() {
+        return queueDepths.clone();
+    }
+
+    /**
+     * Gets the number of lines handed to the workers.
+     *
+     * @return the number of submitted lines
+     */
+    public long getSubmittedLines() {
+        return submittedLines;
+    }
+
+    /**
+     * Gets the number of lines parsed, margined and published.
+     *
+     * @return the number of processed lines
+     */
+    public long getProcessedLines() {
+        return processedLines;
+    }
+
+    /**
+     * Gets the number of lines dropped because a newer tick of the same instrument was queued behind them.
+     *
+     * @return the number of conflated lines
+     */
+    public long getConflatedLines() {
+        return conflatedLines;
+    }
+
+    /**
+     * Gets the number of lines which could not be processed.
+     *
+     * @return the number of failed lines
+     */
+    public long getFailedLines() {
+        return failedLines;
+    }
+
+    /**
+     * Gets the number of well-formed lines rejected by the validation stage, e.g. crossed or out of order ticks.
+     *
+     * @return the number of rejected lines
+     */
+    public long getRejectedLines() {
+        return rejectedLines;
+    }
+
+    /**
+     * Gets the number of times the reader thread found a ring buffer full and had to wait.
+     *
+     * @return the number of producer waits
+     */
+    public long getProducerWaits() {
+        return producerWaits;
+    }
+
+    /**
+     * Gets the average time spent parsing a line, over every line handed to the workers, whether it was then
+     * published, conflated, rejected or failed.
+     *
+     * @return the average parse time, in nanoseconds
+     */
+    public double getAverageParseNanos() {
+        return submittedLines == 0 ? 0 : (double) parseNanos / submittedLines;
+    }
+
+    /**
+     * Gets the average time spent applying the margin to a price.
+     *
+     * @return the average margin time, in nanoseconds
+     */
+    public double getAverageMarginNanos() {
+        return average(marginNanos);
+    }
+
+    /**
+     * Gets the average time spent publishing a price.
+     *
+     * @return the average publish time, in nanoseconds
+     */
+    public double getAveragePublishNanos() {
+        return average(publishNanos);
+    }
+
+    /**
+     * Gets the average number of lines processed per second since the pipeline was started.
+     *
+     * @return the throughput, in lines per second
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : (double) processedLines * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * Gets the time elapsed since the pipeline was started.
+     *
+     * @return the elapsed time, in nanoseconds, or 0 if the pipeline was not started
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the distribution of the time spent parsing a line or a binary record. A whole message handed to a single
+     * worker is timed at once, and each of its lines recorded with an equal share of the time.
+     *
+     * @return the parse latencies, in nanoseconds
+     */
+    public LatencySnapshot getParseLatency() {
+        return parseLatency;
+    }
+
+    /**
+     * Gets the distribution of the time spent applying the margin to a price.
+     *
+     * @return the margin latencies, in nanoseconds
+     */
+    public LatencySnapshot getMarginLatency() {
+        return marginLatency;
+    }
+
+    /**
+     * Gets the distribution of the time spent publishing a price to the snapshot and the subscribers.
+     *
+     * @return the publish latencies, in nanoseconds
+     */
+    public LatencySnapshot getPublishLatency() {
+        return publishLatency;
+    }
+
+    /**
+     * Gets the distribution of the age of the prices once published, from the timestamp set by the source of the feed,
+     * which includes the clock difference between both sides.
+     *
+     * @return the tick ages, in milliseconds
+     */
+    public LatencySnapshot getTickAge() {
+        return tickAge;
+    }
+
+    private double average(long totalNanos) {
+        return processedLines == 0 ? 0 : (double) totalNanos / processedLines;
+    }
+
+    /**
+     * Returns a string representation of this {@code PipelineMetrics} instance.
+     *
+     * @return a string representation of this {@code PipelineMetrics} instance
+     */
+    @Override
+    public String toString() {
+        return "PipelineMetrics{" +
+                "queueDepths=" + Arrays.toString(queueDepths) +
+                ", submittedLines=" + submittedLines +
+                ", processedLines=" + processedLines +
+                ", conflatedLines=" + conflatedLines +
+                ", failedLines=" + failedLines +
+                ", rejectedLines=" + rejectedLines +
+                ", producerWaits=" + producerWaits +
+                ", averageParseNanos=" + getAverageParseNanos() +
+                ", averageMarginNanos=" + getAverageMarginNanos() +
+                ", averagePublishNanos=" + getAveragePublishNanos() +
+                ", throughput=" + getThroughput() +
+                ", parseLatency=" + parseLatency +
+                ", marginLatency=" + marginLatency +
+                ", publishLatency=" + publishLatency +
+                ", tickAge=" + tickAge +
+                '}';
+    }
+}
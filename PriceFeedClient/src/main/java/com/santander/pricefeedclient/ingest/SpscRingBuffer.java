@@ -0,0 +1,135 @@
+package com.santander.pricefeedclient.ingest;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, lock-free, single-producer single-consumer ring buffer.
+ * <p>
+ * {@link #offer(Object)} must only be called from one producer thread and {@link #poll()} /
+ * {@link #drainTo(Object[], int)} from one consumer thread. {@link #size()} may be called from any thread.
+ *
+ * @param <E> the type of the elements
+ */
+public class SpscRingBuffer<E> {
+
+    private final Object[] buffer;
+    private final int mask;
+
+    /**
+     * The index of the next element to consume, only written by the consumer.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * The index of the next element to produce, only written by the producer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The last head seen by the producer, so it only reads the shared index when the buffer looks full.
+     */
+    private long cachedHead;
+
+    /**
+     * The last tail seen by the consumer, so it only reads the shared index when the buffer looks empty.
+     */
+    private long cachedTail;
+
+    /**
+     * Creates a new ring buffer.
+     *
+     * @param capacity the capacity of the buffer, rounded up to a power of two
+     */
+    public SpscRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Adds an element to the buffer. Producer thread only.
+     *
+     * @param element the element to add, not null
+     * @return true if the element was added, false if the buffer is full
+     */
+    public boolean offer(E element) {
+        long currentTail = tail.get();
+        if (currentTail - cachedHead >= buffer.length) {
+            cachedHead = head.get();
+            if (currentTail - cachedHead >= buffer.length) {
+                return false;
+            }
+        }
+        buffer[(int) currentTail & mask] = element;
+        tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest element of the buffer. Consumer thread only.
+     *
+     * @return the oldest element, or null if the buffer is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long currentHead = head.get();
+        if (currentHead >= cachedTail) {
+            cachedTail = tail.get();
+            if (currentHead >= cachedTail) {
+                return null;
+            }
+        }
+        int index = (int) currentHead & mask;
+        E element = (E) buffer[index];
+        buffer[index] = null;
+        head.lazySet(currentHead + 1);
+        return element;
+    }
+
+    /**
+     * Removes up to {@code limit} of the oldest elements of the buffer into the given array, in order. Consumer
+     * thread only.
+     *
+     * @param elements the array receiving the elements, from index 0
+     * @param limit the maximum number of elements to remove
+     * @return the number of elements removed
+     */
+    @SuppressWarnings("unchecked")
+    public int drainTo(E[] elements, int limit) {
+        long currentHead = head.get();
+        long available = tail.get() - currentHead;
+        int count = (int) Math.min(available, limit);
+        for (int i = 0; i < count; i++) {
+            int index = (int) (currentHead + i) & mask;
+            elements[i] = (E) buffer[index];
+            buffer[index] = null;
+        }
+        head.lazySet(currentHead + count);
+        return count;
+    }
+
+    /**
+     * Returns the number of elements in the buffer.
+     *
+     * @return the number of elements in the buffer
+     */
+    public int size() {
+        long currentHead = head.get();
+        return (int) (tail.get() - currentHead);
+    }
+
+    /**
+     * Returns the capacity of the buffer.
+     *
+     * @return the capacity of the buffer
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+}
@@ -0,0 +1,337 @@
+package com.santander.pricefeedclient.journal;
+
+import com.santander.pricefeedclient.model.Price;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An append-only journal of accepted ticks, written to memory-mapped segment files of a fixed size.
+ * <p>
+ * Every tick is a 64-byte record. Writers claim a record slot with an atomic increment, fill it and then publish it
+ * by writing its commit marker with release semantics, so concurrent workers never wait for each other and a record
+ * torn by a crash is never replayed. When a segment is full the journal rolls over to a new one, which starts with a
+ * checkpoint of the latest prices; only the newest segments are retained.
+ * <p>
+ * Because of the checkpoints, {@link #replay(Path)} only needs to scan the last two segments to rebuild the latest
+ * price of every instrument, whatever the age of the journal. A newly opened journal always starts a new segment,
+ * checkpointing the prices restored by the replay.
+ * <pre>
+ * record offset  size  field
+ *            0     4  commit marker
+ *            4     1  flags: has id, checkpoint
+ *            5     1  length of the instrument name
+ *            8     8  most significant bits of the id
+ *           16     8  least significant bits of the id
+ *           24     8  bid, as raw double bits
+ *           32     8  ask, as raw double bits
+ *           40     8  timestamp
+ *           48    16  instrument name, in ISO-8859-1
+ * </pre>
+ * The first record slot of a segment holds its header: a magic number and the segment number.
+ */
+public class TickJournal implements AutoCloseable {
+
+    /**
+     * The size of a record, in bytes.
+     */
+    public static final int RECORD_SIZE = 64;
+
+    /**
+     * The maximum length of the instrument names which can be journaled.
+     */
+    public static final int MAX_INSTRUMENT_NAME_LENGTH = 16;
+
+    private static final VarHandle INTS = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private static final int SEGMENT_MAGIC = 0x5046_4A4C;
+    private static final int COMMITTED = 0x5449_434B;
+    private static final int MARKER_OFFSET = 0;
+    private static final int FLAGS_OFFSET = 4;
+    private static final int NAME_LENGTH_OFFSET = 5;
+    private static final int ID_MOST_SIG_BITS_OFFSET = 8;
+    private static final int ID_LEAST_SIG_BITS_OFFSET = 16;
+    private static final int BID_OFFSET = 24;
+    private static final int ASK_OFFSET = 32;
+    private static final int TIMESTAMP_OFFSET = 40;
+    private static final int NAME_OFFSET = 48;
+    private static final int SEGMENT_NUMBER_OFFSET = 8;
+
+    private static final byte HAS_ID = 1;
+    private static final byte CHECKPOINT = 2;
+    private static final int REPLAYED_SEGMENTS = 2;
+    private static final String SEGMENT_PREFIX = "ticks-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int retainedSegments;
+    private final Supplier<? extends Collection<Price>> checkpoint;
+    private volatile Segment current;
+    private volatile boolean closed;
+
+    /**
+     * Opens a journal in the given directory, creating it if needed, and starts a new segment after the existing
+     * ones.
+     *
+     * @param directory the directory holding the segment files
+     * @param segmentSize the size of a segment file, in bytes, rounded down to a multiple of {@link #RECORD_SIZE}; it
+     *                    must leave room for a checkpoint of every instrument
+     * @param retainedSegments the number of segments kept on disk, at least 2
+     * @param checkpoint the supplier of the latest prices, written at the start of every segment
+     * @throws IOException if the directory or the first segment cannot be created
+     */
+    public TickJournal(Path directory, int segmentSize, int retainedSegments,
+                       Supplier<? extends Collection<Price>> checkpoint) throws IOException {
+        if (segmentSize < 2 * RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size must hold at least 2 records: " + segmentSize);
+        }
+        if (retainedSegments < REPLAYED_SEGMENTS) {
+            throw new IllegalArgumentException("At least " + REPLAYED_SEGMENTS + " segments must be retained: "
+                    + retainedSegments);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize - segmentSize % RECORD_SIZE;
+        this.retainedSegments = retainedSegments;
+        this.checkpoint = checkpoint;
+        List<Long> segmentNumbers = segmentNumbers(directory);
+        this.current = openSegment(segmentNumbers.isEmpty() ? 0 : segmentNumbers.get(segmentNumbers.size() - 1) + 1);
+    }
+
+    /**
+     * Appends the given price to the journal. Can be called concurrently by several threads.
+     *
+     * @param price the price to journal
+     * @return true if the price was journaled, or false if its instrument name is too long or not ISO-8859-1
+     * @throws IllegalStateException if the journal is closed
+     * @throws UncheckedIOException if the journal cannot roll over to a new segment
+     */
+    public boolean append(Price price) {
+        String instrumentName = price.getInstrumentName();
+        if (!isJournalable(instrumentName)) {
+            return false;
+        }
+        while (true) {
+            Segment segment = current;
+            if (closed) {
+                throw new IllegalStateException("The journal is closed");
+            }
+            int offset = segment.nextOffset.getAndAdd(RECORD_SIZE);
+            if (offset >= 0 && offset <= segmentSize - RECORD_SIZE) {
+                write(segment.buffer, offset, price, (byte) 0);
+                return true;
+            }
+            roll(segment);
+        }
+    }
+
+    /**
+     * Returns the number of the segment currently written, which grows by one at every rollover.
+     *
+     * @return the current segment number
+     */
+    public long getSegmentNumber() {
+        return current.number;
+    }
+
+    /**
+     * Flushes the current segment to disk and stops accepting ticks.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            current.buffer.force();
+        }
+    }
+
+    /**
+     * Rebuilds the latest price of every instrument from the journal in the given directory, by scanning its last
+     * two segments: the newest one starts with a checkpoint of every instrument, and the previous one may hold ticks
+     * written while that checkpoint was being taken. A price replaces the one already restored for its instrument
+     * unless it is older.
+     *
+     * @param directory the directory holding the segment files
+     * @return a new map of instrument names to their latest journaled price, empty if there is no journal
+     * @throws IOException if a segment cannot be read
+     */
+    public static Map<String, Price> replay(Path directory) throws IOException {
+        Map<String, Price> latestPrices = new HashMap<>();
+        if (!Files.isDirectory(directory)) {
+            return latestPrices;
+        }
+        List<Long> segmentNumbers = segmentNumbers(directory);
+        int first = Math.max(0, segmentNumbers.size() - REPLAYED_SEGMENTS);
+        for (long segmentNumber : segmentNumbers.subList(first, segmentNumbers.size())) {
+            replaySegment(segmentPath(directory, segmentNumber), latestPrices);
+        }
+        return latestPrices;
+    }
+
+    private static void replaySegment(Path path, Map<String, Price> latestPrices) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.limit() < RECORD_SIZE || buffer.getInt(MARKER_OFFSET) != SEGMENT_MAGIC) {
+            return;
+        }
+        byte[] name = new byte[MAX_INSTRUMENT_NAME_LENGTH];
+        for (int offset = RECORD_SIZE; offset <= buffer.limit() - RECORD_SIZE; offset += RECORD_SIZE) {
+            if ((int) INTS.getAcquire(buffer, offset + MARKER_OFFSET) != COMMITTED) {
+                continue;
+            }
+            int nameLength = buffer.get(offset + NAME_LENGTH_OFFSET);
+            for (int i = 0; i < nameLength; i++) {
+                name[i] = buffer.get(offset + NAME_OFFSET + i);
+            }
+            String instrumentName = new String(name, 0, nameLength, StandardCharsets.ISO_8859_1);
+            long timestamp = buffer.getLong(offset + TIMESTAMP_OFFSET);
+            Price latestPrice = latestPrices.get(instrumentName);
+            if (latestPrice != null && latestPrice.getTimestamp() > timestamp) {
+                continue;
+            }
+            Price price = latestPrice != null ? latestPrice : new Price();
+            if ((buffer.get(offset + FLAGS_OFFSET) & HAS_ID) != 0) {
+                price.setId(buffer.getLong(offset + ID_MOST_SIG_BITS_OFFSET),
+                        buffer.getLong(offset + ID_LEAST_SIG_BITS_OFFSET));
+            } else {
+                price.setId(null);
+            }
+            price.setInstrumentName(instrumentName);
+            price.setBid(Double.longBitsToDouble(buffer.getLong(offset + BID_OFFSET)));
+            price.setAsk(Double.longBitsToDouble(buffer.getLong(offset + ASK_OFFSET)));
+            price.setTimestamp(timestamp);
+            latestPrices.put(instrumentName, price);
+        }
+    }
+
+    /**
+     * Replaces the given full segment with a new one, unless another writer already did.
+     */
+    private synchronized void roll(Segment full) {
+        if (current != full || closed) {
+            return;
+        }
+        full.buffer.force();
+        try {
+            current = openSegment(full.number + 1);
+            deleteSegmentsBefore(full.number + 2 - retainedSegments);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates the segment with the given number, writes its header and the checkpoint, and returns it.
+     */
+    private Segment openSegment(long number) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segmentPath(directory, number), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        buffer.putLong(SEGMENT_NUMBER_OFFSET, number);
+        INTS.setRelease(buffer, MARKER_OFFSET, SEGMENT_MAGIC);
+        int offset = RECORD_SIZE;
+        for (Price price : checkpoint.get()) {
+            if (!isJournalable(price.getInstrumentName())) {
+                continue;
+            }
+            if (offset > segmentSize - RECORD_SIZE) {
+                throw new IllegalStateException("Segment size " + segmentSize + " is too small for the checkpoint");
+            }
+            write(buffer, offset, price, CHECKPOINT);
+            offset += RECORD_SIZE;
+        }
+        return new Segment(number, buffer, offset);
+    }
+
+    private void deleteSegmentsBefore(long number) throws IOException {
+        for (long segmentNumber : segmentNumbers(directory)) {
+            if (segmentNumber < number) {
+                Files.deleteIfExists(segmentPath(directory, segmentNumber));
+            }
+        }
+    }
+
+    private static void write(ByteBuffer buffer, int offset, Price price, byte flags) {
+        String instrumentName = price.getInstrumentName();
+        buffer.put(offset + FLAGS_OFFSET, price.hasId() ? (byte) (flags | HAS_ID) : flags);
+        buffer.put(offset + NAME_LENGTH_OFFSET, (byte) instrumentName.length());
+        buffer.putLong(offset + ID_MOST_SIG_BITS_OFFSET, price.getIdMostSignificantBits());
+        buffer.putLong(offset + ID_LEAST_SIG_BITS_OFFSET, price.getIdLeastSignificantBits());
+        buffer.putLong(offset + BID_OFFSET, Double.doubleToRawLongBits(price.getBid()));
+        buffer.putLong(offset + ASK_OFFSET, Double.doubleToRawLongBits(price.getAsk()));
+        buffer.putLong(offset + TIMESTAMP_OFFSET, price.getTimestamp());
+        for (int i = 0; i < instrumentName.length(); i++) {
+            buffer.put(offset + NAME_OFFSET + i, (byte) instrumentName.charAt(i));
+        }
+        INTS.setRelease(buffer, offset + MARKER_OFFSET, COMMITTED);
+    }
+
+    private static boolean isJournalable(String instrumentName) {
+        if (instrumentName == null || instrumentName.length() > MAX_INSTRUMENT_NAME_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < instrumentName.length(); i++) {
+            if (instrumentName.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Returns the numbers of the segments in the given directory, in ascending order.
+     */
+    private static List<Long> segmentNumbers(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))
+                    .filter(number -> !number.isEmpty() && number.chars().allMatch(Character::isDigit))
+                    .map(Long::parseLong)
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * A mapped segment file and the offset of its next free record slot.
+     */
+    private static final class Segment {
+        private final long number;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger nextOffset;
+
+        private Segment(long number, MappedByteBuffer buffer, int nextOffset) {
+            this.number = number;
+            this.buffer = buffer;
+            this.nextOffset = new AtomicInteger(nextOffset);
+        }
+    }
+}
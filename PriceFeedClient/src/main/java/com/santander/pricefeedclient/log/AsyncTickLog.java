@@ -0,0 +1,239 @@
+package com.santander.pricefeedclient.log;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.Json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link TickLog} which hands events to a background thread writing them as JSON lines.
+ * <p>
+ * Events are copied into the preallocated slots of a bounded, lock-free multi-producer ring: a producer claims a slot
+ * with a compare-and-set on the tail and publishes it through the sequence of the slot, so logging never takes a lock
+ * nor allocates. When the ring is full the event is dropped and counted rather than blocking the ingestion thread.
+ * Events can be sampled, keeping one in {@code sampleRate} on average.
+ */
+public class AsyncTickLog implements TickLog {
+
+    private static final int IDLE_SPINS = 100;
+    private static final long MAX_PARK_NANOS = 1_000_000L;
+
+    private final TickLogLevel level;
+    private final int sampleRate;
+    private final Writer writer;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final TickLogLevel[] levels;
+    private final String[] events;
+    private final String[] instrumentNames;
+    private final boolean[] hasIds;
+    private final long[] idMostSigBits;
+    private final long[] idLeastSigBits;
+    private final double[] bids;
+    private final double[] asks;
+    private final long[] timestamps;
+    private final AtomicLong tail = new AtomicLong();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final AtomicLong writtenEvents = new AtomicLong();
+    private final Thread thread;
+    private final StringBuilder line = new StringBuilder();
+    private long head;
+    private volatile boolean running = true;
+
+    /**
+     * Creates a new log and starts its writer thread.
+     *
+     * @param level the most verbose level logged
+     * @param sampleRate one event in {@code sampleRate} is logged on average, 1 to log every event
+     * @param capacity the number of events which can wait for the writer thread, rounded up to a power of two
+     * @param out the stream receiving the events, one JSON object per line
+     */
+    public AsyncTickLog(TickLogLevel level, int sampleRate, int capacity, OutputStream out) {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("Sample rate must be positive: " + sampleRate);
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.level = level;
+        this.sampleRate = sampleRate;
+        this.writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.levels = new TickLogLevel[size];
+        this.events = new String[size];
+        this.instrumentNames = new String[size];
+        this.hasIds = new boolean[size];
+        this.idMostSigBits = new long[size];
+        this.idLeastSigBits = new long[size];
+        this.bids = new double[size];
+        this.asks = new double[size];
+        this.timestamps = new long[size];
+        this.thread = new Thread(this::drain, "tick-log-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public boolean isEnabled(TickLogLevel eventLevel) {
+        return level.includes(eventLevel);
+    }
+
+    @Override
+    public void log(TickLogLevel eventLevel, String event, Price price) {
+        if (!level.includes(eventLevel) || !running
+                || sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return;
+        }
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (sequence < position) {
+                droppedEvents.increment();
+                return;
+            } else {
+                position = tail.get();
+            }
+        }
+        int index = (int) position & mask;
+        levels[index] = eventLevel;
+        events[index] = event;
+        instrumentNames[index] = price.getInstrumentName();
+        hasIds[index] = price.hasId();
+        idMostSigBits[index] = price.getIdMostSignificantBits();
+        idLeastSigBits[index] = price.getIdLeastSignificantBits();
+        bids[index] = price.getBid();
+        asks[index] = price.getAsk();
+        timestamps[index] = price.getTimestamp();
+        sequences.lazySet(index, position + 1);
+    }
+
+    /**
+     * Returns the number of events dropped because the writer thread was behind.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+
+    /**
+     * Returns the number of events written so far.
+     *
+     * @return the number of written events
+     */
+    public long getWrittenEvents() {
+        return writtenEvents.get();
+    }
+
+    /**
+     * Stops accepting events, waits for the pending ones to be written and flushes the stream.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        int idleCount = 0;
+        try {
+            while (true) {
+                int count = writePending();
+                if (count > 0) {
+                    writer.flush();
+                    idleCount = 0;
+                } else if (running) {
+                    idle(idleCount++);
+                } else if (tail.get() == head) {
+                    break;
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            running = false;
+        }
+    }
+
+    /**
+     * Writes the published events, in order, and releases their slots.
+     *
+     * @return the number of events written
+     */
+    private int writePending() throws IOException {
+        int count = 0;
+        while (true) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                return count;
+            }
+            format(index);
+            writer.append(line);
+            events[index] = null;
+            instrumentNames[index] = null;
+            sequences.lazySet(index, head + mask + 1);
+            head++;
+            count++;
+            writtenEvents.lazySet(writtenEvents.get() + 1);
+        }
+    }
+
+    private void format(int index) {
+        line.setLength(0);
+        line.append("{\"level\":\"").append(levels[index]).append("\",\"event\":");
+        Json.appendString(line, events[index]).append(",\"id\":");
+        if (hasIds[index]) {
+            line.append('"').append(new UUID(idMostSigBits[index], idLeastSigBits[index])).append('"');
+        } else {
+            line.append("null");
+        }
+        line.append(",\"instrument\":");
+        Json.appendString(line, instrumentNames[index]).append(",\"bid\":");
+        Json.appendNumber(line, bids[index]).append(",\"ask\":");
+        Json.appendNumber(line, asks[index])
+                .append(",\"timestamp\":").append(timestamps[index])
+                .append("}\n");
+    }
+
+    private static void idle(int idleCount) {
+        if (idleCount < IDLE_SPINS) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L * (idleCount - IDLE_SPINS + 1)));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.santander.pricefeedclient.log;
+
+import com.santander.pricefeedclient.model.Price;
+
+/**
+ * A sink of tick events, used to audit the prices flowing through the ingestion stages.
+ * <p>
+ * Implementations must not block the calling thread. Callers are expected to guard every event with
+ * {@link #isEnabled(TickLogLevel)}, so that with {@link #NO_OP} the check is a constant the JIT compiler folds away.
+ */
+public interface TickLog extends AutoCloseable {
+
+    /**
+     * A tick log discarding every event.
+     */
+    TickLog NO_OP = new TickLog() {
+        @Override
+        public boolean isEnabled(TickLogLevel level) {
+            return false;
+        }
+
+        @Override
+        public void log(TickLogLevel level, String event, Price price) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Returns whether events of the given level are logged.
+     *
+     * @param level the level of an event
+     * @return true if events of the given level are logged, and false otherwise
+     */
+    boolean isEnabled(TickLogLevel level);
+
+    /**
+     * Logs an event about the given price. The price is copied, so the caller may reuse it as soon as this method
+     * returns.
+     *
+     * @param level the level of the event
+     * @param event the name of the event
+     * @param price the price the event is about
+     */
+    void log(TickLogLevel level, String event, Price price);
+
+    /**
+     * Writes the pending events and releases the resources of the log.
+     */
+    @Override
+    void close();
+}
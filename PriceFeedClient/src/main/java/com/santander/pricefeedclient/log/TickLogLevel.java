@@ -0,0 +1,45 @@
+package com.santander.pricefeedclient.log;
+
+import java.util.Locale;
+
+/**
+ * The levels of the tick log, from the least to the most verbose.
+ */
+public enum TickLogLevel {
+
+    /**
+     * Nothing is logged.
+     */
+    OFF,
+
+    /**
+     * The prices published by the service are logged.
+     */
+    INFO,
+
+    /**
+     * The intermediate prices of the ingestion stages are logged as well.
+     */
+    DEBUG;
+
+    /**
+     * Returns whether events of the given level are logged at this level.
+     *
+     * @param level the level of an event
+     * @return true if the event should be logged, and false otherwise
+     */
+    public boolean includes(TickLogLevel level) {
+        return level != OFF && level.ordinal() <= ordinal();
+    }
+
+    /**
+     * Returns the level with the given name, ignoring case.
+     *
+     * @param name the name of the level
+     * @return the level with the given name
+     * @throws IllegalArgumentException if there is no level with the given name
+     */
+    public static TickLogLevel parse(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,175 @@
+package com.santander.pricefeedclient.margin;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+
+/**
+ * Applies the margins of every client tier and notional band to each tick, and keeps the latest margined price of
+ * every instrument, tier and band.
+ * <p>
+ * A {@link MarginSchedule} is precomputed into flat arrays of bid and ask margins indexed by instrument, band and
+ * tier, the tiers of a band being contiguous: margining a tick is one loop over those arrays per band, which the JIT
+ * compiler can vectorise, followed by a store update per tier. Instruments registered after the table was computed
+ * use the default margins.
+ * <p>
+ * {@link #update(MarginSchedule)} swaps the table with a single volatile write: ticks being margined keep using the
+ * table they read, so ingestion is never paused and a tick is never margined with a mix of two tables.
+ */
+public class MarginEngine {
+
+    private final InstrumentRegistry instrumentRegistry;
+    private final int tierCount;
+    private final int bandCount;
+    private final LatestPriceStore[] stores;
+    private final ThreadLocal<Scratch> scratch;
+    private volatile MarginTable table;
+
+    /**
+     * Creates a new engine applying the given schedule.
+     *
+     * @param instrumentRegistry the registry assigning the instrument ids of the ticks
+     * @param schedule the margins to apply
+     */
+    public MarginEngine(InstrumentRegistry instrumentRegistry, MarginSchedule schedule) {
+        this.instrumentRegistry = instrumentRegistry;
+        this.tierCount = schedule.getTierCount();
+        this.bandCount = schedule.getBandCount();
+        this.stores = new LatestPriceStore[tierCount * bandCount];
+        for (int i = 0; i < stores.length; i++) {
+            stores[i] = new LatestPriceStore(instrumentRegistry);
+        }
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(tierCount));
+        this.table = new MarginTable(instrumentRegistry, schedule);
+    }
+
+    /**
+     * Atomically replaces the applied margins with the given schedule, which must have the same tiers and bands.
+     *
+     * @param schedule the margins to apply from now on
+     * @throws IllegalArgumentException if the schedule has other tier or band counts
+     */
+    public void update(MarginSchedule schedule) {
+        if (schedule.getTierCount() != tierCount || schedule.getBandCount() != bandCount) {
+            throw new IllegalArgumentException("The schedule must have " + tierCount + " tiers and " + bandCount
+                    + " bands");
+        }
+        table = new MarginTable(instrumentRegistry, schedule);
+    }
+
+    /**
+     * Gets the number of client tiers.
+     *
+     * @return the number of client tiers
+     */
+    public int getTierCount() {
+        return tierCount;
+    }
+
+    /**
+     * Gets the number of notional bands.
+     *
+     * @return the number of notional bands
+     */
+    public int getBandCount() {
+        return bandCount;
+    }
+
+    /**
+     * Returns the notional band of the given notional.
+     *
+     * @param notional the notional of a request
+     * @return the index of the first band whose upper bound is at least the notional
+     */
+    public int bandOf(double notional) {
+        return table.bandOf(notional);
+    }
+
+    /**
+     * Margins the given tick for every tier and band, registering its instrument if needed.
+     *
+     * @param price the tick, which is not modified
+     * @see #apply(int, Price)
+     */
+    public void apply(Price price) {
+        apply(instrumentRegistry.register(price.getInstrumentName()), price);
+    }
+
+    /**
+     * Margins the given tick for every tier and band and stores the results as the latest prices of its instrument.
+     * Ticks of the same instrument must be applied by one thread at a time.
+     *
+     * @param instrumentId the id of the instrument of the tick
+     * @param price the tick, which is not modified
+     */
+    public void apply(int instrumentId, Price price) {
+        MarginTable currentTable = table;
+        Scratch current = scratch.get();
+        double[] bids = current.bids;
+        double[] asks = current.asks;
+        Price margined = current.price.copyFrom(price);
+        double bid = price.getBid();
+        double ask = price.getAsk();
+        for (int band = 0; band < bandCount; band++) {
+            int offset = currentTable.offset(instrumentId, band);
+            double[] bidMargins = currentTable.bidMargins;
+            double[] askMargins = currentTable.askMargins;
+            for (int tier = 0; tier < tierCount; tier++) {
+                bids[tier] = bid - bidMargins[offset + tier];
+                asks[tier] = ask + askMargins[offset + tier];
+            }
+            for (int tier = 0; tier < tierCount; tier++) {
+                margined.setBid(bids[tier]);
+                margined.setAsk(asks[tier]);
+                stores[band * tierCount + tier].update(instrumentId, margined);
+            }
+        }
+    }
+
+    /**
+     * Returns the latest price of the given instrument for the given tier and notional.
+     *
+     * @param instrumentName the name of the instrument
+     * @param tier the client tier
+     * @param notional the notional of the request
+     * @return a new price holding the latest margined price, or null if no price is available
+     */
+    public Price getLatestPrice(String instrumentName, int tier, double notional) {
+        return store(tier, bandOf(notional)).getLatestPrice(instrumentName);
+    }
+
+    /**
+     * Reads the latest price of the given instrument for the given tier and band into the given target.
+     *
+     * @param instrumentId the id of the instrument
+     * @param tier the client tier
+     * @param band the notional band
+     * @param target the price receiving the latest margined price, left untouched if no price is available
+     * @return the sequence of the price read, or 0 if no price is available, see
+     * {@link LatestPriceStore#getLatestPrice(int, Price)}
+     */
+    public long getLatestPrice(int instrumentId, int tier, int band, Price target) {
+        return store(tier, band).getLatestPrice(instrumentId, target);
+    }
+
+    private LatestPriceStore store(int tier, int band) {
+        if (tier < 0 || tier >= tierCount || band < 0 || band >= bandCount) {
+            throw new IndexOutOfBoundsException("Unknown tier " + tier + " or band " + band);
+        }
+        return stores[band * tierCount + tier];
+    }
+
+    /**
+     * The per-thread buffers of {@link #apply(int, Price)}.
+     */
+    private static final class Scratch {
+        private final double[] bids;
+        private final double[] asks;
+        private final Price price = new Price();
+
+        private Scratch(int tierCount) {
+            this.bids = new double[tierCount];
+            this.asks = new double[tierCount];
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.santander.pricefeedclient.margin;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The definition of the margins applied by a {@link MarginEngine}, by client tier and notional band, with optional
+ * overrides for specific instruments.
+ * <p>
+ * Margins are absolute amounts subtracted from the bid and added to the ask, like
+ * {@code PriceFeedService.addMargin}. A schedule is only read when it is handed to a {@link MarginEngine}, which
+ * precomputes it: changing it afterwards has no effect until it is handed again.
+ */
+public class MarginSchedule {
+
+    private final int tierCount;
+    private final double[] bandUpperNotionals;
+    private final double[] defaultBidMargins;
+    private final double[] defaultAskMargins;
+    private final Map<String, double[][]> instrumentMargins = new LinkedHashMap<>();
+
+    /**
+     * Creates a new schedule whose margins are all zero.
+     *
+     * @param tierCount the number of client tiers, numbered from 0
+     * @param bandUpperNotionals the ascending upper bounds of the notional bands but the last one, which is unbounded;
+     *                           empty for a single band
+     */
+    public MarginSchedule(int tierCount, double... bandUpperNotionals) {
+        if (tierCount <= 0) {
+            throw new IllegalArgumentException("Tier count must be positive: " + tierCount);
+        }
+        for (int i = 1; i < bandUpperNotionals.length; i++) {
+            if (bandUpperNotionals[i] <= bandUpperNotionals[i - 1]) {
+                throw new IllegalArgumentException("Band upper notionals must be ascending: "
+                        + Arrays.toString(bandUpperNotionals));
+            }
+        }
+        this.tierCount = tierCount;
+        this.bandUpperNotionals = bandUpperNotionals.clone();
+        this.defaultBidMargins = new double[tierCount * getBandCount()];
+        this.defaultAskMargins = new double[tierCount * getBandCount()];
+    }
+
+    /**
+     * Gets the number of client tiers.
+     *
+     * @return the number of client tiers
+     */
+    public int getTierCount() {
+        return tierCount;
+    }
+
+    /**
+     * Gets the number of notional bands.
+     *
+     * @return the number of notional bands
+     */
+    public int getBandCount() {
+        return bandUpperNotionals.length + 1;
+    }
+
+    /**
+     * Gets the upper bounds of the notional bands but the last one.
+     *
+     * @return a copy of the band upper notionals
+     */
+    public double[] getBandUpperNotionals() {
+        return bandUpperNotionals.clone();
+    }
+
+    /**
+     * Sets the margins of the given tier and band for every instrument without an override.
+     *
+     * @param tier the client tier
+     * @param band the notional band
+     * @param bidMargin the amount subtracted from the bid
+     * @param askMargin the amount added to the ask
+     * @return this schedule
+     */
+    public MarginSchedule setDefaultMargin(int tier, int band, double bidMargin, double askMargin) {
+        int index = index(tier, band);
+        defaultBidMargins[index] = bidMargin;
+        defaultAskMargins[index] = askMargin;
+        return this;
+    }
+
+    /**
+     * Sets the margins of the given tier and band for the given instrument. The other tiers and bands of the
+     * instrument keep the default margins until they are overridden too.
+     *
+     * @param instrumentName the name of the instrument
+     * @param tier the client tier
+     * @param band the notional band
+     * @param bidMargin the amount subtracted from the bid
+     * @param askMargin the amount added to the ask
+     * @return this schedule
+     */
+    public MarginSchedule setInstrumentMargin(String instrumentName, int tier, int band, double bidMargin,
+                                              double askMargin) {
+        int index = index(tier, band);
+        double[][] margins = instrumentMargins.computeIfAbsent(instrumentName, name -> {
+            double[][] unset = new double[2][defaultBidMargins.length];
+            Arrays.fill(unset[0], Double.NaN);
+            Arrays.fill(unset[1], Double.NaN);
+            return unset;
+        });
+        margins[0][index] = bidMargin;
+        margins[1][index] = askMargin;
+        return this;
+    }
+
+    /**
+     * Returns the margin subtracted from the bid of the given instrument, tier and band.
+     *
+     * @param instrumentName the name of the instrument
+     * @param tier the client tier
+     * @param band the notional band
+     * @return the bid margin
+     */
+    public double getBidMargin(String instrumentName, int tier, int band) {
+        return margin(instrumentName, 0, index(tier, band), defaultBidMargins);
+    }
+
+    /**
+     * Returns the margin added to the ask of the given instrument, tier and band.
+     *
+     * @param instrumentName the name of the instrument
+     * @param tier the client tier
+     * @param band the notional band
+     * @return the ask margin
+     */
+    public double getAskMargin(String instrumentName, int tier, int band) {
+        return margin(instrumentName, 1, index(tier, band), defaultAskMargins);
+    }
+
+    /**
+     * Returns the overridden margin of the instrument, or the default one. Unset overrides are NaN.
+     */
+    private double margin(String instrumentName, int side, int index, double[] defaultMargins) {
+        double[][] margins = instrumentMargins.get(instrumentName);
+        return margins == null || Double.isNaN(margins[side][index]) ? defaultMargins[index] : margins[side][index];
+    }
+
+    /**
+     * Returns the instruments with overridden margins.
+     */
+    Iterable<String> getOverriddenInstruments() {
+        return instrumentMargins.keySet();
+    }
+
+    /**
+     * Returns the index of a tier and band in the margin arrays, laid out band by band so that the tiers of a band
+     * are contiguous.
+     */
+    private int index(int tier, int band) {
+        if (tier < 0 || tier >= tierCount || band < 0 || band >= getBandCount()) {
+            throw new IndexOutOfBoundsException("Unknown tier " + tier + " or band " + band);
+        }
+        return band * tierCount + tier;
+    }
+}
@@ -0,0 +1,73 @@
+package com.santander.pricefeedclient.margin;
+
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+
+import java.util.Arrays;
+
+/**
+ * The immutable, precomputed form of a {@link MarginSchedule}: the margins of every instrument with overrides, then
+ * the default margins, each as a row of {@code bandCount * tierCount} values.
+ */
+final class MarginTable {
+
+    final double[] bidMargins;
+    final double[] askMargins;
+    private final double[] bandUpperNotionals;
+    private final int tierCount;
+    private final int rowSize;
+    private final int[] rowOffsets;
+    private final int defaultOffset;
+
+    MarginTable(InstrumentRegistry instrumentRegistry, MarginSchedule schedule) {
+        int bandCount = schedule.getBandCount();
+        this.tierCount = schedule.getTierCount();
+        this.bandUpperNotionals = schedule.getBandUpperNotionals();
+        this.rowSize = tierCount * bandCount;
+        int overrides = 0;
+        int maxInstrumentId = -1;
+        for (String instrumentName : schedule.getOverriddenInstruments()) {
+            maxInstrumentId = Math.max(maxInstrumentId, instrumentRegistry.register(instrumentName));
+            overrides++;
+        }
+        this.bidMargins = new double[(overrides + 1) * rowSize];
+        this.askMargins = new double[(overrides + 1) * rowSize];
+        this.defaultOffset = overrides * rowSize;
+        this.rowOffsets = new int[maxInstrumentId + 1];
+        Arrays.fill(rowOffsets, defaultOffset);
+        int row = 0;
+        for (String instrumentName : schedule.getOverriddenInstruments()) {
+            rowOffsets[instrumentRegistry.idOf(instrumentName)] = row * rowSize;
+            fill(schedule, instrumentName, row * rowSize, bandCount);
+            row++;
+        }
+        fill(schedule, null, defaultOffset, bandCount);
+    }
+
+    private void fill(MarginSchedule schedule, String instrumentName, int offset, int bandCount) {
+        for (int band = 0; band < bandCount; band++) {
+            for (int tier = 0; tier < tierCount; tier++) {
+                bidMargins[offset + band * tierCount + tier] = schedule.getBidMargin(instrumentName, tier, band);
+                askMargins[offset + band * tierCount + tier] = schedule.getAskMargin(instrumentName, tier, band);
+            }
+        }
+    }
+
+    /**
+     * Returns the offset of the margins of the tiers of the given instrument and band.
+     */
+    int offset(int instrumentId, int band) {
+        int rowOffset = instrumentId < rowOffsets.length ? rowOffsets[instrumentId] : defaultOffset;
+        return rowOffset + band * tierCount;
+    }
+
+    /**
+     * Returns the index of the first band whose upper bound is at least the given notional.
+     */
+    int bandOf(double notional) {
+        int band = 0;
+        while (band < bandUpperNotionals.length && notional > bandUpperNotionals[band]) {
+            band++;
+        }
+        return band;
+    }
+}
@@ -0,0 +1,98 @@
+package com.santander.pricefeedclient.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A log-linear histogram of non-negative values, such as latencies, recorded by a single thread and read by any.
+ * <p>
+ * Values below {@value #SUB_BUCKET_COUNT} have a bucket each; above, every power of two is split into
+ * {@value #SUB_BUCKET_COUNT} equal buckets, so a value is known within 1/{@value #SUB_BUCKET_COUNT} of itself
+ * whatever its magnitude, like in an HDR histogram. The buckets are allocated once: recording is a few arithmetic
+ * operations and ordered stores, without allocation nor lock.
+ * <p>
+ * Each recording thread owns its histograms; readers merge them into a {@link LatencySnapshot}. A snapshot taken while
+ * values are recorded may miss the latest of them, but never counts a value twice.
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 6;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT * (Long.SIZE - SUB_BUCKET_BITS);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Records a value. Must only be called by the thread owning the histogram.
+     *
+     * @param value the value, negative values being recorded as 0
+     */
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * Records the same value several times, such as the share of each line in the time spent on a whole message.
+     * Must only be called by the thread owning the histogram.
+     *
+     * @param value the value, negative values being recorded as 0
+     * @param count the number of times the value is recorded
+     */
+    public void record(long value, long count) {
+        if (value < 0) {
+            value = 0;
+        }
+        int index = indexOf(value);
+        counts.lazySet(index, counts.get(index) + count);
+        totalValue.lazySet(totalValue.get() + value * count);
+        if (value > maxValue.get()) {
+            maxValue.lazySet(value);
+        }
+    }
+
+    /**
+     * Adds the counts of this histogram to the given buckets, and returns the number of values added.
+     */
+    long addTo(long[] target) {
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long bucketCount = counts.get(i);
+            target[i] += bucketCount;
+            count += bucketCount;
+        }
+        return count;
+    }
+
+    long getTotalValue() {
+        return totalValue.get();
+    }
+
+    long getMaxValue() {
+        return maxValue.get();
+    }
+
+    /**
+     * Returns the bucket of the given non-negative value.
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the highest value counted in the given bucket.
+     */
+    static long highestValueOf(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long) (SUB_BUCKET_COUNT + (index & (SUB_BUCKET_COUNT - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
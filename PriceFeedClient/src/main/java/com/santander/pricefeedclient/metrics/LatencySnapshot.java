@@ -0,0 +1,145 @@
+package com.santander.pricefeedclient.metrics;
+
+/**
+ * A point-in-time, immutable merge of {@link LatencyHistogram}s. Percentiles are the highest value of the bucket
+ * holding them, i.e. within 1/{@value LatencyHistogram#SUB_BUCKET_COUNT} above the exact value, and never above the
+ * maximum.
+ */
+public class LatencySnapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long totalValue;
+    private final long maxValue;
+
+    private LatencySnapshot(long[] counts, long count, long totalValue, long maxValue) {
+        this.counts = counts;
+        this.count = count;
+        this.totalValue = totalValue;
+        this.maxValue = maxValue;
+    }
+
+    /**
+     * Merges the values recorded so far by the given histograms.
+     *
+     * @param histograms the histograms, recording the same kind of values
+     * @return a new snapshot
+     */
+    public static LatencySnapshot merge(LatencyHistogram... histograms) {
+        long[] counts = new long[LatencyHistogram.BUCKET_COUNT];
+        long count = 0;
+        long totalValue = 0;
+        long maxValue = 0;
+        for (LatencyHistogram histogram : histograms) {
+            // read the maximum after the buckets, so that it bounds every counted value
+            totalValue += histogram.getTotalValue();
+            count += histogram.addTo(counts);
+            maxValue = Math.max(maxValue, histogram.getMaxValue());
+        }
+        return new LatencySnapshot(counts, count, totalValue, maxValue);
+    }
+
+    /**
+     * Gets the number of recorded values.
+     *
+     * @return the number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the mean of the recorded values.
+     *
+     * @return the mean, or 0 if no value was recorded
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) totalValue / count;
+    }
+
+    /**
+     * Gets the highest recorded value.
+     *
+     * @return the maximum, or 0 if no value was recorded
+     */
+    public long getMax() {
+        return count == 0 ? 0 : maxValue;
+    }
+
+    /**
+     * Gets the median of the recorded values.
+     *
+     * @return the 50th percentile
+     */
+    public long getMedian() {
+        return getValueAtPercentile(50);
+    }
+
+    /**
+     * Gets the 90th percentile of the recorded values.
+     *
+     * @return the 90th percentile
+     */
+    public long getP90() {
+        return getValueAtPercentile(90);
+    }
+
+    /**
+     * Gets the 99th percentile of the recorded values.
+     *
+     * @return the 99th percentile
+     */
+    public long getP99() {
+        return getValueAtPercentile(99);
+    }
+
+    /**
+     * Gets the 99.9th percentile of the recorded values.
+     *
+     * @return the 99.9th percentile
+     */
+    public long getP999() {
+        return getValueAtPercentile(99.9);
+    }
+
+    /**
+     * Returns the value below which the given percentage of the recorded values fall.
+     *
+     * @param percentile the percentage, in {@code [0, 100]}
+     * @return the value at the percentile, or 0 if no value was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueOf(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Returns a string representation of this {@code LatencySnapshot} instance.
+     *
+     * @return a string representation of this {@code LatencySnapshot} instance
+     */
+    @Override
+    public String toString() {
+        return "LatencySnapshot{" +
+                "count=" + count +
+                ", mean=" + getMean() +
+                ", median=" + getMedian() +
+                ", p99=" + getP99() +
+                ", p999=" + getP999() +
+                ", max=" + getMax() +
+                '}';
+    }
+}
@@ -1,17 +1,36 @@
 package com.santander.pricefeedclient.model;
 
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+
+import java.util.Objects;
 import java.util.UUID;
 
 /**
  * A class representing a financial instrument price.
+ * <p>
+ * Besides its name, a price may carry the dense id of its instrument in an {@link InstrumentRegistry}, resolved once
+ * by the component which filled it (a deserializer or a store), so that later stages can index by int instead of
+ * hashing the name. The id is only meaningful for the registry of that component; it is a cache of the name and does
+ * not take part in {@link #equals(Object)}.
  */
 public class Price {
+    private boolean hasId;
+    private long idMostSigBits;
+    private long idLeastSigBits;
     private UUID id;
+    private int instrumentId = InstrumentRegistry.UNKNOWN_ID;
     private String instrumentName;
     private double bid;
     private double ask;
     private long timestamp;
 
+    /**
+     * Creates a new, empty instance of the {@code Price} class, to be filled through its setters or
+     * {@link #copyFrom(Price)}. Used to pre-allocate instances which are reused across ticks.
+     */
+    public Price() {
+    }
+
     /**
      * Creates a new instance of the {@code Price} class.
      *
@@ -22,7 +41,7 @@ public class Price {
      * @param timestamp the timestamp for this price (in milliseconds)
      */
     public Price(UUID id, String instrumentName, double bid, double ask, long timestamp) {
-        this.id = id;
+        setId(id);
         this.instrumentName = instrumentName;
         this.bid = bid;
         this.ask = ask;
@@ -35,7 +54,42 @@ public class Price {
      * @return the unique identifier for this price
      */
     public UUID getId() {
-        return id;
+        if (!hasId) {
+            return null;
+        }
+        UUID cachedId = id;
+        if (cachedId == null) {
+            cachedId = new UUID(idMostSigBits, idLeastSigBits);
+            id = cachedId;
+        }
+        return cachedId;
+    }
+
+    /**
+     * Returns whether this price has a unique identifier, without materializing a {@link UUID}.
+     *
+     * @return true if this price has a unique identifier, and false otherwise
+     */
+    public boolean hasId() {
+        return hasId;
+    }
+
+    /**
+     * Gets the most significant 64 bits of the unique identifier, without materializing a {@link UUID}.
+     *
+     * @return the most significant bits of the unique identifier, or 0 if there is none
+     */
+    public long getIdMostSignificantBits() {
+        return idMostSigBits;
+    }
+
+    /**
+     * Gets the least significant 64 bits of the unique identifier, without materializing a {@link UUID}.
+     *
+     * @return the least significant bits of the unique identifier, or 0 if there is none
+     */
+    public long getIdLeastSignificantBits() {
+        return idLeastSigBits;
     }
 
     /**
@@ -45,6 +99,22 @@ public class Price {
      */
     public void setId(UUID id) {
         this.id = id;
+        this.hasId = id != null;
+        this.idMostSigBits = id != null ? id.getMostSignificantBits() : 0;
+        this.idLeastSigBits = id != null ? id.getLeastSignificantBits() : 0;
+    }
+
+    /**
+     * Sets the unique identifier for this price from its two halves, without allocating a {@link UUID}.
+     *
+     * @param mostSigBits the most significant 64 bits of the unique identifier
+     * @param leastSigBits the least significant 64 bits of the unique identifier
+     */
+    public void setId(long mostSigBits, long leastSigBits) {
+        this.id = null;
+        this.hasId = true;
+        this.idMostSigBits = mostSigBits;
+        this.idLeastSigBits = leastSigBits;
     }
 
     /**
@@ -57,11 +127,32 @@ public class Price {
     }
 
     /**
-     * Sets the name of the financial instrument.
+     * Sets the name of the financial instrument, forgetting its id.
      *
      * @param instrumentName the name of the financial instrument
      */
     public void setInstrumentName(String instrumentName) {
+        this.instrumentId = InstrumentRegistry.UNKNOWN_ID;
+        this.instrumentName = instrumentName;
+    }
+
+    /**
+     * Gets the id of the financial instrument in the registry of the component which filled this price.
+     *
+     * @return the dense id of the instrument, or {@link InstrumentRegistry#UNKNOWN_ID} if it was not resolved
+     */
+    public int getInstrumentId() {
+        return instrumentId;
+    }
+
+    /**
+     * Sets the financial instrument by both its id and its name.
+     *
+     * @param instrumentId the dense id of the instrument in an {@link InstrumentRegistry}
+     * @param instrumentName the name registered under that id
+     */
+    public void setInstrument(int instrumentId, String instrumentName) {
+        this.instrumentId = instrumentId;
         this.instrumentName = instrumentName;
     }
 
@@ -119,6 +210,68 @@ public class Price {
         this.timestamp = timestamp;
     }
 
+    /**
+     * Copies all the attributes of the given price into this instance.
+     *
+     * @param other the price to copy
+     * @return this instance
+     */
+    public Price copyFrom(Price other) {
+        this.hasId = other.hasId;
+        this.idMostSigBits = other.idMostSigBits;
+        this.idLeastSigBits = other.idLeastSigBits;
+        this.id = other.id;
+        this.instrumentId = other.instrumentId;
+        this.instrumentName = other.instrumentName;
+        this.bid = other.bid;
+        this.ask = other.ask;
+        this.timestamp = other.timestamp;
+        return this;
+    }
+
+    /**
+     * Returns a new instance holding the same attributes as this one.
+     *
+     * @return a copy of this price
+     */
+    public Price copy() {
+        return new Price().copyFrom(this);
+    }
+
+    /**
+     * Compares this price to the given object. Two prices are equal if all their attributes are equal.
+     *
+     * @param o the object to compare with
+     * @return true if the given object is a {@code Price} with the same attributes, and false otherwise
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Price)) {
+            return false;
+        }
+        Price other = (Price) o;
+        return hasId == other.hasId
+                && idMostSigBits == other.idMostSigBits
+                && idLeastSigBits == other.idLeastSigBits
+                && Objects.equals(instrumentName, other.instrumentName)
+                && Double.compare(bid, other.bid) == 0
+                && Double.compare(ask, other.ask) == 0
+                && timestamp == other.timestamp;
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return a hash code for this price
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(idMostSigBits, idLeastSigBits, instrumentName, bid, ask, timestamp);
+    }
+
     /**
      * Returns a string representation of this {@code Price} instance.
      *
@@ -127,7 +280,7 @@ public class Price {
     @Override
     public String toString() {
         return "Price{" +
-                "id=" + id +
+                "id=" + getId() +
                 ", instrumentName='" + instrumentName + '\'' +
                 ", bid=" + bid +
                 ", ask=" + ask +
@@ -0,0 +1,284 @@
+package com.santander.pricefeedclient.model;
+
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * A reusable, growable batch of ticks stored column by column: one primitive array per attribute instead of one
+ * {@link Price} object per tick.
+ * <p>
+ * A batch is filled by {@code PriceDeserializer.deserializeAll} with every line of a message, can be filtered and
+ * conflated to the newest tick of each instrument, and is then read back tick by tick through
+ * {@link #copyTo(int, Price)}.
+ * A batch is not thread-safe.
+ */
+public class PriceBatch {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    private boolean[] hasIds;
+    private long[] idMostSigBits;
+    private long[] idLeastSigBits;
+    private int[] instrumentIds;
+    private String[] instrumentNames;
+    private double[] bids;
+    private double[] asks;
+    private long[] timestamps;
+    private int size;
+    private int[] conflationStamps = new int[0];
+    private int conflationGeneration;
+    private final Set<String> conflatedNames = new HashSet<>();
+
+    /**
+     * Creates a new, empty batch with room for a few ticks.
+     */
+    public PriceBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new, empty batch.
+     *
+     * @param capacity the number of ticks the batch holds before growing
+     */
+    public PriceBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.hasIds = new boolean[capacity];
+        this.idMostSigBits = new long[capacity];
+        this.idLeastSigBits = new long[capacity];
+        this.instrumentIds = new int[capacity];
+        this.instrumentNames = new String[capacity];
+        this.bids = new double[capacity];
+        this.asks = new double[capacity];
+        this.timestamps = new long[capacity];
+    }
+
+    /**
+     * Gets the number of ticks in the batch.
+     *
+     * @return the number of ticks
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends the attributes of the given price to the batch, growing it if needed.
+     *
+     * @param price the price to append, which is not retained
+     */
+    public void add(Price price) {
+        if (size == timestamps.length) {
+            grow();
+        }
+        set(size++, price);
+    }
+
+    /**
+     * Copies the tick at the given index into the given price.
+     *
+     * @param index the index of the tick, in {@code [0, size())}
+     * @param target the price receiving the tick
+     * @return the given price
+     */
+    public Price copyTo(int index, Price target) {
+        if (hasIds[checkIndex(index)]) {
+            target.setId(idMostSigBits[index], idLeastSigBits[index]);
+        } else {
+            target.setId(null);
+        }
+        target.setInstrument(instrumentIds[index], instrumentNames[index]);
+        target.setBid(bids[index]);
+        target.setAsk(asks[index]);
+        target.setTimestamp(timestamps[index]);
+        return target;
+    }
+
+    /**
+     * Gets the instrument id of the tick at the given index.
+     *
+     * @param index the index of the tick, in {@code [0, size())}
+     * @return the instrument id, or {@link InstrumentRegistry#UNKNOWN_ID} if the deserializer did not resolve it
+     */
+    public int getInstrumentId(int index) {
+        return instrumentIds[checkIndex(index)];
+    }
+
+    /**
+     * Gets the instrument name of the tick at the given index.
+     *
+     * @param index the index of the tick, in {@code [0, size())}
+     * @return the instrument name
+     */
+    public String getInstrumentName(int index) {
+        return instrumentNames[checkIndex(index)];
+    }
+
+    /**
+     * Gets the bid of the tick at the given index.
+     *
+     * @param index the index of the tick, in {@code [0, size())}
+     * @return the bid
+     */
+    public double getBid(int index) {
+        return bids[checkIndex(index)];
+    }
+
+    /**
+     * Gets the ask of the tick at the given index.
+     *
+     * @param index the index of the tick, in {@code [0, size())}
+     * @return the ask
+     */
+    public double getAsk(int index) {
+        return asks[checkIndex(index)];
+    }
+
+    /**
+     * Gets the timestamp of the tick at the given index.
+     *
+     * @param index the index of the tick, in {@code [0, size())}
+     * @return the timestamp, in milliseconds
+     */
+    public long getTimestamp(int index) {
+        return timestamps[checkIndex(index)];
+    }
+
+    /**
+     * Drops every tick from the given index on which the given filter rejects, keeping the remaining ticks in order.
+     * Ticks before the index are left untouched. The filter sees every tick in order, copied into the given price, and
+     * the ticks it accepts are kept as it left them, so that it may complete them, e.g. resolve their instrument id.
+     *
+     * @param from the index of the first tick to filter
+     * @param filter the test of the ticks to keep
+     * @param scratch the price receiving every tick before it is tested
+     * @return the number of dropped ticks
+     */
+    public int filter(int from, Predicate<Price> filter, Price scratch) {
+        int kept = from;
+        for (int i = from; i < size; i++) {
+            if (filter.test(copyTo(i, scratch))) {
+                set(kept++, scratch);
+            }
+        }
+        int dropped = size - kept;
+        if (dropped > 0) {
+            Arrays.fill(instrumentNames, kept, size, null);
+            size = kept;
+        }
+        return dropped;
+    }
+
+    /**
+     * Drops every tick from the given index on which is followed by a newer tick of the same instrument, keeping the
+     * remaining ticks in order. Ticks before the index are left untouched.
+     * <p>
+     * Ticks are walked from the newest, marking every instrument met by stamping its id with the generation of the
+     * call, so that the marks need no clearing, or by remembering its name for ticks without an id: the cost grows
+     * with the number of ticks only, however many instruments they carry.
+     *
+     * @param from the index of the first tick to conflate
+     * @return the number of dropped ticks
+     */
+    public int conflate(int from) {
+        // walk from the newest tick, packing the survivors at the end of the batch, then slide them down to the index
+        int kept = size;
+        int generation = nextConflationGeneration();
+        for (int i = size - 1; i >= from; i--) {
+            int instrumentId = instrumentIds[i];
+            boolean superseded;
+            if (instrumentId == InstrumentRegistry.UNKNOWN_ID) {
+                superseded = !conflatedNames.add(instrumentNames[i]);
+            } else {
+                if (instrumentId >= conflationStamps.length) {
+                    conflationStamps = Arrays.copyOf(conflationStamps,
+                            Math.max(instrumentId + 1, 2 * conflationStamps.length));
+                }
+                superseded = conflationStamps[instrumentId] == generation;
+                conflationStamps[instrumentId] = generation;
+            }
+            if (!superseded) {
+                move(i, --kept);
+            }
+        }
+        conflatedNames.clear();
+        int dropped = kept - from;
+        if (dropped > 0) {
+            for (int i = kept; i < size; i++) {
+                move(i, i - dropped);
+            }
+            Arrays.fill(instrumentNames, size - dropped, size, null);
+            size -= dropped;
+        }
+        return dropped;
+    }
+
+    /**
+     * Empties the batch, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(instrumentNames, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Returns the stamp marking the instruments met by a call to {@link #conflate(int)}, different from every stamp
+     * left in the marks, which are only cleared when the generations wrap around.
+     */
+    private int nextConflationGeneration() {
+        if (++conflationGeneration == 0) {
+            Arrays.fill(conflationStamps, 0);
+            conflationGeneration = 1;
+        }
+        return conflationGeneration;
+    }
+
+    private void set(int index, Price price) {
+        hasIds[index] = price.hasId();
+        idMostSigBits[index] = price.getIdMostSignificantBits();
+        idLeastSigBits[index] = price.getIdLeastSignificantBits();
+        instrumentIds[index] = price.getInstrumentId();
+        instrumentNames[index] = price.getInstrumentName();
+        bids[index] = price.getBid();
+        asks[index] = price.getAsk();
+        timestamps[index] = price.getTimestamp();
+    }
+
+    private void move(int from, int to) {
+        if (from != to) {
+            hasIds[to] = hasIds[from];
+            idMostSigBits[to] = idMostSigBits[from];
+            idLeastSigBits[to] = idLeastSigBits[from];
+            instrumentIds[to] = instrumentIds[from];
+            instrumentNames[to] = instrumentNames[from];
+            bids[to] = bids[from];
+            asks[to] = asks[from];
+            timestamps[to] = timestamps[from];
+        }
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of batch of " + size);
+        }
+        return index;
+    }
+
+    private void grow() {
+        int capacity = timestamps.length * 2;
+        hasIds = Arrays.copyOf(hasIds, capacity);
+        idMostSigBits = Arrays.copyOf(idMostSigBits, capacity);
+        idLeastSigBits = Arrays.copyOf(idLeastSigBits, capacity);
+        instrumentIds = Arrays.copyOf(instrumentIds, capacity);
+        instrumentNames = Arrays.copyOf(instrumentNames, capacity);
+        bids = Arrays.copyOf(bids, capacity);
+        asks = Arrays.copyOf(asks, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+    }
+}
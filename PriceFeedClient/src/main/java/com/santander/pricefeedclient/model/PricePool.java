@@ -0,0 +1,82 @@
+package com.santander.pricefeedclient.model;
+
+/**
+ * A bounded pool of pre-allocated, reusable {@link Price} instances.
+ * <p>
+ * Instances handed out by {@link #acquire()} are owned by the caller until they are given back through
+ * {@link #release(Price)}; they must not be published to other threads while pooled.
+ */
+public class PricePool {
+
+    /**
+     * The idle instances, used as a stack.
+     */
+    private final Price[] prices;
+
+    /**
+     * The number of idle instances.
+     */
+    private int size;
+
+    /**
+     * The number of instances allocated because the pool was empty.
+     */
+    private long misses;
+
+    /**
+     * Creates a new pool holding {@code capacity} pre-allocated instances.
+     *
+     * @param capacity the maximum number of idle instances kept by the pool
+     */
+    public PricePool(int capacity) {
+        this.prices = new Price[capacity];
+        for (int i = 0; i < capacity; i++) {
+            prices[i] = new Price();
+        }
+        this.size = capacity;
+    }
+
+    /**
+     * Takes an instance out of the pool, allocating a new one if the pool is empty.
+     *
+     * @return a price instance owned by the caller, holding the attributes of its previous use
+     */
+    public synchronized Price acquire() {
+        if (size == 0) {
+            misses++;
+            return new Price();
+        }
+        Price price = prices[--size];
+        prices[size] = null;
+        return price;
+    }
+
+    /**
+     * Gives an instance back to the pool. The instance is dropped if the pool is already full.
+     *
+     * @param price the instance to give back, which must not be used by the caller anymore
+     */
+    public synchronized void release(Price price) {
+        if (size < prices.length) {
+            prices[size++] = price;
+        }
+    }
+
+    /**
+     * Returns the number of idle instances.
+     *
+     * @return the number of idle instances
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of instances allocated because the pool was empty.
+     *
+     * @return the number of pool misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+}
@@ -0,0 +1,88 @@
+package com.santander.pricefeedclient.service;
+
+import com.santander.pricefeedclient.ingest.PipelineMetrics;
+import com.santander.pricefeedclient.metrics.LatencySnapshot;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * The {@link PriceFeedMetricsMXBean} of a service, reading a fresh snapshot of the pipeline metrics or of the stale
+ * instruments for every attribute.
+ */
+class PriceFeedMetrics implements PriceFeedMetricsMXBean {
+
+    private final Supplier<PipelineMetrics> metrics;
+    private final Supplier<Set<String>> staleInstruments;
+
+    /**
+     * Creates a new instance of the {@code PriceFeedMetrics} class.
+     *
+     * @param metrics the source of the snapshots of the pipeline metrics
+     * @param staleInstruments the source of the stale instruments
+     */
+    PriceFeedMetrics(Supplier<PipelineMetrics> metrics, Supplier<Set<String>> staleInstruments) {
+        this.metrics = metrics;
+        this.staleInstruments = staleInstruments;
+    }
+
+    @Override
+    public long getSubmittedLines() {
+        return metrics.get().getSubmittedLines();
+    }
+
+    @Override
+    public long getProcessedLines() {
+        return metrics.get().getProcessedLines();
+    }
+
+    @Override
+    public long getConflatedLines() {
+        return metrics.get().getConflatedLines();
+    }
+
+    @Override
+    public long getFailedLines() {
+        return metrics.get().getFailedLines();
+    }
+
+    @Override
+    public long getRejectedLines() {
+        return metrics.get().getRejectedLines();
+    }
+
+    @Override
+    public String[] getStaleInstruments() {
+        return staleInstruments.get().stream().sorted().toArray(String[]::new);
+    }
+
+    @Override
+    public int[] getQueueDepths() {
+        return metrics.get().getQueueDepths();
+    }
+
+    @Override
+    public double getThroughput() {
+        return metrics.get().getThroughput();
+    }
+
+    @Override
+    public LatencySnapshot getParseLatencyNanos() {
+        return metrics.get().getParseLatency();
+    }
+
+    @Override
+    public LatencySnapshot getMarginLatencyNanos() {
+        return metrics.get().getMarginLatency();
+    }
+
+    @Override
+    public LatencySnapshot getPublishLatencyNanos() {
+        return metrics.get().getPublishLatency();
+    }
+
+    @Override
+    public LatencySnapshot getTickAgeMillis() {
+        return metrics.get().getTickAge();
+    }
+}
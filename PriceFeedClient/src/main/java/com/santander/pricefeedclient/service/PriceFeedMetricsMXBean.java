@@ -0,0 +1,96 @@
+package com.santander.pricefeedclient.service;
+
+import com.santander.pricefeedclient.metrics.LatencySnapshot;
+
+/**
+ * The management interface of the metrics of a {@link PriceFeedService}, registered in the platform MBean server when
+ * {@link PriceFeedServiceConfig#getJmxName()} is set. Every attribute but the stale instruments is read from a new
+ * {@link PriceFeedService#getPipelineMetrics()} snapshot; latencies are exposed as composite values holding their
+ * count, mean, median, 90th, 99th and 99.9th percentiles and maximum.
+ */
+public interface PriceFeedMetricsMXBean {
+
+    /**
+     * Gets the number of lines handed to the ingestion workers.
+     *
+     * @return the number of submitted lines
+     */
+    long getSubmittedLines();
+
+    /**
+     * Gets the number of lines parsed, margined and published.
+     *
+     * @return the number of processed lines
+     */
+    long getProcessedLines();
+
+    /**
+     * Gets the number of lines dropped because a newer tick of the same instrument followed them.
+     *
+     * @return the number of conflated lines
+     */
+    long getConflatedLines();
+
+    /**
+     * Gets the number of lines rejected because they could not be parsed, margined or published.
+     *
+     * @return the number of failed lines
+     */
+    long getFailedLines();
+
+    /**
+     * Gets the number of well-formed lines rejected by the validation of the ticks, and quarantined.
+     *
+     * @return the number of rejected lines
+     */
+    long getRejectedLines();
+
+    /**
+     * Gets the instruments whose latest price is older than the maximum age of the staleness watchdog.
+     *
+     * @return the names of the stale instruments, empty if the watchdog is disabled
+     */
+    String[] getStaleInstruments();
+
+    /**
+     * Gets the number of lines waiting in the ring buffer of each ingestion worker.
+     *
+     * @return the queue depths, indexed by worker
+     */
+    int[] getQueueDepths();
+
+    /**
+     * Gets the average number of lines processed per second since the service was started.
+     *
+     * @return the throughput, in lines per second
+     */
+    double getThroughput();
+
+    /**
+     * Gets the distribution of the time spent parsing a message.
+     *
+     * @return the parse latencies, in nanoseconds
+     */
+    LatencySnapshot getParseLatencyNanos();
+
+    /**
+     * Gets the distribution of the time spent applying the margin to a price.
+     *
+     * @return the margin latencies, in nanoseconds
+     */
+    LatencySnapshot getMarginLatencyNanos();
+
+    /**
+     * Gets the distribution of the time spent publishing a price.
+     *
+     * @return the publish latencies, in nanoseconds
+     */
+    LatencySnapshot getPublishLatencyNanos();
+
+    /**
+     * Gets the distribution of the age of the prices once published, from their timestamp.
+     *
+     * @return the tick ages, in milliseconds
+     */
+    LatencySnapshot getTickAgeMillis();
+}
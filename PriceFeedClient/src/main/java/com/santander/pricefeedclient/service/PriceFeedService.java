@@ -1,15 +1,77 @@
 package com.santander.pricefeedclient.service;
 
+import com.santander.pricefeedclient.aggregation.BestPriceAggregator;
+import com.santander.pricefeedclient.bars.BarEngine;
+import com.santander.pricefeedclient.bars.BarVisitor;
+import com.santander.pricefeedclient.history.TickHistory;
+import com.santander.pricefeedclient.history.TickVisitor;
+import com.santander.pricefeedclient.http.PriceHttpServer;
+import com.santander.pricefeedclient.http.PriceJsonCache;
+import com.santander.pricefeedclient.http.PriceStreamServer;
+import com.santander.pricefeedclient.ingest.IngestionPipeline;
+import com.santander.pricefeedclient.ingest.PipelineMetrics;
+import com.santander.pricefeedclient.journal.TickJournal;
+import com.santander.pricefeedclient.log.AsyncTickLog;
+import com.santander.pricefeedclient.log.TickLog;
+import com.santander.pricefeedclient.log.TickLogLevel;
+import com.santander.pricefeedclient.margin.MarginEngine;
+import com.santander.pricefeedclient.margin.MarginSchedule;
 import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.model.PriceBatch;
+import com.santander.pricefeedclient.model.PricePool;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.store.PriceChanges;
+import com.santander.pricefeedclient.store.PriceSnapshot;
+import com.santander.pricefeedclient.store.PriceSnapshotPublisher;
+import com.santander.pricefeedclient.subscription.PriceSubscriptionHub;
+import com.santander.pricefeedclient.transport.FrameHandler;
+import com.santander.pricefeedclient.transport.FrameReader;
+import com.santander.pricefeedclient.util.BinaryPriceDeserializer;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
 import com.santander.pricefeedclient.util.PriceDeserializer;
+import com.santander.pricefeedclient.util.ThreadMode;
+import com.santander.pricefeedclient.validation.QuarantinedTick;
+import com.santander.pricefeedclient.validation.StalenessWatchdog;
+import com.santander.pricefeedclient.validation.TickQuarantine;
+import com.santander.pricefeedclient.validation.TickRejection;
+import com.santander.pricefeedclient.validation.TickValidator;
+import com.santander.pricefeedsource.FrameFormat;
 import com.santander.pricefeedsource.PriceFeedSource;
+import com.santander.pricefeedsource.WireFormat;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import javax.management.JMException;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
 /**
  * A service that subscribes to a price feed, applies a margin to the received prices and
  * stores them in a snapshot.
@@ -22,9 +84,177 @@ public class PriceFeedService {
     private final PriceDeserializer priceDeserializer;
 
     /**
-     * The map that stores the latest price for each instrument.
+     * The store that holds the latest price for each instrument.
+     */
+    private final LatestPriceStore priceFeedSnapshot;
+
+    /**
+     * Whether the deserializer resolves instrument ids in the registry of {@link #priceFeedSnapshot}, in which case
+     * the ids it sets on prices are used as they are instead of looking the names up.
+     */
+    private final boolean sharedInstrumentRegistry;
+
+    /**
+     * The pipeline parsing, margining and publishing the price feed lines on worker threads.
+     */
+    private final IngestionPipeline ingestionPipeline;
+
+    /**
+     * The journal of the accepted ticks, or null if journaling is disabled.
+     */
+    private final TickJournal tickJournal;
+
+    /**
+     * The hub pushing the published prices to the price subscribers.
+     */
+    private final PriceSubscriptionHub subscriptionHub;
+
+    /**
+     * The audit log of the ticks flowing through the ingestion stages.
+     */
+    private final TickLog tickLog;
+
+    /**
+     * The wire format in which the service subscribes to the price feed.
+     */
+    private final WireFormat wireFormat;
+
+    /**
+     * The address of the server the feed is read from, or null if the source runs in process.
+     */
+    private final URI transportAddress;
+
+    /**
+     * The network interface joining the multicast group of a UDP transport, or null for the loopback interface.
+     */
+    private final String transportInterface;
+
+    /**
+     * The size and the number of the buffers the transport is read into.
+     */
+    private final int transportBufferSize;
+    private final int transportBuffers;
+
+    /**
+     * The reader of the transport, closed by {@link #stop()} to end a blocked read.
+     */
+    private volatile FrameReader frameReader;
+
+    /**
+     * The instruments which must have a price for the service to be ready.
+     */
+    private final String[] readyInstruments;
+
+    /**
+     * The maximum time to wait for the service to be ready, in milliseconds.
+     */
+    private final long startupTimeoutMillis;
+
+    /**
+     * The waiters for the first price of an instrument, by instrument name. A waiter is removed by the first price
+     * of its instrument, or once all the threads waiting on it gave up.
+     */
+    private final ConcurrentHashMap<String, FirstPriceWaiter> firstPriceWaiters = new ConcurrentHashMap<>();
+
+    /**
+     * Completed by the first price of any instrument.
+     */
+    private final CompletableFuture<Void> anyPrice = new CompletableFuture<>();
+
+    /**
+     * The readiness future returned by {@link #start()}, or null if the service was not started.
+     */
+    private CompletableFuture<Void> readiness;
+
+    /**
+     * The thread reading the price feed, or null if the service was not started.
+     */
+    private Thread priceFeedThread;
+
+    /**
+     * Whether {@link #stop()} was called.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * The settings of the HTTP endpoints, opened by {@link #start()}.
+     */
+    private final int httpPort;
+    private final int httpThreads;
+    private final int streamPort;
+    private final int streamClientBufferSize;
+
+    /**
+     * The kind of threads reading the price feed and handling the HTTP requests.
+     */
+    private final ThreadMode threadMode;
+
+    /**
+     * The name of the MBean of the metrics, registered by {@link #start()}, or null if disabled.
+     */
+    private final ObjectName metricsName;
+
+    /**
+     * The HTTP endpoints of the latest prices and of their stream, or null if disabled or not started.
+     */
+    private PriceHttpServer httpServer;
+    private PriceStreamServer streamServer;
+
+    /**
+     * The engine maintaining the latest price of every client tier and notional band, or null if tiered margins are
+     * disabled.
+     */
+    private final MarginEngine marginEngine;
+
+    /**
+     * The aggregator of the quotes of several venues into best prices, or null if the service reads a single feed.
+     */
+    private final BestPriceAggregator bestPriceAggregator;
+
+    /**
+     * The publisher of the immutable snapshots of the latest prices.
+     */
+    private final PriceSnapshotPublisher snapshotPublisher;
+
+    /**
+     * The engine maintaining the OHLC bars of the accepted ticks, or null if bars are disabled.
+     */
+    private final BarEngine barEngine;
+
+    /**
+     * The off-heap history of the accepted ticks, or null if the tick history is disabled.
+     */
+    private final TickHistory tickHistory;
+
+    /**
+     * The quarantine of the ticks rejected by the validators of the pipeline and of the venues.
+     */
+    private final TickQuarantine tickQuarantine;
+
+    /**
+     * The validator of the ticks of the ingestion pipeline.
+     */
+    private final TickValidator tickValidator;
+
+    /**
+     * The age from which an incoming tick is rejected as stale, in milliseconds, 0 to accept ticks of any age.
+     */
+    private final long maxTickAgeMillis;
+
+    /**
+     * The number of instruments in the registry beyond which the ticks of new instruments are rejected.
+     */
+    private final int maxInstruments;
+
+    /**
+     * The watchdog flagging the instruments whose latest price is too old, or null if it is disabled.
+     */
+    private final StalenessWatchdog stalenessWatchdog;
+
+    /**
+     * The per-thread price receiving the margined best prices of the venue threads.
      */
-    private final Map<String, Price> priceFeedSnapshot;
+    private final ThreadLocal<Price> bestPriceMargin = ThreadLocal.withInitial(Price::new);
 
     /**
      * The default margin amount, in percentages.
@@ -32,75 +262,721 @@ public class PriceFeedService {
     private final double defaultMarginAmount;
 
     /**
-     * A random number generator used to retrieve the margin amount.
+     * The random number generators used to retrieve the margin amount, one per thread, so that the workers margining
+     * concurrently never contend on a shared seed. Seeded from the random number generator given to the service, if
+     * any, or {@link ThreadLocalRandom} otherwise.
+     */
+    private final ThreadLocal<Random> random;
+
+    /**
+     * Constructs a new instance of the price feed service. The latest prices are indexed by the instrument registry of
+     * the deserializer, if it has one, so that the instrument ids it resolves are used throughout the service.
+     *
+     * @param priceDeserializer The deserializer used to deserialize the price feed messages.
      */
-    private final Random random;
+    public PriceFeedService(PriceDeserializer priceDeserializer) {
+        this(priceDeserializer, new LatestPriceStore(priceDeserializer.getInstrumentRegistry() != null
+                        ? priceDeserializer.getInstrumentRegistry()
+                        : new InstrumentRegistry(PriceFeedSource.getCurrencyPairs())),
+                0.1, null);
+    }
 
     /**
-     * Constructs a new instance of the price feed service.
+     * Constructs a new instance of the price feed service, configured from the system properties.
      *
      * @param priceDeserializer The deserializer used to deserialize the price feed messages.
-     * @throws InterruptedException If the thread is interrupted while waiting for the snapshot to be populated.
+     * @param priceFeedSnapshot The store that holds the latest price for each instrument.
+     * @param defaultMarginAmount The default margin amount, in percentages.
+     * @param random A random number generator seeding the generators used to retrieve the margin amount, one per
+     *               thread, or null to use {@link ThreadLocalRandom}.
      */
-    public PriceFeedService(PriceDeserializer priceDeserializer) throws InterruptedException {
-        this(priceDeserializer, new ConcurrentHashMap<>(), 0.1, new Random());
+    public PriceFeedService(PriceDeserializer priceDeserializer, LatestPriceStore priceFeedSnapshot,
+                            double defaultMarginAmount, Random random) {
+        this(priceDeserializer, priceFeedSnapshot, defaultMarginAmount, random,
+                PriceFeedServiceConfig.fromSystemProperties());
     }
 
     /**
-     * Constructs a new instance of the price feed service.
+     * Constructs a new instance of the price feed service. The prices journaled by a previous run, if any, are
+     * restored immediately; the subscription to the feed only begins with {@link #start()}.
      *
      * @param priceDeserializer The deserializer used to deserialize the price feed messages.
-     * @param priceFeedSnapshot The map that stores the latest price for each instrument.
+     * @param priceFeedSnapshot The store that holds the latest price for each instrument.
      * @param defaultMarginAmount The default margin amount, in percentages.
-     * @param random A random number generator used to retrieve the margin amount.
-     * @throws InterruptedException If the thread is interrupted while waiting for the snapshot to be populated.
+     * @param random A random number generator seeding the generators used to retrieve the margin amount, one per
+     *               thread, or null to use {@link ThreadLocalRandom}.
+     * @param config The tunable settings of the service.
+     * @throws UncheckedIOException If the tick journal cannot be replayed or opened.
+     * @throws IllegalArgumentException If the JMX name is invalid, if the wire format is binary and the deserializer
+     *                                  is not a {@link BinaryPriceDeserializer}, or if several venues are
+     *                                  aggregated with the binary wire format.
      */
-    public PriceFeedService(PriceDeserializer priceDeserializer, Map<String, Price> priceFeedSnapshot,
-                            double defaultMarginAmount, Random random) throws InterruptedException {
+    public PriceFeedService(PriceDeserializer priceDeserializer, LatestPriceStore priceFeedSnapshot,
+                            double defaultMarginAmount, Random random, PriceFeedServiceConfig config) {
         this.priceDeserializer = priceDeserializer;
         this.priceFeedSnapshot = priceFeedSnapshot;
+        this.sharedInstrumentRegistry =
+                priceDeserializer.getInstrumentRegistry() == priceFeedSnapshot.getInstrumentRegistry();
         this.defaultMarginAmount = defaultMarginAmount;
-        this.random = random;
+        this.random = random != null
+                ? ThreadLocal.withInitial(() -> new Random(random.nextLong()))
+                : ThreadLocal.withInitial(ThreadLocalRandom::current);
+        this.wireFormat = config.getWireFormat();
+        this.transportAddress = config.getTransportAddress();
+        this.transportInterface = config.getTransportInterface();
+        this.transportBufferSize = config.getTransportBufferSize();
+        this.transportBuffers = config.getTransportBuffers();
+        this.readyInstruments = config.getReadyInstruments();
+        this.startupTimeoutMillis = config.getStartupTimeoutMillis();
+        this.httpPort = config.getHttpPort();
+        this.httpThreads = config.getHttpThreads();
+        this.streamPort = config.getStreamPort();
+        this.streamClientBufferSize = config.getStreamClientBufferSize();
+        this.threadMode = config.getThreadMode();
+        this.metricsName = config.getJmxName() == null ? null : metricsName(config.getJmxName());
+        this.subscriptionHub = config.getSubscriberExecutor() != null
+                ? new PriceSubscriptionHub(priceFeedSnapshot.getInstrumentRegistry(), config.getSubscriberBufferSize(),
+                config.getSubscriberExecutor())
+                : new PriceSubscriptionHub(priceFeedSnapshot.getInstrumentRegistry(), config.getSubscriberBufferSize(),
+                config.getThreadMode());
+        this.marginEngine = config.getMarginSchedule() == null ? null
+                : new MarginEngine(priceFeedSnapshot.getInstrumentRegistry(), config.getMarginSchedule());
+        this.snapshotPublisher = new PriceSnapshotPublisher(priceFeedSnapshot, config.getSnapshotIntervalMillis());
+        this.barEngine = config.getBarIntervalsMillis().length == 0 ? null
+                : new BarEngine(priceFeedSnapshot.getInstrumentRegistry(), config.getBarIntervalsMillis(),
+                config.getBarHistory());
+        this.tickHistory = config.getTickHistoryCapacity() == 0 ? null
+                : new TickHistory(priceFeedSnapshot.getInstrumentRegistry(), config.getTickHistoryCapacity());
+        this.maxTickAgeMillis = config.getMaxTickAgeMillis();
+        this.maxInstruments = config.getMaxInstruments();
+        this.tickQuarantine = new TickQuarantine(config.getQuarantineCapacity());
+        this.tickValidator = new TickValidator(tickQuarantine, maxTickAgeMillis);
+        this.stalenessWatchdog = config.getStalePriceAgeMillis() == 0 ? null
+                : new StalenessWatchdog(priceFeedSnapshot, config.getStalePriceAgeMillis());
+        if (wireFormat == WireFormat.BINARY && !(priceDeserializer instanceof BinaryPriceDeserializer)) {
+            throw new IllegalArgumentException("The " + WireFormat.BINARY + " wire format requires a "
+                    + BinaryPriceDeserializer.class.getSimpleName() + ", not "
+                    + priceDeserializer.getClass().getSimpleName());
+        }
+        if (config.getVenueCount() > 1) {
+            if (wireFormat != WireFormat.CSV) {
+                throw new IllegalArgumentException("Venue aggregation requires the " + WireFormat.CSV
+                        + " wire format, not " + wireFormat);
+            }
+            if (transportAddress != null) {
+                throw new IllegalArgumentException("Venue aggregation reads in-process feeds, not " + transportAddress);
+            }
+            this.bestPriceAggregator = new BestPriceAggregator(priceFeedSnapshot.getInstrumentRegistry(),
+                    config.getVenueCount(), config.getMaxQuoteAgeMillis(), this::publishBestPrice);
+        } else {
+            this.bestPriceAggregator = null;
+        }
+        this.tickLog = config.getTickLogLevel() == TickLogLevel.OFF ? TickLog.NO_OP
+                : new AsyncTickLog(config.getTickLogLevel(), config.getTickLogSampleRate(),
+                config.getTickLogCapacity(), System.out);
+        if (config.getJournalDirectory() != null) {
+            Path journalDirectory = Paths.get(config.getJournalDirectory());
+            try {
+                Map<String, Price> journaledPrices = TickJournal.replay(journalDirectory);
+                journaledPrices.values().forEach(priceFeedSnapshot::update);
+                snapshotPublisher.markDirty();
+                this.tickJournal = new TickJournal(journalDirectory, config.getJournalSegmentSize(),
+                        config.getJournalRetainedSegments(), () -> priceFeedSnapshot.snapshot().values());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            this.tickJournal = null;
+        }
+        this.ingestionPipeline = new IngestionPipeline(priceDeserializer, this::validate, tickValidator::rejectMalformed,
+                this::applyMargin, this::publish,
+                new PricePool(2 * config.getWorkerCount()), config.getWorkerCount(), config.getRingCapacity(),
+                config.getConflationThreshold());
+    }
 
-        // Start the price feed subscription in a new thread
-        Thread priceFeedThread = new Thread(this::subscribeToPriceFeed);
+    /**
+     * Starts the subscription to the price feed in a new thread, of the kind of
+     * {@link PriceFeedServiceConfig#getThreadMode()}.
+     * <p>
+     * The returned future completes as soon as every instrument of
+     * {@link PriceFeedServiceConfig#getReadyInstruments()} has a price, or any instrument if none is configured,
+     * which may be immediately when the prices were restored from the journal. It completes exceptionally with a
+     * {@link TimeoutException} after {@link PriceFeedServiceConfig#getStartupTimeoutMillis()}, and is cancelled by
+     * {@link #stop()}. Calling this method again returns the same future.
+     * <p>
+     * The HTTP endpoints enabled by {@link PriceFeedServiceConfig#getHttpPort()} and
+     * {@link PriceFeedServiceConfig#getStreamPort()} are opened, and the {@link PriceFeedMetricsMXBean} named by
+     * {@link PriceFeedServiceConfig#getJmxName()} is registered, before the subscription begins.
+     *
+     * @return a future completing when the service is ready to serve prices
+     * @throws IllegalStateException if the service was stopped, if the running JVM does not support the thread mode,
+     *                               or if the MBean of the metrics cannot be registered
+     * @throws UncheckedIOException if an HTTP endpoint cannot be opened
+     */
+    public synchronized CompletableFuture<Void> start() {
+        if (stopped) {
+            throw new IllegalStateException("The price feed service was stopped");
+        }
+        if (!threadMode.isSupported()) {
+            throw new IllegalStateException("Thread mode " + threadMode + " is not supported on Java "
+                    + System.getProperty("java.version"));
+        }
+        if (readiness != null) {
+            return readiness;
+        }
+        CompletableFuture<?>[] firstPrices;
+        FirstPriceWaiter[] readyWaiters = new FirstPriceWaiter[readyInstruments.length];
+        if (readyInstruments.length == 0) {
+            firstPrices = new CompletableFuture<?>[]{
+                    priceFeedSnapshot.snapshot().isEmpty() ? anyPrice : CompletableFuture.completedFuture(null)};
+        } else {
+            firstPrices = new CompletableFuture<?>[readyInstruments.length];
+            for (int i = 0; i < readyInstruments.length; i++) {
+                // the configured instruments are registered, so that they may be awaited before their first tick
+                priceFeedSnapshot.getInstrumentRegistry().register(readyInstruments[i]);
+                readyWaiters[i] = addFirstPriceWaiter(readyInstruments[i]);
+                firstPrices[i] = priceFeedSnapshot.getLatestPrice(readyInstruments[i]) != null
+                        ? CompletableFuture.completedFuture(null) : readyWaiters[i].firstPrice;
+            }
+        }
+        registerMetrics();
+        openEndpoints();
+        snapshotPublisher.start();
+        if (stalenessWatchdog != null) {
+            stalenessWatchdog.start();
+        }
+        readiness = CompletableFuture.allOf(firstPrices).orTimeout(startupTimeoutMillis, TimeUnit.MILLISECONDS);
+        readiness.whenComplete((ready, failure) -> {
+            for (int i = 0; i < readyWaiters.length; i++) {
+                removeFirstPriceWaiter(readyInstruments[i], readyWaiters[i]);
+            }
+        });
+        priceFeedThread = threadMode.newThread("price-feed-subscriber", this::subscribeToPriceFeed);
         priceFeedThread.start();
+        return readiness;
+    }
+
+    /**
+     * Returns the latest price of the given instrument, waiting for its first price if there is none yet.
+     *
+     * @param instrumentName The name of the instrument, which must be registered.
+     * @param timeout The maximum time to wait for the first price.
+     * @return A copy of the latest price of the instrument.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     * @throws TimeoutException If the instrument has no price after the timeout.
+     * @throws IllegalArgumentException If the instrument is not registered.
+     */
+    public Price awaitInstrument(String instrumentName, Duration timeout)
+            throws InterruptedException, TimeoutException {
+        if (priceFeedSnapshot.getInstrumentRegistry().idOf(instrumentName) == InstrumentRegistry.UNKNOWN_ID) {
+            throw new IllegalArgumentException("Unknown instrument: " + instrumentName);
+        }
+        Price latestPrice = priceFeedSnapshot.getLatestPrice(instrumentName);
+        if (latestPrice != null) {
+            return latestPrice;
+        }
+        FirstPriceWaiter waiter = addFirstPriceWaiter(instrumentName);
+        try {
+            // The publisher updates the store before looking for waiters, so a price published in between is seen here
+            latestPrice = priceFeedSnapshot.getLatestPrice(instrumentName);
+            if (latestPrice != null) {
+                return latestPrice;
+            }
+            return waiter.firstPrice.get(timeout.toNanos(), TimeUnit.NANOSECONDS).copy();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            removeFirstPriceWaiter(instrumentName, waiter);
+        }
+    }
+
+    /**
+     * Stops the subscription to the price feed: the feed is no longer read, the lines already read are processed,
+     * the journal and the tick log are flushed and the worker threads are terminated before this method returns, the
+     * HTTP endpoints are closed, the MBean of the metrics is unregistered, the staleness watchdog is stopped and the
+     * snapshot publishing thread, if any, publishes a last snapshot. A stopped service keeps serving the latest prices
+     * through its methods but cannot be started again.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting for the threads to terminate.
+     */
+    public void stop() throws InterruptedException {
+        Thread thread;
+        synchronized (this) {
+            stopped = true;
+            thread = priceFeedThread;
+            closeTransport();
+            if (readiness != null) {
+                readiness.cancel(false);
+            }
+        }
+        if (thread != null) {
+            thread.join();
+        } else {
+            closeSinks();
+        }
+        closeEndpoints();
+        unregisterMetrics();
+        if (stalenessWatchdog != null) {
+            stalenessWatchdog.close();
+        }
+        snapshotPublisher.close();
+    }
+
+    private void closeTransport() {
+        FrameReader reader = frameReader;
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (IOException e) {
+            // the subscriber thread ends either way
+        }
+    }
+
+    /**
+     * Returns the address of the HTTP endpoints of the latest prices, see {@link PriceHttpServer}.
+     *
+     * @return the bound address, or null if the endpoints are disabled or the service was not started
+     */
+    public synchronized InetSocketAddress getHttpAddress() {
+        return httpServer != null ? httpServer.getAddress() : null;
+    }
+
+    /**
+     * Returns the address of the server-sent events stream of the prices, see {@link PriceStreamServer}.
+     *
+     * @return the bound address, or null if the stream is disabled or the service was not started
+     */
+    public synchronized InetSocketAddress getStreamAddress() {
+        return streamServer != null ? streamServer.getAddress() : null;
+    }
+
+    private static ObjectName metricsName(String jmxName) {
+        try {
+            return new ObjectName("com.santander.pricefeedclient:type=PriceFeedService,name=" + jmxName);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid JMX name: " + jmxName, e);
+        }
+    }
+
+    private void registerMetrics() {
+        if (metricsName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new PriceFeedMetrics(this::getPipelineMetrics,
+                    this::getStaleInstruments),
+                    metricsName);
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register the metrics as " + metricsName, e);
+        }
+    }
+
+    private void unregisterMetrics() {
+        if (metricsName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+        } catch (JMException e) {
+            // never registered, or already unregistered by a previous stop
+        }
+    }
+
+    /**
+     * Opens the enabled HTTP endpoints, which serve the JSON of the latest prices from a shared cache.
+     */
+    private void openEndpoints() {
+        if (httpPort == PriceFeedServiceConfig.DISABLED_PORT && streamPort == PriceFeedServiceConfig.DISABLED_PORT) {
+            return;
+        }
+        PriceJsonCache priceJsonCache = new PriceJsonCache(priceFeedSnapshot);
+        try {
+            if (httpPort != PriceFeedServiceConfig.DISABLED_PORT) {
+                httpServer = new PriceHttpServer(priceJsonCache, new InetSocketAddress(httpPort), httpThreads,
+                        threadMode);
+            }
+            if (streamPort != PriceFeedServiceConfig.DISABLED_PORT) {
+                streamServer = new PriceStreamServer(priceJsonCache, subscriptionHub.publisher(),
+                        new InetSocketAddress(streamPort), streamClientBufferSize);
+            }
+        } catch (IOException e) {
+            if (httpServer != null) {
+                httpServer.close();
+                httpServer = null;
+            }
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closeEndpoints() throws InterruptedException {
+        PriceHttpServer http;
+        PriceStreamServer stream;
+        synchronized (this) {
+            http = httpServer;
+            stream = streamServer;
+        }
+        if (http != null) {
+            http.close();
+        }
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Returns a publisher of the prices of the given instruments, fed directly by the ingestion workers.
+     * <p>
+     * The workers only buffer the prices as they are published; every subscription delivers them on its own thread,
+     * or through {@link PriceFeedServiceConfig#getSubscriberExecutor()} if set, so that a slow subscriber does not
+     * delay ingestion. Prices are only valid during the call to {@code onNext}. Up to {@link PriceFeedServiceConfig#getSubscriberBufferSize()} prices are buffered for a
+     * subscriber which does not keep up or does not request enough; beyond that the subscriber only receives the
+     * latest price of each instrument. Subscriptions complete when the feed ends or the service is stopped.
+     *
+     * @param instrumentNames the names of the instruments, none to receive the prices of all instruments
+     * @return a new publisher of prices
+     */
+    public Flow.Publisher<Price> getPricePublisher(String... instrumentNames) {
+        return subscriptionHub.publisher(instrumentNames);
+    }
+
+    /**
+     * Completes the price subscriptions, then flushes and closes the journal and the tick log.
+     */
+    private void closeSinks() {
+        subscriptionHub.close();
+        if (tickJournal != null) {
+            tickJournal.close();
+        }
+        tickLog.close();
+    }
 
-        // Wait for a short time to allow some values to be added to the map
-        Thread.sleep(1000);
+    /**
+     * Returns the waiter for the first price of the given instrument, counting one more thread waiting on it.
+     */
+    private FirstPriceWaiter addFirstPriceWaiter(String instrumentName) {
+        return firstPriceWaiters.compute(instrumentName, (name, waiter) -> {
+            FirstPriceWaiter firstPriceWaiter = waiter != null ? waiter : new FirstPriceWaiter();
+            firstPriceWaiter.threads++;
+            return firstPriceWaiter;
+        });
+    }
+
+    /**
+     * Counts one thread less waiting on the given waiter, removing it once no thread waits on it any more.
+     */
+    private void removeFirstPriceWaiter(String instrumentName, FirstPriceWaiter waiter) {
+        firstPriceWaiters.computeIfPresent(instrumentName,
+                (name, firstPriceWaiter) -> firstPriceWaiter != waiter || --firstPriceWaiter.threads > 0
+                        ? firstPriceWaiter : null);
     }
 
     /**
      * Subscribes to the price feed and updates the price feed snapshot with the latest prices.
+     * <p>
+     * The calling thread only reads the feed, in the configured wire format, in process or from the server of
+     * {@link PriceFeedServiceConfig#getTransportAddress()}, and hands its lines to the
+     * {@link IngestionPipeline}, whose workers parse, margin, journal and publish them. Once the feed ends or the
+     * service is stopped, the workers are stopped after processing the lines already handed to them, and the journal
+     * and the tick log are flushed.
+     * <p>
+     * With several venues, see {@link PriceFeedServiceConfig#getVenueCount()}, the calling thread instead starts one
+     * thread per venue, each reading {@link #initPriceFeedSubscription(int)} and feeding its quotes to the
+     * {@link BestPriceAggregator}, and waits for them; the best prices are margined and published by the venue threads.
      */
     public void subscribeToPriceFeed() {
-        initPriceFeedSubscription().forEach(message -> {
-            for (String line : message.split("\n")) {
-                Price price = priceDeserializer.deserialize(line);
-                double margin = retrieveMargin();
-                System.out.printf("BEFORE ADDING THE MARGIN: bid: %1$s, ask: %2$s%n", price.getBid(), price.getAsk());
-                priceFeedSnapshot.put(price.getInstrumentName(), addMargin(price, retrieveMargin()));
+        if (bestPriceAggregator != null) {
+            subscribeToVenues();
+            return;
+        }
+        ingestionPipeline.start();
+        try {
+            if (transportAddress != null) {
+                subscribeToTransport();
+            } else if (wireFormat == WireFormat.BINARY) {
+                initBinaryPriceFeedSubscription().takeWhile(message -> !stopped).forEach(ingestionPipeline::submit);
+            } else {
+                initPriceFeedSubscription().takeWhile(message -> !stopped).forEach(ingestionPipeline::submit);
+            }
+        } finally {
+            try {
+                ingestionPipeline.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                closeSinks();
+            }
+        }
+    }
+
+    /**
+     * Reads the feed from the server of {@link PriceFeedServiceConfig#getTransportAddress()} until the server closes
+     * the connection or the service is stopped. Binary messages are submitted as views of the pooled buffers they
+     * were read into, which are reused once the ingestion workers are done with them; text messages are decoded into
+     * strings, as the text pipeline expects.
+     */
+    private void subscribeToTransport() {
+        FrameHandler handler;
+        Supplier<BooleanSupplier> releaseCondition;
+        if (wireFormat == WireFormat.BINARY) {
+            handler = (sequence, message) -> ingestionPipeline.submit(message);
+            releaseCondition = ingestionPipeline::submittedEntriesConsumed;
+        } else {
+            byte[] text = new byte[FrameFormat.MAX_MESSAGE_SIZE];
+            handler = (sequence, message) -> {
+                int length = message.remaining();
+                message.get(text, 0, length);
+                ingestionPipeline.submit(new String(text, 0, length, StandardCharsets.ISO_8859_1));
+            };
+            releaseCondition = () -> () -> true;
+        }
+        try (FrameReader reader = FrameReader.open(transportAddress, transportInterface, transportBufferSize,
+                transportBuffers, releaseCondition)) {
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+                frameReader = reader;
+            }
+            while (!stopped && reader.read(handler)) {
+                // the handler submits the messages
             }
+        } catch (IOException e) {
+            if (!stopped) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of feed messages missed by the transport, skipped by the server for being read too slowly
+     * or lost by the network, see {@link PriceFeedServiceConfig#getTransportAddress()}.
+     *
+     * @return the number of missed messages, 0 if the source runs in process or is not read yet
+     */
+    public long getMissedMessages() {
+        FrameReader reader = frameReader;
+        return reader == null ? 0 : reader.getMissedFrames();
+    }
+
+    private void subscribeToVenues() {
+        Thread[] venueThreads = new Thread[bestPriceAggregator.getVenueCount()];
+        try {
+            for (int venue = 0; venue < venueThreads.length; venue++) {
+                int venueIndex = venue;
+                venueThreads[venue] = threadMode.newThread("price-feed-venue-" + venue,
+                        () -> subscribeToVenue(venueIndex));
+                venueThreads[venue].start();
+            }
+            for (Thread venueThread : venueThreads) {
+                venueThread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeSinks();
+        }
+    }
+
+    /**
+     * Reads the feed of a venue until it ends or the service is stopped, handing every valid quote to the aggregator.
+     * Every venue thread validates its own quotes, their timestamps being only ordered per venue.
+     */
+    private void subscribeToVenue(int venue) {
+        PriceBatch quotes = new PriceBatch();
+        Price quote = new Price();
+        TickValidator venueValidator = new TickValidator(tickQuarantine, maxTickAgeMillis);
+        Consumer<String> malformedQuotes = venueValidator::rejectMalformed;
+        initPriceFeedSubscription(venue).takeWhile(message -> !stopped).forEach(message -> {
+            priceDeserializer.deserializeAll(message, quotes, malformedQuotes);
+            for (int i = 0; i < quotes.size(); i++) {
+                if (validate(quotes.copyTo(i, quote), venueValidator)) {
+                    bestPriceAggregator.update(venue, quote);
+                }
+            }
+            quotes.clear();
+            bestPriceAggregator.expireStaleQuotes();
         });
     }
 
+    /**
+     * Records, margins and publishes a best price of the aggregator, on the venue thread whose quote changed it.
+     */
+    private void publishBestPrice(Price bestPrice) {
+        record(bestPrice);
+        publish(applyMargin(bestPrice, bestPriceMargin.get()));
+    }
+
+    /**
+     * Returns the current counters of the ingestion pipeline: queue depths, conflated and failed lines, throughput,
+     * the distribution of the time spent in each stage and of the age of the published prices.
+     *
+     * @return a point-in-time view of the ingestion counters
+     */
+    public PipelineMetrics getPipelineMetrics() {
+        return ingestionPipeline.getMetrics();
+    }
+
+    /**
+     * Returns the number of ticks rejected for the given reason, or of malformed lines, quarantined instead of being
+     * published.
+     *
+     * @param reason The reason of the rejections.
+     * @return The number of rejected ticks.
+     */
+    public long getRejectedTicks(TickRejection reason) {
+        return tickQuarantine.getRejectedTicks(reason);
+    }
+
+    /**
+     * Returns the latest rejected ticks and malformed lines, up to
+     * {@link PriceFeedServiceConfig#getQuarantineCapacity()}.
+     *
+     * @return The quarantined ticks, from the oldest to the latest.
+     */
+    public List<QuarantinedTick> getQuarantinedTicks() {
+        return tickQuarantine.getQuarantinedTicks();
+    }
+
+    /**
+     * Returns the instruments whose latest price is older than {@link PriceFeedServiceConfig#getStalePriceAgeMillis()},
+     * as of the latest check of the staleness watchdog.
+     *
+     * @return An unmodifiable set of instrument names, empty if the watchdog is disabled.
+     */
+    public Set<String> getStaleInstruments() {
+        return stalenessWatchdog == null ? Collections.emptySet() : stalenessWatchdog.getStaleInstruments();
+    }
+
     /**
      * Returns the latest price for the specified instrument.
      *
      * @param instrumentName The name of the instrument.
-     * @return The latest price for the specified instrument, or null if no price is available.
+     * @return A copy of the latest price for the specified instrument, or null if no price is available.
      */
     public Price getLatestPrice(String instrumentName) {
-        return priceFeedSnapshot.get(instrumentName);
+        return priceFeedSnapshot.getLatestPrice(instrumentName);
+    }
+
+    /**
+     * Returns the latest price for the specified instrument with the margins of the given client tier and notional,
+     * applied to the raw price of the feed.
+     *
+     * @param instrumentName The name of the instrument.
+     * @param tier The client tier.
+     * @param notional The notional of the request, which selects the notional band.
+     * @return A copy of the latest tiered price for the specified instrument, or null if no price is available.
+     * @throws IllegalStateException If tiered margins are not configured.
+     */
+    public Price getLatestPrice(String instrumentName, int tier, double notional) {
+        return requireMarginEngine().getLatestPrice(instrumentName, tier, notional);
+    }
+
+    /**
+     * Atomically replaces the tiered margins, without pausing the ingestion of the feed. Prices already published keep
+     * their margins until their instrument ticks again.
+     *
+     * @param marginSchedule The new margins, with the same tiers and bands as the configured ones.
+     * @throws IllegalStateException If tiered margins are not configured.
+     * @throws IllegalArgumentException If the schedule has other tiers or bands.
+     */
+    public void updateMarginSchedule(MarginSchedule marginSchedule) {
+        requireMarginEngine().update(marginSchedule);
+    }
+
+    private MarginEngine requireMarginEngine() {
+        if (marginEngine == null) {
+            throw new IllegalStateException("No margin schedule is configured");
+        }
+        return marginEngine;
+    }
+
+    /**
+     * Visits the latest OHLC bars of the mid prices of every accepted tick of the specified instrument, conflated or
+     * not, from the oldest to the current one, straight from the bar history.
+     *
+     * @param instrumentName The name of the instrument.
+     * @param interval The duration of the bars, one of {@link PriceFeedServiceConfig#getBarIntervalsMillis()}.
+     * @param count The maximum number of bars to visit.
+     * @param visitor The receiver of the bars.
+     * @return The number of visited bars.
+     * @throws IllegalStateException If bars are disabled.
+     * @throws IllegalArgumentException If no bars of the given interval are maintained.
+     */
+    public int getBars(String instrumentName, Duration interval, int count, BarVisitor visitor) {
+        if (barEngine == null) {
+            throw new IllegalStateException("No bar interval is configured");
+        }
+        return barEngine.getBars(instrumentName, interval.toMillis(), count, visitor);
+    }
+
+    /**
+     * Visits the latest accepted ticks of the specified instrument, conflated or not and before their margin, from the
+     * oldest to the latest one, straight from the off-heap tick history.
+     *
+     * @param instrumentName The name of the instrument.
+     * @param count The maximum number of ticks to visit.
+     * @param visitor The receiver of the ticks.
+     * @return The number of visited ticks.
+     * @throws IllegalStateException If the tick history is disabled.
+     */
+    public int getLatestTicks(String instrumentName, int count, TickVisitor visitor) {
+        return requireTickHistory().getLatestTicks(instrumentName, count, visitor);
+    }
+
+    /**
+     * Visits the accepted ticks of the specified instrument whose timestamp is in the given range, conflated or not
+     * and before their margin, from the oldest to the latest one, straight from the off-heap tick history.
+     *
+     * @param instrumentName The name of the instrument.
+     * @param from The lowest timestamp, inclusive.
+     * @param to The highest timestamp, exclusive.
+     * @param visitor The receiver of the ticks.
+     * @return The number of visited ticks.
+     * @throws IllegalStateException If the tick history is disabled.
+     */
+    public int getTicks(String instrumentName, Instant from, Instant to, TickVisitor visitor) {
+        return requireTickHistory().getTicks(instrumentName, from.toEpochMilli(), to.toEpochMilli(), visitor);
+    }
+
+    private TickHistory requireTickHistory() {
+        if (tickHistory == null) {
+            throw new IllegalStateException("The tick history is disabled");
+        }
+        return tickHistory;
     }
 
     /**
      * Returns a map that contains the latest prices for all instruments.
      *
-     * @return A map that contains the latest prices for all instruments.
+     * @return The prices of the latest snapshot, see {@link #getPriceSnapshot()}, as an unmodifiable map of read-only
+     * prices.
      */
     public Map<String, Price> getLatestPriceFeedSnapshot() {
-        return priceFeedSnapshot;
+        return getPriceSnapshot().getPrices();
+    }
+
+    /**
+     * Returns the latest immutable snapshot of the prices of all instruments. The snapshot is published at the
+     * cadence of {@link PriceFeedServiceConfig#getSnapshotIntervalMillis()}, or when it is read after an update, so
+     * reading it again between updates returns the same snapshot without copying anything.
+     *
+     * @return The latest snapshot.
+     */
+    public PriceSnapshot getPriceSnapshot() {
+        return snapshotPublisher.getSnapshot();
+    }
+
+    /**
+     * Returns the prices which changed since the given snapshot version, for clients polling the prices.
+     *
+     * @param sinceEpoch The epoch of the latest snapshot or changes the caller holds.
+     * @param sinceVersion The version of the latest snapshot or changes the caller holds, 0 for all the prices.
+     * @return The changes up to the latest snapshot, see {@link PriceSnapshot#changesSince(long, long)}.
+     */
+    public PriceChanges getPriceChanges(long sinceEpoch, long sinceVersion) {
+        return getPriceSnapshot().changesSince(sinceEpoch, sinceVersion);
     }
 
     /**
@@ -112,10 +988,168 @@ public class PriceFeedService {
     public Price addMargin(Price price, double marginInPercentages) {
         double bid = price.getBid() - marginInPercentages;
         double ask = price.getAsk() + marginInPercentages;
-        System.out.printf("AFTER ADDING THE MARGIN: bid: %1$s, ask: %2$s%n", bid, ask);
         return new Price(UUID.randomUUID(), price.getInstrumentName(), bid, ask, price.getTimestamp());
     }
 
+    /**
+     * Adds a margin to the given price, based on the given margin percentage, writing the result into the given
+     * target instead of allocating a new price. The target keeps the id of the source price.
+     *
+     * @param price the price to which the margin should be added
+     * @param marginInPercentages the percentage of the margin to add
+     * @param target the price object receiving the margined price, which may be the source price itself
+     * @return the given target
+     */
+    public Price addMargin(Price price, double marginInPercentages, Price target) {
+        double bid = price.getBid() - marginInPercentages;
+        double ask = price.getAsk() + marginInPercentages;
+        target.copyFrom(price);
+        target.setBid(bid);
+        target.setAsk(ask);
+        return target;
+    }
+
+    /**
+     * The validation stage of the ingestion pipeline: checks the given price with {@link #validate(Price, TickValidator)}.
+     * Accepted prices are added to the bars and to the tick history of their instrument right away, as the pipeline
+     * runs this stage before conflation.
+     *
+     * @param price the deserialized price
+     * @return true if the price is accepted
+     */
+    private boolean validate(Price price) {
+        if (!validate(price, tickValidator)) {
+            return false;
+        }
+        record(price);
+        return true;
+    }
+
+    /**
+     * Resolves the instrument id of the given price in the registry of the service, then checks the price with the
+     * given validator, quarantining it if it is rejected. The instrument of a price is only registered once the price
+     * is accepted, and only while the registry holds fewer than {@link PriceFeedServiceConfig#getMaxInstruments()}
+     * instruments, so that rejected ticks never grow the registry.
+     *
+     * @param price the deserialized price
+     * @param validator the validator of the thread handling the price
+     * @return true if the price is accepted, its instrument id being resolved
+     */
+    private boolean validate(Price price, TickValidator validator) {
+        if (!resolveInstrumentId(price)) {
+            // the first tick of a new instrument has no earlier tick to be ordered after: it is checked on its own,
+            // then checked again once registered, which records its timestamp for the next ticks
+            if (!validator.validate(price)) {
+                return false;
+            }
+            if (!registerInstrument(price)) {
+                validator.rejectUnknownInstrument(price);
+                return false;
+            }
+        }
+        return validator.validate(price);
+    }
+
+    /**
+     * Adds an accepted price to the bars and to the tick history of its instrument, on the single thread handling
+     * the ticks of that instrument.
+     */
+    private void record(Price price) {
+        int instrumentId = price.getInstrumentId();
+        if (barEngine != null) {
+            barEngine.update(instrumentId, price);
+        }
+        if (tickHistory != null) {
+            tickHistory.update(instrumentId, price);
+        }
+    }
+
+    /**
+     * The margin stage of the ingestion pipeline and of the venue threads: applies a freshly retrieved margin to the
+     * given price, and the margins of every tier and band if tiered margins are enabled. The prices before and after
+     * the margin are sent to the tick log, at the debug and info levels respectively.
+     *
+     * @param price the deserialized price, whose instrument id was resolved by the validation stage
+     * @param target the price object receiving the margined price
+     * @return the given target
+     */
+    private Price applyMargin(Price price, Price target) {
+        if (tickLog.isEnabled(TickLogLevel.DEBUG)) {
+            tickLog.log(TickLogLevel.DEBUG, "margin.input", price);
+        }
+        if (marginEngine != null) {
+            marginEngine.apply(price.getInstrumentId(), price);
+        }
+        addMargin(price, retrieveMargin(), target);
+        if (tickLog.isEnabled(TickLogLevel.INFO)) {
+            tickLog.log(TickLogLevel.INFO, "margin.output", target);
+        }
+        return target;
+    }
+
+    /**
+     * Sets the id of the instrument of the given price in the registry of the service, unless the deserializer
+     * already did, without registering it.
+     *
+     * @return false if the instrument is not registered yet, its id being left unresolved
+     */
+    private boolean resolveInstrumentId(Price price) {
+        if (sharedInstrumentRegistry && price.getInstrumentId() != InstrumentRegistry.UNKNOWN_ID) {
+            return true;
+        }
+        InstrumentRegistry instrumentRegistry = priceFeedSnapshot.getInstrumentRegistry();
+        int instrumentId = instrumentRegistry.idOf(price.getInstrumentName());
+        if (instrumentId == InstrumentRegistry.UNKNOWN_ID) {
+            price.setInstrumentName(price.getInstrumentName());
+            return false;
+        }
+        price.setInstrument(instrumentId, instrumentRegistry.nameOf(instrumentId));
+        return true;
+    }
+
+    /**
+     * Registers the instrument of the given accepted price and sets its id, unless the registry already holds
+     * {@link PriceFeedServiceConfig#getMaxInstruments()} instruments.
+     *
+     * @return false if the registry is full
+     */
+    private boolean registerInstrument(Price price) {
+        InstrumentRegistry instrumentRegistry = priceFeedSnapshot.getInstrumentRegistry();
+        if (instrumentRegistry.size() >= maxInstruments) {
+            return false;
+        }
+        int instrumentId = instrumentRegistry.register(price.getInstrumentName());
+        price.setInstrument(instrumentId, instrumentRegistry.nameOf(instrumentId));
+        return true;
+    }
+
+    /**
+     * The publishing stage of the ingestion pipeline: journals the margined price, if journaling is enabled, stores
+     * it as the latest price of its instrument and pushes it to the price subscribers.
+     *
+     * Also completes the futures waiting for the first price of the instrument.
+     *
+     * @param price the margined price, whose instrument id was resolved by the margin stage
+     */
+    private void publish(Price price) {
+        if (tickJournal != null) {
+            tickJournal.append(price);
+        }
+        int instrumentId = price.getInstrumentId();
+        priceFeedSnapshot.update(instrumentId, price);
+        snapshotPublisher.markDirty();
+        subscriptionHub.publish(instrumentId, price);
+        if (!anyPrice.isDone()) {
+            anyPrice.complete(null);
+        }
+        if (!firstPriceWaiters.isEmpty()) {
+            FirstPriceWaiter waiter = firstPriceWaiters.remove(price.getInstrumentName());
+            if (waiter != null) {
+                waiter.firstPrice.complete(price.copy());
+            }
+        }
+    }
+
     /**
      * Initializes the subscription to the price feed by running the {@link PriceFeedSource#runPriceFeed()} method,
      * which returns a stream of price feed messages.
@@ -127,13 +1161,35 @@ public class PriceFeedService {
     }
 
     /**
-     * Retrieves a random margin percentage using the {@link Random#nextDouble()} method, or returns the default {@link PriceFeedService#defaultMarginAmount} margin
-     * amount if the random number generated is zero.
+     * Initializes the subscription to the price feed of the given venue, when several venues are aggregated. Every
+     * venue runs its own {@link PriceFeedSource#runPriceFeed()} stream.
+     *
+     * @param venue the index of the venue
+     * @return a stream of price feed messages
+     */
+    public Stream<String> initPriceFeedSubscription(int venue) {
+        return PriceFeedSource.runPriceFeed();
+    }
+
+    /**
+     * Initializes the subscription to the price feed in the {@link WireFormat#BINARY} wire format by running the
+     * {@link PriceFeedSource#runBinaryPriceFeed()} method.
+     *
+     * @return a stream of binary price feed messages
+     */
+    public Stream<ByteBuffer> initBinaryPriceFeedSubscription() {
+        return PriceFeedSource.runBinaryPriceFeed();
+    }
+
+    /**
+     * Retrieves a random margin percentage using the {@link Random#nextDouble()} method of the generator of the
+     * calling thread, or returns the default {@link PriceFeedService#defaultMarginAmount} margin amount if the random
+     * number generated is zero.
      *
      * @return the margin percentage to be used for the current price feed message
      */
     public double retrieveMargin() {
-        double margin = random.nextDouble();
+        double margin = random.get().nextDouble();
         if (isZero(margin)) {
             return defaultMarginAmount;
         }
@@ -149,4 +1205,13 @@ public class PriceFeedService {
     public boolean isZero(double value) {
         return value == 0;
     }
+
+    /**
+     * The future of the first price of an instrument and the number of threads waiting on it, which is only read and
+     * written by the remapping functions of {@link #firstPriceWaiters}.
+     */
+    private static final class FirstPriceWaiter {
+        private final CompletableFuture<Price> firstPrice = new CompletableFuture<>();
+        private int threads;
+    }
 }
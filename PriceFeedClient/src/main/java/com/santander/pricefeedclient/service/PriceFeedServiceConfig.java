@@ -0,0 +1,980 @@
+package com.santander.pricefeedclient.service;
+
+import com.santander.pricefeedclient.log.TickLogLevel;
+import com.santander.pricefeedclient.margin.MarginSchedule;
+import com.santander.pricefeedclient.util.ThreadMode;
+import com.santander.pricefeedsource.WireFormat;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tunable settings of a {@link PriceFeedService}.
+ * <p>
+ * The defaults can be overridden through system properties, see {@link #fromSystemProperties()}.
+ */
+public class PriceFeedServiceConfig {
+
+    /**
+     * The system property holding the number of ingestion worker threads.
+     */
+    public static final String WORKER_COUNT_PROPERTY = "pricefeed.workers";
+
+    /**
+     * The system property holding the capacity of the ring buffer of each ingestion worker.
+     */
+    public static final String RING_CAPACITY_PROPERTY = "pricefeed.ringCapacity";
+
+    /**
+     * The system property holding the queue depth from which ticks of the same instrument are conflated.
+     */
+    public static final String CONFLATION_THRESHOLD_PROPERTY = "pricefeed.conflationThreshold";
+
+    /**
+     * The system property holding the directory of the tick journal; the journal is disabled when it is not set.
+     */
+    public static final String JOURNAL_DIRECTORY_PROPERTY = "pricefeed.journal.dir";
+
+    /**
+     * The system property holding the size of the segment files of the tick journal, in bytes.
+     */
+    public static final String JOURNAL_SEGMENT_SIZE_PROPERTY = "pricefeed.journal.segmentSize";
+
+    /**
+     * The system property holding the number of segment files of the tick journal kept on disk.
+     */
+    public static final String JOURNAL_RETAINED_SEGMENTS_PROPERTY = "pricefeed.journal.retainedSegments";
+
+    /**
+     * The system property holding the comma-separated instruments which must have a price for the service to be
+     * ready.
+     */
+    public static final String READY_INSTRUMENTS_PROPERTY = "pricefeed.readyInstruments";
+
+    /**
+     * The system property holding the maximum time to wait for the service to be ready, in milliseconds.
+     */
+    public static final String STARTUP_TIMEOUT_PROPERTY = "pricefeed.startupTimeoutMillis";
+
+    /**
+     * The system property holding the level of the tick log: {@code off}, {@code info} or {@code debug}.
+     */
+    public static final String TICK_LOG_LEVEL_PROPERTY = "pricefeed.tickLog.level";
+
+    /**
+     * The system property holding the sampling rate of the tick log: one event in that many is logged.
+     */
+    public static final String TICK_LOG_SAMPLE_RATE_PROPERTY = "pricefeed.tickLog.sampleRate";
+
+    /**
+     * The system property holding the number of tick log events which can wait for the writer thread.
+     */
+    public static final String TICK_LOG_CAPACITY_PROPERTY = "pricefeed.tickLog.capacity";
+
+    /**
+     * The system property holding the number of prices buffered for a price subscriber before it is conflated.
+     */
+    public static final String SUBSCRIBER_BUFFER_SIZE_PROPERTY = "pricefeed.subscriberBufferSize";
+
+    /**
+     * The system property holding the port of the HTTP endpoints of the latest prices, 0 for an ephemeral port.
+     */
+    public static final String HTTP_PORT_PROPERTY = "pricefeed.http.port";
+
+    /**
+     * The system property holding the number of threads handling the requests of the HTTP endpoints.
+     */
+    public static final String HTTP_THREADS_PROPERTY = "pricefeed.http.threads";
+
+    /**
+     * The system property holding the port of the server-sent events stream of the prices, 0 for an ephemeral port.
+     */
+    public static final String STREAM_PORT_PROPERTY = "pricefeed.stream.port";
+
+    /**
+     * The system property holding the size of the output buffer of each client of the stream, in bytes.
+     */
+    public static final String STREAM_CLIENT_BUFFER_SIZE_PROPERTY = "pricefeed.stream.clientBufferSize";
+
+    /**
+     * The system property selecting the kind of threads of the feed subscription and of the HTTP requests,
+     * {@code platform} or {@code virtual}.
+     */
+    public static final String THREAD_MODE_PROPERTY = "pricefeed.threadMode";
+
+    /**
+     * The system property naming the JMX MBean of the metrics of the service, unset to not register it.
+     */
+    public static final String JMX_NAME_PROPERTY = "pricefeed.jmx.name";
+
+    /**
+     * The system property setting the number of venues whose feeds are aggregated into best prices.
+     */
+    public static final String VENUE_COUNT_PROPERTY = "pricefeed.venues";
+
+    /**
+     * The system property setting the age from which the quote of a venue is stale, in milliseconds.
+     */
+    public static final String MAX_QUOTE_AGE_PROPERTY = "pricefeed.venues.maxQuoteAgeMillis";
+
+    /**
+     * The system property listing the durations of the OHLC bars, e.g. {@code 1s,1m,5m}, empty to disable the bars.
+     * Durations are numbers of milliseconds, or of seconds, minutes or hours when suffixed by {@code s}, {@code m}
+     * or {@code h}.
+     */
+    public static final String BAR_INTERVALS_PROPERTY = "pricefeed.bars.intervals";
+
+    /**
+     * The system property setting the number of bars kept per instrument and interval.
+     */
+    public static final String BAR_HISTORY_PROPERTY = "pricefeed.bars.history";
+
+    /**
+     * The system property setting the number of ticks kept off the heap per instrument, 0 to disable the tick history.
+     */
+    public static final String TICK_HISTORY_CAPACITY_PROPERTY = "pricefeed.history.capacity";
+
+    /**
+     * The system property holding the cadence at which the price snapshot is published, in milliseconds, 0 to publish
+     * it lazily when it is read after an update.
+     */
+    public static final String SNAPSHOT_INTERVAL_PROPERTY = "pricefeed.snapshot.intervalMillis";
+
+    /**
+     * The system property setting the age from which an incoming tick is rejected as stale, in milliseconds, 0 to
+     * accept ticks of any age.
+     */
+    public static final String MAX_TICK_AGE_PROPERTY = "pricefeed.validation.maxTickAgeMillis";
+
+    /**
+     * The system property setting the number of rejected ticks kept for inspection.
+     */
+    public static final String QUARANTINE_CAPACITY_PROPERTY = "pricefeed.validation.quarantineCapacity";
+
+    /**
+     * The system property setting the maximum number of instruments registered by the feed.
+     */
+    public static final String MAX_INSTRUMENTS_PROPERTY = "pricefeed.validation.maxInstruments";
+
+    /**
+     * The system property setting the age from which the latest price of an instrument is flagged as stale, in
+     * milliseconds, 0 to disable the staleness watchdog.
+     */
+    public static final String STALE_PRICE_AGE_PROPERTY = "pricefeed.watchdog.maxAgeMillis";
+
+    /**
+     * The system property holding the address of a {@link com.santander.pricefeedsource.PriceFeedServer} to read the
+     * feed from, {@code tcp://host:port} or {@code udp://host:port}, instead of running the source in process.
+     */
+    public static final String TRANSPORT_PROPERTY = "pricefeed.transport";
+
+    /**
+     * The system property naming the network interface joining the multicast group of a UDP transport.
+     */
+    public static final String TRANSPORT_INTERFACE_PROPERTY = "pricefeed.transport.interface";
+
+    /**
+     * The system property holding the size of each buffer the transport is read into, in bytes.
+     */
+    public static final String TRANSPORT_BUFFER_SIZE_PROPERTY = "pricefeed.transport.bufferSize";
+
+    /**
+     * The system property holding the number of buffers the transport is read into.
+     */
+    public static final String TRANSPORT_BUFFERS_PROPERTY = "pricefeed.transport.buffers";
+
+    /**
+     * The port value disabling an endpoint.
+     */
+    public static final int DISABLED_PORT = -1;
+
+    private static final int DEFAULT_RING_CAPACITY = 1024;
+
+    private int workerCount = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+    private int ringCapacity = DEFAULT_RING_CAPACITY;
+    private int conflationThreshold = DEFAULT_RING_CAPACITY / 2;
+    private WireFormat wireFormat = WireFormat.CSV;
+    private String journalDirectory;
+    private int journalSegmentSize = 16 * 1024 * 1024;
+    private int journalRetainedSegments = 4;
+    private String[] readyInstruments = new String[0];
+    private long startupTimeoutMillis = 5000;
+    private TickLogLevel tickLogLevel = TickLogLevel.OFF;
+    private int tickLogSampleRate = 1;
+    private int tickLogCapacity = 8192;
+    private int subscriberBufferSize = 256;
+    private Executor subscriberExecutor;
+    private MarginSchedule marginSchedule;
+    private int httpPort = DISABLED_PORT;
+    private int httpThreads = 2;
+    private int streamPort = DISABLED_PORT;
+    private int streamClientBufferSize = 64 * 1024;
+    private ThreadMode threadMode = ThreadMode.PLATFORM;
+    private String jmxName;
+    private int venueCount = 1;
+    private long maxQuoteAgeMillis = 5000;
+    private long[] barIntervalsMillis = {1000, 60_000, 300_000};
+    private int barHistory = 120;
+    private int tickHistoryCapacity;
+    private long snapshotIntervalMillis;
+    private long maxTickAgeMillis;
+    private int quarantineCapacity = 64;
+    private int maxInstruments = 1 << 16;
+    private long stalePriceAgeMillis;
+    private URI transportAddress;
+    private String transportInterface;
+    private int transportBufferSize = 1 << 20;
+    private int transportBuffers = 8;
+
+    /**
+     * Creates a new configuration holding the default settings.
+     */
+    public PriceFeedServiceConfig() {
+    }
+
+    /**
+     * Creates a new configuration holding the default settings, overridden by the system properties which are set.
+     *
+     * @return a new configuration
+     * @throws NumberFormatException if a property is not a valid number or duration
+     * @throws IllegalArgumentException if the {@value WireFormat#WIRE_FORMAT_PROPERTY},
+     *                                  {@value #TICK_LOG_LEVEL_PROPERTY} or {@value #THREAD_MODE_PROPERTY} property
+     *                                  names an unknown value, or if the {@value #TRANSPORT_PROPERTY} property is not
+     *                                  a valid URI
+     */
+    public static PriceFeedServiceConfig fromSystemProperties() {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setWorkerCount(Integer.getInteger(WORKER_COUNT_PROPERTY, config.getWorkerCount()));
+        config.setRingCapacity(Integer.getInteger(RING_CAPACITY_PROPERTY, config.getRingCapacity()));
+        config.setConflationThreshold(Integer.getInteger(CONFLATION_THRESHOLD_PROPERTY,
+                config.getConflationThreshold()));
+        config.setWireFormat(WireFormat.fromSystemProperties());
+        config.setJournalDirectory(System.getProperty(JOURNAL_DIRECTORY_PROPERTY, config.getJournalDirectory()));
+        config.setJournalSegmentSize(Integer.getInteger(JOURNAL_SEGMENT_SIZE_PROPERTY,
+                config.getJournalSegmentSize()));
+        config.setJournalRetainedSegments(Integer.getInteger(JOURNAL_RETAINED_SEGMENTS_PROPERTY,
+                config.getJournalRetainedSegments()));
+        String readyInstruments = System.getProperty(READY_INSTRUMENTS_PROPERTY);
+        if (readyInstruments != null) {
+            config.setReadyInstruments(Arrays.stream(readyInstruments.split(","))
+                    .map(String::trim)
+                    .filter(instrument -> !instrument.isEmpty())
+                    .toArray(String[]::new));
+        }
+        config.setStartupTimeoutMillis(Long.getLong(STARTUP_TIMEOUT_PROPERTY, config.getStartupTimeoutMillis()));
+        config.setTickLogLevel(TickLogLevel.parse(System.getProperty(TICK_LOG_LEVEL_PROPERTY,
+                config.getTickLogLevel().name())));
+        config.setTickLogSampleRate(Integer.getInteger(TICK_LOG_SAMPLE_RATE_PROPERTY, config.getTickLogSampleRate()));
+        config.setTickLogCapacity(Integer.getInteger(TICK_LOG_CAPACITY_PROPERTY, config.getTickLogCapacity()));
+        config.setSubscriberBufferSize(Integer.getInteger(SUBSCRIBER_BUFFER_SIZE_PROPERTY,
+                config.getSubscriberBufferSize()));
+        config.setHttpPort(Integer.getInteger(HTTP_PORT_PROPERTY, config.getHttpPort()));
+        config.setHttpThreads(Integer.getInteger(HTTP_THREADS_PROPERTY, config.getHttpThreads()));
+        config.setStreamPort(Integer.getInteger(STREAM_PORT_PROPERTY, config.getStreamPort()));
+        config.setStreamClientBufferSize(Integer.getInteger(STREAM_CLIENT_BUFFER_SIZE_PROPERTY,
+                config.getStreamClientBufferSize()));
+        config.setThreadMode(ThreadMode.parse(System.getProperty(THREAD_MODE_PROPERTY,
+                config.getThreadMode().name())));
+        config.setJmxName(System.getProperty(JMX_NAME_PROPERTY, config.getJmxName()));
+        config.setVenueCount(Integer.getInteger(VENUE_COUNT_PROPERTY, config.getVenueCount()));
+        config.setMaxQuoteAgeMillis(Long.getLong(MAX_QUOTE_AGE_PROPERTY, config.getMaxQuoteAgeMillis()));
+        String barIntervals = System.getProperty(BAR_INTERVALS_PROPERTY);
+        if (barIntervals != null) {
+            config.setBarIntervalsMillis(Arrays.stream(barIntervals.split(","))
+                    .map(String::trim)
+                    .filter(interval -> !interval.isEmpty())
+                    .mapToLong(PriceFeedServiceConfig::parseDurationMillis)
+                    .toArray());
+        }
+        config.setBarHistory(Integer.getInteger(BAR_HISTORY_PROPERTY, config.getBarHistory()));
+        config.setTickHistoryCapacity(Integer.getInteger(TICK_HISTORY_CAPACITY_PROPERTY,
+                config.getTickHistoryCapacity()));
+        config.setSnapshotIntervalMillis(Long.getLong(SNAPSHOT_INTERVAL_PROPERTY, config.getSnapshotIntervalMillis()));
+        config.setMaxTickAgeMillis(Long.getLong(MAX_TICK_AGE_PROPERTY, config.getMaxTickAgeMillis()));
+        config.setQuarantineCapacity(Integer.getInteger(QUARANTINE_CAPACITY_PROPERTY, config.getQuarantineCapacity()));
+        config.setMaxInstruments(Integer.getInteger(MAX_INSTRUMENTS_PROPERTY, config.getMaxInstruments()));
+        config.setStalePriceAgeMillis(Long.getLong(STALE_PRICE_AGE_PROPERTY, config.getStalePriceAgeMillis()));
+        String transportAddress = System.getProperty(TRANSPORT_PROPERTY);
+        if (transportAddress != null) {
+            config.setTransportAddress(URI.create(transportAddress));
+        }
+        config.setTransportInterface(System.getProperty(TRANSPORT_INTERFACE_PROPERTY, config.getTransportInterface()));
+        config.setTransportBufferSize(Integer.getInteger(TRANSPORT_BUFFER_SIZE_PROPERTY,
+                config.getTransportBufferSize()));
+        config.setTransportBuffers(Integer.getInteger(TRANSPORT_BUFFERS_PROPERTY, config.getTransportBuffers()));
+        return config;
+    }
+
+    /**
+     * Gets the number of ingestion worker threads, each owning a shard of the instruments.
+     *
+     * @return the number of ingestion worker threads
+     */
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * Sets the number of ingestion worker threads, each owning a shard of the instruments.
+     *
+     * @param workerCount the number of ingestion worker threads
+     */
+    public void setWorkerCount(int workerCount) {
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Gets the capacity of the ring buffer of each ingestion worker.
+     *
+     * @return the capacity of the ring buffer of each ingestion worker
+     */
+    public int getRingCapacity() {
+        return ringCapacity;
+    }
+
+    /**
+     * Sets the capacity of the ring buffer of each ingestion worker.
+     *
+     * @param ringCapacity the capacity of the ring buffer of each ingestion worker
+     */
+    public void setRingCapacity(int ringCapacity) {
+        this.ringCapacity = ringCapacity;
+    }
+
+    /**
+     * Gets the queue depth from which a worker only processes the newest queued tick of every instrument.
+     *
+     * @return the conflation threshold
+     */
+    public int getConflationThreshold() {
+        return conflationThreshold;
+    }
+
+    /**
+     * Sets the queue depth from which a worker only processes the newest queued tick of every instrument.
+     *
+     * @param conflationThreshold the conflation threshold
+     */
+    public void setConflationThreshold(int conflationThreshold) {
+        this.conflationThreshold = conflationThreshold;
+    }
+
+    /**
+     * Gets the wire format in which the service subscribes to the price feed.
+     *
+     * @return the wire format of the feed
+     */
+    public WireFormat getWireFormat() {
+        return wireFormat;
+    }
+
+    /**
+     * Sets the wire format in which the service subscribes to the price feed. The deserializer of the service must
+     * support it.
+     *
+     * @param wireFormat the wire format of the feed
+     */
+    public void setWireFormat(WireFormat wireFormat) {
+        this.wireFormat = wireFormat;
+    }
+
+    /**
+     * Gets the directory of the tick journal, from which the latest prices are restored at startup.
+     *
+     * @return the journal directory, or null if the journal is disabled
+     */
+    public String getJournalDirectory() {
+        return journalDirectory;
+    }
+
+    /**
+     * Sets the directory of the tick journal, from which the latest prices are restored at startup.
+     *
+     * @param journalDirectory the journal directory, or null to disable the journal
+     */
+    public void setJournalDirectory(String journalDirectory) {
+        this.journalDirectory = journalDirectory;
+    }
+
+    /**
+     * Gets the size of the segment files of the tick journal.
+     *
+     * @return the segment size, in bytes
+     */
+    public int getJournalSegmentSize() {
+        return journalSegmentSize;
+    }
+
+    /**
+     * Sets the size of the segment files of the tick journal. Every segment starts with a checkpoint of all the
+     * instruments, so it must be well above 64 bytes per instrument.
+     *
+     * @param journalSegmentSize the segment size, in bytes
+     */
+    public void setJournalSegmentSize(int journalSegmentSize) {
+        this.journalSegmentSize = journalSegmentSize;
+    }
+
+    /**
+     * Gets the number of segment files of the tick journal kept on disk.
+     *
+     * @return the number of retained segments
+     */
+    public int getJournalRetainedSegments() {
+        return journalRetainedSegments;
+    }
+
+    /**
+     * Sets the number of segment files of the tick journal kept on disk, at least 2.
+     *
+     * @param journalRetainedSegments the number of retained segments
+     */
+    public void setJournalRetainedSegments(int journalRetainedSegments) {
+        this.journalRetainedSegments = journalRetainedSegments;
+    }
+
+    /**
+     * Gets the instruments which must have a price for the service to be ready, see
+     * {@link PriceFeedService#start()}.
+     *
+     * @return a copy of the ready instruments, empty if any instrument makes the service ready
+     */
+    public String[] getReadyInstruments() {
+        return readyInstruments.clone();
+    }
+
+    /**
+     * Sets the instruments which must have a price for the service to be ready, see
+     * {@link PriceFeedService#start()}.
+     *
+     * @param readyInstruments the ready instruments, empty if any instrument makes the service ready
+     */
+    public void setReadyInstruments(String... readyInstruments) {
+        this.readyInstruments = readyInstruments.clone();
+    }
+
+    /**
+     * Gets the maximum time to wait for the service to be ready.
+     *
+     * @return the startup timeout, in milliseconds
+     */
+    public long getStartupTimeoutMillis() {
+        return startupTimeoutMillis;
+    }
+
+    /**
+     * Sets the maximum time to wait for the service to be ready.
+     *
+     * @param startupTimeoutMillis the startup timeout, in milliseconds
+     */
+    public void setStartupTimeoutMillis(long startupTimeoutMillis) {
+        this.startupTimeoutMillis = startupTimeoutMillis;
+    }
+
+    /**
+     * Gets the level of the tick log, {@link TickLogLevel#OFF} to disable it.
+     *
+     * @return the tick log level
+     */
+    public TickLogLevel getTickLogLevel() {
+        return tickLogLevel;
+    }
+
+    /**
+     * Sets the level of the tick log, {@link TickLogLevel#OFF} to disable it.
+     *
+     * @param tickLogLevel the tick log level
+     */
+    public void setTickLogLevel(TickLogLevel tickLogLevel) {
+        this.tickLogLevel = tickLogLevel;
+    }
+
+    /**
+     * Gets the sampling rate of the tick log: one event in that many is logged.
+     *
+     * @return the tick log sampling rate
+     */
+    public int getTickLogSampleRate() {
+        return tickLogSampleRate;
+    }
+
+    /**
+     * Sets the sampling rate of the tick log: one event in that many is logged.
+     *
+     * @param tickLogSampleRate the tick log sampling rate, 1 to log every event
+     */
+    public void setTickLogSampleRate(int tickLogSampleRate) {
+        this.tickLogSampleRate = tickLogSampleRate;
+    }
+
+    /**
+     * Gets the number of tick log events which can wait for the writer thread before new ones are dropped.
+     *
+     * @return the tick log capacity
+     */
+    public int getTickLogCapacity() {
+        return tickLogCapacity;
+    }
+
+    /**
+     * Sets the number of tick log events which can wait for the writer thread before new ones are dropped.
+     *
+     * @param tickLogCapacity the tick log capacity
+     */
+    public void setTickLogCapacity(int tickLogCapacity) {
+        this.tickLogCapacity = tickLogCapacity;
+    }
+
+    /**
+     * Gets the number of prices buffered for a price subscriber before it is conflated to the latest price of each
+     * instrument.
+     *
+     * @return the subscriber buffer size
+     */
+    public int getSubscriberBufferSize() {
+        return subscriberBufferSize;
+    }
+
+    /**
+     * Sets the number of prices buffered for a price subscriber before it is conflated to the latest price of each
+     * instrument.
+     *
+     * @param subscriberBufferSize the subscriber buffer size
+     */
+    public void setSubscriberBufferSize(int subscriberBufferSize) {
+        this.subscriberBufferSize = subscriberBufferSize;
+    }
+
+    /**
+     * Gets the executor delivering the prices to the price subscribers. Not settable through system properties.
+     *
+     * @return the subscriber executor, or null if every subscription has a dedicated delivery thread of the
+     *         {@link #getThreadMode() thread mode}
+     */
+    public Executor getSubscriberExecutor() {
+        return subscriberExecutor;
+    }
+
+    /**
+     * Sets the executor delivering the prices to the price subscribers, e.g. {@code Runnable::run} to deliver them on
+     * the ingestion workers, which then wait for the subscribers.
+     *
+     * @param subscriberExecutor the subscriber executor, or null for a dedicated delivery thread per subscription
+     */
+    public void setSubscriberExecutor(Executor subscriberExecutor) {
+        this.subscriberExecutor = subscriberExecutor;
+    }
+
+    /**
+     * Gets the tiered margins maintained alongside the feed, see {@link com.santander.pricefeedclient.margin.MarginEngine}.
+     * Not settable through system properties.
+     *
+     * @return the margin schedule, or null if tiered margins are disabled
+     */
+    public MarginSchedule getMarginSchedule() {
+        return marginSchedule;
+    }
+
+    /**
+     * Sets the tiered margins maintained alongside the feed.
+     *
+     * @param marginSchedule the margin schedule, or null to disable tiered margins
+     */
+    public void setMarginSchedule(MarginSchedule marginSchedule) {
+        this.marginSchedule = marginSchedule;
+    }
+
+    /**
+     * Gets the port of the HTTP endpoints of the latest prices, see
+     * {@link com.santander.pricefeedclient.http.PriceHttpServer}.
+     *
+     * @return the HTTP port, 0 for an ephemeral port, or {@link #DISABLED_PORT}
+     */
+    public int getHttpPort() {
+        return httpPort;
+    }
+
+    /**
+     * Sets the port of the HTTP endpoints of the latest prices.
+     *
+     * @param httpPort the HTTP port, 0 for an ephemeral port, or {@link #DISABLED_PORT}
+     */
+    public void setHttpPort(int httpPort) {
+        this.httpPort = httpPort;
+    }
+
+    /**
+     * Gets the number of threads handling the requests of the HTTP endpoints.
+     *
+     * @return the number of HTTP threads
+     */
+    public int getHttpThreads() {
+        return httpThreads;
+    }
+
+    /**
+     * Sets the number of threads handling the requests of the HTTP endpoints.
+     *
+     * @param httpThreads the number of HTTP threads
+     */
+    public void setHttpThreads(int httpThreads) {
+        this.httpThreads = httpThreads;
+    }
+
+    /**
+     * Gets the port of the server-sent events stream of the prices, see
+     * {@link com.santander.pricefeedclient.http.PriceStreamServer}.
+     *
+     * @return the stream port, 0 for an ephemeral port, or {@link #DISABLED_PORT}
+     */
+    public int getStreamPort() {
+        return streamPort;
+    }
+
+    /**
+     * Sets the port of the server-sent events stream of the prices.
+     *
+     * @param streamPort the stream port, 0 for an ephemeral port, or {@link #DISABLED_PORT}
+     */
+    public void setStreamPort(int streamPort) {
+        this.streamPort = streamPort;
+    }
+
+    /**
+     * Gets the size of the output buffer of each client of the stream, beyond which events are dropped for that
+     * client.
+     *
+     * @return the client buffer size, in bytes
+     */
+    public int getStreamClientBufferSize() {
+        return streamClientBufferSize;
+    }
+
+    /**
+     * Sets the size of the output buffer of each client of the stream.
+     *
+     * @param streamClientBufferSize the client buffer size, in bytes
+     */
+    public void setStreamClientBufferSize(int streamClientBufferSize) {
+        this.streamClientBufferSize = streamClientBufferSize;
+    }
+
+    /**
+     * Gets the kind of threads reading the price feed and handling the requests of the HTTP endpoints.
+     *
+     * @return the thread mode
+     */
+    public ThreadMode getThreadMode() {
+        return threadMode;
+    }
+
+    /**
+     * Sets the kind of threads reading the price feed and handling the requests of the HTTP endpoints. Virtual
+     * threads require Java 21 or later, see {@link ThreadMode#isSupported()}.
+     *
+     * @param threadMode the thread mode
+     */
+    public void setThreadMode(ThreadMode threadMode) {
+        this.threadMode = threadMode;
+    }
+
+    /**
+     * Gets the name under which the service registers its {@link PriceFeedMetricsMXBean} in the platform MBean
+     * server, as {@code com.santander.pricefeedclient:type=PriceFeedService,name=<jmxName>}.
+     *
+     * @return the name of the MBean, or null if it is not registered
+     */
+    public String getJmxName() {
+        return jmxName;
+    }
+
+    /**
+     * Sets the name under which the service registers its {@link PriceFeedMetricsMXBean} in the platform MBean
+     * server.
+     *
+     * @param jmxName the name of the MBean, or null to not register it
+     */
+    public void setJmxName(String jmxName) {
+        this.jmxName = jmxName;
+    }
+
+    /**
+     * Gets the number of venues whose feeds are read in parallel and aggregated into the best bid and best offer of
+     * every instrument, see {@link com.santander.pricefeedclient.aggregation.BestPriceAggregator}. A single venue
+     * feeds the ingestion pipeline directly.
+     *
+     * @return the number of venues
+     */
+    public int getVenueCount() {
+        return venueCount;
+    }
+
+    /**
+     * Sets the number of venues whose feeds are read in parallel and aggregated into best prices.
+     *
+     * @param venueCount the number of venues
+     */
+    public void setVenueCount(int venueCount) {
+        this.venueCount = venueCount;
+    }
+
+    /**
+     * Gets the age from which the quote of a venue is stale and no longer contributes to the best prices.
+     *
+     * @return the maximum quote age, in milliseconds
+     */
+    public long getMaxQuoteAgeMillis() {
+        return maxQuoteAgeMillis;
+    }
+
+    /**
+     * Sets the age from which the quote of a venue is stale and no longer contributes to the best prices.
+     *
+     * @param maxQuoteAgeMillis the maximum quote age, in milliseconds
+     */
+    public void setMaxQuoteAgeMillis(long maxQuoteAgeMillis) {
+        this.maxQuoteAgeMillis = maxQuoteAgeMillis;
+    }
+
+    /**
+     * Gets the durations of the OHLC bars maintained for every instrument, see
+     * {@link com.santander.pricefeedclient.bars.BarEngine}.
+     *
+     * @return a copy of the bar intervals, in milliseconds, empty if the bars are disabled
+     */
+    public long[] getBarIntervalsMillis() {
+        return barIntervalsMillis.clone();
+    }
+
+    /**
+     * Sets the durations of the OHLC bars maintained for every instrument.
+     *
+     * @param barIntervalsMillis the bar intervals, in milliseconds, none to disable the bars
+     */
+    public void setBarIntervalsMillis(long... barIntervalsMillis) {
+        this.barIntervalsMillis = barIntervalsMillis.clone();
+    }
+
+    /**
+     * Gets the number of bars kept per instrument and interval, which bounds the memory of the bars.
+     *
+     * @return the bar history
+     */
+    public int getBarHistory() {
+        return barHistory;
+    }
+
+    /**
+     * Sets the number of bars kept per instrument and interval.
+     *
+     * @param barHistory the bar history
+     */
+    public void setBarHistory(int barHistory) {
+        this.barHistory = barHistory;
+    }
+
+    /**
+     * Gets the number of ticks kept off the heap per instrument, see
+     * {@link com.santander.pricefeedclient.history.TickHistory}.
+     *
+     * @return the tick history capacity, 0 if the tick history is disabled
+     */
+    public int getTickHistoryCapacity() {
+        return tickHistoryCapacity;
+    }
+
+    /**
+     * Sets the number of ticks kept off the heap per instrument.
+     *
+     * @param tickHistoryCapacity the tick history capacity, 0 to disable the tick history
+     */
+    public void setTickHistoryCapacity(int tickHistoryCapacity) {
+        this.tickHistoryCapacity = tickHistoryCapacity;
+    }
+
+    /**
+     * Gets the cadence at which the price snapshot is published, see
+     * {@link com.santander.pricefeedclient.store.PriceSnapshotPublisher}.
+     *
+     * @return the snapshot interval, in milliseconds, 0 if the snapshot is published lazily when read
+     */
+    public long getSnapshotIntervalMillis() {
+        return snapshotIntervalMillis;
+    }
+
+    /**
+     * Sets the cadence at which the price snapshot is published.
+     *
+     * @param snapshotIntervalMillis the snapshot interval, in milliseconds, 0 to publish the snapshot lazily when read
+     */
+    public void setSnapshotIntervalMillis(long snapshotIntervalMillis) {
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+    }
+
+    /**
+     * Gets the age from which an incoming tick is rejected as stale, see
+     * {@link com.santander.pricefeedclient.validation.TickValidator}.
+     *
+     * @return the maximum tick age, in milliseconds, 0 if ticks of any age are accepted
+     */
+    public long getMaxTickAgeMillis() {
+        return maxTickAgeMillis;
+    }
+
+    /**
+     * Sets the age from which an incoming tick is rejected as stale.
+     *
+     * @param maxTickAgeMillis the maximum tick age, in milliseconds, 0 to accept ticks of any age
+     */
+    public void setMaxTickAgeMillis(long maxTickAgeMillis) {
+        this.maxTickAgeMillis = maxTickAgeMillis;
+    }
+
+    /**
+     * Gets the number of rejected ticks kept for inspection, see
+     * {@link com.santander.pricefeedclient.validation.TickQuarantine}.
+     *
+     * @return the quarantine capacity
+     */
+    public int getQuarantineCapacity() {
+        return quarantineCapacity;
+    }
+
+    /**
+     * Sets the number of rejected ticks kept for inspection.
+     *
+     * @param quarantineCapacity the quarantine capacity, 0 to only count the rejected ticks
+     */
+    public void setQuarantineCapacity(int quarantineCapacity) {
+        this.quarantineCapacity = quarantineCapacity;
+    }
+
+    /**
+     * Gets the maximum number of instruments in the registry of the service beyond which the ticks of new instruments
+     * are rejected rather than registered, so that a feed naming ever new instruments cannot grow the registry, nor
+     * the stores sized by it, without bound.
+     *
+     * @return the maximum number of instruments
+     */
+    public int getMaxInstruments() {
+        return maxInstruments;
+    }
+
+    /**
+     * Sets the maximum number of instruments in the registry of the service beyond which the ticks of new instruments
+     * are rejected.
+     *
+     * @param maxInstruments the maximum number of instruments
+     */
+    public void setMaxInstruments(int maxInstruments) {
+        this.maxInstruments = maxInstruments;
+    }
+
+    /**
+     * Gets the age from which the latest price of an instrument is flagged as stale, see
+     * {@link com.santander.pricefeedclient.validation.StalenessWatchdog}.
+     *
+     * @return the maximum price age, in milliseconds, 0 if the staleness watchdog is disabled
+     */
+    public long getStalePriceAgeMillis() {
+        return stalePriceAgeMillis;
+    }
+
+    /**
+     * Sets the age from which the latest price of an instrument is flagged as stale.
+     *
+     * @param stalePriceAgeMillis the maximum price age, in milliseconds, 0 to disable the staleness watchdog
+     */
+    public void setStalePriceAgeMillis(long stalePriceAgeMillis) {
+        this.stalePriceAgeMillis = stalePriceAgeMillis;
+    }
+
+    /**
+     * Gets the address of the {@link com.santander.pricefeedsource.PriceFeedServer} the feed is read from, see
+     * {@link com.santander.pricefeedclient.transport.FrameReader#open}.
+     *
+     * @return the transport address, or null if the source runs in process
+     */
+    public URI getTransportAddress() {
+        return transportAddress;
+    }
+
+    /**
+     * Sets the address of the {@link com.santander.pricefeedsource.PriceFeedServer} the feed is read from.
+     *
+     * @param transportAddress {@code tcp://host:port} or {@code udp://host:port}, or null to run the source in process
+     */
+    public void setTransportAddress(URI transportAddress) {
+        this.transportAddress = transportAddress;
+    }
+
+    /**
+     * Gets the name of the network interface joining the multicast group of a UDP transport.
+     *
+     * @return the interface name, or null for the loopback interface
+     */
+    public String getTransportInterface() {
+        return transportInterface;
+    }
+
+    /**
+     * Sets the name of the network interface joining the multicast group of a UDP transport.
+     *
+     * @param transportInterface the interface name, or null for the loopback interface
+     */
+    public void setTransportInterface(String transportInterface) {
+        this.transportInterface = transportInterface;
+    }
+
+    /**
+     * Gets the size of each direct buffer the transport is read into.
+     *
+     * @return the buffer size, in bytes
+     */
+    public int getTransportBufferSize() {
+        return transportBufferSize;
+    }
+
+    /**
+     * Sets the size of each direct buffer the transport is read into, at least the size of the largest frame.
+     *
+     * @param transportBufferSize the buffer size, in bytes
+     */
+    public void setTransportBufferSize(int transportBufferSize) {
+        this.transportBufferSize = transportBufferSize;
+    }
+
+    /**
+     * Gets the number of direct buffers the transport is read into, which bounds the messages in flight.
+     *
+     * @return the number of buffers
+     */
+    public int getTransportBuffers() {
+        return transportBuffers;
+    }
+
+    /**
+     * Sets the number of direct buffers the transport is read into.
+     *
+     * @param transportBuffers the number of buffers, at least 2
+     */
+    public void setTransportBuffers(int transportBuffers) {
+        this.transportBuffers = transportBuffers;
+    }
+
+    private static long parseDurationMillis(String duration) {
+        switch (duration.charAt(duration.length() - 1)) {
+            case 's':
+                return duration.endsWith("ms") ? Long.parseLong(duration.substring(0, duration.length() - 2))
+                        : TimeUnit.SECONDS.toMillis(Long.parseLong(duration.substring(0, duration.length() - 1)));
+            case 'm':
+                return TimeUnit.MINUTES.toMillis(Long.parseLong(duration.substring(0, duration.length() - 1)));
+            case 'h':
+                return TimeUnit.HOURS.toMillis(Long.parseLong(duration.substring(0, duration.length() - 1)));
+            default:
+                return Long.parseLong(duration);
+        }
+    }
+}
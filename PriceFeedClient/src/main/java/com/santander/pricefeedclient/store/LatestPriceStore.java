@@ -0,0 +1,268 @@
+package com.santander.pricefeedclient.store;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A lock-free store of the latest price of every instrument, indexed by the dense ids of an
+ * {@link InstrumentRegistry}.
+ * <p>
+ * Each instrument owns a slot of primitive fields guarded by a sequence counter (a seqlock): a writer makes the
+ * counter odd, writes the fields and makes it even again, while readers retry until they observe the same even
+ * counter before and after reading the fields. Writers never wait for readers, and readers always get a bid and
+ * ask belonging to the same tick. Concurrent writers of the same instrument are serialized on the counter, but the
+ * ingestion path is expected to have a single writer per instrument.
+ * <p>
+ * Slots live in fixed-size pages which are never moved, so the store grows with the registry without copying.
+ */
+public class LatestPriceStore {
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * The slot layout: one cache line of longs per instrument.
+     */
+    private static final int SEQUENCE = 0;
+    private static final int ID_MOST_SIG_BITS = 1;
+    private static final int ID_LEAST_SIG_BITS = 2;
+    private static final int BID = 3;
+    private static final int ASK = 4;
+    private static final int TIMESTAMP = 5;
+    private static final int FLAGS = 6;
+    private static final int SLOT_SIZE = 8;
+
+    private static final long HAS_ID = 1;
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_SLOTS = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SLOTS - 1;
+    private static final int MAX_SNAPSHOT_ATTEMPTS = 4;
+    private static final int MAX_SPINS = 64;
+
+    private final InstrumentRegistry instrumentRegistry;
+
+    /**
+     * The pages of slots. Replaced by a larger copy when the store grows, the pages themselves are shared.
+     */
+    private volatile long[][] pages;
+
+    /**
+     * Creates a new, empty store for the instruments of the given registry.
+     *
+     * @param instrumentRegistry the registry assigning the instrument ids used as slot indexes
+     */
+    public LatestPriceStore(InstrumentRegistry instrumentRegistry) {
+        this.instrumentRegistry = instrumentRegistry;
+        this.pages = new long[0][];
+    }
+
+    /**
+     * Returns the registry assigning the instrument ids used as slot indexes.
+     *
+     * @return the instrument registry of this store
+     */
+    public InstrumentRegistry getInstrumentRegistry() {
+        return instrumentRegistry;
+    }
+
+    /**
+     * Stores the given price as the latest price of its instrument, registering the instrument if needed. The id
+     * carried by the price is ignored, as it may come from another registry.
+     *
+     * @param price the price to store
+     */
+    public void update(Price price) {
+        update(instrumentRegistry.register(price.getInstrumentName()), price);
+    }
+
+    /**
+     * Stores the given price as the latest price of the instrument with the given id.
+     *
+     * @param instrumentId the id of the instrument in the registry
+     * @param price the price to store
+     */
+    public void update(int instrumentId, Price price) {
+        long[] page = pageForWrite(instrumentId);
+        int base = (instrumentId & PAGE_MASK) * SLOT_SIZE;
+        long sequence = beginWrite(page, base);
+        page[base + ID_MOST_SIG_BITS] = price.getIdMostSignificantBits();
+        page[base + ID_LEAST_SIG_BITS] = price.getIdLeastSignificantBits();
+        page[base + BID] = Double.doubleToRawLongBits(price.getBid());
+        page[base + ASK] = Double.doubleToRawLongBits(price.getAsk());
+        page[base + TIMESTAMP] = price.getTimestamp();
+        page[base + FLAGS] = price.hasId() ? HAS_ID : 0;
+        LONGS.setRelease(page, base + SEQUENCE, sequence + 2);
+    }
+
+    /**
+     * Returns the latest price for the specified instrument.
+     *
+     * @param instrumentName the name of the instrument
+     * @return a new price holding the latest price of the instrument, or null if no price is available
+     */
+    public Price getLatestPrice(String instrumentName) {
+        int instrumentId = instrumentRegistry.idOf(instrumentName);
+        if (instrumentId == InstrumentRegistry.UNKNOWN_ID) {
+            return null;
+        }
+        Price price = new Price();
+        return getLatestPrice(instrumentId, price) != 0 ? price : null;
+    }
+
+    /**
+     * Reads the latest price of the instrument with the given id into the given target.
+     *
+     * @param instrumentId the id of the instrument in the registry
+     * @param target the price receiving the latest price, left untouched if no price is available
+     * @return the sequence of the price read, which grows with every update of the instrument, or 0 if no price is
+     * available
+     */
+    public long getLatestPrice(int instrumentId, Price target) {
+        long[][] currentPages = pages;
+        int pageIndex = instrumentId >>> PAGE_SHIFT;
+        if (pageIndex >= currentPages.length) {
+            return 0;
+        }
+        long[] page = currentPages[pageIndex];
+        int base = (instrumentId & PAGE_MASK) * SLOT_SIZE;
+        for (int spins = 0; ; spins++) {
+            long sequence = (long) LONGS.getAcquire(page, base + SEQUENCE);
+            if (sequence == 0) {
+                return 0;
+            }
+            if ((sequence & 1) != 0) {
+                backOff(spins);
+                continue;
+            }
+            long idMostSigBits = page[base + ID_MOST_SIG_BITS];
+            long idLeastSigBits = page[base + ID_LEAST_SIG_BITS];
+            long bid = page[base + BID];
+            long ask = page[base + ASK];
+            long timestamp = page[base + TIMESTAMP];
+            long flags = page[base + FLAGS];
+            VarHandle.loadLoadFence();
+            if (sequence == (long) LONGS.getOpaque(page, base + SEQUENCE)) {
+                if ((flags & HAS_ID) != 0) {
+                    target.setId(idMostSigBits, idLeastSigBits);
+                } else {
+                    target.setId(null);
+                }
+                target.setInstrument(instrumentId, instrumentRegistry.nameOf(instrumentId));
+                target.setBid(Double.longBitsToDouble(bid));
+                target.setAsk(Double.longBitsToDouble(ask));
+                target.setTimestamp(timestamp);
+                return sequence;
+            }
+        }
+    }
+
+    /**
+     * Returns the sequence of the latest price of the instrument with the given id, without reading the price.
+     * Readers can compare it with the sequence returned by {@link #getLatestPrice(int, Price)} to tell whether the
+     * instrument was updated since.
+     *
+     * @param instrumentId the id of the instrument in the registry
+     * @return the current sequence of the instrument, odd while it is being updated, or 0 if no price is available
+     */
+    public long getSequence(int instrumentId) {
+        long[][] currentPages = pages;
+        int pageIndex = instrumentId >>> PAGE_SHIFT;
+        if (pageIndex >= currentPages.length) {
+            return 0;
+        }
+        return (long) LONGS.getAcquire(currentPages[pageIndex], (instrumentId & PAGE_MASK) * SLOT_SIZE + SEQUENCE);
+    }
+
+    /**
+     * Returns a copy of the latest prices of all instruments.
+     * <p>
+     * Every price is read consistently. The whole copy is collected twice and only returned once both collections
+     * agree, which makes it a point-in-time snapshot; if the instruments keep changing during a few attempts the
+     * last collection is returned, in which each price is still consistent on its own.
+     *
+     * @return a new map of instrument names to new prices
+     */
+    public Map<String, Price> snapshot() {
+        int size = instrumentRegistry.size();
+        Price[] prices = new Price[size];
+        long[] sequences = new long[size];
+        collect(prices, sequences);
+        for (int attempt = 0; attempt < MAX_SNAPSHOT_ATTEMPTS; attempt++) {
+            if (isUnchanged(sequences)) {
+                break;
+            }
+            collect(prices, sequences);
+        }
+        Map<String, Price> snapshot = new HashMap<>();
+        for (int instrumentId = 0; instrumentId < size; instrumentId++) {
+            if (sequences[instrumentId] != 0) {
+                snapshot.put(prices[instrumentId].getInstrumentName(), prices[instrumentId]);
+            }
+        }
+        return snapshot;
+    }
+
+    private void collect(Price[] prices, long[] sequences) {
+        for (int instrumentId = 0; instrumentId < prices.length; instrumentId++) {
+            if (prices[instrumentId] == null) {
+                prices[instrumentId] = new Price();
+            }
+            sequences[instrumentId] = getLatestPrice(instrumentId, prices[instrumentId]);
+        }
+    }
+
+    private boolean isUnchanged(long[] sequences) {
+        for (int instrumentId = 0; instrumentId < sequences.length; instrumentId++) {
+            if (getSequence(instrumentId) != sequences[instrumentId]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long beginWrite(long[] page, int base) {
+        for (int spins = 0; ; spins++) {
+            long sequence = (long) LONGS.getVolatile(page, base + SEQUENCE);
+            if ((sequence & 1) == 0 && LONGS.compareAndSet(page, base + SEQUENCE, sequence, sequence + 1)) {
+                return sequence;
+            }
+            backOff(spins);
+        }
+    }
+
+    /**
+     * Waits for a writer in the middle of an update. Spins first, then yields in case the writer was descheduled,
+     * which matters when there are more threads than cores.
+     */
+    private static void backOff(int spins) {
+        if (spins < MAX_SPINS) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    private long[] pageForWrite(int instrumentId) {
+        long[][] currentPages = pages;
+        int pageIndex = instrumentId >>> PAGE_SHIFT;
+        return pageIndex < currentPages.length ? currentPages[pageIndex] : grow(pageIndex);
+    }
+
+    private synchronized long[] grow(int pageIndex) {
+        long[][] currentPages = pages;
+        if (pageIndex >= currentPages.length) {
+            long[][] grownPages = new long[Math.max(pageIndex + 1, currentPages.length * 2)][];
+            System.arraycopy(currentPages, 0, grownPages, 0, currentPages.length);
+            for (int i = currentPages.length; i < grownPages.length; i++) {
+                grownPages[i] = new long[PAGE_SLOTS * SLOT_SIZE];
+            }
+            pages = grownPages;
+            currentPages = grownPages;
+        }
+        return currentPages[pageIndex];
+    }
+}
@@ -0,0 +1,77 @@
+package com.santander.pricefeedclient.store;
+
+import com.santander.pricefeedclient.model.Price;
+
+import java.util.Map;
+
+/**
+ * The prices which changed between two versions of the {@link PriceSnapshot}s, see
+ * {@link PriceSnapshot#changesSince(long, long)}. Instruments never disappear, so applying the changes to the prices
+ * of the older version gives the prices of the newer one. When the older version belongs to another epoch, the changes
+ * hold all the prices, which replace the ones the caller holds.
+ */
+public final class PriceChanges {
+
+    private final long epoch;
+    private final long sinceVersion;
+    private final long version;
+    private final Map<String, Price> prices;
+
+    PriceChanges(long epoch, long sinceVersion, long version, Map<String, Price> prices) {
+        this.epoch = epoch;
+        this.sinceVersion = sinceVersion;
+        this.version = version;
+        this.prices = prices;
+    }
+
+    /**
+     * Gets the epoch of the version the changes lead to, to be passed to the next request for changes.
+     *
+     * @return the epoch of the snapshot the changes were taken from
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Gets the version the changes apply to.
+     *
+     * @return the version held by the caller
+     */
+    public long getSinceVersion() {
+        return sinceVersion;
+    }
+
+    /**
+     * Gets the version the changes lead to, to be passed to the next request for changes.
+     *
+     * @return the version of the snapshot the changes were taken from
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the latest prices of the instruments which changed.
+     *
+     * @return an unmodifiable map of instrument names to read-only prices
+     */
+    public Map<String, Price> getPrices() {
+        return prices;
+    }
+
+    /**
+     * Returns a string representation of this {@code PriceChanges} instance.
+     *
+     * @return a string representation of this {@code PriceChanges} instance
+     */
+    @Override
+    public String toString() {
+        return "PriceChanges{" +
+                "epoch=" + epoch +
+                ", sinceVersion=" + sinceVersion +
+                ", version=" + version +
+                ", prices=" + prices +
+                '}';
+    }
+}
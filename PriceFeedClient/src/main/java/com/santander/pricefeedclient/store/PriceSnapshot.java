@@ -0,0 +1,171 @@
+package com.santander.pricefeedclient.store;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable, versioned view of the latest prices of all instruments, published by a
+ * {@link PriceSnapshotPublisher}.
+ * <p>
+ * Every new snapshot has a higher version than the previous one and shares the prices of the instruments which did
+ * not change since. Versions restart with every publisher, so they are qualified by the epoch of the publisher, drawn
+ * at random for every run. Each snapshot remembers the version in which every instrument last changed, so that polling
+ * clients can ask for the {@link #changesSince(long, long) changes since} the version they hold instead of the whole
+ * view.
+ * <p>
+ * The prices of a snapshot are read-only, so that no reader can modify the snapshot seen by the others: the map of all
+ * the prices is built once, with the snapshot, and every read of it returns the same map, while
+ * {@link #getPrice(String)} returns a modifiable copy.
+ */
+public final class PriceSnapshot {
+
+    private static final Price[] NO_PRICES = new Price[0];
+    private static final long[] NO_VERSIONS = new long[0];
+
+    /**
+     * The snapshot of version 0, without any price.
+     */
+    public static final PriceSnapshot EMPTY = empty(0);
+
+    private final InstrumentRegistry instrumentRegistry;
+    private final long epoch;
+    private final long version;
+    private final Price[] prices;
+    private final long[] changeVersions;
+    private final long[] sequences;
+    private final Map<String, Price> priceMap;
+
+    /**
+     * Creates a new snapshot from arrays indexed by the ids of the given registry, which it takes ownership of. The
+     * prices must be {@link ReadOnlyPrice read-only}.
+     */
+    PriceSnapshot(InstrumentRegistry instrumentRegistry, long epoch, long version, Price[] prices,
+                  long[] changeVersions, long[] sequences) {
+        this.instrumentRegistry = instrumentRegistry;
+        this.epoch = epoch;
+        this.version = version;
+        this.prices = prices;
+        this.changeVersions = changeVersions;
+        this.sequences = sequences;
+        this.priceMap = toMap(prices, changeVersions, 0);
+    }
+
+    /**
+     * Returns the snapshot of version 0 of the given epoch, without any price.
+     */
+    static PriceSnapshot empty(long epoch) {
+        return new PriceSnapshot(null, epoch, 0, NO_PRICES, NO_VERSIONS, NO_VERSIONS);
+    }
+
+    /**
+     * Gets the epoch of this snapshot, which identifies the publisher, and thus the run, its version belongs to.
+     *
+     * @return the epoch, 0 for {@link #EMPTY}
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Gets the version of this snapshot, which grows with every published change within its epoch.
+     *
+     * @return the version, 0 for the empty snapshot
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the latest prices of all instruments, as of this version. Every call returns the same map.
+     *
+     * @return an unmodifiable map of instrument names to read-only prices
+     */
+    public Map<String, Price> getPrices() {
+        return priceMap;
+    }
+
+    /**
+     * Gets the latest price of the given instrument, as of this version.
+     *
+     * @param instrumentName the name of the instrument
+     * @return a copy of the price, or null if the instrument had no price
+     */
+    public Price getPrice(String instrumentName) {
+        if (instrumentRegistry == null) {
+            return null;
+        }
+        int instrumentId = instrumentRegistry.idOf(instrumentName);
+        Price price = instrumentId == InstrumentRegistry.UNKNOWN_ID ? null : priceOf(instrumentId);
+        return price == null ? null : price.copy();
+    }
+
+    /**
+     * Returns the prices which changed after the given version, up to this version.
+     *
+     * @param sinceEpoch the epoch of the version the caller holds
+     * @param sinceVersion the version the caller already holds, 0 for all the prices
+     * @return the read-only changed prices, empty if the caller is up to date, or all the prices if the caller holds a
+     * version of another epoch, e.g. of a previous run, or a version this epoch never issued
+     */
+    public PriceChanges changesSince(long sinceEpoch, long sinceVersion) {
+        if (sinceEpoch != epoch || sinceVersion <= 0 || sinceVersion > version) {
+            return new PriceChanges(epoch, sinceVersion, version, priceMap);
+        }
+        if (sinceVersion == version) {
+            return new PriceChanges(epoch, sinceVersion, version, Collections.emptyMap());
+        }
+        return new PriceChanges(epoch, sinceVersion, version, toMap(prices, changeVersions, sinceVersion));
+    }
+
+    /**
+     * Maps the names of the instruments which changed after the given version to their prices.
+     */
+    private static Map<String, Price> toMap(Price[] prices, long[] changeVersions, long sinceVersion) {
+        Map<String, Price> map = new HashMap<>();
+        for (int instrumentId = 0; instrumentId < prices.length; instrumentId++) {
+            if (prices[instrumentId] != null && changeVersions[instrumentId] > sinceVersion) {
+                map.put(prices[instrumentId].getInstrumentName(), prices[instrumentId]);
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Gets the price of the instrument with the given id, or null.
+     */
+    Price priceOf(int instrumentId) {
+        return instrumentId < prices.length ? prices[instrumentId] : null;
+    }
+
+    /**
+     * Gets the version in which the instrument with the given id last changed, or 0.
+     */
+    long changeVersionOf(int instrumentId) {
+        return instrumentId < changeVersions.length ? changeVersions[instrumentId] : 0;
+    }
+
+    /**
+     * Gets the sequence of the price of the instrument with the given id in the store, or 0.
+     */
+    long sequenceOf(int instrumentId) {
+        return instrumentId < sequences.length ? sequences[instrumentId] : 0;
+    }
+
+    /**
+     * Returns a string representation of this {@code PriceSnapshot} instance.
+     *
+     * @return a string representation of this {@code PriceSnapshot} instance
+     */
+    @Override
+    public String toString() {
+        return "PriceSnapshot{" +
+                "epoch=" + epoch +
+                ", version=" + version +
+                ", prices=" + getPrices() +
+                '}';
+    }
+}
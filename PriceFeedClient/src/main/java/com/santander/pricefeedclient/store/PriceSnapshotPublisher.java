@@ -0,0 +1,164 @@
+package com.santander.pricefeedclient.store;
+
+import com.santander.pricefeedclient.model.Price;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes immutable {@link PriceSnapshot}s of a {@link LatestPriceStore}, so that snapshot reads are a single
+ * volatile load and repeated reads between updates return the same snapshot.
+ * <p>
+ * Writers only {@link #markDirty() mark} the publisher dirty after updating the store, with an ordered store which
+ * never waits. A new snapshot is then built, either {@link #getSnapshot() lazily} by the first reader
+ * finding the publisher dirty, or at a fixed cadence by a thread of the publisher, in which case readers never build
+ * snapshots and see prices up to one period old. Building a snapshot reads the prices whose sequence changed in the
+ * store since the previous snapshot, and shares the others with it.
+ * <p>
+ * The versions of the snapshots of a publisher are qualified by its epoch, a random number drawn when it is created,
+ * so that a version held by a client of an earlier run is never mistaken for a version of this one.
+ */
+public class PriceSnapshotPublisher implements AutoCloseable {
+
+    /**
+     * The refresh interval of a lazy publisher.
+     */
+    public static final long LAZY = 0;
+
+    private final LatestPriceStore store;
+    private final long refreshIntervalNanos;
+    private final Thread thread;
+    private volatile PriceSnapshot snapshot;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile boolean running;
+
+    /**
+     * Creates a new publisher of the prices of the given store. A publisher with a refresh interval starts publishing
+     * once {@link #start()} is called.
+     *
+     * @param store the store of the latest prices
+     * @param refreshIntervalMillis the cadence of the snapshots, or {@link #LAZY} to build a new snapshot when it is
+     *                              read after an update
+     */
+    public PriceSnapshotPublisher(LatestPriceStore store, long refreshIntervalMillis) {
+        if (refreshIntervalMillis < 0) {
+            throw new IllegalArgumentException("Refresh interval must not be negative: " + refreshIntervalMillis);
+        }
+        this.store = store;
+        this.snapshot = PriceSnapshot.empty(newEpoch());
+        this.refreshIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refreshIntervalMillis);
+        if (refreshIntervalMillis == LAZY) {
+            this.thread = null;
+        } else {
+            this.thread = new Thread(this::publish, "price-snapshot-publisher");
+            this.thread.setDaemon(true);
+        }
+    }
+
+    /**
+     * Starts the thread publishing the snapshots at the refresh interval, if any.
+     */
+    public synchronized void start() {
+        if (thread != null && !running && thread.getState() == Thread.State.NEW) {
+            running = true;
+            thread.start();
+        }
+    }
+
+    /**
+     * Records that the store was updated since the latest snapshot. Called by the writers of the store after every
+     * update.
+     */
+    public void markDirty() {
+        dirty.lazySet(true);
+    }
+
+    /**
+     * Returns the latest published snapshot, building a new one first if the publisher is lazy and dirty.
+     *
+     * @return the latest snapshot
+     */
+    public PriceSnapshot getSnapshot() {
+        if (thread == null && dirty.get()) {
+            refresh();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Builds and publishes a new snapshot if the store was updated since the latest one.
+     *
+     * @return the latest snapshot
+     */
+    public synchronized PriceSnapshot refresh() {
+        // cleared before reading the store, so that concurrent updates mark the publisher dirty again
+        if (!dirty.getAndSet(false)) {
+            return snapshot;
+        }
+        PriceSnapshot previous = snapshot;
+        long version = previous.getVersion() + 1;
+        int size = store.getInstrumentRegistry().size();
+        Price[] prices = new Price[size];
+        long[] changeVersions = new long[size];
+        long[] sequences = new long[size];
+        boolean changed = false;
+        Price scratch = new Price();
+        for (int instrumentId = 0; instrumentId < size; instrumentId++) {
+            long sequence = store.getSequence(instrumentId);
+            if (sequence != 0 && sequence != previous.sequenceOf(instrumentId)) {
+                sequence = store.getLatestPrice(instrumentId, scratch);
+                prices[instrumentId] = new ReadOnlyPrice(scratch);
+                changeVersions[instrumentId] = version;
+                changed = true;
+            } else {
+                prices[instrumentId] = previous.priceOf(instrumentId);
+                changeVersions[instrumentId] = previous.changeVersionOf(instrumentId);
+            }
+            sequences[instrumentId] = sequence;
+        }
+        if (changed) {
+            snapshot = new PriceSnapshot(store.getInstrumentRegistry(), previous.getEpoch(), version, prices,
+                    changeVersions, sequences);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Draws the epoch of a new publisher, never 0, the epoch of {@link PriceSnapshot#EMPTY}.
+     */
+    private static long newEpoch() {
+        long epoch;
+        do {
+            epoch = ThreadLocalRandom.current().nextLong();
+        } while (epoch == 0);
+        return epoch;
+    }
+
+    private void publish() {
+        while (running) {
+            LockSupport.parkNanos(this, refreshIntervalNanos);
+            refresh();
+        }
+    }
+
+    /**
+     * Stops the thread publishing the snapshots, if any, waits for it and publishes a last snapshot of the updates
+     * made so far. Later updates are only published by {@link #refresh()}.
+     *
+     * @throws InterruptedException if interrupted while waiting for the thread
+     */
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        LockSupport.unpark(thread);
+        thread.join();
+        refresh();
+    }
+}
@@ -0,0 +1,63 @@
+package com.santander.pricefeedclient.store;
+
+import com.santander.pricefeedclient.model.Price;
+
+import java.util.UUID;
+
+/**
+ * A price held by the {@link PriceSnapshot}s, which rejects every modification so that it can be handed to any number
+ * of readers without copying. {@link #copy()} still returns a modifiable copy.
+ */
+final class ReadOnlyPrice extends Price {
+
+    /**
+     * Creates a read-only price holding the attributes of the given price.
+     */
+    ReadOnlyPrice(Price price) {
+        super.copyFrom(price);
+    }
+
+    @Override
+    public void setId(UUID id) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setId(long mostSigBits, long leastSigBits) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setInstrumentName(String instrumentName) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setInstrument(int instrumentId, String instrumentName) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setBid(double bid) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setAsk(double ask) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setTimestamp(long timestamp) {
+        throw readOnly();
+    }
+
+    @Override
+    public Price copyFrom(Price other) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Snapshot prices are read-only, copy them to modify them");
+    }
+}
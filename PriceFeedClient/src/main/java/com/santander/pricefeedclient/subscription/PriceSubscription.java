@@ -0,0 +1,277 @@
+package com.santander.pricefeedclient.subscription;
+
+import com.santander.pricefeedclient.model.Price;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The subscription of one subscriber to a {@link PriceSubscriptionHub}.
+ * <p>
+ * Published prices are copied into a bounded, lock-free multi-producer ring of preallocated prices. When the ring is
+ * full because the subscriber is slow or did not request enough, prices overflow into a latest-value slot per
+ * instrument: a newer price of the instrument replaces the pending one, which is counted as conflated. Once an
+ * instrument has overflowed, its next prices go to its slot until the slot is delivered, so the prices of an
+ * instrument are always delivered in order. Ring prices are delivered before overflowed ones.
+ * <p>
+ * Signals are serialized with a work-in-progress counter: whichever thread makes it leave zero hands the delivery
+ * loop to the executor, which runs it until no more work was signalled. Publishing threads therefore only buffer and
+ * signal; {@code onNext} runs on the executor, which a subscription may own, shutting it down once terminated.
+ */
+final class PriceSubscription implements Flow.Subscription {
+
+    private final PriceSubscriptionHub hub;
+    private final Flow.Subscriber<? super Price> subscriber;
+    private final int[] instrumentIds;
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final Runnable drainTask = this::drain;
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final Price[] ring;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger workInProgress = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile boolean completeRequested;
+    private volatile Throwable error;
+    private boolean terminated;
+
+    private Price[] overflowSlots = new Price[0];
+    private boolean[] overflowPending = new boolean[0];
+    private int[] overflowQueue = new int[16];
+    private int overflowQueueHead;
+    private volatile int overflowCount;
+    private long conflatedPrices;
+    private final Price overflowPrice = new Price();
+
+    PriceSubscription(PriceSubscriptionHub hub, Flow.Subscriber<? super Price> subscriber, int[] instrumentIds,
+                      int bufferSize, Executor executor, boolean ownsExecutor) {
+        this.hub = hub;
+        this.subscriber = subscriber;
+        this.instrumentIds = instrumentIds;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        int size = Integer.highestOneBit(bufferSize);
+        if (size < bufferSize) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.ring = new Price[size];
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+            ring[i] = new Price();
+        }
+    }
+
+    /**
+     * Returns the ids of the instruments of this subscription, empty for all instruments.
+     */
+    int[] getInstrumentIds() {
+        return instrumentIds;
+    }
+
+    /**
+     * Returns the number of prices replaced by a newer price of the same instrument before being delivered.
+     */
+    synchronized long getConflatedPrices() {
+        return conflatedPrices;
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            error = new IllegalArgumentException("Requested prices must be positive: " + n);
+        } else {
+            requested.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+        }
+        schedule();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        hub.remove(this);
+        schedule();
+    }
+
+    /**
+     * Buffers the given price for delivery. Called by the publishing threads.
+     */
+    void offer(int instrumentId, Price price) {
+        if (cancelled || completeRequested) {
+            return;
+        }
+        if (overflowCount == 0 || !overflow(instrumentId, price, true)) {
+            if (!offerToRing(price)) {
+                overflow(instrumentId, price, false);
+            }
+        }
+        schedule();
+    }
+
+    /**
+     * Asks for {@code onComplete} to be signalled once the requested prices are delivered.
+     */
+    void complete() {
+        completeRequested = true;
+        schedule();
+    }
+
+    private boolean offerToRing(Price price) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    ring[index].copyFrom(price);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (sequence < position) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Stores the given price in the overflow slot of its instrument.
+     *
+     * @param onlyIfPending whether to only replace a pending price, rather than making the slot pending
+     * @return false if {@code onlyIfPending} is set and the instrument has no pending price
+     */
+    private synchronized boolean overflow(int instrumentId, Price price, boolean onlyIfPending) {
+        boolean pending = instrumentId < overflowPending.length && overflowPending[instrumentId];
+        if (onlyIfPending && !pending) {
+            return false;
+        }
+        if (instrumentId >= overflowSlots.length) {
+            int length = Math.max(instrumentId + 1, overflowSlots.length * 2);
+            Price[] slots = new Price[length];
+            System.arraycopy(overflowSlots, 0, slots, 0, overflowSlots.length);
+            boolean[] pendings = new boolean[length];
+            System.arraycopy(overflowPending, 0, pendings, 0, overflowPending.length);
+            overflowSlots = slots;
+            overflowPending = pendings;
+        }
+        if (overflowSlots[instrumentId] == null) {
+            overflowSlots[instrumentId] = new Price();
+        }
+        if (pending) {
+            conflatedPrices++;
+        } else {
+            overflowPending[instrumentId] = true;
+            if (overflowCount == overflowQueue.length) {
+                int[] queue = new int[overflowQueue.length * 2];
+                for (int i = 0; i < overflowCount; i++) {
+                    queue[i] = overflowQueue[(overflowQueueHead + i) % overflowQueue.length];
+                }
+                overflowQueue = queue;
+                overflowQueueHead = 0;
+            }
+            overflowQueue[(overflowQueueHead + overflowCount) % overflowQueue.length] = instrumentId;
+            overflowCount++;
+        }
+        overflowSlots[instrumentId].copyFrom(price);
+        return true;
+    }
+
+    /**
+     * Moves the oldest pending overflowed price into {@link #overflowPrice}, so the slot can be refilled while the
+     * price is delivered.
+     */
+    private synchronized boolean pollOverflow() {
+        if (overflowCount == 0) {
+            return false;
+        }
+        int instrumentId = overflowQueue[overflowQueueHead];
+        overflowQueueHead = (overflowQueueHead + 1) % overflowQueue.length;
+        overflowCount--;
+        overflowPending[instrumentId] = false;
+        overflowPrice.copyFrom(overflowSlots[instrumentId]);
+        return true;
+    }
+
+    private void schedule() {
+        if (workInProgress.getAndIncrement() == 0) {
+            try {
+                executor.execute(drainTask);
+            } catch (RejectedExecutionException e) {
+                // the executor is shut down, by this subscription once terminated or by its owner: nothing can be
+                // delivered any more, and the counter is left above zero so that nothing is scheduled again
+                cancelled = true;
+                hub.remove(this);
+            }
+        }
+    }
+
+    private void drain() {
+        int missed = 1;
+        do {
+            if (!terminated) {
+                deliver();
+                if (terminated && ownsExecutor) {
+                    ((ExecutorService) executor).shutdown();
+                }
+            }
+            missed = workInProgress.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void deliver() {
+        if (cancelled) {
+            terminated = true;
+            return;
+        }
+        Throwable failure = error;
+        if (failure != null) {
+            terminated = true;
+            cancel();
+            subscriber.onError(failure);
+            return;
+        }
+        long demand = requested.get();
+        long emitted = 0;
+        try {
+            while (emitted != demand && !cancelled) {
+                int index = (int) head & mask;
+                if (sequences.get(index) == head + 1) {
+                    subscriber.onNext(ring[index]);
+                    sequences.lazySet(index, head + mask + 1);
+                    head++;
+                } else if (overflowCount != 0 && pollOverflow()) {
+                    subscriber.onNext(overflowPrice);
+                } else {
+                    break;
+                }
+                emitted++;
+            }
+        } catch (RuntimeException e) {
+            // The subscriber broke the Flow contract: drop it rather than failing the delivering thread
+            terminated = true;
+            cancel();
+            return;
+        }
+        if (emitted != 0 && demand != Long.MAX_VALUE) {
+            requested.addAndGet(-emitted);
+        }
+        if (completeRequested && !cancelled) {
+            terminated = true;
+            hub.remove(this);
+            subscriber.onComplete();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.santander.pricefeedclient.subscription;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import com.santander.pricefeedclient.util.ThreadMode;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Pushes the published prices to {@link Flow.Subscriber}s, each interested in a set of instruments or in all of them.
+ * <p>
+ * {@link #publish(int, Price)} is called from the ingestion path. It finds the subscriptions of the instrument in a
+ * copy-on-write table indexed by instrument id, and copies the price into the preallocated buffer of each of them, so
+ * no lock is taken and nothing is allocated for subscribers which keep up. The publishing thread only buffers the price
+ * and signals the subscription, whose executor delivers it: by default every subscription has a dedicated delivery
+ * thread, so a slow subscriber delays neither the publishing thread nor the other subscribers, but an executor can be
+ * given for the whole hub or for the subscriptions of a publisher, e.g. a direct executor delivering on the
+ * publishing thread. A subscriber which does not keep up is conflated, see {@link PriceSubscription}.
+ * <p>
+ * The price passed to {@code onNext} is reused by its subscription: subscribers must copy it to retain it.
+ */
+public class PriceSubscriptionHub implements AutoCloseable {
+
+    private static final PriceSubscription[] NO_SUBSCRIPTIONS = new PriceSubscription[0];
+
+    private final InstrumentRegistry instrumentRegistry;
+    private final int defaultBufferSize;
+    private final Executor executor;
+    private final ThreadFactory deliveryThreadFactory;
+
+    /**
+     * The subscriptions to specific instruments, indexed by instrument id. Replaced on every change.
+     */
+    private volatile PriceSubscription[][] subscriptionsByInstrument = new PriceSubscription[0][];
+
+    /**
+     * The subscriptions to all instruments. Replaced on every change.
+     */
+    private volatile PriceSubscription[] allInstrumentSubscriptions = NO_SUBSCRIPTIONS;
+
+    private boolean closed;
+
+    /**
+     * Creates a new hub without subscribers, delivering the prices of every subscription on a dedicated thread.
+     *
+     * @param instrumentRegistry the registry assigning the instrument ids of the published prices
+     * @param defaultBufferSize the number of prices buffered for a subscriber before it is conflated
+     * @param threadMode the kind of the delivery threads, one per subscription, which stop once their subscription
+     *                   is cancelled or completed
+     */
+    public PriceSubscriptionHub(InstrumentRegistry instrumentRegistry, int defaultBufferSize, ThreadMode threadMode) {
+        this(instrumentRegistry, defaultBufferSize, null, threadMode.threadFactory("price-subscriber-"));
+    }
+
+    /**
+     * Creates a new hub without subscribers, delivering the prices of every subscription through the given executor.
+     *
+     * @param instrumentRegistry the registry assigning the instrument ids of the published prices
+     * @param defaultBufferSize the number of prices buffered for a subscriber before it is conflated
+     * @param executor the executor delivering the prices to the subscribers, e.g. {@code Runnable::run} to deliver
+     *                 them on the publishing thread
+     */
+    public PriceSubscriptionHub(InstrumentRegistry instrumentRegistry, int defaultBufferSize, Executor executor) {
+        this(instrumentRegistry, defaultBufferSize, executor, null);
+    }
+
+    private PriceSubscriptionHub(InstrumentRegistry instrumentRegistry, int defaultBufferSize, Executor executor,
+                                 ThreadFactory deliveryThreadFactory) {
+        if (defaultBufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + defaultBufferSize);
+        }
+        this.instrumentRegistry = instrumentRegistry;
+        this.defaultBufferSize = defaultBufferSize;
+        this.executor = executor;
+        this.deliveryThreadFactory = deliveryThreadFactory;
+    }
+
+    /**
+     * Returns a publisher of the prices of the given instruments, buffering the default number of prices per
+     * subscriber.
+     *
+     * @param instrumentNames the names of the instruments, none to receive the prices of all instruments
+     * @return a new publisher, to which any number of subscribers can subscribe
+     */
+    public Flow.Publisher<Price> publisher(String... instrumentNames) {
+        return publisher(defaultBufferSize, instrumentNames);
+    }
+
+    /**
+     * Returns a publisher of the prices of the given instruments.
+     *
+     * @param bufferSize the number of prices buffered for a subscriber before it is conflated
+     * @param instrumentNames the names of the instruments, none to receive the prices of all instruments
+     * @return a new publisher, to which any number of subscribers can subscribe
+     */
+    public Flow.Publisher<Price> publisher(int bufferSize, String... instrumentNames) {
+        return publisher(bufferSize, executor, instrumentNames);
+    }
+
+    /**
+     * Returns a publisher of the prices of the given instruments, delivered through the given executor rather than
+     * the one of the hub.
+     *
+     * @param bufferSize the number of prices buffered for a subscriber before it is conflated
+     * @param executor the executor delivering the prices to the subscribers of the publisher, or null for a dedicated
+     *                 delivery thread per subscription if the hub was created with a thread mode
+     * @param instrumentNames the names of the instruments, none to receive the prices of all instruments
+     * @return a new publisher, to which any number of subscribers can subscribe
+     * @throws IllegalArgumentException if the buffer size is not positive, or if the executor is null and the hub
+     *                                  was created with an executor
+     */
+    public Flow.Publisher<Price> publisher(int bufferSize, Executor executor, String... instrumentNames) {
+        if (executor == null && deliveryThreadFactory == null) {
+            throw new IllegalArgumentException("An executor is required by a hub without delivery threads");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        int[] instrumentIds = new int[instrumentNames.length];
+        for (int i = 0; i < instrumentNames.length; i++) {
+            instrumentIds[i] = instrumentRegistry.register(instrumentNames[i]);
+        }
+        return subscriber -> subscribe(subscriber, instrumentIds, bufferSize, executor);
+    }
+
+    /**
+     * Pushes the given price to the subscribers of its instrument. Prices of the same instrument must be published
+     * by one thread at a time, in order.
+     *
+     * @param instrumentId the id of the instrument of the price
+     * @param price the price, copied before this method returns
+     */
+    public void publish(int instrumentId, Price price) {
+        for (PriceSubscription subscription : allInstrumentSubscriptions) {
+            subscription.offer(instrumentId, price);
+        }
+        PriceSubscription[][] table = subscriptionsByInstrument;
+        if (instrumentId < table.length && table[instrumentId] != null) {
+            for (PriceSubscription subscription : table[instrumentId]) {
+                subscription.offer(instrumentId, price);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of prices which were conflated, i.e. never delivered because a newer price of the same
+     * instrument replaced them while their subscriber was behind, summed over the active subscriptions.
+     *
+     * @return the number of conflated prices
+     */
+    public long getConflatedPrices() {
+        long conflatedPrices = 0;
+        for (PriceSubscription subscription : subscriptions()) {
+            conflatedPrices += subscription.getConflatedPrices();
+        }
+        return conflatedPrices;
+    }
+
+    /**
+     * Returns the number of active subscriptions.
+     *
+     * @return the number of active subscriptions
+     */
+    public int getSubscriptionCount() {
+        return subscriptions().length;
+    }
+
+    /**
+     * Completes every subscription once it has delivered the prices its subscriber requested. Later subscribers are
+     * completed immediately.
+     */
+    @Override
+    public void close() {
+        PriceSubscription[] subscriptions;
+        synchronized (this) {
+            closed = true;
+            subscriptions = subscriptions();
+        }
+        for (PriceSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    private void subscribe(Flow.Subscriber<? super Price> subscriber, int[] instrumentIds, int bufferSize,
+                           Executor executor) {
+        PriceSubscription subscription = executor != null
+                ? new PriceSubscription(this, subscriber, instrumentIds, bufferSize, executor, false)
+                : new PriceSubscription(this, subscriber, instrumentIds, bufferSize,
+                Executors.newSingleThreadExecutor(deliveryThreadFactory), true);
+        subscriber.onSubscribe(subscription);
+        boolean added;
+        synchronized (this) {
+            added = !closed;
+            if (added) {
+                add(subscription);
+            }
+        }
+        if (!added) {
+            subscription.complete();
+        }
+    }
+
+    private void add(PriceSubscription subscription) {
+        int[] instrumentIds = subscription.getInstrumentIds();
+        if (instrumentIds.length == 0) {
+            allInstrumentSubscriptions = append(allInstrumentSubscriptions, subscription);
+            return;
+        }
+        PriceSubscription[][] table = subscriptionsByInstrument;
+        int maxInstrumentId = 0;
+        for (int instrumentId : instrumentIds) {
+            maxInstrumentId = Math.max(maxInstrumentId, instrumentId);
+        }
+        PriceSubscription[][] newTable = new PriceSubscription[Math.max(table.length, maxInstrumentId + 1)][];
+        System.arraycopy(table, 0, newTable, 0, table.length);
+        for (int instrumentId : instrumentIds) {
+            PriceSubscription[] subscriptions = newTable[instrumentId];
+            newTable[instrumentId] = append(subscriptions == null ? NO_SUBSCRIPTIONS : subscriptions, subscription);
+        }
+        subscriptionsByInstrument = newTable;
+    }
+
+    /**
+     * Removes the given subscription from the dispatch tables, after it was cancelled or completed.
+     */
+    synchronized void remove(PriceSubscription subscription) {
+        if (subscription.getInstrumentIds().length == 0) {
+            allInstrumentSubscriptions = without(allInstrumentSubscriptions, subscription);
+            return;
+        }
+        PriceSubscription[][] newTable = subscriptionsByInstrument.clone();
+        for (int instrumentId : subscription.getInstrumentIds()) {
+            if (newTable[instrumentId] != null) {
+                PriceSubscription[] subscriptions = without(newTable[instrumentId], subscription);
+                newTable[instrumentId] = subscriptions.length == 0 ? null : subscriptions;
+            }
+        }
+        subscriptionsByInstrument = newTable;
+    }
+
+    /**
+     * Returns the distinct active subscriptions.
+     */
+    private synchronized PriceSubscription[] subscriptions() {
+        PriceSubscription[] subscriptions = allInstrumentSubscriptions;
+        for (PriceSubscription[] instrumentSubscriptions : subscriptionsByInstrument) {
+            if (instrumentSubscriptions != null) {
+                for (PriceSubscription subscription : instrumentSubscriptions) {
+                    if (indexOf(subscriptions, subscription) < 0) {
+                        subscriptions = append(subscriptions, subscription);
+                    }
+                }
+            }
+        }
+        return subscriptions;
+    }
+
+    private static PriceSubscription[] append(PriceSubscription[] subscriptions, PriceSubscription subscription) {
+        if (indexOf(subscriptions, subscription) >= 0) {
+            return subscriptions;
+        }
+        PriceSubscription[] newSubscriptions = new PriceSubscription[subscriptions.length + 1];
+        System.arraycopy(subscriptions, 0, newSubscriptions, 0, subscriptions.length);
+        newSubscriptions[subscriptions.length] = subscription;
+        return newSubscriptions;
+    }
+
+    private static PriceSubscription[] without(PriceSubscription[] subscriptions, PriceSubscription subscription) {
+        int index = indexOf(subscriptions, subscription);
+        if (index < 0) {
+            return subscriptions;
+        }
+        PriceSubscription[] newSubscriptions = new PriceSubscription[subscriptions.length - 1];
+        System.arraycopy(subscriptions, 0, newSubscriptions, 0, index);
+        System.arraycopy(subscriptions, index + 1, newSubscriptions, index, newSubscriptions.length - index);
+        return newSubscriptions;
+    }
+
+    private static int indexOf(PriceSubscription[] subscriptions, PriceSubscription subscription) {
+        for (int i = 0; i < subscriptions.length; i++) {
+            if (subscriptions[i] == subscription) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,20 @@
+package com.santander.pricefeedclient.transport;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives the messages of a {@link FrameReader}, as views of its pooled buffers.
+ */
+@FunctionalInterface
+public interface FrameHandler {
+
+    /**
+     * Receives a message. The view stays valid until the release condition of its buffer, see
+     * {@link FrameReader#FrameReader(java.nio.channels.ByteChannel, int, int, java.util.function.Supplier)}, is met;
+     * the handler must not modify its content.
+     *
+     * @param sequence the sequence number of the message
+     * @param message the message, between the position and the limit of the view
+     */
+    void onFrame(long sequence, ByteBuffer message);
+}
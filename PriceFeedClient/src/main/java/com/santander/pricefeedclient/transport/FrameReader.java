@@ -0,0 +1,303 @@
+package com.santander.pricefeedclient.transport;
+
+import com.santander.pricefeedsource.FrameFormat;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.NetworkChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Reads the frames of a {@link com.santander.pricefeedsource.PriceFeedServer}, see {@link FrameFormat}, from a TCP
+ * connection or from UDP datagrams, and hands their messages to a {@link FrameHandler} without copying them.
+ * <p>
+ * The channel is read into a fixed pool of direct buffers, used in turn: every message is handed over as a view of
+ * the buffer it was read into, and messages are decoded in place, so reading allocates nothing but the views. Once a
+ * buffer has no room for another frame, the reader moves to the next buffer of the pool, copying the start of a frame
+ * split by the TCP stream, and asks the given supplier for the condition under which the full buffer may be reused,
+ * e.g. once the handler is done with its messages. The reader waits for that condition before reusing it, which
+ * bounds the memory of the messages in flight.
+ * <p>
+ * The sequence numbers of the frames are checked: frames skipped by the server or lost by the network are counted as
+ * missed, and frames older than the latest one, e.g. reordered datagrams, are dropped and counted as out of order.
+ * A reader is used by a single thread, except for {@link #close()} and the counters.
+ */
+public class FrameReader implements AutoCloseable {
+
+    /**
+     * The scheme of the TCP addresses of {@link #open(URI, String, int, int, Supplier)}.
+     */
+    public static final String TCP_SCHEME = "tcp";
+
+    /**
+     * The scheme of the UDP addresses of {@link #open(URI, String, int, int, Supplier)}.
+     */
+    public static final String UDP_SCHEME = "udp";
+
+    private static final int MAX_FRAME_SIZE = FrameFormat.HEADER_SIZE + FrameFormat.MAX_MESSAGE_SIZE;
+    private static final int IDLE_SPINS = 100;
+    private static final long PARK_NANOS = 50_000L;
+
+    private final ByteChannel channel;
+    private final boolean datagrams;
+    private final ByteBuffer[] buffers;
+    private final BooleanSupplier[] releaseConditions;
+    private final Supplier<BooleanSupplier> releaseCondition;
+    private final AtomicLong receivedFrames = new AtomicLong();
+    private final AtomicLong missedFrames = new AtomicLong();
+    private final AtomicLong outOfOrderFrames = new AtomicLong();
+    private int current;
+    private int frameStart;
+    private long lastSequence = -1;
+
+    /**
+     * Creates a new reader of the given channel.
+     *
+     * @param channel a connected {@link SocketChannel} or a bound {@link DatagramChannel}, in blocking mode
+     * @param bufferSize the size of each pooled buffer, at least the size of the largest frame
+     * @param bufferCount the number of pooled buffers, at least 2
+     * @param releaseCondition supplies, whenever a buffer is full, the condition under which it may be reused
+     * @throws IllegalArgumentException if a buffer cannot hold the largest frame or the pool has fewer than 2 buffers
+     */
+    public FrameReader(ByteChannel channel, int bufferSize, int bufferCount,
+                       Supplier<BooleanSupplier> releaseCondition) {
+        if (bufferSize < MAX_FRAME_SIZE) {
+            throw new IllegalArgumentException("Buffer size must be at least " + MAX_FRAME_SIZE + ": " + bufferSize);
+        }
+        if (bufferCount < 2) {
+            throw new IllegalArgumentException("Buffer count must be at least 2: " + bufferCount);
+        }
+        this.channel = channel;
+        this.datagrams = channel instanceof DatagramChannel;
+        this.buffers = new ByteBuffer[bufferCount];
+        for (int i = 0; i < bufferCount; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(bufferSize);
+        }
+        this.releaseConditions = new BooleanSupplier[bufferCount];
+        this.releaseCondition = releaseCondition;
+    }
+
+    /**
+     * Connects to the TCP endpoint, or joins the UDP group, of the given address, and returns a reader of its frames.
+     *
+     * @param address {@code tcp://host:port}, or {@code udp://host:port} where the host is a multicast group or the
+     *                local address to bind to
+     * @param networkInterface the name of the network interface joining a multicast group, or null for the loopback
+     *                         interface
+     * @param bufferSize the size of each pooled buffer
+     * @param bufferCount the number of pooled buffers
+     * @param releaseCondition supplies, whenever a buffer is full, the condition under which it may be reused
+     * @return a new reader
+     * @throws IOException if the connection cannot be opened
+     * @throws IllegalArgumentException if the address has no port or an unknown scheme
+     */
+    public static FrameReader open(URI address, String networkInterface, int bufferSize, int bufferCount,
+                                   Supplier<BooleanSupplier> releaseCondition) throws IOException {
+        if (address.getHost() == null || address.getPort() < 0) {
+            throw new IllegalArgumentException("Address must have a host and a port: " + address);
+        }
+        InetSocketAddress socketAddress = new InetSocketAddress(address.getHost(), address.getPort());
+        if (TCP_SCHEME.equals(address.getScheme())) {
+            SocketChannel channel = SocketChannel.open();
+            try {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.connect(socketAddress);
+                return new FrameReader(channel, bufferSize, bufferCount, releaseCondition);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        if (UDP_SCHEME.equals(address.getScheme())) {
+            InetAddress host = socketAddress.getAddress();
+            DatagramChannel channel = DatagramChannel.open(host instanceof Inet6Address
+                    ? StandardProtocolFamily.INET6 : StandardProtocolFamily.INET);
+            try {
+                if (host.isMulticastAddress()) {
+                    channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+                    channel.bind(new InetSocketAddress(socketAddress.getPort()));
+                    NetworkInterface joiningInterface = networkInterface != null
+                            ? NetworkInterface.getByName(networkInterface)
+                            : NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+                    if (joiningInterface == null) {
+                        throw new IOException("Unknown network interface: " + networkInterface);
+                    }
+                    channel.join(host, joiningInterface);
+                } else {
+                    channel.bind(socketAddress);
+                }
+                return new FrameReader(channel, bufferSize, bufferCount, releaseCondition);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        throw new IllegalArgumentException("Unknown transport scheme: " + address);
+    }
+
+    /**
+     * Reads the channel once, blocking until data is available, and hands the messages of the whole frames read so
+     * far to the handler.
+     *
+     * @param handler the receiver of the messages
+     * @return false once the connection is closed by the server
+     * @throws IOException if the channel cannot be read, or a frame is invalid
+     */
+    public boolean read(FrameHandler handler) throws IOException {
+        ByteBuffer buffer = buffers[current];
+        if (buffer.remaining() < MAX_FRAME_SIZE) {
+            buffer = nextBuffer();
+        }
+        if (datagrams) {
+            int datagramStart = buffer.position();
+            ((DatagramChannel) channel).receive(buffer);
+            decodeDatagram(buffer, datagramStart, handler);
+            return true;
+        }
+        if (channel.read(buffer) < 0) {
+            return false;
+        }
+        decodeStream(buffer, handler);
+        return true;
+    }
+
+    /**
+     * Decodes the whole frames between the start of the current frame and the position of the buffer.
+     */
+    private void decodeStream(ByteBuffer buffer, FrameHandler handler) throws IOException {
+        while (buffer.position() - frameStart >= FrameFormat.HEADER_SIZE) {
+            int messageLength = messageLengthAt(buffer, frameStart);
+            int messageStart = frameStart + FrameFormat.HEADER_SIZE;
+            if (buffer.position() - messageStart < messageLength) {
+                return;
+            }
+            handle(buffer.getLong(frameStart + FrameFormat.SEQUENCE_OFFSET), buffer, messageStart, messageLength,
+                    handler);
+            frameStart = messageStart + messageLength;
+        }
+    }
+
+    /**
+     * Decodes the single frame of the datagram received at the given offset of the buffer.
+     */
+    private void decodeDatagram(ByteBuffer buffer, int datagramStart, FrameHandler handler) throws IOException {
+        int datagramLength = buffer.position() - datagramStart;
+        if (datagramLength < FrameFormat.HEADER_SIZE
+                || messageLengthAt(buffer, datagramStart) != datagramLength - FrameFormat.HEADER_SIZE) {
+            throw new IOException("Invalid frame: datagram of " + datagramLength + " bytes");
+        }
+        handle(buffer.getLong(datagramStart + FrameFormat.SEQUENCE_OFFSET), buffer,
+                datagramStart + FrameFormat.HEADER_SIZE, datagramLength - FrameFormat.HEADER_SIZE, handler);
+        frameStart = buffer.position();
+    }
+
+    private static int messageLengthAt(ByteBuffer buffer, int frameStart) throws IOException {
+        int messageLength = buffer.getInt(frameStart + FrameFormat.LENGTH_OFFSET);
+        if (messageLength < 0 || messageLength > FrameFormat.MAX_MESSAGE_SIZE) {
+            throw new IOException("Invalid frame: message of " + messageLength + " bytes");
+        }
+        return messageLength;
+    }
+
+    private void handle(long sequence, ByteBuffer buffer, int messageStart, int messageLength, FrameHandler handler) {
+        if (lastSequence >= 0 && sequence <= lastSequence) {
+            outOfOrderFrames.lazySet(outOfOrderFrames.get() + 1);
+            return;
+        }
+        if (lastSequence >= 0 && sequence > lastSequence + 1) {
+            missedFrames.lazySet(missedFrames.get() + sequence - lastSequence - 1);
+        }
+        lastSequence = sequence;
+        receivedFrames.lazySet(receivedFrames.get() + 1);
+        ByteBuffer message = buffer.duplicate();
+        message.limit(messageStart + messageLength).position(messageStart);
+        handler.onFrame(sequence, message);
+    }
+
+    /**
+     * Retires the current buffer and moves to the next one of the pool once it may be reused, carrying over the start
+     * of the current frame.
+     */
+    private ByteBuffer nextBuffer() {
+        ByteBuffer full = buffers[current];
+        releaseConditions[current] = releaseCondition.get();
+        current = (current + 1) % buffers.length;
+        BooleanSupplier released = releaseConditions[current];
+        for (int idleCount = 0; released != null && !released.getAsBoolean(); idleCount++) {
+            if (idleCount < IDLE_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+        releaseConditions[current] = null;
+        ByteBuffer next = buffers[current];
+        next.clear();
+        ByteBuffer partialFrame = full.duplicate();
+        partialFrame.limit(full.position()).position(frameStart);
+        next.put(partialFrame);
+        frameStart = 0;
+        return next;
+    }
+
+    /**
+     * Returns the local address of the channel, e.g. to find the port of a UDP reader bound to an ephemeral port.
+     *
+     * @return the bound address
+     * @throws IOException if the channel is closed
+     */
+    public SocketAddress getLocalAddress() throws IOException {
+        return ((NetworkChannel) channel).getLocalAddress();
+    }
+
+    /**
+     * Returns the number of frames handed to the handler.
+     *
+     * @return the number of received frames
+     */
+    public long getReceivedFrames() {
+        return receivedFrames.get();
+    }
+
+    /**
+     * Returns the number of frames missing from the sequence, skipped by the server or lost by the network.
+     *
+     * @return the number of missed frames
+     */
+    public long getMissedFrames() {
+        return missedFrames.get();
+    }
+
+    /**
+     * Returns the number of frames dropped because they were older than the latest received frame.
+     *
+     * @return the number of out of order frames
+     */
+    public long getOutOfOrderFrames() {
+        return outOfOrderFrames.get();
+    }
+
+    /**
+     * Closes the channel, which also ends a read blocked in another thread.
+     *
+     * @throws IOException if the channel cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
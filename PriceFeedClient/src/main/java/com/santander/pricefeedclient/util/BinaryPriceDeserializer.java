@@ -0,0 +1,134 @@
+package com.santander.pricefeedclient.util;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedsource.BinaryPriceFormat;
+import com.santander.pricefeedsource.PriceFeedSource;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * An implementation of the {@link PriceDeserializer} interface for the binary wire format described by
+ * {@link BinaryPriceFormat}.
+ * <p>
+ * Every field of a record is read at a fixed offset, so decoding involves no scanning and no number parsing. The
+ * instrument id of a record is the index of the instrument in the instrument list of the source, its wire id, which
+ * this deserializer decodes through its own copy of that list and never uses as an id of its
+ * {@link InstrumentRegistry}: the registry is shared with the rest of the client and grows at runtime, so its ids
+ * need not match the wire ids. Decoded prices carry the name of their instrument and its id in the registry, or
+ * {@link InstrumentRegistry#UNKNOWN_ID} while the name is not registered yet, leaving the registration to the
+ * consumer of the price.
+ */
+public class BinaryPriceDeserializer implements PriceDeserializer {
+
+    private final String[] wireInstruments;
+    private final InstrumentRegistry instrumentRegistry;
+    private final int[] instrumentIds;
+
+    /**
+     * Creates a new instance of the {@code BinaryPriceDeserializer} class for the currency pairs published by
+     * {@link PriceFeedSource}, registered in a new registry.
+     */
+    public BinaryPriceDeserializer() {
+        this(PriceFeedSource.getCurrencyPairs(), new InstrumentRegistry(PriceFeedSource.getCurrencyPairs()));
+    }
+
+    /**
+     * Creates a new instance of the {@code BinaryPriceDeserializer} class.
+     *
+     * @param wireInstruments    the instrument list of the source, indexed by the wire ids of the records
+     * @param instrumentRegistry the registry resolving the instrument names of the records to local ids
+     */
+    public BinaryPriceDeserializer(String[] wireInstruments, InstrumentRegistry instrumentRegistry) {
+        this.wireInstruments = wireInstruments.clone();
+        this.instrumentRegistry = instrumentRegistry;
+        this.instrumentIds = new int[wireInstruments.length];
+        Arrays.fill(instrumentIds, InstrumentRegistry.UNKNOWN_ID);
+    }
+
+    /**
+     * Returns the registry resolving the instrument names of the records to local ids.
+     *
+     * @return the registry resolving the instrument names of the records
+     */
+    @Override
+    public InstrumentRegistry getInstrumentRegistry() {
+        return instrumentRegistry;
+    }
+
+    /**
+     * Deserializes a record carried by a string whose characters are the bytes of the record, as decoded with
+     * ISO-8859-1, and returns a new {@link Price} object.
+     *
+     * @param message the record to deserialize
+     * @return a new {@code Price} object representing the deserialized record
+     * @throws IllegalArgumentException if the record is in an invalid format
+     */
+    @Override
+    public Price deserialize(String message) {
+        return deserialize(ByteBuffer.wrap(message.getBytes(StandardCharsets.ISO_8859_1)), new Price());
+    }
+
+    /**
+     * Deserializes the record starting at the position of the given buffer into the given {@link Price} object,
+     * without allocating. The position of the buffer is left unchanged.
+     *
+     * @param record the buffer holding the record at its position
+     * @param target the Price object to fill
+     * @return the given Price object
+     * @throws IllegalArgumentException if the record is in an invalid format
+     */
+    public Price deserialize(ByteBuffer record, Price target) {
+        int offset = record.position();
+        if (record.limit() - offset < BinaryPriceFormat.RECORD_SIZE) {
+            throw new IllegalArgumentException("Invalid message format: truncated record of "
+                    + (record.limit() - offset) + " bytes");
+        }
+        int wireId = record.getInt(offset + BinaryPriceFormat.INSTRUMENT_OFFSET);
+        if (wireId < 0 || wireId >= wireInstruments.length) {
+            throw new IllegalArgumentException("Invalid message format: unknown instrument id " + wireId);
+        }
+        target.setId(record.getLong(offset + BinaryPriceFormat.ID_MOST_SIG_BITS_OFFSET),
+                record.getLong(offset + BinaryPriceFormat.ID_LEAST_SIG_BITS_OFFSET));
+        target.setInstrument(instrumentIdOf(wireId), wireInstruments[wireId]);
+        target.setBid(unscale(record.getLong(offset + BinaryPriceFormat.BID_OFFSET)));
+        target.setAsk(unscale(record.getLong(offset + BinaryPriceFormat.ASK_OFFSET)));
+        target.setTimestamp(record.getLong(offset + BinaryPriceFormat.TIMESTAMP_OFFSET));
+        return target;
+    }
+
+    /**
+     * Returns the local id of the instrument with the given wire id, or {@link InstrumentRegistry#UNKNOWN_ID} if it
+     * is not registered yet. Ids never change once registered, so they are cached; concurrent callers may both
+     * resolve an id, storing the same value.
+     */
+    private int instrumentIdOf(int wireId) {
+        int instrumentId = instrumentIds[wireId];
+        if (instrumentId == InstrumentRegistry.UNKNOWN_ID) {
+            instrumentId = instrumentRegistry.idOf(wireInstruments[wireId]);
+            instrumentIds[wireId] = instrumentId;
+        }
+        return instrumentId;
+    }
+
+    /**
+     * Returns the wire id of the instrument of the record starting at the position of the given buffer, without
+     * validating it. The wire id identifies the instrument within the feed only, see
+     * {@link BinaryPriceDeserializer}.
+     *
+     * @param record the buffer holding the record at its position
+     * @return the wire id of the instrument of the record
+     */
+    public static int wireIdOf(ByteBuffer record) {
+        return record.getInt(record.position() + BinaryPriceFormat.INSTRUMENT_OFFSET);
+    }
+
+    /**
+     * Converts a fixed-point price back to a double. Both operands are exact, so the quotient is the double nearest
+     * to the decimal price, the same one the CSV deserializers parse from its four-decimal text.
+     */
+    private static double unscale(long scaledPrice) {
+        return scaledPrice / (double) BinaryPriceFormat.PRICE_SCALE;
+    }
+}
@@ -0,0 +1,337 @@
+package com.santander.pricefeedclient.util;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.model.PriceBatch;
+import com.santander.pricefeedsource.PriceFeedSource;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * An implementation of the {@link PriceDeserializer} interface that scans comma-separated price messages in a
+ * single pass.
+ * <p>
+ * Unlike {@link PriceDeserializerImpl} it does not split the message into substrings: the UUID is decoded from its
+ * hex digits, plain decimals and integers are accumulated digit by digit and instrument names are looked up in an
+ * {@link InstrumentRegistry} once every other column parsed. Inputs outside the fast paths (exponents, long mantissas,
+ * non-canonical UUIDs) are handed to the JDK parsers, so the produced {@link Price} is identical to the one
+ * {@link PriceDeserializerImpl} produces for the same line.
+ * <p>
+ * The deserializer never registers instruments, so that invalid lines cannot grow the registry: the name of a
+ * registered instrument is interned with its id, while the name of an instrument the registry does not know yet is
+ * copied and left unresolved, with the {@link InstrumentRegistry#UNKNOWN_ID unknown id}, for the consumer of the
+ * price to register according to its own policy once it accepted the price.
+ */
+public class FastPriceDeserializer implements PriceDeserializer {
+
+    private static final char COLUMN_DELIMITER = ',';
+    private static final char LINE_DELIMITER = '\n';
+    private static final int UUID_LENGTH = 36;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_FAST_LONG_DIGITS = 18;
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private static final int LINE_BUFFER_SIZE = 128;
+    private static final ThreadLocal<char[]> LINE_BUFFER = ThreadLocal.withInitial(() -> new char[LINE_BUFFER_SIZE]);
+    private static final ThreadLocal<Price> SCRATCH_PRICE = ThreadLocal.withInitial(Price::new);
+
+    private final InstrumentRegistry instrumentRegistry;
+
+    /**
+     * Creates a new instance of the {@code FastPriceDeserializer} class whose symbol table is pre-populated with the
+     * currency pairs published by {@link PriceFeedSource}.
+     */
+    public FastPriceDeserializer() {
+        this(new InstrumentRegistry(PriceFeedSource.getCurrencyPairs()));
+    }
+
+    /**
+     * Creates a new instance of the {@code FastPriceDeserializer} class.
+     *
+     * @param instrumentRegistry the symbol table used to intern instrument names, which is only read
+     */
+    public FastPriceDeserializer(InstrumentRegistry instrumentRegistry) {
+        this.instrumentRegistry = instrumentRegistry;
+    }
+
+    /**
+     * Returns the symbol table used to intern instrument names and resolve their ids.
+     *
+     * @return the symbol table used to intern instrument names
+     */
+    @Override
+    public InstrumentRegistry getInstrumentRegistry() {
+        return instrumentRegistry;
+    }
+
+    /**
+     * Deserializes a price message in the expected format and returns a new {@link Price} object.
+     *
+     * @param message the price message to deserialize
+     * @return a new {@code Price} object representing the deserialized price message
+     * @throws IllegalArgumentException if the message is in an invalid format
+     */
+    @Override
+    public Price deserialize(String message) {
+        return deserialize(message, 0, message.length(), new Price());
+    }
+
+    /**
+     * Deserializes a price message in the expected format into the given {@link Price} object, without allocating
+     * for messages on the fast path.
+     *
+     * @param message the price message to deserialize
+     * @param target the {@code Price} object to fill
+     * @return the given {@code Price} object
+     * @throws IllegalArgumentException if the message is in an invalid format
+     */
+    @Override
+    public Price deserialize(String message, Price target) {
+        return deserialize(message, 0, message.length(), target);
+    }
+
+    /**
+     * Deserializes the price line held in {@code chars[start, end)} and returns a new {@link Price} object.
+     *
+     * @param chars the characters holding the price line
+     * @param start the start index of the line, inclusive
+     * @param end   the end index of the line, exclusive
+     * @return a new {@code Price} object representing the deserialized price line
+     * @throws IllegalArgumentException if the line is in an invalid format
+     */
+    public Price deserialize(CharSequence chars, int start, int end) {
+        return deserialize(chars, start, end, new Price());
+    }
+
+    /**
+     * Deserializes the price line held in {@code chars[start, end)} into the given {@link Price} object.
+     *
+     * @param chars  the characters holding the price line
+     * @param start  the start index of the line, inclusive
+     * @param end    the end index of the line, exclusive
+     * @param target the {@code Price} object to fill
+     * @return the given {@code Price} object
+     * @throws IllegalArgumentException if the line is in an invalid format
+     */
+    public Price deserialize(CharSequence chars, int start, int end, Price target) {
+        Price price = parse(chars, start, end, target);
+        if (price == null) {
+            throw invalidFormat(chars, start, end, null);
+        }
+        return price;
+    }
+
+    /**
+     * Deserializes the price line held in {@code chars[start, end)} into the given {@link Price} object, returning
+     * null rather than throwing if the line does not have the expected number of columns, the most common kind of
+     * malformed line (truncated or concatenated lines).
+     */
+    private Price parse(CharSequence chars, int start, int end, Price target) {
+        // scanning a private copy avoids the bounds and coder checks of every String.charAt call
+        int length = end - start;
+        char[] line = lineBuffer(length);
+        if (chars instanceof String) {
+            ((String) chars).getChars(start, end, line, 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                line[i] = chars.charAt(start + i);
+            }
+        }
+        // String.split drops trailing empty columns, so trailing delimiters are not counted either
+        int lineEnd = length;
+        while (lineEnd > 0 && line[lineEnd - 1] == COLUMN_DELIMITER) {
+            lineEnd--;
+        }
+        int idEnd = indexOfDelimiter(line, 0, lineEnd);
+        int nameEnd = indexOfDelimiter(line, idEnd + 1, lineEnd);
+        int bidEnd = indexOfDelimiter(line, nameEnd + 1, lineEnd);
+        int askEnd = indexOfDelimiter(line, bidEnd + 1, lineEnd);
+        if (askEnd >= lineEnd || indexOfDelimiter(line, askEnd + 1, lineEnd) != lineEnd) {
+            return null;
+        }
+        try {
+            parseId(line, 0, idEnd, target);
+            target.setBid(parseDouble(line, nameEnd + 1, bidEnd));
+            target.setAsk(parseDouble(line, bidEnd + 1, askEnd));
+            target.setTimestamp(parseLong(line, askEnd + 1, lineEnd));
+        } catch (IllegalArgumentException e) {
+            throw invalidFormat(chars, start, end, e);
+        }
+        // resolved last, so that nothing is looked up, nor copied, for a line which does not parse
+        int instrumentId = instrumentRegistry.idOf(chars, start + idEnd + 1, start + nameEnd);
+        target.setInstrument(instrumentId, instrumentId != InstrumentRegistry.UNKNOWN_ID
+                ? instrumentRegistry.nameOf(instrumentId) : new String(line, idEnd + 1, nameEnd - idEnd - 1));
+        return target;
+    }
+
+    /**
+     * Deserializes every line of the given message into the given batch, scanning the message in place instead of
+     * splitting it, and without allocating for lines on the fast path nor, without a handler, for lines with a wrong
+     * number of columns.
+     *
+     * @param message the newline-separated lines to deserialize
+     * @param batch the batch receiving the deserialized prices, after those it already holds
+     * @param invalidLineHandler the receiver of every invalid line, or null to only count them
+     * @return the number of invalid lines
+     */
+    @Override
+    public int deserializeAll(CharSequence message, PriceBatch batch, Consumer<String> invalidLineHandler) {
+        String lines = message.toString();
+        Price price = SCRATCH_PRICE.get();
+        int invalidLines = 0;
+        int lineStart = 0;
+        while (lineStart < lines.length()) {
+            int lineEnd = lines.indexOf(LINE_DELIMITER, lineStart);
+            if (lineEnd < 0) {
+                lineEnd = lines.length();
+            }
+            if (lineEnd > lineStart) {
+                boolean valid;
+                try {
+                    valid = parse(lines, lineStart, lineEnd, price) != null;
+                } catch (IllegalArgumentException e) {
+                    valid = false;
+                }
+                if (valid) {
+                    batch.add(price);
+                } else {
+                    invalidLines++;
+                    if (invalidLineHandler != null) {
+                        invalidLineHandler.accept(lines.substring(lineStart, lineEnd));
+                    }
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return invalidLines;
+    }
+
+    private static char[] lineBuffer(int length) {
+        char[] buffer = LINE_BUFFER.get();
+        if (buffer.length < length) {
+            buffer = new char[Math.max(length, buffer.length * 2)];
+            LINE_BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static int indexOfDelimiter(char[] chars, int from, int end) {
+        for (int i = from; i < end; i++) {
+            if (chars[i] == COLUMN_DELIMITER) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static void parseId(char[] chars, int start, int end, Price target) {
+        if (end - start != UUID_LENGTH || chars[start + 8] != '-' || chars[start + 13] != '-'
+                || chars[start + 18] != '-' || chars[start + 23] != '-') {
+            target.setId(UUID.fromString(new String(chars, start, end - start)));
+            return;
+        }
+        long timeLow = parseHex(chars, start, start + 8);
+        long timeMid = parseHex(chars, start + 9, start + 13);
+        long timeHigh = parseHex(chars, start + 14, start + 18);
+        long clockSeq = parseHex(chars, start + 19, start + 23);
+        long node = parseHex(chars, start + 24, start + 36);
+        if ((timeLow | timeMid | timeHigh | clockSeq | node) < 0) {
+            target.setId(UUID.fromString(new String(chars, start, end - start)));
+            return;
+        }
+        target.setId(timeLow << 32 | timeMid << 16 | timeHigh, clockSeq << 48 | node);
+    }
+
+    /**
+     * Parses at most 12 ASCII hex digits, returning -1 if any other character is found.
+     */
+    private static long parseHex(char[] chars, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            char c = chars[i];
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                digit = c - 'a' + 10;
+            } else if (c >= 'A' && c <= 'F') {
+                digit = c - 'A' + 10;
+            } else {
+                return -1;
+            }
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    private static double parseDouble(char[] chars, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA || fractionDigits >= POWERS_OF_TEN.length) {
+                    return parseDoubleSlow(chars, start, end);
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return parseDoubleSlow(chars, start, end);
+            }
+        }
+        if (digits == 0) {
+            return parseDoubleSlow(chars, start, end);
+        }
+        // both operands are exact, so the single correctly rounded division matches Double.parseDouble
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private static double parseDoubleSlow(char[] chars, int start, int end) {
+        return Double.parseDouble(new String(chars, start, end - start));
+    }
+
+    private static long parseLong(char[] chars, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            negative = chars[i] == '-';
+            i++;
+        }
+        if (i == end || end - i > MAX_FAST_LONG_DIGITS) {
+            return Long.parseLong(new String(chars, start, end - start));
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            char c = chars[i];
+            if (c < '0' || c > '9') {
+                return Long.parseLong(new String(chars, start, end - start));
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private static IllegalArgumentException invalidFormat(CharSequence chars, int start, int end, Throwable cause) {
+        return new IllegalArgumentException("Invalid message format: " + chars.subSequence(start, end), cause);
+    }
+}
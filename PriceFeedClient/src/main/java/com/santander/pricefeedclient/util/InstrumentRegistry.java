@@ -0,0 +1,203 @@
+package com.santander.pricefeedclient.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A symbol table that maps instrument names to dense integer ids and canonical {@link String} instances.
+ * <p>
+ * Lookups by character range do not allocate, so parsers can resolve the instrument of a line without
+ * building an intermediate {@code String}. Reads are lock-free; registration of new symbols is serialized.
+ */
+public class InstrumentRegistry {
+
+    /**
+     * The id returned by lookups for symbols that are not registered.
+     */
+    public static final int UNKNOWN_ID = -1;
+
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * The current table. Replaced as a whole on resize, mutated in place otherwise.
+     */
+    private volatile Table table;
+
+    /**
+     * Creates a new registry pre-populated with the given symbols, in order.
+     *
+     * @param symbols the symbols to register, their ids follow the array order
+     */
+    public InstrumentRegistry(String... symbols) {
+        this.table = new Table(Math.max(DEFAULT_CAPACITY, Integer.highestOneBit(Math.max(1, symbols.length)) << 1));
+        for (String symbol : symbols) {
+            register(symbol);
+        }
+    }
+
+    /**
+     * Returns the id of the given symbol, registering it if needed.
+     *
+     * @param symbol the instrument name
+     * @return the dense id of the instrument
+     */
+    public int register(String symbol) {
+        int id = idOf(symbol, 0, symbol.length());
+        return id != UNKNOWN_ID ? id : registerSlow(symbol, 0, symbol.length());
+    }
+
+    /**
+     * Returns the id of the symbol held in {@code chars[start, end)}, registering it if needed.
+     *
+     * @param chars the characters holding the symbol
+     * @param start the start index, inclusive
+     * @param end   the end index, exclusive
+     * @return the dense id of the instrument
+     */
+    public int register(CharSequence chars, int start, int end) {
+        int id = idOf(chars, start, end);
+        return id != UNKNOWN_ID ? id : registerSlow(chars, start, end);
+    }
+
+    /**
+     * Returns the id of the given symbol without registering it.
+     *
+     * @param symbol the instrument name
+     * @return the dense id of the instrument, or {@link #UNKNOWN_ID} if it is not registered
+     */
+    public int idOf(String symbol) {
+        return idOf(symbol, 0, symbol.length());
+    }
+
+    /**
+     * Returns the id of the symbol held in {@code chars[start, end)} without registering it.
+     *
+     * @param chars the characters holding the symbol
+     * @param start the start index, inclusive
+     * @param end   the end index, exclusive
+     * @return the dense id of the instrument, or {@link #UNKNOWN_ID} if it is not registered
+     */
+    public int idOf(CharSequence chars, int start, int end) {
+        return table.find(chars, start, end, hash(chars, start, end));
+    }
+
+    /**
+     * Returns the canonical instance of the symbol held in {@code chars[start, end)}, registering it if needed.
+     *
+     * @param chars the characters holding the symbol
+     * @param start the start index, inclusive
+     * @param end   the end index, exclusive
+     * @return the canonical instrument name
+     */
+    public String intern(CharSequence chars, int start, int end) {
+        return nameOf(register(chars, start, end));
+    }
+
+    /**
+     * Returns the instrument name registered under the given id.
+     *
+     * @param id the dense id of the instrument
+     * @return the instrument name
+     * @throws IndexOutOfBoundsException if no instrument is registered under the id
+     */
+    public String nameOf(int id) {
+        Table current = table;
+        if (id < 0 || id >= current.size) {
+            throw new IndexOutOfBoundsException("Unknown instrument id: " + id);
+        }
+        return current.names[id];
+    }
+
+    /**
+     * Returns the number of registered instruments. Ids are always in {@code [0, size())}.
+     *
+     * @return the number of registered instruments
+     */
+    public int size() {
+        return table.size;
+    }
+
+    private synchronized int registerSlow(CharSequence chars, int start, int end) {
+        int hash = hash(chars, start, end);
+        Table current = table;
+        int id = current.find(chars, start, end, hash);
+        if (id != UNKNOWN_ID) {
+            return id;
+        }
+        if ((current.size + 1) * 2 > current.slots.length) {
+            current = current.resize();
+            table = current;
+        }
+        return current.insert(chars.subSequence(start, end).toString(), hash);
+    }
+
+    private static int hash(CharSequence chars, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + chars.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * An open-addressing hash table of ids, plus the id-indexed name array.
+     */
+    private static final class Table {
+        private final int[] slots;
+        private final String[] names;
+        private volatile int size;
+
+        private Table(int capacity) {
+            this.slots = new int[capacity * 2];
+            this.names = new String[capacity];
+        }
+
+        private int find(CharSequence chars, int start, int end, int hash) {
+            int mask = slots.length - 1;
+            for (int pos = hash & mask; ; pos = (pos + 1) & mask) {
+                int slot = (int) SLOTS.getAcquire(slots, pos);
+                if (slot == 0) {
+                    return UNKNOWN_ID;
+                }
+                if (matches(names[slot - 1], chars, start, end)) {
+                    return slot - 1;
+                }
+            }
+        }
+
+        private int insert(String name, int hash) {
+            int id = size;
+            names[id] = name;
+            int mask = slots.length - 1;
+            int pos = hash & mask;
+            while (slots[pos] != 0) {
+                pos = (pos + 1) & mask;
+            }
+            SLOTS.setRelease(slots, pos, id + 1);
+            size = id + 1;
+            return id;
+        }
+
+        private Table resize() {
+            Table resized = new Table(names.length * 2);
+            for (int id = 0; id < size; id++) {
+                String name = names[id];
+                resized.insert(name, hash(name, 0, name.length()));
+            }
+            return resized;
+        }
+
+        private static boolean matches(String name, CharSequence chars, int start, int end) {
+            if (name.length() != end - start) {
+                return false;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (name.charAt(i) != chars.charAt(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.santander.pricefeedclient.util;
+
+/**
+ * Appends JSON values to a {@link StringBuilder}, for the components writing prices as JSON by hand, such as the
+ * HTTP snapshot and the tick log. Appending allocates nothing but the growth of the builder.
+ */
+public final class Json {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private Json() {
+    }
+
+    /**
+     * Appends the given string as a JSON string, escaping its quotes, backslashes and control characters, or
+     * {@code null} if it is null.
+     *
+     * @param json the builder to append to
+     * @param value the string to append
+     * @return the builder
+     */
+    public static StringBuilder appendString(StringBuilder json, String value) {
+        if (value == null) {
+            return json.append("null");
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < ' ') {
+                json.append("\\u00").append(HEX_DIGITS[c >>> 4]).append(HEX_DIGITS[c & 0xf]);
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"');
+    }
+
+    /**
+     * Appends the given number as a JSON number, or {@code null} if it is NaN or infinite, which JSON cannot
+     * represent.
+     *
+     * @param json the builder to append to
+     * @param value the number to append
+     * @return the builder
+     */
+    public static StringBuilder appendNumber(StringBuilder json, double value) {
+        return Double.isFinite(value) ? json.append(value) : json.append("null");
+    }
+}
@@ -1,6 +1,9 @@
 package com.santander.pricefeedclient.util;
 
 import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.model.PriceBatch;
+
+import java.util.function.Consumer;
 
 /**
  * A PriceDeserializer is responsible for deserializing a message string into a {@link Price} object.
@@ -15,4 +18,81 @@ public interface PriceDeserializer {
      * @throws IllegalArgumentException if the message string is not in the expected format
      */
     Price deserialize(String message) throws IllegalArgumentException;
+
+    /**
+     * Returns the registry in which this deserializer resolves the ids of the instruments it sets on prices.
+     * <p>
+     * The default implementation returns null: the deserializer only sets instrument names.
+     *
+     * @return the instrument registry of this deserializer, or null if it does not resolve instrument ids
+     */
+    default InstrumentRegistry getInstrumentRegistry() {
+        return null;
+    }
+
+    /**
+     * Deserialize the given message string into the given Price object, overwriting all its attributes.
+     * <p>
+     * This allows callers to reuse a pre-allocated instance for every message. The default implementation copies
+     * the result of {@link #deserialize(String)}; implementations should override it to avoid that allocation.
+     *
+     * @param message the message string to deserialize
+     * @param target the Price object to fill
+     * @return the given Price object
+     * @throws IllegalArgumentException if the message string is not in the expected format
+     */
+    default Price deserialize(String message, Price target) throws IllegalArgumentException {
+        return target.copyFrom(deserialize(message));
+    }
+
+    /**
+     * Deserialize every line of the given multi-line message, appending the valid ones to the given batch. Invalid
+     * lines are skipped and counted rather than failing the whole message, and empty lines are ignored.
+     *
+     * @param message the newline-separated lines to deserialize
+     * @param batch the batch receiving the deserialized prices, after those it already holds
+     * @return the number of invalid lines
+     */
+    default int deserializeAll(CharSequence message, PriceBatch batch) {
+        return deserializeAll(message, batch, null);
+    }
+
+    /**
+     * Deserialize every line of the given multi-line message, appending the valid ones to the given batch and handing
+     * the invalid ones to the given handler. Invalid lines are skipped and counted rather than failing the whole
+     * message, and empty lines are ignored.
+     * <p>
+     * The default implementation deserializes the lines one by one into a scratch Price object; implementations
+     * should override it to walk the message only once.
+     *
+     * @param message the newline-separated lines to deserialize
+     * @param batch the batch receiving the deserialized prices, after those it already holds
+     * @param invalidLineHandler the receiver of every invalid line, or null to only count them
+     * @return the number of invalid lines
+     */
+    default int deserializeAll(CharSequence message, PriceBatch batch, Consumer<String> invalidLineHandler) {
+        String lines = message.toString();
+        Price price = new Price();
+        int invalidLines = 0;
+        int lineStart = 0;
+        while (lineStart < lines.length()) {
+            int lineEnd = lines.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = lines.length();
+            }
+            if (lineEnd > lineStart) {
+                String line = lines.substring(lineStart, lineEnd);
+                try {
+                    batch.add(deserialize(line, price));
+                } catch (IllegalArgumentException e) {
+                    invalidLines++;
+                    if (invalidLineHandler != null) {
+                        invalidLineHandler.accept(line);
+                    }
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return invalidLines;
+    }
 }
@@ -31,6 +31,19 @@ public class PriceDeserializerImpl implements PriceDeserializer {
      */
     @Override
     public Price deserialize(String message) {
+        return deserialize(message, new Price());
+    }
+
+    /**
+     * Deserializes a price message in the expected format into the given {@link Price} object.
+     *
+     * @param message the price message to deserialize
+     * @param target the {@code Price} object to fill
+     * @return the given {@code Price} object
+     * @throws IllegalArgumentException if the message is in an invalid format
+     */
+    @Override
+    public Price deserialize(String message, Price target) {
         String[] fields = message.split(COLUMN_DELIMITER);
         if (fields.length != 5) {
             throw new IllegalArgumentException("Invalid message format: " + message);
@@ -41,7 +54,12 @@ public class PriceDeserializerImpl implements PriceDeserializer {
             double bid = Double.parseDouble(fields[BID_INDEX]);
             double ask = Double.parseDouble(fields[ASK_INDEX]);
             long timestamp = Long.parseLong(fields[TIMESTAMP_INDEX]);
-            return new Price(id, name, bid, ask, timestamp);
+            target.setId(id);
+            target.setInstrumentName(name);
+            target.setBid(bid);
+            target.setAsk(ask);
+            target.setTimestamp(timestamp);
+            return target;
         } catch (NumberFormatException e) {
             throw new IllegalArgumentException("Invalid message format: " + message, e);
         }
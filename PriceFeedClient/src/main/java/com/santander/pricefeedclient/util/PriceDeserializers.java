@@ -0,0 +1,78 @@
+package com.santander.pricefeedclient.util;
+
+import com.santander.pricefeedsource.PriceFeedSource;
+import com.santander.pricefeedsource.WireFormat;
+
+/**
+ * Factory for the available {@link PriceDeserializer} implementations.
+ */
+public final class PriceDeserializers {
+
+    /**
+     * The system property used to select the deserializer implementation.
+     */
+    public static final String DESERIALIZER_PROPERTY = "pricefeed.deserializer";
+
+    /**
+     * The system property listing, comma separated and in the order of the source, the instruments of the binary
+     * wire format, whose indexes are the wire ids of the records; the currency pairs of {@link PriceFeedSource} by
+     * default.
+     */
+    public static final String BINARY_INSTRUMENTS_PROPERTY = "pricefeed.binary.instruments";
+
+    /**
+     * Selects {@link PriceDeserializerImpl}, the {@code String.split} based deserializer.
+     */
+    public static final String SPLIT = "split";
+
+    /**
+     * Selects {@link FastPriceDeserializer}, the single-pass deserializer.
+     */
+    public static final String FAST = "fast";
+
+    /**
+     * Selects {@link BinaryPriceDeserializer}, the deserializer of the binary wire format.
+     */
+    public static final String BINARY = "binary";
+
+    private PriceDeserializers() {
+    }
+
+    /**
+     * Creates the deserializer selected by the system properties: {@value #BINARY} when the
+     * {@value WireFormat#WIRE_FORMAT_PROPERTY} property selects the binary wire format, otherwise the one named by the
+     * {@value #DESERIALIZER_PROPERTY} property, defaulting to {@value #SPLIT}.
+     *
+     * @return a new deserializer
+     * @throws IllegalArgumentException if a property names an unknown implementation or wire format
+     */
+    public static PriceDeserializer fromSystemProperties() {
+        if (WireFormat.fromSystemProperties() == WireFormat.BINARY) {
+            return create(BINARY);
+        }
+        return create(System.getProperty(DESERIALIZER_PROPERTY, SPLIT));
+    }
+
+    /**
+     * Creates the deserializer with the given name. The {@value #BINARY} deserializer decodes the instruments listed
+     * by the {@value #BINARY_INSTRUMENTS_PROPERTY} property.
+     *
+     * @param name the name of the implementation, one of {@value #SPLIT}, {@value #FAST} or {@value #BINARY}
+     * @return a new deserializer
+     * @throws IllegalArgumentException if the name is unknown
+     */
+    public static PriceDeserializer create(String name) {
+        switch (name) {
+            case SPLIT:
+                return new PriceDeserializerImpl();
+            case FAST:
+                return new FastPriceDeserializer();
+            case BINARY:
+                String instruments = System.getProperty(BINARY_INSTRUMENTS_PROPERTY);
+                return instruments == null ? new BinaryPriceDeserializer()
+                        : new BinaryPriceDeserializer(instruments.split(","), new InstrumentRegistry());
+            default:
+                throw new IllegalArgumentException("Unknown price deserializer: " + name);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.santander.pricefeedclient.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The kinds of threads running the blocking tasks of the client: the subscription to the feed and the handling of
+ * HTTP requests.
+ * <p>
+ * Virtual threads are only available from Java 21 on, while the project is built for Java 11: they are created
+ * through reflection, and {@link #isSupported()} tells whether the running JVM provides them. The ingestion workers
+ * and the stream selector always run on platform threads, since they spin or stay busy rather than block.
+ */
+public enum ThreadMode {
+
+    /**
+     * Daemon platform threads, requests being handled by a fixed pool.
+     */
+    PLATFORM,
+
+    /**
+     * Virtual threads, every request being handled by its own thread.
+     */
+    VIRTUAL;
+
+    /**
+     * Returns whether the running JVM can create threads of this mode.
+     *
+     * @return true for platform threads, and for virtual threads on Java 21 or later
+     */
+    public boolean isSupported() {
+        return this == PLATFORM || VirtualThreads.OF_VIRTUAL != null;
+    }
+
+    /**
+     * Returns a factory of threads of this mode, named with the given prefix followed by a counter.
+     *
+     * @param namePrefix the prefix of the names of the threads
+     * @return a thread factory
+     * @throws IllegalStateException if the running JVM does not support this mode
+     */
+    public ThreadFactory threadFactory(String namePrefix) {
+        if (this == VIRTUAL) {
+            return VirtualThreads.factory(namePrefix);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, namePrefix + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Creates a new, unstarted daemon thread of this mode.
+     *
+     * @param name the name of the thread
+     * @param task the task run by the thread
+     * @return the unstarted thread
+     * @throws IllegalStateException if the running JVM does not support this mode
+     */
+    public Thread newThread(String name, Runnable task) {
+        Thread thread = this == VIRTUAL ? VirtualThreads.factory(name).newThread(task) : new Thread(task);
+        thread.setName(name);
+        if (this == PLATFORM) {
+            thread.setDaemon(true);
+        }
+        return thread;
+    }
+
+    /**
+     * Creates a new executor running blocking tasks: a fixed pool of the given number of platform threads, or a new
+     * virtual thread per task, the thread count being ignored.
+     *
+     * @param namePrefix the prefix of the names of the threads
+     * @param threads the number of platform threads
+     * @return a new executor, which the caller shuts down
+     * @throws IllegalStateException if the running JVM does not support this mode
+     */
+    public ExecutorService newExecutor(String namePrefix, int threads) {
+        if (this == VIRTUAL) {
+            // a pool without queue nor idle threads is a thread per task, like Executors.newVirtualThreadPerTaskExecutor
+            return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    threadFactory(namePrefix));
+        }
+        return Executors.newFixedThreadPool(threads, threadFactory(namePrefix));
+    }
+
+    /**
+     * Returns the mode with the given name, ignoring case.
+     *
+     * @param name the name of the mode
+     * @return the mode with the given name
+     * @throws IllegalArgumentException if there is no mode with the given name
+     */
+    public static ThreadMode parse(String name) {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * The reflective access to the {@code Thread.ofVirtual()} builders, looked up once.
+     */
+    private static final class VirtualThreads {
+        private static final MethodHandle OF_VIRTUAL;
+        private static final MethodHandle NAME;
+        private static final MethodHandle FACTORY;
+
+        static {
+            MethodHandle ofVirtual = null;
+            MethodHandle name = null;
+            MethodHandle factory = null;
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+                Class<?> virtualBuilderClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+                ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(virtualBuilderClass));
+                name = lookup.findVirtual(builderClass, "name",
+                        MethodType.methodType(builderClass, String.class, long.class));
+                factory = lookup.findVirtual(builderClass, "factory", MethodType.methodType(ThreadFactory.class));
+            } catch (ReflectiveOperationException e) {
+                ofVirtual = null;
+            }
+            OF_VIRTUAL = ofVirtual;
+            NAME = name;
+            FACTORY = factory;
+        }
+
+        private static ThreadFactory factory(String namePrefix) {
+            if (OF_VIRTUAL == null) {
+                throw new IllegalStateException("Virtual threads require Java 21 or later, running "
+                        + System.getProperty("java.version"));
+            }
+            try {
+                Object builder = OF_VIRTUAL.invoke();
+                builder = NAME.invoke(builder, namePrefix, 0L);
+                return (ThreadFactory) FACTORY.invoke(builder);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
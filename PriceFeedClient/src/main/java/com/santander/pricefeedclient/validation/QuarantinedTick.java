@@ -0,0 +1,73 @@
+package com.santander.pricefeedclient.validation;
+
+import com.santander.pricefeedclient.model.Price;
+
+/**
+ * A tick rejected by a {@link TickValidator}, as kept by a {@link TickQuarantine}. A {@link TickRejection#MALFORMED}
+ * line has no tick, only the line as received.
+ */
+public final class QuarantinedTick {
+
+    private final TickRejection reason;
+    private final Price price;
+    private final String line;
+    private final long rejectedAtMillis;
+
+    QuarantinedTick(TickRejection reason, Price price, String line, long rejectedAtMillis) {
+        this.reason = reason;
+        this.price = price;
+        this.line = line;
+        this.rejectedAtMillis = rejectedAtMillis;
+    }
+
+    /**
+     * Gets the reason for which the tick was rejected.
+     *
+     * @return the reason of the rejection
+     */
+    public TickRejection getReason() {
+        return reason;
+    }
+
+    /**
+     * Gets the rejected tick.
+     *
+     * @return a copy of the tick, as received, or null for a malformed line
+     */
+    public Price getPrice() {
+        return price == null ? null : price.copy();
+    }
+
+    /**
+     * Gets the rejected line, if it could not be deserialized.
+     *
+     * @return the malformed line, as received, or null for a well-formed tick
+     */
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * Gets the time at which the tick was rejected.
+     *
+     * @return the time of the rejection, in milliseconds since the epoch
+     */
+    public long getRejectedAtMillis() {
+        return rejectedAtMillis;
+    }
+
+    /**
+     * Returns a string representation of this {@code QuarantinedTick} instance.
+     *
+     * @return a string representation of this {@code QuarantinedTick} instance
+     */
+    @Override
+    public String toString() {
+        return "QuarantinedTick{" +
+                "reason=" + reason +
+                ", price=" + price +
+                ", line='" + line + '\'' +
+                ", rejectedAtMillis=" + rejectedAtMillis +
+                '}';
+    }
+}
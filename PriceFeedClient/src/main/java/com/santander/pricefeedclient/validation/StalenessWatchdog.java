@@ -0,0 +1,166 @@
+package com.santander.pricefeedclient.validation;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Flags the instruments of a {@link LatestPriceStore} whose latest price is older than a maximum age, e.g. because
+ * their feed stopped or all their ticks are rejected.
+ * <p>
+ * A thread of the watchdog checks the timestamps of the latest prices every quarter of the maximum age, off the
+ * ingestion path, and publishes the set of stale instruments; an instrument is no longer stale once it ticks again.
+ * Instruments which never had a price are not flagged.
+ */
+public class StalenessWatchdog implements AutoCloseable {
+
+    private final LatestPriceStore store;
+    private final long maxAgeMillis;
+    private final LongSupplier clock;
+    private final Thread thread;
+    private final Price price = new Price();
+    private final AtomicLong staleEvents = new AtomicLong();
+    private volatile Set<String> staleInstruments = Collections.emptySet();
+    private volatile boolean running;
+
+    /**
+     * Creates a new watchdog of the given store, reading the current time from the system clock. The watchdog starts
+     * checking the store once {@link #start()} is called.
+     *
+     * @param store the store of the latest prices
+     * @param maxAgeMillis the age from which a price is stale, in milliseconds
+     */
+    public StalenessWatchdog(LatestPriceStore store, long maxAgeMillis) {
+        this(store, maxAgeMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a new watchdog of the given store. The watchdog starts checking the store once {@link #start()} is
+     * called.
+     *
+     * @param store the store of the latest prices
+     * @param maxAgeMillis the age from which a price is stale, in milliseconds
+     * @param clock the source of the current time, in milliseconds since the epoch
+     */
+    public StalenessWatchdog(LatestPriceStore store, long maxAgeMillis, LongSupplier clock) {
+        if (maxAgeMillis <= 0) {
+            throw new IllegalArgumentException("Maximum age must be positive: " + maxAgeMillis);
+        }
+        this.store = store;
+        this.maxAgeMillis = maxAgeMillis;
+        this.clock = clock;
+        this.thread = new Thread(this::watch, "price-staleness-watchdog");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Gets the age from which a price is stale.
+     *
+     * @return the maximum age, in milliseconds
+     */
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    /**
+     * Starts the thread checking the store.
+     */
+    public synchronized void start() {
+        if (!running && thread.getState() == Thread.State.NEW) {
+            running = true;
+            thread.start();
+        }
+    }
+
+    /**
+     * Checks the age of the latest price of every instrument and publishes the stale ones. Called by the thread of
+     * the watchdog, and by tests.
+     *
+     * @return the stale instruments
+     */
+    public synchronized Set<String> check() {
+        InstrumentRegistry instrumentRegistry = store.getInstrumentRegistry();
+        long now = clock.getAsLong();
+        Set<String> previous = staleInstruments;
+        Set<String> stale = null;
+        for (int instrumentId = 0; instrumentId < instrumentRegistry.size(); instrumentId++) {
+            if (store.getLatestPrice(instrumentId, price) != 0 && now - price.getTimestamp() > maxAgeMillis) {
+                String instrumentName = instrumentRegistry.nameOf(instrumentId);
+                if (stale == null) {
+                    stale = new HashSet<>();
+                }
+                stale.add(instrumentName);
+                if (!previous.contains(instrumentName)) {
+                    staleEvents.lazySet(staleEvents.get() + 1);
+                }
+            }
+        }
+        if (stale == null) {
+            staleInstruments = Collections.emptySet();
+        } else if (!stale.equals(previous)) {
+            staleInstruments = Collections.unmodifiableSet(stale);
+        }
+        return staleInstruments;
+    }
+
+    /**
+     * Gets the instruments found stale by the latest check.
+     *
+     * @return an unmodifiable set of instrument names
+     */
+    public Set<String> getStaleInstruments() {
+        return staleInstruments;
+    }
+
+    /**
+     * Tells whether the given instrument was found stale by the latest check.
+     *
+     * @param instrumentName the name of the instrument
+     * @return true if the latest price of the instrument is older than the maximum age
+     */
+    public boolean isStale(String instrumentName) {
+        return staleInstruments.contains(instrumentName);
+    }
+
+    /**
+     * Gets the number of times an instrument became stale.
+     *
+     * @return the number of stale events
+     */
+    public long getStaleEvents() {
+        return staleEvents.get();
+    }
+
+    private void watch() {
+        long intervalNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(maxAgeMillis) / 4);
+        while (running) {
+            LockSupport.parkNanos(this, intervalNanos);
+            check();
+        }
+    }
+
+    /**
+     * Stops the thread checking the store, if started, and waits for it.
+     *
+     * @throws InterruptedException if interrupted while waiting for the thread
+     */
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        LockSupport.unpark(thread);
+        thread.join();
+    }
+}
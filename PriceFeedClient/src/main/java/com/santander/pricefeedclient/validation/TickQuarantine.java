@@ -0,0 +1,139 @@
+package com.santander.pricefeedclient.validation;
+
+import com.santander.pricefeedclient.model.Price;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the ticks rejected by {@link TickValidator}s by reason, and keeps the latest of them aside for inspection.
+ * <p>
+ * The kept ticks are copied into a ring of price instances allocated once, so that a burst of bad ticks neither
+ * allocates nor grows the memory of the quarantine: once the ring is full, every rejected tick overwrites the oldest
+ * one. Malformed lines are kept as received, the only case where the quarantine holds on to an object it did not
+ * allocate. Rejections are expected to be rare, so the ring is guarded by a lock shared by the validators of every
+ * worker.
+ */
+public class TickQuarantine {
+
+    private static final TickRejection[] REASONS = TickRejection.values();
+
+    private final LongAdder[] rejectedTicks = new LongAdder[REASONS.length];
+    private final Price[] prices;
+    private final String[] lines;
+    private final TickRejection[] reasons;
+    private final long[] rejectedAtMillis;
+    private long quarantinedTicks;
+
+    /**
+     * Creates a new, empty quarantine.
+     *
+     * @param capacity the number of rejected ticks kept, 0 to only count them
+     */
+    public TickQuarantine(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative: " + capacity);
+        }
+        for (int i = 0; i < rejectedTicks.length; i++) {
+            rejectedTicks[i] = new LongAdder();
+        }
+        this.prices = new Price[capacity];
+        for (int i = 0; i < capacity; i++) {
+            prices[i] = new Price();
+        }
+        this.lines = new String[capacity];
+        this.reasons = new TickRejection[capacity];
+        this.rejectedAtMillis = new long[capacity];
+    }
+
+    /**
+     * Gets the number of rejected ticks kept.
+     *
+     * @return the capacity of the quarantine
+     */
+    public int getCapacity() {
+        return prices.length;
+    }
+
+    /**
+     * Counts the given rejected tick and keeps a copy of it, overwriting the oldest tick kept if the quarantine is
+     * full.
+     *
+     * @param reason the reason of the rejection
+     * @param price the rejected tick, which is not retained
+     * @param nowMillis the current time, in milliseconds since the epoch
+     */
+    public void add(TickRejection reason, Price price, long nowMillis) {
+        rejectedTicks[reason.ordinal()].increment();
+        if (prices.length == 0) {
+            return;
+        }
+        synchronized (this) {
+            int slot = (int) (quarantinedTicks++ % prices.length);
+            prices[slot].copyFrom(price);
+            lines[slot] = null;
+            reasons[slot] = reason;
+            rejectedAtMillis[slot] = nowMillis;
+        }
+    }
+
+    /**
+     * Counts the given malformed line as {@link TickRejection#MALFORMED} and keeps it, overwriting the oldest tick
+     * kept if the quarantine is full.
+     *
+     * @param line the line which could not be deserialized
+     * @param nowMillis the current time, in milliseconds since the epoch
+     */
+    public void addMalformed(String line, long nowMillis) {
+        rejectedTicks[TickRejection.MALFORMED.ordinal()].increment();
+        if (prices.length == 0) {
+            return;
+        }
+        synchronized (this) {
+            int slot = (int) (quarantinedTicks++ % prices.length);
+            lines[slot] = line;
+            reasons[slot] = TickRejection.MALFORMED;
+            rejectedAtMillis[slot] = nowMillis;
+        }
+    }
+
+    /**
+     * Gets the number of ticks rejected for the given reason.
+     *
+     * @param reason the reason of the rejections
+     * @return the number of rejected ticks
+     */
+    public long getRejectedTicks(TickRejection reason) {
+        return rejectedTicks[reason.ordinal()].sum();
+    }
+
+    /**
+     * Gets the number of ticks rejected for any reason.
+     *
+     * @return the number of rejected ticks
+     */
+    public long getRejectedTicks() {
+        long total = 0;
+        for (LongAdder adder : rejectedTicks) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the latest rejected ticks, up to the capacity of the quarantine.
+     *
+     * @return new copies of the kept ticks, from the oldest to the latest
+     */
+    public synchronized List<QuarantinedTick> getQuarantinedTicks() {
+        int count = (int) Math.min(quarantinedTicks, prices.length);
+        List<QuarantinedTick> ticks = new ArrayList<>(count);
+        for (long tick = quarantinedTicks - count; tick < quarantinedTicks; tick++) {
+            int slot = (int) (tick % prices.length);
+            ticks.add(new QuarantinedTick(reasons[slot], lines[slot] == null ? prices[slot].copy() : null,
+                    lines[slot], rejectedAtMillis[slot]));
+        }
+        return ticks;
+    }
+}
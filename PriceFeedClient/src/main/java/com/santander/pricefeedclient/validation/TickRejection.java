@@ -0,0 +1,38 @@
+package com.santander.pricefeedclient.validation;
+
+/**
+ * The reasons for which a {@link TickValidator} rejects a tick, or a line which is not a tick at all.
+ */
+public enum TickRejection {
+
+    /**
+     * The line could not be deserialized, e.g. it does not have the expected number of columns.
+     */
+    MALFORMED,
+
+    /**
+     * The tick names an instrument the client does not track yet, while it already tracks the maximum number of
+     * instruments.
+     */
+    UNKNOWN_INSTRUMENT,
+
+    /**
+     * The bid or the ask is not a positive, finite number.
+     */
+    INVALID_PRICE,
+
+    /**
+     * The bid is above the ask.
+     */
+    CROSSED,
+
+    /**
+     * The timestamp is older than the timestamp of the latest accepted tick of the instrument.
+     */
+    OUT_OF_ORDER,
+
+    /**
+     * The timestamp is older than the maximum tick age.
+     */
+    STALE
+}
@@ -0,0 +1,161 @@
+package com.santander.pricefeedclient.validation;
+
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Checks the well-formed ticks of a feed before they are margined and published, handing the bad ones, as well as the
+ * lines which are not ticks at all, to a {@link TickQuarantine} instead of publishing them.
+ * <p>
+ * A tick is rejected, for the first of these reasons which applies, if its bid or ask is not a positive finite
+ * number, if its bid is above its ask, if it is older than the latest accepted tick of its instrument, or if it is
+ * older than the maximum tick age. The checks are a few comparisons on primitive fields: accepting a tick neither
+ * allocates nor throws, and neither does rejecting it.
+ * <p>
+ * The timestamp of the latest accepted tick of every instrument is kept in fixed-size pages indexed by instrument
+ * id, which are never moved, like the slots of {@link com.santander.pricefeedclient.store.LatestPriceStore}. There
+ * must be a single thread validating the ticks of a given instrument, as in the ingestion pipeline; the ticks of
+ * other instruments may be validated concurrently by other threads.
+ */
+public class TickValidator {
+
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_SLOTS = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SLOTS - 1;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final TickQuarantine quarantine;
+    private final long maxTickAgeMillis;
+    private final LongSupplier clock;
+
+    /**
+     * The pages of the latest accepted timestamps. Replaced by a larger copy when the validator grows, the pages
+     * themselves are shared.
+     */
+    private volatile long[][] pages = new long[0][];
+
+    /**
+     * Creates a new validator, reading the current time from the system clock.
+     *
+     * @param quarantine the quarantine receiving the rejected ticks
+     * @param maxTickAgeMillis the age from which a tick is stale, in milliseconds, 0 to accept ticks of any age
+     */
+    public TickValidator(TickQuarantine quarantine, long maxTickAgeMillis) {
+        this(quarantine, maxTickAgeMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a new validator.
+     *
+     * @param quarantine the quarantine receiving the rejected ticks
+     * @param maxTickAgeMillis the age from which a tick is stale, in milliseconds, 0 to accept ticks of any age
+     * @param clock the source of the current time, in milliseconds since the epoch
+     */
+    public TickValidator(TickQuarantine quarantine, long maxTickAgeMillis, LongSupplier clock) {
+        if (maxTickAgeMillis < 0) {
+            throw new IllegalArgumentException("Maximum tick age must not be negative: " + maxTickAgeMillis);
+        }
+        this.quarantine = quarantine;
+        this.maxTickAgeMillis = maxTickAgeMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the quarantine receiving the rejected ticks.
+     *
+     * @return the quarantine of this validator
+     */
+    public TickQuarantine getQuarantine() {
+        return quarantine;
+    }
+
+    /**
+     * Checks the given tick, quarantining it if it is rejected. Must only be called by the single thread validating
+     * the ticks of its instrument.
+     *
+     * A tick whose instrument id is not resolved yet, the first one of an instrument which is not registered, is
+     * not checked for order, and its timestamp is not recorded.
+     *
+     * @param price the tick
+     * @return true if the tick is accepted, false if it was quarantined
+     */
+    public boolean validate(Price price) {
+        TickRejection rejection = check(price);
+        if (rejection == null) {
+            return true;
+        }
+        quarantine.add(rejection, price, clock.getAsLong());
+        return false;
+    }
+
+    /**
+     * Quarantines a line which could not be deserialized into a tick.
+     *
+     * @param line the malformed line
+     */
+    public void rejectMalformed(String line) {
+        quarantine.addMalformed(line, clock.getAsLong());
+    }
+
+    /**
+     * Quarantines a tick whose instrument could not be registered, the client already tracking the maximum number of
+     * instruments.
+     *
+     * @param price the rejected tick
+     */
+    public void rejectUnknownInstrument(Price price) {
+        quarantine.add(TickRejection.UNKNOWN_INSTRUMENT, price, clock.getAsLong());
+    }
+
+    private TickRejection check(Price price) {
+        double bid = price.getBid();
+        double ask = price.getAsk();
+        // written so that NaN fails the comparisons
+        if (!(bid > 0 && ask > 0) || Double.isInfinite(bid) || Double.isInfinite(ask)) {
+            return TickRejection.INVALID_PRICE;
+        }
+        if (bid > ask) {
+            return TickRejection.CROSSED;
+        }
+        int instrumentId = price.getInstrumentId();
+        long timestamp = price.getTimestamp();
+        long[] page = null;
+        int slot = instrumentId & PAGE_MASK;
+        if (instrumentId != InstrumentRegistry.UNKNOWN_ID) {
+            page = pageForWrite(instrumentId);
+            if (timestamp < page[slot]) {
+                return TickRejection.OUT_OF_ORDER;
+            }
+        }
+        if (maxTickAgeMillis > 0 && clock.getAsLong() - timestamp > maxTickAgeMillis) {
+            return TickRejection.STALE;
+        }
+        if (page != null) {
+            page[slot] = timestamp;
+        }
+        return null;
+    }
+
+    private long[] pageForWrite(int instrumentId) {
+        long[][] currentPages = pages;
+        int pageIndex = instrumentId >>> PAGE_SHIFT;
+        return pageIndex < currentPages.length ? currentPages[pageIndex] : grow(pageIndex);
+    }
+
+    private synchronized long[] grow(int pageIndex) {
+        long[][] currentPages = pages;
+        if (pageIndex >= currentPages.length) {
+            long[][] grownPages = Arrays.copyOf(currentPages, Math.max(pageIndex + 1, currentPages.length * 2));
+            for (int i = currentPages.length; i < grownPages.length; i++) {
+                grownPages[i] = new long[PAGE_SLOTS];
+                Arrays.fill(grownPages[i], NO_TIMESTAMP);
+            }
+            pages = grownPages;
+            currentPages = grownPages;
+        }
+        return currentPages[pageIndex];
+    }
+}
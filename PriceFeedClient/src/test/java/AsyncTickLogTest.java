@@ -0,0 +1,96 @@
+import com.santander.pricefeedclient.log.AsyncTickLog;
+import com.santander.pricefeedclient.log.TickLog;
+import com.santander.pricefeedclient.log.TickLogLevel;
+import com.santander.pricefeedclient.model.Price;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+public class AsyncTickLogTest {
+    private static final UUID ID = UUID.fromString("fc754b5f-1af9-4559-b90e-62a0cc2b0f96");
+
+    @Test
+    public void testWritesEventsAsJsonLines() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AsyncTickLog tickLog = new AsyncTickLog(TickLogLevel.INFO, 1, 16, out);
+        Price price = new Price(ID, "EUR/USD", 1.5, 1.6, 1_700_000_000_000L);
+        tickLog.log(TickLogLevel.INFO, "margin.output", price);
+        price.setBid(-1);
+        tickLog.log(TickLogLevel.DEBUG, "margin.input", price);
+        tickLog.close();
+        assertEquals("{\"level\":\"INFO\",\"event\":\"margin.output\",\"id\":\"" + ID + "\",\"instrument\":\"EUR/USD\","
+                + "\"bid\":1.5,\"ask\":1.6,\"timestamp\":1700000000000}\n", out.toString(StandardCharsets.UTF_8));
+        assertEquals(1, tickLog.getWrittenEvents());
+    }
+
+    @Test
+    public void testEscapesNamesAndWritesNonFinitePricesAsNull() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AsyncTickLog tickLog = new AsyncTickLog(TickLogLevel.INFO, 1, 16, out);
+        Price price = new Price(ID, "EUR\"/\\USD\n", Double.NaN, Double.POSITIVE_INFINITY, 1);
+        tickLog.log(TickLogLevel.INFO, "validation.rejected", price);
+        tickLog.close();
+        assertEquals("{\"level\":\"INFO\",\"event\":\"validation.rejected\",\"id\":\"" + ID + "\","
+                + "\"instrument\":\"EUR\\\"/\\\\USD\\u000a\",\"bid\":null,\"ask\":null,\"timestamp\":1}\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testLevels() {
+        assertFalse(TickLog.NO_OP.isEnabled(TickLogLevel.INFO));
+        assertTrue(TickLogLevel.DEBUG.includes(TickLogLevel.INFO));
+        assertFalse(TickLogLevel.INFO.includes(TickLogLevel.DEBUG));
+        assertFalse(TickLogLevel.DEBUG.includes(TickLogLevel.OFF));
+        assertEquals(TickLogLevel.DEBUG, TickLogLevel.parse("debug"));
+    }
+
+    @Test
+    public void testDropsEventsInsteadOfBlocking() throws InterruptedException {
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OutputStream blockingOut = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void flush() {
+                writerBlocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        AsyncTickLog tickLog = new AsyncTickLog(TickLogLevel.INFO, 1, 4, blockingOut);
+        Price price = new Price(ID, "EUR/USD", 1.5, 1.6, 1);
+        tickLog.log(TickLogLevel.INFO, "tick", price);
+        writerBlocked.await();
+        for (int i = 0; i < 10; i++) {
+            tickLog.log(TickLogLevel.INFO, "tick", price);
+        }
+        release.countDown();
+        tickLog.close();
+        assertEquals(6, tickLog.getDroppedEvents());
+        assertEquals(5, tickLog.getWrittenEvents());
+    }
+
+    @Test
+    public void testSamplesEvents() {
+        AsyncTickLog tickLog = new AsyncTickLog(TickLogLevel.INFO, 10, 1 << 16, OutputStream.nullOutputStream());
+        Price price = new Price(ID, "EUR/USD", 1.5, 1.6, 1);
+        for (int i = 0; i < 10_000; i++) {
+            tickLog.log(TickLogLevel.INFO, "tick", price);
+        }
+        tickLog.close();
+        assertTrue(tickLog.getWrittenEvents() > 500);
+        assertTrue(tickLog.getWrittenEvents() < 1500);
+    }
+}
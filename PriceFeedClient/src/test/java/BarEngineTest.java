@@ -0,0 +1,96 @@
+import com.santander.pricefeedclient.bars.BarEngine;
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BarEngineTest {
+    private static final String EURUSD = "EUR/USD";
+    private final InstrumentRegistry instrumentRegistry = new InstrumentRegistry(EURUSD, "GBP/USD");
+    private final BarEngine engine = new BarEngine(instrumentRegistry, new long[]{1000, 60_000}, 3);
+
+    @Test
+    public void testAggregatesTicksIntoBars() {
+        tick(1.0, 1000);
+        tick(1.4, 1200);
+        tick(0.8, 1500);
+        tick(1.2, 1999);
+        tick(2.0, 2500);
+        List<double[]> bars = bars(1000, 10);
+        assertEquals(2, bars.size());
+        assertArrayEquals(new double[]{1000, 1.0, 1.4, 0.8, 1.2, 4}, bars.get(0), 1e-9);
+        assertArrayEquals(new double[]{2000, 2.0, 2.0, 2.0, 2.0, 1}, bars.get(1), 1e-9);
+        List<double[]> minuteBars = bars(60_000, 10);
+        assertEquals(1, minuteBars.size());
+        assertArrayEquals(new double[]{0, 1.0, 2.0, 0.8, 2.0, 5}, minuteBars.get(0), 1e-9);
+    }
+
+    @Test
+    public void testKeepsABoundedHistory() {
+        for (int second = 0; second < 10; second++) {
+            tick(second, second * 1000L);
+        }
+        List<double[]> bars = bars(1000, 10);
+        assertEquals(3, bars.size());
+        assertEquals(7000, bars.get(0)[0], 0);
+        assertEquals(9000, bars.get(2)[0], 0);
+        assertEquals(2, bars(1000, 2).size());
+        assertEquals(8000, bars(1000, 2).get(0)[0], 0);
+    }
+
+    @Test
+    public void testDropsLateTicks() {
+        tick(1.0, 5000);
+        tick(2.0, 4000);
+        assertEquals(1, engine.getLateTicks());
+        assertEquals(1, bars(1000, 10).size());
+        // still within the current minute bar
+        assertEquals(2.0, bars(60_000, 10).get(0)[4], 0);
+        assertEquals(2, (long) bars(60_000, 10).get(0)[5]);
+    }
+
+    @Test
+    public void testUnknownInstrumentHasNoBars() {
+        assertEquals(0, engine.getBars("GBP/USD", 1000, 10, (start, open, high, low, close, ticks) -> fail()));
+    }
+
+    @Test
+    public void testKeepsBarsOfManyInstruments() {
+        String[] instrumentNames = new String[100];
+        for (int i = 0; i < instrumentNames.length; i++) {
+            instrumentNames[i] = "PAIR" + i;
+        }
+        InstrumentRegistry registry = new InstrumentRegistry(instrumentNames);
+        BarEngine manyInstruments = new BarEngine(registry, new long[]{1000}, 2);
+        for (int i = instrumentNames.length - 1; i >= 0; i--) {
+            manyInstruments.update(i, new Price(null, instrumentNames[i], i, i, 1000));
+        }
+        for (int i = 0; i < instrumentNames.length; i++) {
+            double expected = i;
+            assertEquals(1, manyInstruments.getBars(instrumentNames[i], 1000, 10,
+                    (start, open, high, low, close, ticks) -> assertEquals(expected, close, 0)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsUnknownInterval() {
+        engine.getBars(EURUSD, 5000, 10, (start, open, high, low, close, ticks) -> { });
+    }
+
+    private void tick(double mid, long timestamp) {
+        Price price = new Price(null, EURUSD, mid - 0.1, mid + 0.1, timestamp);
+        engine.update(instrumentRegistry.idOf(EURUSD), price);
+    }
+
+    private List<double[]> bars(long intervalMillis, int count) {
+        List<double[]> bars = new ArrayList<>();
+        int visited = engine.getBars(EURUSD, intervalMillis, count,
+                (start, open, high, low, close, ticks) -> bars.add(new double[]{start, open, high, low, close, ticks}));
+        assertEquals(bars.size(), visited);
+        return bars;
+    }
+}
@@ -0,0 +1,99 @@
+import com.santander.pricefeedclient.aggregation.BestPriceAggregator;
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BestPriceAggregatorTest {
+    private static final String EURUSD = "EUR/USD";
+    private final InstrumentRegistry instrumentRegistry = new InstrumentRegistry(EURUSD, "GBP/USD");
+    private final List<Price> published = new ArrayList<>();
+    private long now = 10_000;
+    private final BestPriceAggregator aggregator = new BestPriceAggregator(instrumentRegistry, 3, 1000,
+            () -> now, price -> published.add(price.copy()));
+
+    @Test
+    public void testComposesBestBidAndOffer() {
+        assertTrue(aggregator.update(0, quote(1.10, 1.20)));
+        assertTrue(aggregator.update(1, quote(1.12, 1.22)));
+        assertTrue(aggregator.update(2, quote(1.08, 1.18)));
+        Price best = aggregator.getBestPrice(EURUSD, new Price());
+        assertEquals(1.12, best.getBid(), 0);
+        assertEquals(1.18, best.getAsk(), 0);
+        assertEquals(1, aggregator.getBestBidVenue(EURUSD));
+        assertEquals(2, aggregator.getBestAskVenue(EURUSD));
+        assertEquals(3, published.size());
+        assertEquals(instrumentRegistry.idOf(EURUSD), published.get(2).getInstrumentId());
+    }
+
+    @Test
+    public void testIgnoresQuotesBehindTheTop() {
+        aggregator.update(0, quote(1.10, 1.20));
+        assertFalse(aggregator.update(1, quote(1.09, 1.21)));
+        assertFalse(aggregator.update(1, quote(1.05, 1.25)));
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    public void testFallsBackWhenTheBestVenueWorsens() {
+        aggregator.update(0, quote(1.10, 1.20));
+        aggregator.update(1, quote(1.12, 1.19));
+        assertTrue(aggregator.update(1, quote(1.00, 1.30)));
+        Price best = published.get(published.size() - 1);
+        assertEquals(1.10, best.getBid(), 0);
+        assertEquals(1.20, best.getAsk(), 0);
+        assertEquals(0, aggregator.getBestBidVenue(EURUSD));
+    }
+
+    @Test
+    public void testKeepsTheBestVenueWhileItImprovesOrHolds() {
+        aggregator.update(0, quote(1.10, 1.20));
+        aggregator.update(1, quote(1.12, 1.19));
+        aggregator.update(0, quote(1.12, 1.19));
+        // a rescan would hand the tied top to the first venue
+        assertFalse(aggregator.update(1, quote(1.12, 1.19)));
+        assertEquals(1, aggregator.getBestBidVenue(EURUSD));
+        assertEquals(1, aggregator.getBestAskVenue(EURUSD));
+        assertTrue(aggregator.update(1, quote(1.13, 1.18)));
+        assertEquals(1, aggregator.getBestBidVenue(EURUSD));
+        assertEquals(1.13, published.get(published.size() - 1).getBid(), 0);
+    }
+
+    @Test
+    public void testExpiresStaleQuotes() {
+        aggregator.update(0, quote(1.10, 1.20));
+        now += 600;
+        aggregator.update(1, quote(1.12, 1.22));
+        assertEquals(1.12, aggregator.getBestPrice(EURUSD, new Price()).getBid(), 0);
+        now += 500;
+        assertEquals(1, aggregator.expireStaleQuotes());
+        assertEquals(0, aggregator.expireStaleQuotes());
+        Price best = aggregator.getBestPrice(EURUSD, new Price());
+        assertEquals(1.12, best.getBid(), 0);
+        assertEquals(1.22, best.getAsk(), 0);
+        assertEquals(1.22, published.get(published.size() - 1).getAsk(), 0);
+        now += 1000;
+        assertEquals(1, aggregator.expireStaleQuotes());
+        assertNull(aggregator.getBestPrice(EURUSD, new Price()));
+        assertEquals(BestPriceAggregator.NO_VENUE, aggregator.getBestBidVenue(EURUSD));
+    }
+
+    @Test
+    public void testStaleQuotesNeverBecomeBest() {
+        aggregator.update(0, quote(1.10, 1.20));
+        Price late = quote(1.50, 1.05);
+        late.setTimestamp(now - 2000);
+        assertFalse(aggregator.update(1, late));
+        assertEquals(0, aggregator.getBestBidVenue(EURUSD));
+    }
+
+    private Price quote(double bid, double ask) {
+        Price price = new Price(null, EURUSD, bid, ask, now);
+        price.setInstrument(instrumentRegistry.idOf(EURUSD), EURUSD);
+        return price;
+    }
+}
@@ -0,0 +1,81 @@
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.BinaryPriceDeserializer;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import com.santander.pricefeedclient.util.PriceDeserializerImpl;
+import com.santander.pricefeedsource.BinaryPriceFormat;
+import com.santander.pricefeedsource.PriceFeedGenerator;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class BinaryPriceDeserializerTest {
+    private static final long TIMESTAMP = 1_700_000_000_000L;
+
+    @Test
+    public void testDecodesSamePricesAsCsv() {
+        PriceFeedGenerator csvGenerator = new PriceFeedGenerator(5, 1000, 5, () -> TIMESTAMP);
+        PriceFeedGenerator binaryGenerator = new PriceFeedGenerator(5, 1000, 5, () -> TIMESTAMP);
+        BinaryPriceDeserializer deserializer =
+                new BinaryPriceDeserializer(binaryGenerator.getInstruments(), new InstrumentRegistry());
+        PriceDeserializerImpl csvDeserializer = new PriceDeserializerImpl();
+        Price price = new Price();
+        for (int i = 0; i < 1000; i++) {
+            ByteBuffer message = binaryGenerator.nextBinaryMessage();
+            for (String line : csvGenerator.nextMessage().split("\n")) {
+                assertEquals(csvDeserializer.deserialize(line), deserializer.deserialize(message, price));
+                message.position(message.position() + BinaryPriceFormat.RECORD_SIZE);
+            }
+            assertFalse(message.hasRemaining());
+        }
+    }
+
+    @Test
+    public void testDeserializeRecordAsString() {
+        ByteBuffer record = ByteBuffer.allocate(BinaryPriceFormat.RECORD_SIZE);
+        BinaryPriceFormat.encode(record, 1, 2, 0, 12_345, 12_400, TIMESTAMP);
+        Price price = new BinaryPriceDeserializer(new String[]{"EUR/USD"}, new InstrumentRegistry())
+                .deserialize(new String(record.array(), StandardCharsets.ISO_8859_1));
+        assertEquals("00000000-0000-0001-0000-000000000002", price.getId().toString());
+        assertEquals("EUR/USD", price.getInstrumentName());
+        assertEquals(1.2345, price.getBid(), 0);
+        assertEquals(1.24, price.getAsk(), 0);
+        assertEquals(TIMESTAMP, price.getTimestamp());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownInstrumentId() {
+        ByteBuffer record = ByteBuffer.allocate(BinaryPriceFormat.RECORD_SIZE);
+        BinaryPriceFormat.encode(record, 1, 2, 1, 12_345, 12_400, TIMESTAMP);
+        new BinaryPriceDeserializer(new String[]{"EUR/USD"}, new InstrumentRegistry("EUR/USD", "GBP/USD"))
+                .deserialize(record.flip(), new Price());
+    }
+
+    @Test
+    public void testResolvesWireIdsThroughTheInstrumentNames() {
+        InstrumentRegistry instrumentRegistry = new InstrumentRegistry("USD/JPY", "EUR/USD");
+        BinaryPriceDeserializer deserializer =
+                new BinaryPriceDeserializer(new String[]{"EUR/USD", "GBP/USD", "USD/JPY"}, instrumentRegistry);
+        ByteBuffer record = ByteBuffer.allocate(BinaryPriceFormat.RECORD_SIZE);
+        BinaryPriceFormat.encode(record, 1, 2, 0, 12_345, 12_400, TIMESTAMP);
+        Price price = deserializer.deserialize(record.flip(), new Price());
+        assertEquals("EUR/USD", price.getInstrumentName());
+        assertEquals(1, price.getInstrumentId());
+
+        BinaryPriceFormat.encode(record.clear(), 1, 2, 1, 12_345, 12_400, TIMESTAMP);
+        deserializer.deserialize(record.flip(), price);
+        assertEquals("GBP/USD", price.getInstrumentName());
+        assertEquals(InstrumentRegistry.UNKNOWN_ID, price.getInstrumentId());
+
+        int gbpUsd = instrumentRegistry.register("GBP/USD");
+        deserializer.deserialize(record, price);
+        assertEquals(gbpUsd, price.getInstrumentId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedRecord() {
+        new BinaryPriceDeserializer().deserialize(ByteBuffer.allocate(BinaryPriceFormat.RECORD_SIZE - 1), new Price());
+    }
+}
@@ -0,0 +1,173 @@
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.model.PriceBatch;
+import com.santander.pricefeedclient.util.FastPriceDeserializer;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import com.santander.pricefeedclient.util.PriceDeserializer;
+import com.santander.pricefeedclient.util.PriceDeserializerImpl;
+import com.santander.pricefeedsource.PriceFeedSource;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class FastPriceDeserializerTest {
+    private final InstrumentRegistry instrumentRegistry = new InstrumentRegistry("EUR/USD", "AUD/USD");
+    private final FastPriceDeserializer priceDeserializer = new FastPriceDeserializer(instrumentRegistry);
+    private final PriceDeserializer referenceDeserializer = new PriceDeserializerImpl();
+
+    @Test
+    public void testDeserializeValidMessage() {
+        String message = "fc754b5f-1af9-4559-b90e-62a0cc2b0f96,AUD/USD,0.77,0.78,1647744800";
+        Price price = priceDeserializer.deserialize(message);
+        assertEquals(UUID.fromString("fc754b5f-1af9-4559-b90e-62a0cc2b0f96"), price.getId());
+        assertEquals("AUD/USD", price.getInstrumentName());
+        assertEquals(0.77, price.getBid(), 0.001);
+        assertEquals(0.78, price.getAsk(), 0.001);
+        assertEquals(1647744800L, price.getTimestamp());
+    }
+
+    @Test
+    public void testDeserializeAllMatchesLineByLine() {
+        String message = "fc754b5f-1af9-4559-b90e-62a0cc2b0f96,AUD/USD,0.77,0.78,1\n"
+                + "invalid\n\n"
+                + "0e8c3e8b-5b06-4e8e-9d1f-2e6b4b8b1c2d,EUR/USD,1.1,1.2,2\n"
+                + "7a1f0c9e-7d2c-4c34-8f0e-3b1d6c2a9e51,AUD/USD,0.79,0.8,3";
+        PriceBatch batch = new PriceBatch(1);
+        PriceBatch referenceBatch = new PriceBatch();
+        assertEquals(1, priceDeserializer.deserializeAll(message, batch));
+        assertEquals(1, referenceDeserializer.deserializeAll(message, referenceBatch));
+        assertEquals(3, batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(referenceBatch.copyTo(i, new Price()), batch.copyTo(i, new Price()));
+        }
+
+        assertEquals(1, batch.conflate(0));
+        assertEquals(2, batch.size());
+        assertEquals("EUR/USD", batch.getInstrumentName(0));
+        assertEquals("AUD/USD", batch.getInstrumentName(1));
+        assertEquals(3, batch.getTimestamp(1));
+        assertEquals(0.79, batch.getBid(1), 0.001);
+    }
+
+    @Test
+    public void testConflateKeepsTheNewestTickOfEveryInstrument() {
+        PriceBatch batch = new PriceBatch();
+        Price price = new Price();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 1000; i++) {
+                price.setInstrument(i % 100 * 7, "ID" + i % 100);
+                price.setTimestamp(i);
+                batch.add(price);
+                price.setInstrumentName("NAME" + i % 10);
+                batch.add(price);
+            }
+            assertEquals(1890, batch.conflate(0));
+            assertEquals(110, batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                assertTrue(batch.getTimestamp(i) >= 900);
+            }
+            assertEquals(InstrumentRegistry.UNKNOWN_ID, batch.getInstrumentId(batch.size() - 1));
+            assertEquals("NAME9", batch.getInstrumentName(batch.size() - 1));
+            batch.clear();
+        }
+    }
+
+    @Test
+    public void testInvalidLinesDoNotRegisterInstruments() {
+        String message = "fc754b5f-1af9-4559-b90e-62a0cc2b0f96,USD/CHF,bid,0.78,1\n"
+                + "fc754b5f-1af9-4559-b90e-62a0cc2b0f96,USD/CAD,0.77,0.78,time\n"
+                + "fc754b5f-1af9-4559-b90e-62a0cc2b0f96,NZD/USD,0.77,0.78\n"
+                + "not-a-uuid,USD/SEK,0.77,0.78,1";
+        assertEquals(4, priceDeserializer.deserializeAll(message, new PriceBatch()));
+        assertEquals(2, instrumentRegistry.size());
+    }
+
+    @Test
+    public void testDeserializeIntoTarget() {
+        Price target = new Price();
+        String message = "fc754b5f-1af9-4559-b90e-62a0cc2b0f96,AUD/USD,0.77,0.78,1647744800";
+        assertSame(target, priceDeserializer.deserialize(message, target));
+        assertEquals(referenceDeserializer.deserialize(message), target);
+        assertEquals(target, referenceDeserializer.deserialize(message, new Price()));
+    }
+
+    @Test
+    public void testDeserializeInternsKnownInstrumentNames() {
+        Price price = priceDeserializer.deserialize("fc754b5f-1af9-4559-b90e-62a0cc2b0f96,EUR/USD,1.1,1.2,1");
+        assertSame(instrumentRegistry.nameOf(instrumentRegistry.idOf("EUR/USD")), price.getInstrumentName());
+    }
+
+    @Test
+    public void testDeserializeResolvesInstrumentIds() {
+        Price price = priceDeserializer.deserialize("fc754b5f-1af9-4559-b90e-62a0cc2b0f96,AUD/USD,1.1,1.2,1");
+        assertEquals(instrumentRegistry.idOf("AUD/USD"), price.getInstrumentId());
+        price = priceDeserializer.deserialize("fc754b5f-1af9-4559-b90e-62a0cc2b0f96,USD/CHF,1.1,1.2,1", price);
+        assertEquals(InstrumentRegistry.UNKNOWN_ID, price.getInstrumentId());
+        assertEquals("USD/CHF", price.getInstrumentName());
+        assertEquals(2, instrumentRegistry.size());
+        price.setInstrumentName("EUR/USD");
+        assertEquals(InstrumentRegistry.UNKNOWN_ID, price.getInstrumentId());
+    }
+
+    @Test
+    public void testDeserializeLineWithinMessage() {
+        String message = "fc754b5f-1af9-4559-b90e-62a0cc2b0f96,AUD/USD,0.77,0.78,1\n"
+                + "0c754b5f-1af9-4559-b90e-62a0cc2b0f96,EUR/USD,1.0812,1.0815,2\n";
+        int lineEnd = message.indexOf('\n');
+        Price price = priceDeserializer.deserialize(message, lineEnd + 1, message.length() - 1);
+        assertEquals("EUR/USD", price.getInstrumentName());
+        assertEquals(2L, price.getTimestamp());
+    }
+
+    @Test
+    public void testDeserializeMatchesReferenceImplementation() {
+        String[] messages = {
+                "FC754B5F-1AF9-4559-B90E-62A0CC2B0F96,NEW/CCY,1.,.5,-42",
+                "1-2-3-4-5,EUR/USD,1e-3,+2.5E2,+7",
+                "fc754b5f-1af9-4559-b90e-62a0cc2b0f96,AUD/USD,1.23456789012345678,0.1,12345678901234567,,",
+                "fc754b5f-1af9-4559-b90e-62a0cc2b0f96,AUD/USD,-0,0.0000000000000000000001,0",
+        };
+        for (String message : messages) {
+            assertSamePrice(referenceDeserializer.deserialize(message), priceDeserializer.deserialize(message));
+        }
+        PriceFeedSource.runPriceFeed().forEach(message -> {
+            for (String line : message.split("\n")) {
+                assertSamePrice(referenceDeserializer.deserialize(line), priceDeserializer.deserialize(line));
+            }
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeserializeInvalidMessageFormat() {
+        priceDeserializer.deserialize("fc754b5f-1af9-4559-b90e-62a0cc2b0f96,AUD/USD,0.77,0.78");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeserializeTooManyColumns() {
+        priceDeserializer.deserialize("fc754b5f-1af9-4559-b90e-62a0cc2b0f96,AUD/USD,0.77,0.78,1,2");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeserializeInvalidIdFormat() {
+        priceDeserializer.deserialize("fc754b5f-1af9-4559-b90e-62a0cc2b0fzz,AUD/USD,0.77,0.78,1");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeserializeInvalidTimestampValueFormat() {
+        priceDeserializer.deserialize("fc754b5f-1af9-4559-b90e-62a0cc2b0f96,AUD/USD,0.77,0.78,invalid_number");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeserializeInvalidBidValueFormat() {
+        priceDeserializer.deserialize("fc754b5f-1af9-4559-b90e-62a0cc2b0f96,AUD/USD,sting,0.77,12344566");
+    }
+
+    private static void assertSamePrice(Price expected, Price actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getInstrumentName(), actual.getInstrumentName());
+        assertEquals(Double.doubleToRawLongBits(expected.getBid()), Double.doubleToRawLongBits(actual.getBid()));
+        assertEquals(Double.doubleToRawLongBits(expected.getAsk()), Double.doubleToRawLongBits(actual.getAsk()));
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+    }
+}
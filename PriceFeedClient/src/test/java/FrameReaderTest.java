@@ -0,0 +1,151 @@
+import com.santander.pricefeedclient.transport.FrameReader;
+import com.santander.pricefeedsource.BinaryPriceFormat;
+import com.santander.pricefeedsource.FrameFormat;
+import com.santander.pricefeedsource.PriceFeedGenerator;
+import com.santander.pricefeedsource.PriceFeedServer;
+import com.santander.pricefeedsource.PriceFeedSource;
+import com.santander.pricefeedsource.WireFormat;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class FrameReaderTest {
+    private static final int MESSAGE_COUNT = 10_000;
+    private static final long TIMESTAMP = 1_700_000_000_000L;
+
+    @Test
+    public void testReadsFramesSplitAcrossBuffers() throws Exception {
+        PriceFeedGenerator expected = newGenerator();
+        try (PriceFeedServer server = new PriceFeedServer(newGenerator(), WireFormat.BINARY, MESSAGE_COUNT,
+                PriceFeedSource.UNTHROTTLED)) {
+            InetSocketAddress address = server.bindTcp(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            AtomicInteger retiredBuffers = new AtomicInteger();
+            try (FrameReader reader = FrameReader.open(tcp(address), null, 2 * FrameFormat.MAX_MESSAGE_SIZE, 2,
+                    () -> {
+                        retiredBuffers.incrementAndGet();
+                        return () -> true;
+                    })) {
+                server.start();
+                long[] nextSequence = new long[1];
+                while (reader.read((sequence, message) -> {
+                    assertEquals(nextSequence[0]++, sequence);
+                    assertEquals(expected.nextBinaryMessage(), message);
+                })) {
+                    // the handler checks the messages
+                }
+                assertEquals(MESSAGE_COUNT, nextSequence[0]);
+                assertEquals(MESSAGE_COUNT, reader.getReceivedFrames());
+                assertEquals(0, reader.getMissedFrames());
+                assertTrue(retiredBuffers.get() > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testReusesBuffersOnceReleased() throws Exception {
+        try (PriceFeedServer server = new PriceFeedServer(newGenerator(), WireFormat.CSV, MESSAGE_COUNT,
+                PriceFeedSource.UNTHROTTLED)) {
+            InetSocketAddress address = server.bindTcp(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            List<ByteBuffer> views = new ArrayList<>();
+            List<String> messages = new ArrayList<>();
+            // the messages of a buffer are only decoded when it is about to be reused, so they must still be intact
+            try (FrameReader reader = FrameReader.open(tcp(address), null, 2 * FrameFormat.MAX_MESSAGE_SIZE, 2,
+                    () -> {
+                        int retired = views.size();
+                        return () -> {
+                            while (messages.size() < retired) {
+                                messages.add(StandardCharsets.US_ASCII.decode(views.get(messages.size())).toString());
+                            }
+                            return true;
+                        };
+                    })) {
+                server.start();
+                while (reader.read((sequence, message) -> views.add(message))) {
+                    // the messages are decoded when their buffer is reused
+                }
+            }
+            PriceFeedGenerator expected = newGenerator();
+            assertEquals(MESSAGE_COUNT, views.size());
+            assertTrue(messages.size() > 0);
+            for (String message : messages) {
+                assertEquals(expected.nextMessage(), message);
+            }
+        }
+    }
+
+    @Test
+    public void testCountsGapsAndOutOfOrderFrames() throws Exception {
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            InetSocketAddress address = (InetSocketAddress) serverChannel.getLocalAddress();
+            try (FrameReader reader = FrameReader.open(tcp(address), null, 1 << 20, 2, () -> () -> true);
+                 SocketChannel server = serverChannel.accept()) {
+                ByteBuffer frames = ByteBuffer.allocate(1024);
+                for (long sequence : new long[]{5, 6, 9, 8, 10}) {
+                    FrameFormat.encodeHeader(frames, 1, sequence);
+                    frames.put((byte) sequence);
+                }
+                server.write(frames.flip());
+                server.close();
+                List<Long> sequences = new ArrayList<>();
+                while (reader.read((sequence, message) -> {
+                    assertEquals(sequence, message.get(message.position()));
+                    sequences.add(sequence);
+                })) {
+                    // the handler collects the sequences
+                }
+                assertEquals(List.of(5L, 6L, 9L, 10L), sequences);
+                assertEquals(2, reader.getMissedFrames());
+                assertEquals(1, reader.getOutOfOrderFrames());
+            }
+        }
+    }
+
+    @Test
+    public void testReadsDatagrams() throws Exception {
+        String loopback = InetAddress.getLoopbackAddress().getHostAddress();
+        try (FrameReader reader = FrameReader.open(URI.create("udp://" + loopback + ":0"), null, 1 << 20, 2,
+                () -> () -> true);
+             PriceFeedServer server = new PriceFeedServer(newGenerator(), WireFormat.BINARY,
+                     PriceFeedSource.UNBOUNDED, 10_000)) {
+            server.addDatagramTarget((InetSocketAddress) reader.getLocalAddress());
+            server.start();
+            long[] sequences = {-1, -1};
+            while (sequences[1] < 100) {
+                reader.read((sequence, message) -> {
+                    assertEquals(0, message.remaining() % BinaryPriceFormat.RECORD_SIZE);
+                    if (sequences[0] < 0) {
+                        sequences[0] = sequence;
+                    }
+                    sequences[1] = sequence;
+                });
+            }
+            // datagrams may be lost, but the sequence numbers account for all of them
+            assertEquals(sequences[1] - sequences[0] + 1, reader.getReceivedFrames() + reader.getMissedFrames());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsUnknownScheme() throws Exception {
+        FrameReader.open(URI.create("http://localhost:80"), null, 1 << 20, 2, () -> () -> true);
+    }
+
+    private static URI tcp(InetSocketAddress address) {
+        return URI.create("tcp://" + address.getAddress().getHostAddress() + ":" + address.getPort());
+    }
+
+    private static PriceFeedGenerator newGenerator() {
+        return new PriceFeedGenerator(42, 100, 5, () -> TIMESTAMP);
+    }
+}
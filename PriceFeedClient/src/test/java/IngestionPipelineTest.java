@@ -0,0 +1,228 @@
+import com.santander.pricefeedclient.ingest.IngestionPipeline;
+import com.santander.pricefeedclient.ingest.PipelineMetrics;
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.model.PriceBatch;
+import com.santander.pricefeedclient.model.PricePool;
+import com.santander.pricefeedclient.util.BinaryPriceDeserializer;
+import com.santander.pricefeedclient.util.FastPriceDeserializer;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import com.santander.pricefeedclient.util.PriceDeserializer;
+import com.santander.pricefeedsource.BinaryPriceFormat;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+public class IngestionPipelineTest {
+    private static final String[] INSTRUMENTS = {"EUR/USD", "GBP/USD", "USD/JPY"};
+    private final InstrumentRegistry instrumentRegistry = new InstrumentRegistry(INSTRUMENTS);
+    private final Map<String, List<Long>> published = new ConcurrentHashMap<>();
+
+    @Test
+    public void testKeepsPerInstrumentOrder() throws InterruptedException {
+        IngestionPipeline pipeline = newPipeline(1024, Integer.MAX_VALUE);
+        pipeline.start();
+        submitTicks(pipeline, 3000);
+        pipeline.close();
+        for (String instrument : INSTRUMENTS) {
+            List<Long> timestamps = published.get(instrument);
+            assertEquals(1000, timestamps.size());
+            List<Long> sorted = new ArrayList<>(timestamps);
+            Collections.sort(sorted);
+            assertEquals(sorted, timestamps);
+        }
+        PipelineMetrics metrics = pipeline.getMetrics();
+        assertEquals(3000, metrics.getSubmittedLines());
+        assertEquals(3000, metrics.getProcessedLines());
+        assertEquals(0, metrics.getConflatedLines());
+        assertEquals(3000, metrics.getMarginLatency().getCount());
+        assertEquals(3000, metrics.getPublishLatency().getCount());
+        assertEquals(3000, metrics.getTickAge().getCount());
+        assertEquals(3000, metrics.getParseLatency().getCount());
+        assertTrue(metrics.getThroughput() > 0);
+    }
+
+    @Test
+    public void testConflatesSupersededTicksWhenBehind() throws InterruptedException {
+        IngestionPipeline pipeline = newPipeline(1024, 1);
+        submitTicks(pipeline, 30);
+        pipeline.start();
+        pipeline.close();
+        PipelineMetrics metrics = pipeline.getMetrics();
+        assertEquals(3, metrics.getProcessedLines());
+        assertEquals(27, metrics.getConflatedLines());
+        assertEquals(30, metrics.getParseLatency().getCount());
+        assertEquals(0, metrics.getQueueDepths()[0]);
+        for (String instrument : INSTRUMENTS) {
+            assertEquals(Collections.singletonList(published.get(instrument).get(0)), published.get(instrument));
+            assertTrue(published.get(instrument).get(0) >= 27);
+        }
+    }
+
+    @Test
+    public void testPublishesNewestTickOfEachInstrumentOfAMessage() throws InterruptedException {
+        IngestionPipeline pipeline = newPipeline(16, Integer.MAX_VALUE);
+        pipeline.start();
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            message.append("fc754b5f-1af9-4559-b90e-62a0cc2b0f96,").append(INSTRUMENTS[i % 2]).append(",1.1,1.2,")
+                    .append(i).append('\n');
+        }
+        pipeline.submit(message.toString());
+        pipeline.close();
+        assertEquals(Collections.singletonList(4L), published.get("EUR/USD"));
+        assertEquals(Collections.singletonList(3L), published.get("GBP/USD"));
+        PipelineMetrics metrics = pipeline.getMetrics();
+        assertEquals(5, metrics.getSubmittedLines());
+        assertEquals(2, metrics.getProcessedLines());
+        assertEquals(3, metrics.getConflatedLines());
+    }
+
+    @Test
+    public void testCountsFailedLines() throws InterruptedException {
+        IngestionPipeline pipeline = newPipeline(16, Integer.MAX_VALUE);
+        pipeline.start();
+        pipeline.submit("invalid\nfc754b5f-1af9-4559-b90e-62a0cc2b0f96,EUR/USD,1.1,1.2,1\n");
+        pipeline.close();
+        assertEquals(1, pipeline.getMetrics().getFailedLines());
+        assertEquals(1, pipeline.getMetrics().getProcessedLines());
+    }
+
+    @Test
+    public void testSurvivesDeserializerExceptions() throws InterruptedException {
+        PriceDeserializer throwing = new FastPriceDeserializer(instrumentRegistry) {
+            @Override
+            public int deserializeAll(CharSequence message, PriceBatch batch, Consumer<String> invalidLineHandler) {
+                if (message.toString().contains("boom")) {
+                    throw new IllegalStateException("boom");
+                }
+                return super.deserializeAll(message, batch, invalidLineHandler);
+            }
+        };
+        IngestionPipeline pipeline = newPipeline(throwing, 16, Integer.MAX_VALUE);
+        pipeline.start();
+        pipeline.submit("boom\nboom\n");
+        submitTicks(pipeline, 300);
+        pipeline.close();
+        assertEquals(2, pipeline.getMetrics().getFailedLines());
+        assertEquals(300, pipeline.getMetrics().getProcessedLines());
+    }
+
+    @Test
+    public void testHandsMalformedLinesOver() throws InterruptedException {
+        List<String> malformedLines = new ArrayList<>();
+        IngestionPipeline pipeline = new IngestionPipeline(new FastPriceDeserializer(instrumentRegistry),
+                price -> true, malformedLines::add, (price, target) -> target.copyFrom(price),
+                this::record, new PricePool(2), 1, 16, Integer.MAX_VALUE);
+        pipeline.start();
+        pipeline.submit("EUR/USD,1.1\nfc754b5f-1af9-4559-b90e-62a0cc2b0f96,EUR/USD,1.1,1.2,1\n");
+        pipeline.close();
+        assertEquals(Collections.singletonList("EUR/USD,1.1"), malformedLines);
+        assertEquals(1, pipeline.getMetrics().getFailedLines());
+        assertEquals(1, pipeline.getMetrics().getProcessedLines());
+    }
+
+    @Test
+    public void testDropsRejectedTicks() throws InterruptedException {
+        IngestionPipeline pipeline = newValidatingPipeline(16, Integer.MAX_VALUE);
+        pipeline.start();
+        pipeline.submit("fc754b5f-1af9-4559-b90e-62a0cc2b0f96,EUR/USD,1.1,1.2,1\n");
+        pipeline.submit("fc754b5f-1af9-4559-b90e-62a0cc2b0f96,EUR/USD,1.3,1.2,2\n");
+        pipeline.close();
+        assertEquals(Collections.singletonList(1L), published.get("EUR/USD"));
+        PipelineMetrics metrics = pipeline.getMetrics();
+        assertEquals(1, metrics.getRejectedLines());
+        assertEquals(1, metrics.getProcessedLines());
+        assertEquals(0, metrics.getFailedLines());
+    }
+
+    @Test
+    public void testRejectedTicksDoNotSupersedeValidTicks() throws InterruptedException {
+        IngestionPipeline pipeline = newValidatingPipeline(16, Integer.MAX_VALUE);
+        pipeline.start();
+        pipeline.submit("fc754b5f-1af9-4559-b90e-62a0cc2b0f96,EUR/USD,1.1,1.2,1\n"
+                + "fc754b5f-1af9-4559-b90e-62a0cc2b0f96,EUR/USD,1.3,1.2,2\n");
+        pipeline.close();
+        assertEquals(Collections.singletonList(1L), published.get("EUR/USD"));
+        PipelineMetrics metrics = pipeline.getMetrics();
+        assertEquals(1, metrics.getRejectedLines());
+        assertEquals(0, metrics.getConflatedLines());
+        assertEquals(1, metrics.getProcessedLines());
+    }
+
+    @Test
+    public void testRejectedRecordsDoNotSupersedeValidRecordsWhenBehind() throws InterruptedException {
+        IngestionPipeline pipeline = new IngestionPipeline(
+                new BinaryPriceDeserializer(INSTRUMENTS, instrumentRegistry),
+                price -> price.getBid() <= price.getAsk(), null, (price, target) -> target.copyFrom(price), this::record,
+                new PricePool(2), 1, 16, 1);
+        ByteBuffer message = ByteBuffer.allocate(3 * BinaryPriceFormat.RECORD_SIZE);
+        BinaryPriceFormat.encode(message, 1, 2, 0, 11_000, 12_000, 1);
+        BinaryPriceFormat.encode(message, 1, 2, 0, 11_500, 12_000, 2);
+        BinaryPriceFormat.encode(message, 1, 2, 0, 13_000, 12_000, 3);
+        pipeline.submit(message.flip());
+        pipeline.start();
+        pipeline.close();
+        assertEquals(Collections.singletonList(2L), published.get("EUR/USD"));
+        PipelineMetrics metrics = pipeline.getMetrics();
+        assertEquals(1, metrics.getRejectedLines());
+        assertEquals(1, metrics.getConflatedLines());
+        assertEquals(1, metrics.getProcessedLines());
+    }
+
+    @Test
+    public void testProcessesBinaryRecords() throws InterruptedException {
+        IngestionPipeline pipeline = newPipeline(new BinaryPriceDeserializer(INSTRUMENTS, instrumentRegistry), 1024,
+                Integer.MAX_VALUE);
+        pipeline.start();
+        ByteBuffer message = ByteBuffer.allocate(3000 * BinaryPriceFormat.RECORD_SIZE);
+        for (int i = 0; i < 3000; i++) {
+            BinaryPriceFormat.encode(message, 1, 2, i % INSTRUMENTS.length, 11_000, 12_000, i);
+        }
+        pipeline.submit(message.flip());
+        pipeline.close();
+        for (String instrument : INSTRUMENTS) {
+            List<Long> timestamps = published.get(instrument);
+            assertEquals(1000, timestamps.size());
+            List<Long> sorted = new ArrayList<>(timestamps);
+            Collections.sort(sorted);
+            assertEquals(sorted, timestamps);
+        }
+        assertEquals(3000, pipeline.getMetrics().getProcessedLines());
+    }
+
+    private IngestionPipeline newPipeline(int ringCapacity, int conflationThreshold) {
+        return newPipeline(new FastPriceDeserializer(instrumentRegistry), ringCapacity, conflationThreshold);
+    }
+
+    private IngestionPipeline newPipeline(PriceDeserializer priceDeserializer, int ringCapacity,
+                                          int conflationThreshold) {
+        return new IngestionPipeline(priceDeserializer,
+                (price, target) -> target.copyFrom(price), this::record, new PricePool(2), 1, ringCapacity,
+                conflationThreshold);
+    }
+
+    private IngestionPipeline newValidatingPipeline(int ringCapacity, int conflationThreshold) {
+        return new IngestionPipeline(new FastPriceDeserializer(instrumentRegistry),
+                price -> price.getBid() <= price.getAsk(), null, (price, target) -> target.copyFrom(price),
+                this::record, new PricePool(2), 1, ringCapacity, conflationThreshold);
+    }
+
+    private void record(Price price) {
+        published.computeIfAbsent(price.getInstrumentName(), name -> new ArrayList<>()).add(price.getTimestamp());
+    }
+
+    private static void submitTicks(IngestionPipeline pipeline, int count) {
+        for (int i = 0; i < count; i++) {
+            pipeline.submit("fc754b5f-1af9-4559-b90e-62a0cc2b0f96," + INSTRUMENTS[i % INSTRUMENTS.length]
+                    + ",1.1,1.2," + i + "\n");
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import com.santander.pricefeedclient.metrics.LatencyHistogram;
+import com.santander.pricefeedclient.metrics.LatencySnapshot;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        LatencySnapshot snapshot = LatencySnapshot.merge(histogram);
+        assertEquals(100, snapshot.getCount());
+        assertEquals(50.5, snapshot.getMean(), 1e-9);
+        assertEquals(50, snapshot.getMedian());
+        assertEquals(99, snapshot.getP99());
+        assertEquals(100, snapshot.getMax());
+        assertEquals(1, snapshot.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void testLargeValuesKeepTheirPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1000; value <= 1_000_000_000L; value *= 10) {
+            histogram.record(value);
+            histogram.record(value + 1);
+        }
+        LatencySnapshot snapshot = LatencySnapshot.merge(histogram);
+        assertEquals(14, snapshot.getCount());
+        long median = snapshot.getMedian();
+        assertTrue(median >= 1_000_000 && median <= 1_000_000 * 65 / 64);
+        assertEquals(1_000_000_001L, snapshot.getValueAtPercentile(100));
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, LatencySnapshot.merge(histogram).getMax());
+    }
+
+    @Test
+    public void testRecordsAValueSeveralTimes() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(40, 3);
+        histogram.record(100);
+        LatencySnapshot snapshot = LatencySnapshot.merge(histogram);
+        assertEquals(4, snapshot.getCount());
+        assertEquals(55, snapshot.getMean(), 1e-9);
+        assertEquals(40, snapshot.getValueAtPercentile(75));
+        assertEquals(100, snapshot.getMax());
+    }
+
+    @Test
+    public void testMergesHistograms() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(10);
+        second.record(20);
+        second.record(-5);
+        LatencySnapshot snapshot = LatencySnapshot.merge(first, second);
+        assertEquals(3, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(0));
+        assertEquals(10, snapshot.getMedian());
+        assertEquals(20, snapshot.getMax());
+    }
+
+    @Test
+    public void testEmptySnapshot() {
+        LatencySnapshot snapshot = LatencySnapshot.merge(new LatencyHistogram());
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMean(), 0);
+        assertEquals(0, snapshot.getP999());
+    }
+}
@@ -0,0 +1,94 @@
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LatestPriceStoreTest {
+    private static final String EURUSD_PAIR_NAME = "EUR/USD";
+    private final LatestPriceStore store = new LatestPriceStore(new InstrumentRegistry(EURUSD_PAIR_NAME));
+
+    @Test
+    public void testGetLatestPrice() {
+        Price price = new Price(UUID.randomUUID(), EURUSD_PAIR_NAME, 1.0, 1.1, 42L);
+        store.update(price);
+        assertEquals(price, store.getLatestPrice(EURUSD_PAIR_NAME));
+        assertNotSame(price, store.getLatestPrice(EURUSD_PAIR_NAME));
+    }
+
+    @Test
+    public void testGetLatestPriceWithoutPrice() {
+        assertNull(store.getLatestPrice(EURUSD_PAIR_NAME));
+        assertNull(store.getLatestPrice("INVALID_INSTRUMENT_NAME"));
+    }
+
+    @Test
+    public void testSnapshotAcrossPages() {
+        for (int i = 0; i < 1000; i++) {
+            store.update(new Price(UUID.randomUUID(), "INS" + i, i, i + 1, i));
+        }
+        Map<String, Price> snapshot = store.snapshot();
+        assertEquals(1000, snapshot.size());
+        assertEquals(999, snapshot.get("INS999").getBid(), 0.0001);
+        assertFalse(snapshot.containsKey(EURUSD_PAIR_NAME));
+    }
+
+    @Test
+    public void testIndexesTensOfThousandsOfInstruments() {
+        InstrumentRegistry instrumentRegistry = new InstrumentRegistry();
+        LatestPriceStore largeStore = new LatestPriceStore(instrumentRegistry);
+        int instrumentCount = 50_000;
+        for (int i = 0; i < instrumentCount; i++) {
+            String instrumentName = "I" + i;
+            int instrumentId = instrumentRegistry.register(instrumentName);
+            assertEquals(i, instrumentId);
+            largeStore.update(instrumentId, new Price(null, instrumentName, i, i + 1, i));
+        }
+        Price target = new Price();
+        for (int i = 0; i < instrumentCount; i += 997) {
+            assertTrue(largeStore.getLatestPrice(i, target) != 0);
+            assertEquals(i, target.getInstrumentId());
+            assertEquals("I" + i, target.getInstrumentName());
+            assertEquals(i, target.getTimestamp());
+        }
+        assertEquals(instrumentCount, largeStore.snapshot().size());
+    }
+
+    @Test
+    public void testReadersNeverObserveTornPrices() throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger tornReads = new AtomicInteger();
+        store.update(new Price(null, EURUSD_PAIR_NAME, 0, 1, 0));
+        Thread[] readers = new Thread[3];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread(() -> {
+                Price price = new Price();
+                while (running.get()) {
+                    store.getLatestPrice(0, price);
+                    if (price.getAsk() - price.getBid() != 1 || price.getTimestamp() != (long) price.getBid()) {
+                        tornReads.incrementAndGet();
+                    }
+                }
+            });
+            readers[i].start();
+        }
+        Price price = new Price(null, EURUSD_PAIR_NAME, 0, 0, 0);
+        for (int i = 0; i < 1_000_000; i++) {
+            price.setBid(i);
+            price.setAsk(i + 1);
+            price.setTimestamp(i);
+            store.update(0, price);
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertEquals(0, tornReads.get());
+    }
+}
@@ -0,0 +1,81 @@
+import com.santander.pricefeedclient.margin.MarginEngine;
+import com.santander.pricefeedclient.margin.MarginSchedule;
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import org.junit.Test;
+
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class MarginEngineTest {
+    private static final double DELTA = 1e-9;
+    private final InstrumentRegistry instrumentRegistry = new InstrumentRegistry("EUR/USD", "GBP/USD");
+
+    private static MarginSchedule schedule(double scale) {
+        MarginSchedule schedule = new MarginSchedule(2, 1_000_000, 10_000_000);
+        for (int band = 0; band < schedule.getBandCount(); band++) {
+            for (int tier = 0; tier < schedule.getTierCount(); tier++) {
+                schedule.setDefaultMargin(tier, band, scale * (band + 1) * (tier + 1),
+                        2 * scale * (band + 1) * (tier + 1));
+            }
+        }
+        return schedule.setInstrumentMargin("GBP/USD", 1, 2, 0.5, 0.75);
+    }
+
+    @Test
+    public void testAppliesMarginsOfEveryTierAndBand() {
+        MarginEngine engine = new MarginEngine(instrumentRegistry, schedule(0.001));
+        engine.apply(new Price(UUID.randomUUID(), "EUR/USD", 1.1, 1.2, 42));
+        engine.apply(new Price(UUID.randomUUID(), "GBP/USD", 1.3, 1.4, 43));
+
+        Price small = engine.getLatestPrice("EUR/USD", 0, 500_000);
+        assertEquals(1.099, small.getBid(), DELTA);
+        assertEquals(1.202, small.getAsk(), DELTA);
+        assertEquals(42, small.getTimestamp());
+        Price large = engine.getLatestPrice("EUR/USD", 1, 50_000_000);
+        assertEquals(1.1 - 0.006, large.getBid(), DELTA);
+        assertEquals(1.2 + 0.012, large.getAsk(), DELTA);
+
+        Price overridden = engine.getLatestPrice("GBP/USD", 1, 50_000_000);
+        assertEquals(0.8, overridden.getBid(), DELTA);
+        assertEquals(2.15, overridden.getAsk(), DELTA);
+        Price notOverridden = engine.getLatestPrice("GBP/USD", 0, 50_000_000);
+        assertEquals(1.297, notOverridden.getBid(), DELTA);
+    }
+
+    @Test
+    public void testSelectsBandByNotional() {
+        MarginEngine engine = new MarginEngine(instrumentRegistry, schedule(0.001));
+        assertEquals(0, engine.bandOf(0));
+        assertEquals(0, engine.bandOf(1_000_000));
+        assertEquals(1, engine.bandOf(1_000_001));
+        assertEquals(2, engine.bandOf(10_000_001));
+    }
+
+    @Test
+    public void testUsesDefaultMarginsForNewInstruments() {
+        MarginEngine engine = new MarginEngine(instrumentRegistry, schedule(0.001));
+        engine.apply(new Price(UUID.randomUUID(), "USD/JPY", 150, 151, 44));
+        assertEquals(149.999, engine.getLatestPrice("USD/JPY", 0, 0).getBid(), DELTA);
+        assertNull(engine.getLatestPrice("EUR/USD", 0, 0));
+    }
+
+    @Test
+    public void testUpdateSwapsSchedule() {
+        MarginEngine engine = new MarginEngine(instrumentRegistry, schedule(0.001));
+        engine.update(schedule(0.01));
+        engine.apply(new Price(UUID.randomUUID(), "EUR/USD", 1.1, 1.2, 42));
+        assertEquals(1.09, engine.getLatestPrice("EUR/USD", 0, 0).getBid(), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpdateRejectsOtherTiers() {
+        new MarginEngine(instrumentRegistry, schedule(0.001)).update(new MarginSchedule(3, 1_000_000, 10_000_000));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testRejectsUnknownTier() {
+        new MarginEngine(instrumentRegistry, schedule(0.001)).getLatestPrice("EUR/USD", 2, 0);
+    }
+}
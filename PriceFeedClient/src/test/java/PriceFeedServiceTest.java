@@ -1,21 +1,53 @@
+import com.santander.pricefeedclient.margin.MarginSchedule;
 import com.santander.pricefeedclient.service.PriceFeedService;
 import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.service.PriceFeedServiceConfig;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.store.PriceSnapshot;
+import com.santander.pricefeedclient.util.BinaryPriceDeserializer;
+import com.santander.pricefeedclient.util.FastPriceDeserializer;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
 import com.santander.pricefeedclient.util.PriceDeserializer;
 import com.santander.pricefeedclient.util.PriceDeserializerImpl;
+import com.santander.pricefeedclient.validation.TickRejection;
+import com.santander.pricefeedsource.WireFormat;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.Map;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
 
 import static org.junit.Assert.*;
 
 public class PriceFeedServiceTest {
     private static final String EURUSD_PAIR_NAME = "EUR/USD";
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
     private PriceDeserializer priceDeserializer = new PriceDeserializerImpl();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
-    public void testGetLatestPrice() throws InterruptedException {
-        PriceFeedService service = new PriceFeedService(priceDeserializer);
+    public void testGetLatestPrice() throws Exception {
+        PriceFeedService service = startedService();
         Map<String, Price> snapshot = service.getLatestPriceFeedSnapshot();
         Price price = service.getLatestPrice(EURUSD_PAIR_NAME);
         assertNotNull(price);
@@ -23,8 +55,8 @@ public class PriceFeedServiceTest {
     }
 
     @Test
-    public void testGetLatestPriceWithInvalidInstrumentName() throws InterruptedException {
-        PriceFeedService service = new PriceFeedService(priceDeserializer);
+    public void testGetLatestPriceWithInvalidInstrumentName() throws Exception {
+        PriceFeedService service = startedService();
         Map<String, Price> snapshot = service.getLatestPriceFeedSnapshot();
         Price price = service.getLatestPrice("INVALID_INSTRUMENT_NAME");
         assertNull(price);
@@ -32,13 +64,38 @@ public class PriceFeedServiceTest {
     }
 
     @Test
-    public void testGetLatestPriceFeedSnapshot() throws InterruptedException {
-        PriceFeedService service = new PriceFeedService(priceDeserializer);
+    public void testGetLatestPriceFeedSnapshot() throws Exception {
+        PriceFeedService service = startedService();
         Map<String, Price> snapshot = service.getLatestPriceFeedSnapshot();
         assertNotNull(snapshot);
         assertFalse(snapshot.isEmpty());
     }
 
+    @Test
+    public void testGetLatestPriceFeedSnapshotIsReadOnly() throws Exception {
+        PriceFeedService service = startedService();
+        double bid = service.getLatestPrice(EURUSD_PAIR_NAME).getBid();
+        try {
+            service.getLatestPriceFeedSnapshot().get(EURUSD_PAIR_NAME).setBid(bid + 1);
+            fail("Snapshot prices must be read-only");
+        } catch (UnsupportedOperationException expected) {
+            // the snapshot is shared by all readers
+        }
+        assertEquals(bid, service.getLatestPriceFeedSnapshot().get(EURUSD_PAIR_NAME).getBid(), 0);
+        assertEquals(bid, service.getPriceSnapshot().getPrice(EURUSD_PAIR_NAME).getBid(), 0);
+    }
+
+    @Test
+    public void testPublishesVersionedSnapshots() throws Exception {
+        PriceFeedService service = startedService();
+        PriceSnapshot snapshot = service.getPriceSnapshot();
+        assertTrue(snapshot.getVersion() > 0);
+        assertEquals(service.getLatestPrice(EURUSD_PAIR_NAME), snapshot.getPrice(EURUSD_PAIR_NAME));
+        assertSame(snapshot, service.getPriceSnapshot());
+        assertTrue(service.getPriceChanges(snapshot.getEpoch(), snapshot.getVersion()).getPrices().isEmpty());
+        assertEquals(snapshot.getPrices(), service.getPriceChanges(snapshot.getEpoch(), 0).getPrices());
+    }
+
     @Test
     public void testAddMargin() throws InterruptedException {
         PriceFeedService service = new PriceFeedService(priceDeserializer);
@@ -48,4 +105,393 @@ public class PriceFeedServiceTest {
         assertEquals(0.9, marginPrice.getBid(), 0.0001);
         assertEquals(1.2, marginPrice.getAsk(), 0.0001);
     }
+
+    @Test
+    public void testAddMarginIntoTarget() throws InterruptedException {
+        PriceFeedService service = new PriceFeedService(priceDeserializer);
+        Price price = new Price(UUID.randomUUID(), EURUSD_PAIR_NAME, 1.0, 1.1, new Date().getTime());
+        Price target = new Price();
+        assertSame(target, service.addMargin(price, 0.1, target));
+        assertEquals(price.getId(), target.getId());
+        assertEquals(0.9, target.getBid(), 0.0001);
+        assertEquals(1.2, target.getAsk(), 0.0001);
+        assertEquals(1.0, price.getBid(), 0.0001);
+    }
+
+    @Test
+    public void testGetLatestPriceReturnsCopy() throws Exception {
+        PriceFeedService service = startedService();
+        Price price = service.getLatestPrice(EURUSD_PAIR_NAME);
+        price.setBid(-1);
+        assertNotEquals(-1, service.getLatestPrice(EURUSD_PAIR_NAME).getBid(), 0.0001);
+    }
+
+    @Test
+    public void testRestoresSnapshotFromJournal() throws Exception {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setJournalDirectory(folder.getRoot().getPath());
+        PriceFeedService service = new PriceFeedService(priceDeserializer,
+                new LatestPriceStore(new InstrumentRegistry(EURUSD_PAIR_NAME)), 0.1, new Random(), config);
+        service.start().get();
+        Price price = service.awaitInstrument(EURUSD_PAIR_NAME, TIMEOUT);
+        service.stop();
+        PriceFeedService restarted = new PriceFeedService(priceDeserializer,
+                new LatestPriceStore(new InstrumentRegistry(EURUSD_PAIR_NAME)), 0.1, new Random(), config);
+        assertEquals(service.getLatestPriceFeedSnapshot(), restarted.getLatestPriceFeedSnapshot());
+        assertNotNull(price);
+        assertTrue(restarted.start().isDone());
+        restarted.stop();
+    }
+
+    @Test
+    public void testStartCompletesWhenReadyInstrumentsHavePrices() throws Exception {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setReadyInstruments(EURUSD_PAIR_NAME, "GBP/USD");
+        PriceFeedService service = new PriceFeedService(priceDeserializer,
+                new LatestPriceStore(new InstrumentRegistry(EURUSD_PAIR_NAME)), 0.1, new Random(), config);
+        service.start().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        assertNotNull(service.getLatestPrice(EURUSD_PAIR_NAME));
+        assertNotNull(service.getLatestPrice("GBP/USD"));
+        service.stop();
+    }
+
+    @Test
+    public void testRegistersMetricsMBean() throws Exception {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setJmxName("test");
+        PriceFeedService service = new PriceFeedService(priceDeserializer,
+                new LatestPriceStore(new InstrumentRegistry(EURUSD_PAIR_NAME)), 0.1, new Random(), config);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.santander.pricefeedclient:type=PriceFeedService,name=test");
+        service.start().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        service.awaitInstrument(EURUSD_PAIR_NAME, TIMEOUT);
+        try {
+            assertTrue((Long) server.getAttribute(name, "ProcessedLines") > 0);
+            CompositeData tickAge = (CompositeData) server.getAttribute(name, "TickAgeMillis");
+            assertTrue((Long) tickAge.get("count") > 0);
+            assertTrue((Long) tickAge.get("p99") <= (Long) tickAge.get("max"));
+        } finally {
+            service.stop();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testDrawsMarginsFromGeneratorsSeededByTheGivenGenerator() throws Exception {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        LatestPriceStore store = new LatestPriceStore(new InstrumentRegistry(EURUSD_PAIR_NAME));
+        PriceFeedService service = new PriceFeedService(priceDeserializer, store, 0.1, new Random(42), config);
+        PriceFeedService sameSeed = new PriceFeedService(priceDeserializer, store, 0.1, new Random(42), config);
+        double margin = service.retrieveMargin();
+        assertEquals(new Random(new Random(42).nextLong()).nextDouble(), margin, 0);
+        assertEquals(margin, sameSeed.retrieveMargin(), 0);
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try {
+            assertNotEquals(margin, worker.submit(service::retrieveMargin).get(), 0);
+        } finally {
+            worker.shutdown();
+        }
+    }
+
+    @Test
+    public void testAggregatesVenuesIntoBestPrices() throws Exception {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setVenueCount(3);
+        double[][] quotes = {{1.10, 1.20}, {1.12, 1.22}, {1.08, 1.18}};
+        PriceFeedService service = new PriceFeedService(priceDeserializer,
+                new LatestPriceStore(new InstrumentRegistry(EURUSD_PAIR_NAME)), 0.25, null, config) {
+            @Override
+            public double retrieveMargin() {
+                return 0.25;
+            }
+
+            @Override
+            public Stream<String> initPriceFeedSubscription(int venue) {
+                return Stream.of(UUID.randomUUID() + "," + EURUSD_PAIR_NAME + "," + quotes[venue][0] + ","
+                        + quotes[venue][1] + "," + System.currentTimeMillis());
+            }
+        };
+        service.start().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        Price price = service.getLatestPrice(EURUSD_PAIR_NAME);
+        while ((price.getBid() != 1.12 - 0.25 || price.getAsk() != 1.18 + 0.25) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            price = service.getLatestPrice(EURUSD_PAIR_NAME);
+        }
+        service.stop();
+        assertEquals(1.12 - 0.25, price.getBid(), 0);
+        assertEquals(1.18 + 0.25, price.getAsk(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsVenuesWithBinaryWireFormat() {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setVenueCount(2);
+        config.setWireFormat(WireFormat.BINARY);
+        new PriceFeedService(new BinaryPriceDeserializer(), new LatestPriceStore(new InstrumentRegistry()), 0.1,
+                new Random(), config);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsTextDeserializerWithBinaryWireFormat() {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setWireFormat(WireFormat.BINARY);
+        new PriceFeedService(priceDeserializer, new LatestPriceStore(new InstrumentRegistry()), 0.1, new Random(),
+                config);
+    }
+
+    @Test
+    public void testMaintainsBars() throws Exception {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setBarIntervalsMillis(1000, 60_000);
+        PriceFeedService service = new PriceFeedService(priceDeserializer,
+                new LatestPriceStore(new InstrumentRegistry(EURUSD_PAIR_NAME)), 0.1, new Random(), config);
+        service.start().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        service.awaitInstrument(EURUSD_PAIR_NAME, TIMEOUT);
+        service.stop();
+        long[] ticks = new long[1];
+        int bars = service.getBars(EURUSD_PAIR_NAME, Duration.ofMinutes(1), 10,
+                (start, open, high, low, close, tickCount) -> {
+                    assertTrue(low <= open && open <= high && low <= close && close <= high);
+                    ticks[0] += tickCount;
+                });
+        assertTrue(bars >= 1);
+        assertTrue(ticks[0] >= 1);
+    }
+
+    @Test
+    public void testKeepsTickHistory() throws Exception {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setTickHistoryCapacity(16);
+        PriceFeedService service = new PriceFeedService(priceDeserializer,
+                new LatestPriceStore(new InstrumentRegistry(EURUSD_PAIR_NAME)), 0.1, new Random(), config);
+        service.start().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        service.awaitInstrument(EURUSD_PAIR_NAME, TIMEOUT);
+        service.stop();
+        Price latestPrice = service.getLatestPrice(EURUSD_PAIR_NAME);
+        long[] latestTimestamp = new long[1];
+        assertEquals(1, service.getLatestTicks(EURUSD_PAIR_NAME, 1,
+                (timestamp, bid, ask) -> latestTimestamp[0] = timestamp));
+        assertEquals(latestPrice.getTimestamp(), latestTimestamp[0]);
+        int ticks = service.getTicks(EURUSD_PAIR_NAME, Instant.EPOCH, Instant.now().plusSeconds(60),
+                (timestamp, bid, ask) -> assertTrue(bid <= ask));
+        assertTrue(ticks >= 1 && ticks <= 16);
+    }
+
+    @Test
+    public void testRecordsConflatedTicksInBarsAndHistory() throws Exception {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setWorkerCount(1);
+        config.setBarIntervalsMillis(1000);
+        config.setTickHistoryCapacity(16);
+        String id = UUID.randomUUID().toString();
+        PriceFeedService service = new PriceFeedService(priceDeserializer,
+                new LatestPriceStore(new InstrumentRegistry(EURUSD_PAIR_NAME)), 0.1, new Random(), config) {
+            @Override
+            public Stream<String> initPriceFeedSubscription() {
+                return Stream.of(id + "," + EURUSD_PAIR_NAME + ",1.0,1.0,1000\n"
+                        + id + "," + EURUSD_PAIR_NAME + ",1.5,1.5,1001\n"
+                        + id + "," + EURUSD_PAIR_NAME + ",1.9,1.7,1002\n"
+                        + id + "," + EURUSD_PAIR_NAME + ",1.2,1.2,1003\n");
+            }
+        };
+        service.start();
+        service.awaitInstrument(EURUSD_PAIR_NAME, TIMEOUT);
+        service.stop();
+        assertEquals(1003, service.getLatestPrice(EURUSD_PAIR_NAME).getTimestamp());
+        assertEquals(2, service.getPipelineMetrics().getConflatedLines());
+        assertEquals(1, service.getBars(EURUSD_PAIR_NAME, Duration.ofSeconds(1), 10,
+                (start, open, high, low, close, tickCount) -> {
+                    assertEquals(1.0, open, 0);
+                    assertEquals(1.5, high, 0);
+                    assertEquals(1.0, low, 0);
+                    assertEquals(1.2, close, 0);
+                    assertEquals(3, tickCount);
+                }));
+        assertEquals(3, service.getLatestTicks(EURUSD_PAIR_NAME, 16, (timestamp, bid, ask) -> { }));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTickHistoryIsDisabledByDefault() {
+        new PriceFeedService(priceDeserializer, new LatestPriceStore(new InstrumentRegistry()), 0.1, new Random(),
+                new PriceFeedServiceConfig()).getLatestTicks(EURUSD_PAIR_NAME, 1, (timestamp, bid, ask) -> { });
+    }
+
+    @Test
+    public void testQuarantinesInvalidTicksAndFlagsStaleInstruments() throws Exception {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setStalePriceAgeMillis(50);
+        String id = UUID.randomUUID().toString();
+        PriceFeedService service = new PriceFeedService(priceDeserializer,
+                new LatestPriceStore(new InstrumentRegistry(EURUSD_PAIR_NAME)), 0.1, new Random(), config) {
+            @Override
+            public Stream<String> initPriceFeedSubscription() {
+                return Stream.of(id + "," + EURUSD_PAIR_NAME + ",1.1,1.2,1000",
+                        id + "," + EURUSD_PAIR_NAME + ",1.3,1.2,2000",
+                        id + "," + EURUSD_PAIR_NAME + ",1.1,1.2,500",
+                        id + "," + EURUSD_PAIR_NAME + ",1.1",
+                        id + "," + EURUSD_PAIR_NAME + ",0,1.2,3000");
+            }
+        };
+        service.start().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!service.getStaleInstruments().contains(EURUSD_PAIR_NAME) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        service.stop();
+        assertTrue(service.getStaleInstruments().contains(EURUSD_PAIR_NAME));
+        assertEquals(1000, service.getLatestPrice(EURUSD_PAIR_NAME).getTimestamp());
+        assertEquals(1, service.getRejectedTicks(TickRejection.CROSSED));
+        assertEquals(1, service.getRejectedTicks(TickRejection.OUT_OF_ORDER));
+        assertEquals(1, service.getRejectedTicks(TickRejection.INVALID_PRICE));
+        assertEquals(1, service.getRejectedTicks(TickRejection.MALFORMED));
+        assertEquals(4, service.getQuarantinedTicks().size());
+        assertEquals(id + "," + EURUSD_PAIR_NAME + ",1.1", service.getQuarantinedTicks().get(2).getLine());
+        assertEquals(3, service.getPipelineMetrics().getRejectedLines());
+        assertEquals(1, service.getPipelineMetrics().getFailedLines());
+    }
+
+    @Test
+    public void testRegistersOnlyValidTicksUpToTheMaximumNumberOfInstruments() throws Exception {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setMaxInstruments(2);
+        config.setWorkerCount(1);
+        String id = UUID.randomUUID().toString();
+        InstrumentRegistry instrumentRegistry = new InstrumentRegistry(EURUSD_PAIR_NAME);
+        PriceFeedService service = new PriceFeedService(new FastPriceDeserializer(instrumentRegistry),
+                new LatestPriceStore(instrumentRegistry), 0.1, new Random(), config) {
+            @Override
+            public Stream<String> initPriceFeedSubscription() {
+                return Stream.of(id + ",AUD/USD,bid,0.8,1000",
+                        id + ",NZD/USD,0.7,0.6,1000",
+                        id + ",GBP/USD,1.3,1.4,1000",
+                        id + ",USD/JPY,150.1,150.2,1000",
+                        id + "," + EURUSD_PAIR_NAME + ",1.1,1.2,1000");
+            }
+        };
+        service.start();
+        // a single worker handles the lines in order, so the other lines are handled once EUR/USD is published
+        service.awaitInstrument(EURUSD_PAIR_NAME, TIMEOUT);
+        service.stop();
+        assertEquals(2, instrumentRegistry.size());
+        assertEquals(InstrumentRegistry.UNKNOWN_ID, instrumentRegistry.idOf("AUD/USD"));
+        assertEquals(InstrumentRegistry.UNKNOWN_ID, instrumentRegistry.idOf("NZD/USD"));
+        assertEquals(InstrumentRegistry.UNKNOWN_ID, instrumentRegistry.idOf("USD/JPY"));
+        assertEquals(1, service.getRejectedTicks(TickRejection.MALFORMED));
+        assertEquals(1, service.getRejectedTicks(TickRejection.CROSSED));
+        assertEquals(1, service.getRejectedTicks(TickRejection.UNKNOWN_INSTRUMENT));
+        assertEquals("USD/JPY", service.getQuarantinedTicks().get(2).getPrice().getInstrumentName());
+    }
+
+    @Test
+    public void testMaintainsTieredPrices() throws Exception {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setMarginSchedule(new MarginSchedule(2).setDefaultMargin(1, 0, 0.01, 0.02));
+        PriceFeedService service = new PriceFeedService(priceDeserializer,
+                new LatestPriceStore(new InstrumentRegistry(EURUSD_PAIR_NAME)), 0.1, new Random(), config);
+        service.start().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        service.awaitInstrument(EURUSD_PAIR_NAME, TIMEOUT);
+        service.stop();
+        Price raw = service.getLatestPrice(EURUSD_PAIR_NAME, 0, 1_000_000);
+        Price tiered = service.getLatestPrice(EURUSD_PAIR_NAME, 1, 1_000_000);
+        assertEquals(raw.getBid() - 0.01, tiered.getBid(), 1e-9);
+        assertEquals(raw.getAsk() + 0.02, tiered.getAsk(), 1e-9);
+        assertEquals(raw.getId(), tiered.getId());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTieredPricesRequireSchedule() throws Exception {
+        new PriceFeedService(priceDeserializer).getLatestPrice(EURUSD_PAIR_NAME, 0, 1_000_000);
+    }
+
+    @Test
+    public void testStartTimesOutWithoutPrices() throws Exception {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setReadyInstruments("INVALID_INSTRUMENT_NAME");
+        config.setStartupTimeoutMillis(50);
+        PriceFeedService service = new PriceFeedService(priceDeserializer,
+                new LatestPriceStore(new InstrumentRegistry(EURUSD_PAIR_NAME)), 0.1, new Random(), config);
+        try {
+            service.start().get();
+            fail("The service should not be ready");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        } finally {
+            service.stop();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAwaitUnknownInstrumentFails() throws Exception {
+        PriceFeedService service = new PriceFeedService(priceDeserializer);
+        service.awaitInstrument("INVALID_INSTRUMENT_NAME", Duration.ofMillis(10));
+    }
+
+    @Test
+    public void testAwaitTimeoutDoesNotLoseOtherWaiters() throws Exception {
+        PriceFeedService service = new PriceFeedService(priceDeserializer);
+        CompletableFuture<Price> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return service.awaitInstrument(EURUSD_PAIR_NAME, TIMEOUT);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        try {
+            service.awaitInstrument(EURUSD_PAIR_NAME, Duration.ofMillis(10));
+            fail("No price before the service starts");
+        } catch (TimeoutException e) {
+            // the other waiter keeps waiting
+        }
+        service.start();
+        try {
+            assertEquals(EURUSD_PAIR_NAME, waiting.get().getInstrumentName());
+            assertEquals(EURUSD_PAIR_NAME, service.awaitInstrument(EURUSD_PAIR_NAME, TIMEOUT).getInstrumentName());
+        } finally {
+            service.stop();
+        }
+    }
+
+    @Test
+    public void testPricePublisherPushesPricesUntilFeedEnds() throws Exception {
+        PriceFeedService service = new PriceFeedService(priceDeserializer);
+        CompletableFuture<Integer> received = new CompletableFuture<>();
+        service.getPricePublisher(EURUSD_PAIR_NAME).subscribe(new Flow.Subscriber<Price>() {
+            private int count;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Price price) {
+                assertEquals(EURUSD_PAIR_NAME, price.getInstrumentName());
+                count++;
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                received.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                received.complete(count);
+            }
+        });
+        service.start();
+        assertTrue(received.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS) > 0);
+    }
+
+    /**
+     * Returns a service which received prices for EUR/USD and then stopped, so its prices no longer change.
+     */
+    private PriceFeedService startedService() throws Exception {
+        PriceFeedService service = new PriceFeedService(priceDeserializer);
+        service.start().get();
+        service.awaitInstrument(EURUSD_PAIR_NAME, TIMEOUT);
+        service.stop();
+        return service;
+    }
 }
@@ -0,0 +1,90 @@
+import com.santander.pricefeedclient.http.PriceHttpServer;
+import com.santander.pricefeedclient.http.PriceJsonCache;
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class PriceHttpServerTest {
+    private static final UUID ID = UUID.fromString("fc754b5f-1af9-4559-b90e-62a0cc2b0f96");
+    private final LatestPriceStore store = new LatestPriceStore(new InstrumentRegistry("EUR/USD", "GBP/USD"));
+    private final PriceJsonCache cache = new PriceJsonCache(store);
+    private final HttpClient client = HttpClient.newHttpClient();
+    private PriceHttpServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new PriceHttpServer(cache, new InetSocketAddress("localhost", 0), 2);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testServesLatestPrice() throws Exception {
+        store.update(new Price(ID, "EUR/USD", 1.1, 1.2, 42));
+        HttpResponse<String> response = get("/prices/EUR/USD");
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json", response.headers().firstValue("Content-Type").orElse(null));
+        assertEquals("{\"id\":\"" + ID + "\",\"instrumentName\":\"EUR/USD\",\"bid\":1.1,\"ask\":1.2,"
+                + "\"timestamp\":42}", response.body());
+        assertEquals(response.body(), get("/prices/EUR%2FUSD").body());
+    }
+
+    @Test
+    public void testRebuildsJsonOnlyWhenPriceChanges() throws Exception {
+        store.update(new Price(ID, "EUR/USD", 1.1, 1.2, 42));
+        get("/prices/EUR/USD");
+        get("/prices/EUR/USD");
+        assertEquals(1, cache.getRebuilds());
+        store.update(new Price(ID, "EUR/USD", 1.3, 1.4, 43));
+        assertTrue(get("/prices/EUR/USD").body().contains("\"timestamp\":43"));
+        assertEquals(2, cache.getRebuilds());
+    }
+
+    @Test
+    public void testServesSnapshot() throws Exception {
+        assertEquals("{}", get("/prices").body());
+        store.update(new Price(null, "GBP/USD", 1.3, 1.4, 43));
+        store.update(new Price(ID, "EUR/USD", 1.1, 1.2, 42));
+        String snapshot = get("/prices").body();
+        assertEquals("{\"EUR/USD\":{\"id\":\"" + ID + "\",\"instrumentName\":\"EUR/USD\",\"bid\":1.1,\"ask\":1.2,"
+                + "\"timestamp\":42},\"GBP/USD\":{\"id\":null,\"instrumentName\":\"GBP/USD\",\"bid\":1.3,\"ask\":1.4,"
+                + "\"timestamp\":43}}", snapshot);
+        assertSame(cache.getSnapshot(), cache.getSnapshot());
+    }
+
+    @Test
+    public void testReturnsNotFoundWithoutPrice() throws Exception {
+        assertEquals(404, get("/prices/EUR/USD").statusCode());
+        assertEquals(404, get("/prices/UNKNOWN").statusCode());
+    }
+
+    @Test
+    public void testRejectsOtherMethods() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/prices"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+        assertEquals(405, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getAddress().getPort() + path);
+    }
+}
@@ -0,0 +1,142 @@
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.store.PriceChanges;
+import com.santander.pricefeedclient.store.PriceSnapshot;
+import com.santander.pricefeedclient.store.PriceSnapshotPublisher;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import org.junit.Test;
+
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class PriceSnapshotPublisherTest {
+    private static final String EURUSD = "EUR/USD";
+    private static final String GBPUSD = "GBP/USD";
+    private static final String USDJPY = "USD/JPY";
+
+    private final LatestPriceStore store = new LatestPriceStore(new InstrumentRegistry());
+    private final PriceSnapshotPublisher publisher = new PriceSnapshotPublisher(store, PriceSnapshotPublisher.LAZY);
+
+    @Test
+    public void testStartsEmpty() {
+        PriceSnapshot snapshot = publisher.getSnapshot();
+        assertEquals(0, snapshot.getVersion());
+        assertTrue(snapshot.getPrices().isEmpty());
+    }
+
+    @Test
+    public void testReturnsTheSameSnapshotUntilAnUpdate() {
+        update(EURUSD, 1.1);
+        PriceSnapshot first = publisher.getSnapshot();
+        assertSame(first, publisher.getSnapshot());
+        assertEquals(1, first.getVersion());
+        assertEquals(1.1, first.getPrice(EURUSD).getBid(), 0);
+
+        update(GBPUSD, 1.3);
+        PriceSnapshot second = publisher.getSnapshot();
+        assertEquals(2, second.getVersion());
+        assertEquals(2, second.getPrices().size());
+        assertEquals(first.getPrice(EURUSD), second.getPrice(EURUSD));
+        assertEquals(1, first.getPrices().size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSnapshotIsUnmodifiable() {
+        update(EURUSD, 1.1);
+        publisher.getSnapshot().getPrices().clear();
+    }
+
+    @Test
+    public void testHandsOutReadOnlyPrices() {
+        update(EURUSD, 1.1);
+        PriceSnapshot snapshot = publisher.getSnapshot();
+        assertSame(snapshot.getPrices(), snapshot.getPrices());
+        snapshot.getPrice(EURUSD).setBid(9.9);
+        assertEquals(1.1, snapshot.getPrice(EURUSD).getBid(), 0);
+        try {
+            snapshot.getPrices().get(EURUSD).setBid(9.9);
+            fail("Snapshot prices must be read-only");
+        } catch (UnsupportedOperationException expected) {
+            // the snapshot is shared by all readers
+        }
+        Price copy = snapshot.getPrices().get(EURUSD).copy();
+        copy.setBid(9.9);
+        assertEquals(1.1, publisher.getSnapshot().getPrices().get(EURUSD).getBid(), 0);
+    }
+
+    @Test
+    public void testReturnsChangesSinceAVersion() {
+        update(EURUSD, 1.1);
+        update(GBPUSD, 1.3);
+        long version = publisher.getSnapshot().getVersion();
+        update(USDJPY, 150.0);
+        publisher.getSnapshot();
+        update(EURUSD, 1.2);
+        PriceSnapshot latest = publisher.getSnapshot();
+
+        long epoch = latest.getEpoch();
+        PriceChanges changes = latest.changesSince(epoch, version);
+        assertEquals(epoch, changes.getEpoch());
+        assertEquals(version, changes.getSinceVersion());
+        assertEquals(latest.getVersion(), changes.getVersion());
+        assertEquals(Set.of(EURUSD, USDJPY), changes.getPrices().keySet());
+        assertEquals(1.2, changes.getPrices().get(EURUSD).getBid(), 0);
+
+        assertTrue(latest.changesSince(epoch, latest.getVersion()).getPrices().isEmpty());
+        assertEquals(3, latest.changesSince(epoch, 0).getPrices().size());
+        // a version the publisher never issued gets every price
+        assertEquals(3, latest.changesSince(epoch, latest.getVersion() + 10).getPrices().size());
+    }
+
+    @Test
+    public void testReturnsEveryPriceForAVersionOfAnotherEpoch() {
+        update(EURUSD, 1.1);
+        update(GBPUSD, 1.3);
+        PriceSnapshot previousRun = publisher.getSnapshot();
+        PriceSnapshotPublisher restarted = new PriceSnapshotPublisher(store, PriceSnapshotPublisher.LAZY);
+        restarted.markDirty();
+        PriceSnapshot latest = restarted.getSnapshot();
+        assertNotEquals(previousRun.getEpoch(), latest.getEpoch());
+        assertEquals(previousRun.getVersion(), latest.getVersion());
+        // versions restart with every run, so a version of the same number from a previous run gets every price
+        PriceChanges changes = latest.changesSince(previousRun.getEpoch(), previousRun.getVersion());
+        assertEquals(Set.of(EURUSD, GBPUSD), changes.getPrices().keySet());
+        assertEquals(latest.getEpoch(), changes.getEpoch());
+    }
+
+    @Test
+    public void testUnchangedStoreKeepsTheVersion() {
+        update(EURUSD, 1.1);
+        PriceSnapshot snapshot = publisher.getSnapshot();
+        publisher.markDirty();
+        assertSame(snapshot, publisher.getSnapshot());
+    }
+
+    @Test
+    public void testPublishesAtAFixedCadence() throws Exception {
+        try (PriceSnapshotPublisher scheduled = new PriceSnapshotPublisher(store, 10)) {
+            update(EURUSD, 1.1, scheduled);
+            assertEquals(0, scheduled.getSnapshot().getVersion());
+            scheduled.start();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (scheduled.getSnapshot().getVersion() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(1.1, scheduled.getSnapshot().getPrice(EURUSD).getBid(), 0);
+            update(EURUSD, 1.2, scheduled);
+            scheduled.close();
+            // closing publishes the last updates
+            assertEquals(1.2, scheduled.getSnapshot().getPrice(EURUSD).getBid(), 0);
+        }
+    }
+
+    private void update(String instrumentName, double bid) {
+        update(instrumentName, bid, publisher);
+    }
+
+    private void update(String instrumentName, double bid, PriceSnapshotPublisher target) {
+        store.update(new Price(null, instrumentName, bid, bid + 0.01, System.currentTimeMillis()));
+        target.markDirty();
+    }
+}
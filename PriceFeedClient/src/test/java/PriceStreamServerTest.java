@@ -0,0 +1,129 @@
+import com.santander.pricefeedclient.http.PriceJsonCache;
+import com.santander.pricefeedclient.http.PriceStreamServer;
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PriceStreamServerTest {
+    private static final long LATEST_TIMESTAMP = 999_999_999_999L;
+    private final LatestPriceStore store = new LatestPriceStore(new InstrumentRegistry("EUR/USD", "GBP/USD"));
+    private final SubmissionPublisher<Price> ticks = new SubmissionPublisher<>(Runnable::run, 16);
+    private PriceStreamServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new PriceStreamServer(new PriceJsonCache(store), ticks, new InetSocketAddress("localhost", 0),
+                4096);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.close();
+        ticks.close();
+    }
+
+    @Test
+    public void testStreamsPriceChangesToEveryClient() throws Exception {
+        try (Socket first = connect(); Socket second = connect()) {
+            BufferedReader firstReader = readHeaders(first);
+            BufferedReader secondReader = readHeaders(second);
+            tick(new Price(null, "EUR/USD", 1.1, 1.2, 42));
+            assertEquals("event: price", firstReader.readLine());
+            assertEquals("data: {\"id\":null,\"instrumentName\":\"EUR/USD\",\"bid\":1.1,\"ask\":1.2,\"timestamp\":42}",
+                    firstReader.readLine());
+            assertEquals("", firstReader.readLine());
+            assertEquals("event: price", secondReader.readLine());
+            assertTrue(secondReader.readLine().contains("\"timestamp\":42"));
+            assertEquals("", secondReader.readLine());
+
+            tick(new Price(null, "GBP/USD", 1.3, 1.4, 43));
+            assertEquals("event: price", firstReader.readLine());
+            assertTrue(firstReader.readLine().contains("\"instrumentName\":\"GBP/USD\""));
+            assertEquals(4, server.getSentEvents());
+            assertEquals(0, server.getConflatedEvents());
+        }
+    }
+
+    @Test
+    public void testSendsLatestPricesToSlowClientsOnceTheyCatchUp() throws Exception {
+        try (PriceStreamServer slowServer = new PriceStreamServer(new PriceJsonCache(store), ticks,
+                new InetSocketAddress("localhost", 0), 256);
+             Socket slow = new Socket()) {
+            slow.setReceiveBufferSize(1024);
+            slow.connect(slowServer.getAddress());
+            slow.setSoTimeout(5000);
+            slow.getOutputStream().write("GET /prices HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            BufferedReader reader = readHeaders(slow);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            for (long timestamp = 0; slowServer.getConflatedEvents() == 0; timestamp++) {
+                assertTrue("The client buffer never filled up", System.nanoTime() < deadline);
+                tick(new Price(null, "EUR/USD", 1.1, 1.2, timestamp));
+                tick(new Price(null, "GBP/USD", 1.3, 1.4, timestamp));
+            }
+            tick(new Price(null, "EUR/USD", 1.1, 1.2, LATEST_TIMESTAMP));
+            tick(new Price(null, "GBP/USD", 1.3, 1.4, LATEST_TIMESTAMP));
+            Set<String> latest = new HashSet<>();
+            while (latest.size() < 2) {
+                String line = reader.readLine();
+                assertNotNull(line);
+                if (line.endsWith("\"timestamp\":" + LATEST_TIMESTAMP + "}")) {
+                    latest.add(line.contains("EUR/USD") ? "EUR/USD" : "GBP/USD");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRejectsOtherMethods() throws Exception {
+        try (Socket socket = new Socket("localhost", server.getAddress().getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write("POST / HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.US_ASCII));
+            assertEquals("HTTP/1.1 405 Method Not Allowed", reader.readLine());
+        }
+    }
+
+    private void tick(Price price) {
+        store.update(price);
+        ticks.submit(price);
+    }
+
+    private Socket connect() throws Exception {
+        Socket socket = new Socket("localhost", server.getAddress().getPort());
+        socket.setSoTimeout(5000);
+        OutputStream out = socket.getOutputStream();
+        out.write("GET /prices HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+
+    private static BufferedReader readHeaders(Socket socket) throws Exception {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                StandardCharsets.UTF_8));
+        assertEquals("HTTP/1.1 200 OK", reader.readLine());
+        while (!reader.readLine().isEmpty()) {
+            // skip the other headers
+        }
+        return reader;
+    }
+}
@@ -0,0 +1,187 @@
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.subscription.PriceSubscriptionHub;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import com.santander.pricefeedclient.util.ThreadMode;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PriceSubscriptionHubTest {
+    private static final String[] INSTRUMENTS = {"EUR/USD", "GBP/USD", "USD/JPY"};
+    private final InstrumentRegistry instrumentRegistry = new InstrumentRegistry(INSTRUMENTS);
+    private final PriceSubscriptionHub hub = new PriceSubscriptionHub(instrumentRegistry, 4, Runnable::run);
+
+    @Test
+    public void testDeliversEveryPriceOfSubscribedInstruments() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        hub.publisher("EUR/USD", "USD/JPY").subscribe(subscriber);
+        publishTicks(300);
+        assertEquals(200, subscriber.prices.size());
+        for (int i = 0; i < subscriber.prices.size(); i++) {
+            Price price = subscriber.prices.get(i);
+            assertNotEquals("GBP/USD", price.getInstrumentName());
+            assertEquals(i / 2 * 3 + (i % 2) * 2, price.getTimestamp());
+        }
+        assertEquals(0, hub.getConflatedPrices());
+    }
+
+    @Test
+    public void testConflatesSlowSubscriberToLatestPrices() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        hub.publisher().subscribe(subscriber);
+        publishTicks(30);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        List<Long> timestamps = new ArrayList<>();
+        for (Price price : subscriber.prices) {
+            timestamps.add(price.getTimestamp());
+        }
+        assertEquals(List.of(0L, 1L, 2L, 3L, 28L, 29L, 27L), timestamps);
+        assertEquals(23, hub.getConflatedPrices());
+    }
+
+    @Test
+    public void testDeliversOnlyRequestedPrices() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(2);
+        hub.publisher("EUR/USD").subscribe(subscriber);
+        publishTicks(9);
+        assertEquals(2, subscriber.prices.size());
+        subscriber.subscription.request(1);
+        assertEquals(3, subscriber.prices.size());
+        assertEquals(6, subscriber.prices.get(2).getTimestamp());
+    }
+
+    @Test
+    public void testCancelStopsDelivery() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        hub.publisher().subscribe(subscriber);
+        publishTicks(3);
+        subscriber.subscription.cancel();
+        publishTicks(3);
+        assertEquals(3, subscriber.prices.size());
+        assertEquals(0, hub.getSubscriptionCount());
+    }
+
+    @Test
+    public void testInvalidRequestSignalsError() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        hub.publisher().subscribe(subscriber);
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertEquals(0, hub.getSubscriptionCount());
+    }
+
+    @Test
+    public void testCloseCompletesSubscriptions() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        hub.publisher().subscribe(subscriber);
+        hub.close();
+        RecordingSubscriber lateSubscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        hub.publisher().subscribe(lateSubscriber);
+        assertTrue(subscriber.completed);
+        assertTrue(lateSubscriber.completed);
+        assertEquals(0, hub.getSubscriptionCount());
+    }
+
+    @Test
+    public void testSlowSubscriberDoesNotDelayPublishing() throws InterruptedException {
+        PriceSubscriptionHub threadedHub = new PriceSubscriptionHub(instrumentRegistry, 4, ThreadMode.PLATFORM);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(1);
+        List<String> deliveryThreads = new ArrayList<>();
+        List<Long> timestamps = new ArrayList<>();
+        threadedHub.publisher("EUR/USD").subscribe(new Flow.Subscriber<Price>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Price price) {
+                deliveryThreads.add(Thread.currentThread().getName());
+                timestamps.add(price.getTimestamp());
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+                completed.countDown();
+            }
+        });
+        Price price = new Price();
+        price.setInstrumentName("EUR/USD");
+        for (int i = 0; i < 100; i++) {
+            price.setTimestamp(i);
+            threadedHub.publish(0, price);
+        }
+        threadedHub.close();
+        release.countDown();
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        for (String deliveryThread : deliveryThreads) {
+            assertTrue(deliveryThread.startsWith("price-subscriber-"));
+        }
+        assertEquals(0L, (long) timestamps.get(0));
+        assertEquals(99L, (long) timestamps.get(timestamps.size() - 1));
+    }
+
+    private void publishTicks(int count) {
+        Price price = new Price();
+        for (int i = 0; i < count; i++) {
+            price.setId(UUID.randomUUID());
+            price.setInstrumentName(INSTRUMENTS[i % INSTRUMENTS.length]);
+            price.setBid(1.1);
+            price.setAsk(1.2);
+            price.setTimestamp(i);
+            hub.publish(i % INSTRUMENTS.length, price);
+        }
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<Price> {
+        private final long initialRequest;
+        private final List<Price> prices = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+
+        private RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(Price price) {
+            prices.add(price.copy());
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
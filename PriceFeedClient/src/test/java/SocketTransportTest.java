@@ -0,0 +1,106 @@
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.service.PriceFeedService;
+import com.santander.pricefeedclient.service.PriceFeedServiceConfig;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.util.BinaryPriceDeserializer;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import com.santander.pricefeedclient.util.PriceDeserializer;
+import com.santander.pricefeedclient.util.PriceDeserializerImpl;
+import com.santander.pricefeedsource.PriceFeedGenerator;
+import com.santander.pricefeedsource.PriceFeedServer;
+import com.santander.pricefeedsource.PriceFeedSource;
+import com.santander.pricefeedsource.WireFormat;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SocketTransportTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final String EURUSD = "EUR/USD";
+    private static final String USDJPY = "USD/JPY";
+
+    @Test
+    public void testReadsTextFeedOverTcp() throws Exception {
+        try (PriceFeedServer server = newServer(WireFormat.CSV)) {
+            PriceFeedService service = newService(new PriceDeserializerImpl(),
+                    new InstrumentRegistry(PriceFeedSource.getCurrencyPairs()), WireFormat.CSV,
+                    tcp(server.bindTcp(loopback())));
+            server.start();
+            service.start().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            Price price = service.awaitInstrument(EURUSD, TIMEOUT);
+            service.stop();
+            assertTrue(price.getBid() < price.getAsk());
+            assertEquals(0, service.getMissedMessages());
+            assertEquals(0, service.getPipelineMetrics().getFailedLines());
+        }
+    }
+
+    @Test
+    public void testReadsBinaryFeedOverTcp() throws Exception {
+        BinaryPriceDeserializer deserializer = new BinaryPriceDeserializer();
+        try (PriceFeedServer server = newServer(WireFormat.BINARY)) {
+            PriceFeedService service = newService(deserializer, deserializer.getInstrumentRegistry(),
+                    WireFormat.BINARY, tcp(server.bindTcp(loopback())));
+            server.start();
+            service.start().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            service.awaitInstrument(EURUSD, TIMEOUT);
+            service.awaitInstrument(USDJPY, TIMEOUT);
+            service.stop();
+            assertEquals(0, service.getMissedMessages());
+            assertEquals(0, service.getPipelineMetrics().getFailedLines());
+            assertTrue(service.getPipelineMetrics().getProcessedLines() > 0);
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void testStopEndsABlockedRead() throws Exception {
+        try (PriceFeedServer server = newServer(WireFormat.CSV)) {
+            // the server is never started, so the subscriber blocks reading the connection
+            PriceFeedService service = newService(new PriceDeserializerImpl(), new InstrumentRegistry(),
+                    WireFormat.CSV, tcp(server.bindTcp(loopback())));
+            service.start();
+            Thread.sleep(100);
+            service.stop();
+            assertTrue(service.getLatestPriceFeedSnapshot().isEmpty());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsTransportWithVenues() {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setVenueCount(2);
+        config.setTransportAddress(URI.create("tcp://localhost:7070"));
+        new PriceFeedService(new PriceDeserializerImpl(), new LatestPriceStore(new InstrumentRegistry()), 0.1,
+                new Random(), config);
+    }
+
+    private static PriceFeedServer newServer(WireFormat wireFormat) {
+        return new PriceFeedServer(new PriceFeedGenerator(42, PriceFeedSource.getCurrencyPairs().length),
+                wireFormat, PriceFeedSource.UNBOUNDED, 10_000);
+    }
+
+    private static PriceFeedService newService(PriceDeserializer deserializer,
+                                               InstrumentRegistry instrumentRegistry, WireFormat wireFormat,
+                                               URI transportAddress) {
+        PriceFeedServiceConfig config = new PriceFeedServiceConfig();
+        config.setWireFormat(wireFormat);
+        config.setTransportAddress(transportAddress);
+        return new PriceFeedService(deserializer, new LatestPriceStore(instrumentRegistry), 0.1, new Random(),
+                config);
+    }
+
+    private static InetSocketAddress loopback() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    private static URI tcp(InetSocketAddress address) {
+        return URI.create("tcp://" + address.getAddress().getHostAddress() + ":" + address.getPort());
+    }
+}
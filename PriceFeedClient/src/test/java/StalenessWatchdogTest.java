@@ -0,0 +1,67 @@
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.store.LatestPriceStore;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import com.santander.pricefeedclient.validation.StalenessWatchdog;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class StalenessWatchdogTest {
+    private static final String EURUSD = "EUR/USD";
+    private static final String GBPUSD = "GBP/USD";
+
+    private final LatestPriceStore store = new LatestPriceStore(new InstrumentRegistry(EURUSD, GBPUSD, "USD/JPY"));
+    private final AtomicLong now = new AtomicLong(10_000);
+    private final StalenessWatchdog watchdog = new StalenessWatchdog(store, 1000, now::get);
+
+    @Test
+    public void testFlagsInstrumentsWithOldPrices() {
+        update(EURUSD, 10_000);
+        update(GBPUSD, 9_500);
+        assertTrue(watchdog.check().isEmpty());
+
+        now.set(10_600);
+        assertEquals(Collections.singleton(GBPUSD), watchdog.check());
+        assertTrue(watchdog.isStale(GBPUSD));
+        assertFalse(watchdog.isStale(EURUSD));
+        assertFalse(watchdog.isStale("USD/JPY"));
+        assertEquals(1, watchdog.getStaleEvents());
+
+        now.set(11_100);
+        assertEquals(2, watchdog.check().size());
+        assertEquals(2, watchdog.getStaleEvents());
+    }
+
+    @Test
+    public void testClearsInstrumentsWhichTickAgain() {
+        update(EURUSD, 10_000);
+        now.set(12_000);
+        assertTrue(watchdog.check().contains(EURUSD));
+        update(EURUSD, 12_000);
+        assertTrue(watchdog.check().isEmpty());
+        assertFalse(watchdog.isStale(EURUSD));
+        assertEquals(1, watchdog.getStaleEvents());
+    }
+
+    @Test
+    public void testChecksFromItsThread() throws InterruptedException {
+        StalenessWatchdog watching = new StalenessWatchdog(store, 20);
+        update(EURUSD, System.currentTimeMillis());
+        watching.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!watching.isStale(EURUSD) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        watching.close();
+        assertTrue(watching.isStale(EURUSD));
+    }
+
+    private void update(String instrumentName, long timestamp) {
+        store.update(new Price(UUID.randomUUID(), instrumentName, 1.1, 1.2, timestamp));
+    }
+}
@@ -0,0 +1,67 @@
+import com.santander.pricefeedclient.util.ThreadMode;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ThreadModeTest {
+    private static final boolean VIRTUAL_THREADS = Runtime.version().feature() >= 21;
+
+    @Test
+    public void testPlatformThreadsAreNamedDaemons() throws Exception {
+        Thread thread = ThreadMode.PLATFORM.newThread("feed", () -> { });
+        assertEquals("feed", thread.getName());
+        assertTrue(thread.isDaemon());
+        assertEquals("pool-0", ThreadMode.PLATFORM.threadFactory("pool-").newThread(() -> { }).getName());
+    }
+
+    @Test
+    public void testVirtualSupportFollowsJavaVersion() {
+        assertTrue(ThreadMode.PLATFORM.isSupported());
+        assertEquals(VIRTUAL_THREADS, ThreadMode.VIRTUAL.isSupported());
+    }
+
+    @Test
+    public void testExecutorsRunTasks() throws Exception {
+        for (ThreadMode threadMode : ThreadMode.values()) {
+            if (!threadMode.isSupported()) {
+                continue;
+            }
+            ExecutorService executor = threadMode.newExecutor("worker-", 2);
+            try {
+                CompletableFuture<String> name = CompletableFuture.supplyAsync(
+                        () -> Thread.currentThread().getName(), executor);
+                assertTrue(name.get(5, TimeUnit.SECONDS).startsWith("worker-"));
+            } finally {
+                executor.shutdown();
+            }
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testVirtualThreadsRunTasks() throws Exception {
+        Assume.assumeTrue(VIRTUAL_THREADS);
+        CompletableFuture<Boolean> daemon = new CompletableFuture<>();
+        Thread thread = ThreadMode.VIRTUAL.newThread("feed", () -> daemon.complete(Thread.currentThread().isDaemon()));
+        thread.start();
+        assertTrue(daemon.get(5, TimeUnit.SECONDS));
+        assertEquals("feed", thread.getName());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testVirtualThreadsAreRejectedBeforeJava21() {
+        Assume.assumeFalse(VIRTUAL_THREADS);
+        ThreadMode.VIRTUAL.newThread("feed", () -> { });
+    }
+
+    @Test
+    public void testParseIgnoresCase() {
+        assertEquals(ThreadMode.VIRTUAL, ThreadMode.parse("virtual"));
+        assertEquals(ThreadMode.PLATFORM, ThreadMode.parse("Platform"));
+    }
+}
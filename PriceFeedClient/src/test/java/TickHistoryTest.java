@@ -0,0 +1,103 @@
+import com.santander.pricefeedclient.history.TickHistory;
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TickHistoryTest {
+    private static final String EURUSD = "EUR/USD";
+    private final InstrumentRegistry instrumentRegistry = new InstrumentRegistry(EURUSD, "GBP/USD");
+    private final TickHistory history = new TickHistory(instrumentRegistry, 4);
+
+    @Test
+    public void testVisitsLatestTicks() {
+        tick(1000, 1.1);
+        tick(2000, 1.2);
+        tick(3000, 1.3);
+        List<double[]> ticks = latestTicks(2);
+        assertEquals(2, ticks.size());
+        assertArrayEquals(new double[]{2000, 1.2, 1.3}, ticks.get(0), 1e-9);
+        assertArrayEquals(new double[]{3000, 1.3, 1.4}, ticks.get(1), 1e-9);
+        assertEquals(3, latestTicks(10).size());
+    }
+
+    @Test
+    public void testKeepsTheLatestTicksOnceFull() {
+        for (int i = 1; i <= 10; i++) {
+            tick(i * 1000L, i);
+        }
+        List<double[]> ticks = latestTicks(10);
+        assertEquals(4, ticks.size());
+        assertEquals(7000, ticks.get(0)[0], 0);
+        assertEquals(10000, ticks.get(3)[0], 0);
+    }
+
+    @Test
+    public void testVisitsTimeRanges() {
+        for (int i = 1; i <= 10; i++) {
+            tick(i * 1000L, i);
+        }
+        List<double[]> ticks = ticks(8000, 10000);
+        assertEquals(2, ticks.size());
+        assertEquals(8000, ticks.get(0)[0], 0);
+        assertEquals(9000, ticks.get(1)[0], 0);
+        assertEquals(2, ticks(8500, Long.MAX_VALUE).size());
+        assertEquals(4, ticks(0, Long.MAX_VALUE).size());
+        assertEquals(0, ticks(10001, Long.MAX_VALUE).size());
+        assertEquals(0, ticks(9000, 9000).size());
+    }
+
+    @Test
+    public void testKeepsTicksOfTheSameTimestamp() {
+        tick(1000, 1.0);
+        tick(2000, 2.0);
+        tick(2000, 3.0);
+        List<double[]> ticks = ticks(2000, 2001);
+        assertEquals(2, ticks.size());
+        assertEquals(2.0, ticks.get(0)[1], 0);
+        assertEquals(3.0, ticks.get(1)[1], 0);
+    }
+
+    @Test
+    public void testDropsLateTicks() {
+        tick(2000, 1.0);
+        tick(1000, 2.0);
+        assertEquals(1, history.getLateTicks());
+        assertEquals(1, latestTicks(10).size());
+    }
+
+    @Test
+    public void testUnknownInstrumentHasNoTicks() {
+        assertEquals(0, history.getLatestTicks("GBP/USD", 10, (timestamp, bid, ask) -> fail()));
+        assertEquals(0, history.getTicks("USD/JPY", 0, Long.MAX_VALUE, (timestamp, bid, ask) -> fail()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInvalidCapacity() {
+        new TickHistory(instrumentRegistry, 0);
+    }
+
+    private void tick(long timestamp, double bid) {
+        history.update(instrumentRegistry.idOf(EURUSD), new Price(null, EURUSD, bid, bid + 0.1, timestamp));
+    }
+
+    private List<double[]> latestTicks(int count) {
+        List<double[]> ticks = new ArrayList<>();
+        int visited = history.getLatestTicks(EURUSD, count,
+                (timestamp, bid, ask) -> ticks.add(new double[]{timestamp, bid, ask}));
+        assertEquals(ticks.size(), visited);
+        return ticks;
+    }
+
+    private List<double[]> ticks(long fromMillis, long toMillis) {
+        List<double[]> ticks = new ArrayList<>();
+        int visited = history.getTicks(EURUSD, fromMillis, toMillis,
+                (timestamp, bid, ask) -> ticks.add(new double[]{timestamp, bid, ask}));
+        assertEquals(ticks.size(), visited);
+        return ticks;
+    }
+}
@@ -0,0 +1,97 @@
+import com.santander.pricefeedclient.journal.TickJournal;
+import com.santander.pricefeedclient.model.Price;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class TickJournalTest {
+    private static final String[] INSTRUMENTS = {"EUR/USD", "GBP/USD", "USD/JPY"};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Map<String, Price> latestPrices = new HashMap<>();
+
+    @Test
+    public void testReplayRestoresLatestPrices() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        try (TickJournal journal = newJournal(directory, 1024 * 1024)) {
+            appendTicks(journal, 0, 300);
+        }
+        assertEquals(latestPrices, TickJournal.replay(directory));
+    }
+
+    @Test
+    public void testReplayAcrossRolloversOnlyKeepsRetainedSegments() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        try (TickJournal journal = newJournal(directory, 16 * TickJournal.RECORD_SIZE)) {
+            appendTicks(journal, 0, 1000);
+            assertTrue(journal.getSegmentNumber() > 3);
+        }
+        assertEquals(3, segmentCount(directory));
+        assertEquals(latestPrices, TickJournal.replay(directory));
+    }
+
+    @Test
+    public void testReopenedJournalCheckpointsReplayedPrices() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        try (TickJournal journal = newJournal(directory, 16 * TickJournal.RECORD_SIZE)) {
+            appendTicks(journal, 0, 100);
+        }
+        for (int restart = 0; restart < 5; restart++) {
+            Map<String, Price> replayed = TickJournal.replay(directory);
+            assertEquals(latestPrices, replayed);
+            new TickJournal(directory, 16 * TickJournal.RECORD_SIZE, 3, replayed::values).close();
+        }
+        assertEquals(latestPrices, TickJournal.replay(directory));
+    }
+
+    @Test
+    public void testRejectsLongInstrumentNames() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        try (TickJournal journal = newJournal(directory, 1024)) {
+            assertFalse(journal.append(new Price(UUID.randomUUID(), "A VERY LONG INSTRUMENT NAME", 1, 2, 3)));
+        }
+        assertTrue(TickJournal.replay(directory).isEmpty());
+    }
+
+    @Test
+    public void testReplayOfMissingDirectoryIsEmpty() throws IOException {
+        assertTrue(TickJournal.replay(folder.getRoot().toPath().resolve("missing")).isEmpty());
+    }
+
+    private TickJournal newJournal(Path directory, int segmentSize) throws IOException {
+        return new TickJournal(directory, segmentSize, 3, this::checkpoint);
+    }
+
+    private Collection<Price> checkpoint() {
+        return Collections.unmodifiableCollection(latestPrices.values());
+    }
+
+    private void appendTicks(TickJournal journal, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Price price = new Price(UUID.randomUUID(), INSTRUMENTS[i % INSTRUMENTS.length], 1 + i / 1000.0,
+                    1.1 + i / 1000.0, 1_700_000_000_000L + i);
+            assertTrue(journal.append(price));
+            latestPrices.put(price.getInstrumentName(), price);
+        }
+    }
+
+    private static long segmentCount(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.count();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+import com.santander.pricefeedclient.model.Price;
+import com.santander.pricefeedclient.util.InstrumentRegistry;
+import com.santander.pricefeedclient.validation.QuarantinedTick;
+import com.santander.pricefeedclient.validation.TickQuarantine;
+import com.santander.pricefeedclient.validation.TickRejection;
+import com.santander.pricefeedclient.validation.TickValidator;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class TickValidatorTest {
+    private static final String EURUSD = "EUR/USD";
+    private static final String GBPUSD = "GBP/USD";
+    private static final long NOW = 1_000_000;
+
+    private final InstrumentRegistry instrumentRegistry = new InstrumentRegistry(EURUSD, GBPUSD);
+    private final TickQuarantine quarantine = new TickQuarantine(2);
+    private final TickValidator validator = new TickValidator(quarantine, 0, () -> NOW);
+
+    @Test
+    public void testAcceptsValidTicks() {
+        assertTrue(validator.validate(tick(EURUSD, 1.1, 1.2, NOW)));
+        assertTrue(validator.validate(tick(EURUSD, 1.2, 1.2, NOW)));
+        assertTrue(validator.validate(tick(EURUSD, 1.1, 1.2, NOW + 1)));
+        assertEquals(0, quarantine.getRejectedTicks());
+        assertTrue(quarantine.getQuarantinedTicks().isEmpty());
+    }
+
+    @Test
+    public void testRejectsInvalidPrices() {
+        assertFalse(validator.validate(tick(EURUSD, 0, 1.2, NOW)));
+        assertFalse(validator.validate(tick(EURUSD, 1.1, Double.NaN, NOW)));
+        assertFalse(validator.validate(tick(EURUSD, 1.1, Double.POSITIVE_INFINITY, NOW)));
+        assertEquals(3, quarantine.getRejectedTicks(TickRejection.INVALID_PRICE));
+    }
+
+    @Test
+    public void testRejectsCrossedTicks() {
+        assertFalse(validator.validate(tick(EURUSD, 1.3, 1.2, NOW)));
+        assertEquals(1, quarantine.getRejectedTicks(TickRejection.CROSSED));
+        QuarantinedTick quarantined = quarantine.getQuarantinedTicks().get(0);
+        assertEquals(TickRejection.CROSSED, quarantined.getReason());
+        assertEquals(1.3, quarantined.getPrice().getBid(), 0);
+        assertEquals(NOW, quarantined.getRejectedAtMillis());
+    }
+
+    @Test
+    public void testRejectsOutOfOrderTicksPerInstrument() {
+        assertTrue(validator.validate(tick(EURUSD, 1.1, 1.2, NOW)));
+        assertFalse(validator.validate(tick(EURUSD, 1.1, 1.2, NOW - 1)));
+        assertTrue(validator.validate(tick(GBPUSD, 1.3, 1.4, NOW - 1)));
+        assertTrue(validator.validate(tick(EURUSD, 1.1, 1.2, NOW)));
+        assertEquals(1, quarantine.getRejectedTicks(TickRejection.OUT_OF_ORDER));
+    }
+
+    @Test
+    public void testChecksTicksOfUnregisteredInstrumentsWithoutOrdering() {
+        Price unregistered = new Price(UUID.randomUUID(), "USD/JPY", 150.1, 150.2, NOW);
+        assertTrue(validator.validate(unregistered));
+        unregistered.setTimestamp(NOW - 1);
+        assertTrue(validator.validate(unregistered));
+        unregistered.setBid(150.3);
+        assertFalse(validator.validate(unregistered));
+        assertEquals(1, quarantine.getRejectedTicks(TickRejection.CROSSED));
+        assertTrue(validator.validate(tick("USD/JPY", 150.1, 150.2, NOW - 1)));
+    }
+
+    @Test
+    public void testRejectsStaleTicks() {
+        TickValidator staleValidator = new TickValidator(quarantine, 100, () -> NOW);
+        assertTrue(staleValidator.validate(tick(EURUSD, 1.1, 1.2, NOW - 100)));
+        assertFalse(staleValidator.validate(tick(GBPUSD, 1.1, 1.2, NOW - 101)));
+        assertEquals(1, quarantine.getRejectedTicks(TickRejection.STALE));
+        // a stale tick does not move the latest timestamp of its instrument
+        assertTrue(staleValidator.validate(tick(GBPUSD, 1.1, 1.2, NOW - 50)));
+    }
+
+    @Test
+    public void testKeepsTheLatestRejectedTicks() {
+        for (int i = 0; i < 5; i++) {
+            validator.validate(tick(EURUSD, 2 + i, 1, NOW));
+        }
+        assertEquals(5, quarantine.getRejectedTicks());
+        List<QuarantinedTick> ticks = quarantine.getQuarantinedTicks();
+        assertEquals(2, ticks.size());
+        assertEquals(5, ticks.get(0).getPrice().getBid(), 0);
+        assertEquals(6, ticks.get(1).getPrice().getBid(), 0);
+    }
+
+    @Test
+    public void testQuarantinesMalformedLines() {
+        validator.rejectMalformed("EUR/USD,1.1");
+        assertEquals(1, quarantine.getRejectedTicks(TickRejection.MALFORMED));
+        QuarantinedTick quarantined = quarantine.getQuarantinedTicks().get(0);
+        assertEquals(TickRejection.MALFORMED, quarantined.getReason());
+        assertEquals("EUR/USD,1.1", quarantined.getLine());
+        assertNull(quarantined.getPrice());
+        assertFalse(validator.validate(tick(EURUSD, 1.3, 1.2, NOW)));
+        assertNull(quarantine.getQuarantinedTicks().get(1).getLine());
+    }
+
+    @Test
+    public void testOnlyCountsWithoutCapacity() {
+        TickQuarantine counter = new TickQuarantine(0);
+        assertFalse(new TickValidator(counter, 0).validate(tick(EURUSD, 1.3, 1.2, NOW)));
+        assertEquals(1, counter.getRejectedTicks(TickRejection.CROSSED));
+        assertTrue(counter.getQuarantinedTicks().isEmpty());
+    }
+
+    @Test
+    public void testValidatesManyInstruments() {
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(validator.validate(tick("PAIR" + i, 1.1, 1.2, NOW)));
+        }
+        assertFalse(validator.validate(tick("PAIR999", 1.1, 1.2, NOW - 1)));
+    }
+
+    private Price tick(String instrumentName, double bid, double ask, long timestamp) {
+        Price price = new Price(UUID.randomUUID(), instrumentName, bid, ask, timestamp);
+        price.setInstrument(instrumentRegistry.register(instrumentName), instrumentName);
+        return price;
+    }
+}
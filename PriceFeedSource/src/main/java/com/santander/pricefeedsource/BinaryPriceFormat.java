@@ -0,0 +1,85 @@
+package com.santander.pricefeedsource;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The layout of the binary price records of the {@link WireFormat#BINARY} wire format.
+ * <p>
+ * A message is a sequence of fixed-width, big-endian records:
+ * <pre>
+ * offset  size  field
+ *      0     8  most significant bits of the UUID
+ *      8     8  least significant bits of the UUID
+ *     16     4  instrument id, the index of the instrument in the instrument universe of the feed
+ *     20     8  bid, scaled by {@link #PRICE_SCALE}
+ *     28     8  ask, scaled by {@link #PRICE_SCALE}
+ *     36     8  timestamp, in milliseconds
+ * </pre>
+ */
+public final class BinaryPriceFormat {
+
+    /**
+     * The offset of the most significant bits of the UUID.
+     */
+    public static final int ID_MOST_SIG_BITS_OFFSET = 0;
+
+    /**
+     * The offset of the least significant bits of the UUID.
+     */
+    public static final int ID_LEAST_SIG_BITS_OFFSET = 8;
+
+    /**
+     * The offset of the instrument id.
+     */
+    public static final int INSTRUMENT_OFFSET = 16;
+
+    /**
+     * The offset of the scaled bid.
+     */
+    public static final int BID_OFFSET = 20;
+
+    /**
+     * The offset of the scaled ask.
+     */
+    public static final int ASK_OFFSET = 28;
+
+    /**
+     * The offset of the timestamp.
+     */
+    public static final int TIMESTAMP_OFFSET = 36;
+
+    /**
+     * The size of a record, in bytes.
+     */
+    public static final int RECORD_SIZE = 44;
+
+    /**
+     * The scale of the fixed-point prices: a price of 1.2345 is encoded as 12345.
+     */
+    public static final long PRICE_SCALE = 10_000L;
+
+    private BinaryPriceFormat() {
+    }
+
+    /**
+     * Writes a record at the position of the given buffer and advances the position past it.
+     *
+     * @param out the buffer receiving the record
+     * @param idMostSigBits the most significant bits of the UUID
+     * @param idLeastSigBits the least significant bits of the UUID
+     * @param instrumentId the index of the instrument in the instrument universe of the feed
+     * @param scaledBid the bid, scaled by {@link #PRICE_SCALE}
+     * @param scaledAsk the ask, scaled by {@link #PRICE_SCALE}
+     * @param timestamp the timestamp, in milliseconds
+     * @throws java.nio.BufferOverflowException if fewer than {@link #RECORD_SIZE} bytes remain in the buffer
+     */
+    public static void encode(ByteBuffer out, long idMostSigBits, long idLeastSigBits, int instrumentId,
+                              long scaledBid, long scaledAsk, long timestamp) {
+        out.putLong(idMostSigBits)
+                .putLong(idLeastSigBits)
+                .putInt(instrumentId)
+                .putLong(scaledBid)
+                .putLong(scaledAsk)
+                .putLong(timestamp);
+    }
+}
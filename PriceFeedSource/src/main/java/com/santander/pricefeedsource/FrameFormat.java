@@ -0,0 +1,63 @@
+package com.santander.pricefeedsource;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The layout of the frames carrying the price feed messages over a socket, see {@link PriceFeedServer}.
+ * <p>
+ * Every message, in either {@link WireFormat}, is preceded by a fixed-width, big-endian header:
+ * <pre>
+ * offset  size  field
+ *      0     4  length of the message, in bytes, excluding the header
+ *      4     8  sequence number of the message, incremented by one for every message of the feed
+ * </pre>
+ * Over TCP the frames follow each other in the stream; over UDP every datagram carries exactly one frame. A receiver
+ * detects the messages it missed from the gaps in the sequence numbers.
+ */
+public final class FrameFormat {
+
+    /**
+     * The offset of the length of the message.
+     */
+    public static final int LENGTH_OFFSET = 0;
+
+    /**
+     * The offset of the sequence number.
+     */
+    public static final int SEQUENCE_OFFSET = 4;
+
+    /**
+     * The size of the header, in bytes.
+     */
+    public static final int HEADER_SIZE = 12;
+
+    /**
+     * The maximum length of a message, so that a whole frame fits in a UDP datagram.
+     */
+    public static final int MAX_MESSAGE_SIZE = 65_507 - HEADER_SIZE;
+
+    /**
+     * The maximum length of a line of a {@link WireFormat#CSV} message, including its newline, which bounds the number
+     * of lines a message may hold.
+     */
+    public static final int MAX_TEXT_LINE_LENGTH = 96;
+
+    private FrameFormat() {
+    }
+
+    /**
+     * Writes a header at the position of the given buffer and advances the position past it.
+     *
+     * @param out the buffer receiving the header
+     * @param messageLength the length of the message following the header, in bytes
+     * @param sequence the sequence number of the message
+     * @throws IllegalArgumentException if the length is negative or above {@link #MAX_MESSAGE_SIZE}
+     * @throws java.nio.BufferOverflowException if fewer than {@link #HEADER_SIZE} bytes remain in the buffer
+     */
+    public static void encodeHeader(ByteBuffer out, int messageLength, long sequence) {
+        if (messageLength < 0 || messageLength > MAX_MESSAGE_SIZE) {
+            throw new IllegalArgumentException("Invalid message length: " + messageLength);
+        }
+        out.putInt(messageLength).putLong(sequence);
+    }
+}
@@ -0,0 +1,303 @@
+package com.santander.pricefeedsource;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * A fast, reproducible generator of price feed messages in the format UUID,CURRENCY_PAIR,BID,ASK,TIMESTAMP.
+ * <p>
+ * Unlike {@link PriceFeedSource#generateMessage()} it does not use {@code String.format}, {@code UUID.randomUUID()}
+ * or a shared {@code Random}: ids and prices are drawn from a seeded {@link SplittableRandom}, prices are generated
+ * as fixed-point numbers of four decimals and every message is formatted by hand into a reusable buffer. Two
+ * generators with the same seed, instrument count and clock produce the same messages. Messages can also be
+ * produced in the {@link WireFormat#BINARY} wire format, where instruments are identified by their index in
+ * {@link #getInstruments()}.
+ * <p>
+ * A generator is not thread-safe; use {@link #split()} to get an independent generator for another thread.
+ */
+public class PriceFeedGenerator {
+
+    /**
+     * The number of decimals of the generated prices.
+     */
+    public static final int PRICE_DECIMALS = 4;
+
+    private static final int PRICE_SCALE = (int) BinaryPriceFormat.PRICE_SCALE;
+    private static final int MIN_BID = PRICE_SCALE;
+    private static final int BID_RANGE = 2 * PRICE_SCALE;
+    private static final int SPREAD_RANGE = PRICE_SCALE / 200;
+    private static final int MAX_LINE_LENGTH = FrameFormat.MAX_TEXT_LINE_LENGTH;
+    private static final int CODE_LENGTH = 3;
+    private static final int LETTERS = 26;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final SplittableRandom random;
+    private final String[] instruments;
+    private final int maxLinesPerMessage;
+    private final LongSupplier clock;
+    private final char[] buffer;
+
+    private long tickIdMostSigBits;
+    private long tickIdLeastSigBits;
+    private int tickInstrument;
+    private int tickBid;
+    private int tickAsk;
+
+    /**
+     * Creates a new generator publishing prices for {@code instrumentCount} instruments, timestamped with the
+     * system clock, with up to 5 lines per message.
+     *
+     * @param seed the seed of the random number generator
+     * @param instrumentCount the size of the instrument universe
+     */
+    public PriceFeedGenerator(long seed, int instrumentCount) {
+        this(seed, instrumentCount, 5, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a new generator.
+     *
+     * @param seed the seed of the random number generator
+     * @param instrumentCount the size of the instrument universe; the first instruments are the currency pairs of
+     *                        {@link PriceFeedSource}, followed by synthetic pairs
+     * @param maxLinesPerMessage the maximum number of lines of a message, the actual number being random
+     * @param clock the source of the timestamps, in milliseconds
+     */
+    public PriceFeedGenerator(long seed, int instrumentCount, int maxLinesPerMessage, LongSupplier clock) {
+        this(new SplittableRandom(seed), instruments(instrumentCount), maxLinesPerMessage, clock);
+    }
+
+    private PriceFeedGenerator(SplittableRandom random, String[] instruments, int maxLinesPerMessage,
+                               LongSupplier clock) {
+        if (maxLinesPerMessage <= 0) {
+            throw new IllegalArgumentException("Max lines per message must be positive: " + maxLinesPerMessage);
+        }
+        this.random = random;
+        this.instruments = instruments;
+        this.maxLinesPerMessage = maxLinesPerMessage;
+        this.clock = clock;
+        this.buffer = new char[maxLinesPerMessage * MAX_LINE_LENGTH];
+    }
+
+    /**
+     * Returns a new generator for the same instruments, lines per message and clock, whose random sequence is
+     * derived from, and independent of, the sequence of this generator.
+     *
+     * @return a new generator to be used by another thread
+     */
+    public PriceFeedGenerator split() {
+        return new PriceFeedGenerator(random.split(), instruments, maxLinesPerMessage, clock);
+    }
+
+    /**
+     * Returns the instruments this generator publishes prices for.
+     *
+     * @return a copy of the instrument universe
+     */
+    public String[] getInstruments() {
+        return instruments.clone();
+    }
+
+    /**
+     * Generates the next message.
+     *
+     * @return a message of newline-terminated price lines
+     */
+    public String nextMessage() {
+        return new String(buffer, 0, writeMessage());
+    }
+
+    /**
+     * Generates the next message and appends it to the given builder, which callers can reuse to avoid allocating.
+     *
+     * @param message the builder receiving the message
+     * @return the given builder
+     */
+    public StringBuilder appendMessage(StringBuilder message) {
+        return message.append(buffer, 0, writeMessage());
+    }
+
+    /**
+     * Generates the next message, as US-ASCII bytes, at the position of the given buffer, which callers can reuse to
+     * avoid allocating.
+     *
+     * @param message the buffer receiving the message, with room for {@link #getMaxLinesPerMessage()} lines of
+     *                {@link FrameFormat#MAX_TEXT_LINE_LENGTH} bytes
+     * @return the number of bytes written
+     */
+    public int writeTextMessage(ByteBuffer message) {
+        int length = writeMessage();
+        for (int i = 0; i < length; i++) {
+            message.put((byte) buffer[i]);
+        }
+        return length;
+    }
+
+    /**
+     * Generates the next message in the {@link WireFormat#BINARY} wire format.
+     *
+     * @return a new buffer holding the records of the message, ready to be read
+     */
+    public ByteBuffer nextBinaryMessage() {
+        int linesCount = random.nextInt(maxLinesPerMessage) + 1;
+        ByteBuffer message = ByteBuffer.allocate(linesCount * BinaryPriceFormat.RECORD_SIZE);
+        writeBinaryRecords(message, linesCount);
+        return message.flip();
+    }
+
+    /**
+     * Generates the next message in the {@link WireFormat#BINARY} wire format at the position of the given buffer,
+     * which callers can reuse to avoid allocating.
+     *
+     * @param message the buffer receiving the records, with room for {@link #getMaxLinesPerMessage()} records
+     * @return the number of records written
+     */
+    public int writeBinaryMessage(ByteBuffer message) {
+        int linesCount = random.nextInt(maxLinesPerMessage) + 1;
+        writeBinaryRecords(message, linesCount);
+        return linesCount;
+    }
+
+    /**
+     * Returns the maximum number of lines, or records, of a message.
+     *
+     * @return the maximum number of lines of a message
+     */
+    public int getMaxLinesPerMessage() {
+        return maxLinesPerMessage;
+    }
+
+    private void writeBinaryRecords(ByteBuffer message, int linesCount) {
+        long timestamp = clock.getAsLong();
+        for (int i = 0; i < linesCount; i++) {
+            nextTick();
+            BinaryPriceFormat.encode(message, tickIdMostSigBits, tickIdLeastSigBits, tickInstrument, tickBid,
+                    tickAsk, timestamp);
+        }
+    }
+
+    /**
+     * Formats the next message into the buffer.
+     *
+     * @return the length of the message
+     */
+    private int writeMessage() {
+        int linesCount = random.nextInt(maxLinesPerMessage) + 1;
+        long timestamp = clock.getAsLong();
+        int position = 0;
+        for (int i = 0; i < linesCount; i++) {
+            nextTick();
+            position = writeLine(position, timestamp);
+            buffer[position++] = '\n';
+        }
+        return position;
+    }
+
+    /**
+     * Draws the attributes of the next tick, shared by both wire formats so they carry the same ticks.
+     */
+    private void nextTick() {
+        tickIdMostSigBits = random.nextLong() & ~0xF000L | 0x4000L;
+        tickIdLeastSigBits = random.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        tickInstrument = random.nextInt(instruments.length);
+        tickBid = MIN_BID + random.nextInt(BID_RANGE);
+        tickAsk = tickBid + random.nextInt(SPREAD_RANGE);
+    }
+
+    private int writeLine(int position, long timestamp) {
+        String instrument = instruments[tickInstrument];
+        position = writeHex(tickIdMostSigBits >>> 32, 8, position);
+        buffer[position++] = '-';
+        position = writeHex(tickIdMostSigBits >>> 16, 4, position);
+        buffer[position++] = '-';
+        position = writeHex(tickIdMostSigBits, 4, position);
+        buffer[position++] = '-';
+        position = writeHex(tickIdLeastSigBits >>> 48, 4, position);
+        buffer[position++] = '-';
+        position = writeHex(tickIdLeastSigBits, 12, position);
+        buffer[position++] = ',';
+        instrument.getChars(0, instrument.length(), buffer, position);
+        position += instrument.length();
+        buffer[position++] = ',';
+        position = writePrice(tickBid, position);
+        buffer[position++] = ',';
+        position = writePrice(tickAsk, position);
+        buffer[position++] = ',';
+        return writeLong(timestamp, position);
+    }
+
+    private int writeHex(long value, int digits, int position) {
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[position + i] = HEX_DIGITS[(int) value & 0xF];
+            value >>>= 4;
+        }
+        return position + digits;
+    }
+
+    private int writePrice(int scaledPrice, int position) {
+        position = writeLong(scaledPrice / PRICE_SCALE, position);
+        buffer[position++] = '.';
+        int fraction = scaledPrice % PRICE_SCALE;
+        for (int i = PRICE_DECIMALS - 1; i >= 0; i--) {
+            buffer[position + i] = (char) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        return position + PRICE_DECIMALS;
+    }
+
+    private int writeLong(long value, int position) {
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[position + i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + digits;
+    }
+
+    /**
+     * Returns the currency pairs of {@link PriceFeedSource} followed by distinct synthetic pairs, up to the count.
+     */
+    private static String[] instruments(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Instrument count must be positive: " + count);
+        }
+        String[] currencyPairs = PriceFeedSource.getCurrencyPairs();
+        String[] instruments = new String[count];
+        Set<String> used = new HashSet<>();
+        int size = 0;
+        for (; size < Math.min(count, currencyPairs.length); size++) {
+            instruments[size] = currencyPairs[size];
+            used.add(currencyPairs[size]);
+        }
+        for (int index = 0; size < count; index++) {
+            String instrument = syntheticPair(index);
+            if (used.add(instrument)) {
+                instruments[size++] = instrument;
+            }
+        }
+        return instruments;
+    }
+
+    private static String syntheticPair(int index) {
+        char[] pair = new char[2 * CODE_LENGTH + 1];
+        pair[CODE_LENGTH] = '/';
+        int value = index;
+        for (int i = pair.length - 1; i >= 0; i--) {
+            if (i != CODE_LENGTH) {
+                pair[i] = (char) ('A' + value % LETTERS);
+                value /= LETTERS;
+            }
+        }
+        return new String(pair);
+    }
+}
@@ -0,0 +1,355 @@
+package com.santander.pricefeedsource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the messages of a {@link PriceFeedGenerator} over the network, for clients running in other processes.
+ * <p>
+ * Every message is sent as a frame, see {@link FrameFormat}, to the TCP clients connected to the endpoint opened by
+ * {@link #bindTcp(InetSocketAddress)}, and as a datagram to the UDP targets added by
+ * {@link #addDatagramTarget(InetSocketAddress)}, unicast or multicast. Messages are generated straight into a reused
+ * direct buffer, and the header and the message of a frame are sent with a single gathering write, without being
+ * copied together.
+ * <p>
+ * A single thread generates and sends the messages, so a slow client must not hold back the others: the TCP clients
+ * are written to without blocking, and a client whose socket buffer is full is sent the rest of its current frame
+ * before any new one, the frames generated in the meantime being dropped for it and counted. Clients see the dropped
+ * frames, as well as the datagrams lost by the network, as gaps in the sequence numbers. Once the message limit is
+ * reached, the TCP connections are closed, which ends the feed of their clients.
+ */
+public class PriceFeedServer implements AutoCloseable {
+
+    /**
+     * The system property setting the TCP port of {@link #main(String[])}.
+     */
+    public static final String TCP_PORT_PROPERTY = "pricefeed.server.tcpPort";
+
+    /**
+     * The system property setting the UDP target of {@link #main(String[])}, as {@code host:port}.
+     */
+    public static final String UDP_TARGET_PROPERTY = "pricefeed.server.udpTarget";
+
+    /**
+     * The system property setting the message rate of {@link #main(String[])}.
+     */
+    public static final String MESSAGES_PER_SECOND_PROPERTY = "pricefeed.server.messagesPerSecond";
+
+    private final PriceFeedGenerator generator;
+    private final WireFormat wireFormat;
+    private final long messageLimit;
+    private final long messagesPerSecond;
+    private final ByteBuffer header = ByteBuffer.allocateDirect(FrameFormat.HEADER_SIZE);
+    private final ByteBuffer message = ByteBuffer.allocateDirect(FrameFormat.MAX_MESSAGE_SIZE);
+    private final ByteBuffer[] frame = {header, message};
+    private final List<Client> clients = new ArrayList<>();
+    private final List<DatagramChannel> datagramChannels = new ArrayList<>();
+    private final AtomicLong sentFrames = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new server, which publishes nothing until {@link #start()} is called.
+     *
+     * @param generator the generator of the messages, only used by the thread of the server
+     * @param wireFormat the encoding of the messages
+     * @param messageLimit the number of messages to publish, or {@link PriceFeedSource#UNBOUNDED}
+     * @param messagesPerSecond the target message rate, or {@link PriceFeedSource#UNTHROTTLED}
+     * @throws IllegalArgumentException if a message of the generator may not fit in a frame
+     */
+    public PriceFeedServer(PriceFeedGenerator generator, WireFormat wireFormat, long messageLimit,
+                           long messagesPerSecond) {
+        int recordSize = wireFormat == WireFormat.BINARY ? BinaryPriceFormat.RECORD_SIZE
+                : FrameFormat.MAX_TEXT_LINE_LENGTH;
+        if ((long) generator.getMaxLinesPerMessage() * recordSize > FrameFormat.MAX_MESSAGE_SIZE) {
+            throw new IllegalArgumentException("Messages of " + generator.getMaxLinesPerMessage()
+                    + " lines may not fit in a frame");
+        }
+        this.generator = generator;
+        this.wireFormat = wireFormat;
+        this.messageLimit = messageLimit;
+        this.messagesPerSecond = messagesPerSecond;
+    }
+
+    /**
+     * Opens the TCP endpoint of the feed. Clients connecting before {@link #start()} receive the feed from its first
+     * message.
+     *
+     * @param address the address to listen to, with port 0 for an ephemeral port
+     * @return the bound address
+     * @throws IOException if the endpoint cannot be opened
+     * @throws IllegalStateException if the endpoint is already open or the server was started
+     */
+    public synchronized InetSocketAddress bindTcp(InetSocketAddress address) throws IOException {
+        if (serverChannel != null || thread != null) {
+            throw new IllegalStateException("The TCP endpoint must be opened once, before the server is started");
+        }
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+            channel.bind(address);
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        serverChannel = channel;
+        return (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    /**
+     * Adds a UDP target receiving every frame as a datagram.
+     *
+     * @param target a unicast address or a multicast group, with its port
+     * @throws IOException if the datagram channel cannot be opened
+     * @throws IllegalStateException if the server was started
+     */
+    public synchronized void addDatagramTarget(InetSocketAddress target) throws IOException {
+        if (thread != null) {
+            throw new IllegalStateException("Datagram targets must be added before the server is started");
+        }
+        DatagramChannel channel = DatagramChannel.open();
+        try {
+            channel.connect(target);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        datagramChannels.add(channel);
+    }
+
+    /**
+     * Starts the thread publishing the feed.
+     *
+     * @throws IllegalStateException if the server was started or closed
+     */
+    public synchronized void start() {
+        if (thread != null || closed) {
+            throw new IllegalStateException("The price feed server can only be started once");
+        }
+        thread = new Thread(this::run, "price-feed-server");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns the number of frames sent so far, once per message whatever the number of clients.
+     *
+     * @return the number of sent frames
+     */
+    public long getSentFrames() {
+        return sentFrames.get();
+    }
+
+    /**
+     * Returns the number of frames dropped for TCP clients which could not keep up with the feed.
+     *
+     * @return the number of dropped frames, counted once per client
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    /**
+     * Waits for the thread of the server to publish its last message and close the connections.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitTermination() throws InterruptedException {
+        Thread serverThread;
+        synchronized (this) {
+            serverThread = thread;
+        }
+        if (serverThread != null) {
+            serverThread.join();
+        }
+    }
+
+    /**
+     * Stops publishing, closes the connections and the endpoints, and waits for the thread of the server.
+     *
+     * @throws InterruptedException if interrupted while waiting for the thread of the server
+     */
+    @Override
+    public void close() throws InterruptedException {
+        Thread serverThread;
+        synchronized (this) {
+            closed = true;
+            serverThread = thread;
+        }
+        if (serverThread != null) {
+            serverThread.join();
+        } else {
+            closeChannels();
+        }
+    }
+
+    private void run() {
+        double nanosPerMessage = messagesPerSecond == PriceFeedSource.UNTHROTTLED ? 0 : 1e9 / messagesPerSecond;
+        long startNanos = System.nanoTime();
+        try {
+            for (long sequence = 0; !closed && (messageLimit == PriceFeedSource.UNBOUNDED || sequence < messageLimit);
+                 sequence++) {
+                if (nanosPerMessage > 0) {
+                    PriceFeedSource.awaitNanos(startNanos + (long) (sequence * nanosPerMessage));
+                }
+                acceptClients();
+                message.clear();
+                if (wireFormat == WireFormat.BINARY) {
+                    generator.writeBinaryMessage(message);
+                } else {
+                    generator.writeTextMessage(message);
+                }
+                message.flip();
+                header.clear();
+                FrameFormat.encodeHeader(header, message.remaining(), sequence);
+                header.flip();
+                sendToClients();
+                sendToDatagramTargets();
+                sentFrames.lazySet(sequence + 1);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            closeChannels();
+        }
+    }
+
+    private void acceptClients() throws IOException {
+        if (serverChannel == null) {
+            return;
+        }
+        for (SocketChannel channel = serverChannel.accept(); channel != null; channel = serverChannel.accept()) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            clients.add(new Client(channel));
+        }
+    }
+
+    private void sendToClients() {
+        for (Iterator<Client> iterator = clients.iterator(); iterator.hasNext(); ) {
+            Client client = iterator.next();
+            try {
+                if (!client.send()) {
+                    droppedFrames.lazySet(droppedFrames.get() + 1);
+                }
+            } catch (IOException e) {
+                // the client disconnected
+                client.close();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void sendToDatagramTargets() {
+        for (DatagramChannel channel : datagramChannels) {
+            header.rewind();
+            message.rewind();
+            try {
+                channel.write(frame);
+            } catch (IOException e) {
+                // datagrams are best effort, e.g. a unicast target may not be listening yet
+            }
+        }
+    }
+
+    private void closeChannels() {
+        for (Client client : clients) {
+            client.close();
+        }
+        clients.clear();
+        closeQuietly(serverChannel);
+        for (DatagramChannel channel : datagramChannels) {
+            closeQuietly(channel);
+        }
+        datagramChannels.clear();
+    }
+
+    private static void closeQuietly(Channel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // nothing left to release
+        }
+    }
+
+    /**
+     * A connected TCP client, with the rest of the frame its socket buffer had no room for.
+     */
+    private final class Client {
+        private final SocketChannel channel;
+        private final ByteBuffer pending = ByteBuffer.allocate(FrameFormat.HEADER_SIZE + FrameFormat.MAX_MESSAGE_SIZE);
+
+        private Client(SocketChannel channel) {
+            this.channel = channel;
+            pending.flip();
+        }
+
+        /**
+         * Sends the current frame, unless the rest of a previous frame cannot be sent first.
+         *
+         * @return false if the frame was dropped
+         */
+        private boolean send() throws IOException {
+            if (pending.hasRemaining()) {
+                channel.write(pending);
+                if (pending.hasRemaining()) {
+                    return false;
+                }
+            }
+            header.rewind();
+            message.rewind();
+            channel.write(frame);
+            if (header.hasRemaining() || message.hasRemaining()) {
+                pending.clear();
+                pending.put(header).put(message).flip();
+            }
+            return true;
+        }
+
+        private void close() {
+            closeQuietly(channel);
+        }
+    }
+
+    /**
+     * Runs a server publishing the feed of the currency pairs of {@link PriceFeedSource}, in the wire format selected
+     * by {@value WireFormat#WIRE_FORMAT_PROPERTY}, on the TCP port set by {@value #TCP_PORT_PROPERTY} (7070 by
+     * default) and to the optional UDP target set by {@value #UDP_TARGET_PROPERTY}, at the rate set by
+     * {@value #MESSAGES_PER_SECOND_PROPERTY} (1000 by default), until the process is terminated.
+     *
+     * @param args ignored
+     * @throws Exception if the endpoints cannot be opened
+     */
+    public static void main(String[] args) throws Exception {
+        PriceFeedServer server = new PriceFeedServer(
+                new PriceFeedGenerator(System.nanoTime(), PriceFeedSource.getCurrencyPairs().length),
+                WireFormat.fromSystemProperties(), PriceFeedSource.UNBOUNDED,
+                Long.getLong(MESSAGES_PER_SECOND_PROPERTY, 1000));
+        InetSocketAddress address = server.bindTcp(new InetSocketAddress(Integer.getInteger(TCP_PORT_PROPERTY, 7070)));
+        String udpTarget = System.getProperty(UDP_TARGET_PROPERTY);
+        if (udpTarget != null) {
+            int separator = udpTarget.lastIndexOf(':');
+            server.addDatagramTarget(new InetSocketAddress(udpTarget.substring(0, separator),
+                    Integer.parseInt(udpTarget.substring(separator + 1))));
+        }
+        server.start();
+        System.out.println("Publishing prices on " + address + (udpTarget != null ? " and to " + udpTarget : ""));
+        server.awaitTermination();
+    }
+}
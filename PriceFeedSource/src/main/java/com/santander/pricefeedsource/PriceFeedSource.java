@@ -1,10 +1,12 @@
 package com.santander.pricefeedsource;
 
+import java.nio.ByteBuffer;
 import java.util.Queue;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Stream;
 
@@ -21,11 +23,22 @@ import java.util.stream.Stream;
  */
 public class PriceFeedSource {
 
+    /**
+     * The message limit of an infinite stream, see {@link #runPriceFeed(PriceFeedGenerator, long, long)}.
+     */
+    public static final long UNBOUNDED = -1;
+
+    /**
+     * The message rate of a stream which is not paced, see {@link #runPriceFeed(PriceFeedGenerator, long, long)}.
+     */
+    public static final long UNTHROTTLED = 0;
+
     private static final Random RANDOM = new Random();
     private static final String MESSAGE_FORMAT = "%s,%s,%.4f,%.4f,%d";
     private static final String[] CURRENCY_PAIRS = {"EUR/USD", "GBP/USD", "USD/JPY", "USD/CHF", "AUD/USD", "NZD/USD"};
 
     private static final Queue<String> MESSAGE_QUEUE = new ConcurrentLinkedQueue<>();
+    private static final long PARK_THRESHOLD_NANOS = 50_000L;
 
     /**
      * This method generates a stream of price feed messages. If there are no messages in the queue,
@@ -46,6 +59,93 @@ public class PriceFeedSource {
         }).limit(100);
     }
 
+    /**
+     * This method generates a stream of price feed messages with the given generator, for load testing.
+     * <p>
+     * When a rate is given, the stream paces itself so that message {@code n} is not returned before
+     * {@code n / messagesPerSecond} seconds after the first one.
+     *
+     * @param generator the generator of the messages, only used by the thread consuming the stream
+     * @param messageLimit the number of messages of the stream, or {@link #UNBOUNDED} for an infinite stream
+     * @param messagesPerSecond the target message rate, or {@link #UNTHROTTLED} to generate messages as fast as
+     *                          they are consumed
+     * @return a stream of price feed messages in the format UUID,CURRENCY_PAIR,BID,ASK,TIMESTAMP
+     */
+    public static Stream<String> runPriceFeed(PriceFeedGenerator generator, long messageLimit,
+                                              long messagesPerSecond) {
+        Stream<String> messages;
+        if (messagesPerSecond == UNTHROTTLED) {
+            messages = Stream.generate(generator::nextMessage);
+        } else {
+            double nanosPerMessage = 1e9 / messagesPerSecond;
+            long[] sent = new long[1];
+            long startNanos = System.nanoTime();
+            messages = Stream.generate(() -> {
+                awaitNanos(startNanos + (long) (sent[0]++ * nanosPerMessage));
+                return generator.nextMessage();
+            });
+        }
+        return messageLimit == UNBOUNDED ? messages : messages.limit(messageLimit);
+    }
+
+    /**
+     * This method generates a stream of 100 price feed messages in the {@link WireFormat#BINARY} wire format, for the
+     * currency pairs returned by {@link #getCurrencyPairs()}, whose indexes are the instrument ids of the records.
+     *
+     * @return a stream of buffers, each holding the records of one message
+     */
+    public static Stream<ByteBuffer> runBinaryPriceFeed() {
+        return runBinaryPriceFeed(new PriceFeedGenerator(RANDOM.nextLong(), CURRENCY_PAIRS.length), 100, UNTHROTTLED);
+    }
+
+    /**
+     * This method generates a stream of price feed messages in the {@link WireFormat#BINARY} wire format with the
+     * given generator, paced as described by {@link #runPriceFeed(PriceFeedGenerator, long, long)}.
+     *
+     * @param generator the generator of the messages, only used by the thread consuming the stream
+     * @param messageLimit the number of messages of the stream, or {@link #UNBOUNDED} for an infinite stream
+     * @param messagesPerSecond the target message rate, or {@link #UNTHROTTLED}
+     * @return a stream of buffers, each holding the records of one message
+     */
+    public static Stream<ByteBuffer> runBinaryPriceFeed(PriceFeedGenerator generator, long messageLimit,
+                                                        long messagesPerSecond) {
+        Stream<ByteBuffer> messages;
+        if (messagesPerSecond == UNTHROTTLED) {
+            messages = Stream.generate(generator::nextBinaryMessage);
+        } else {
+            double nanosPerMessage = 1e9 / messagesPerSecond;
+            long[] sent = new long[1];
+            long startNanos = System.nanoTime();
+            messages = Stream.generate(() -> {
+                awaitNanos(startNanos + (long) (sent[0]++ * nanosPerMessage));
+                return generator.nextBinaryMessage();
+            });
+        }
+        return messageLimit == UNBOUNDED ? messages : messages.limit(messageLimit);
+    }
+
+    /**
+     * Waits until the given {@link System#nanoTime()} deadline, parking while it is far and spinning once it is near.
+     */
+    static void awaitNanos(long deadline) {
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            if (remaining > PARK_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - PARK_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Returns the currency pairs this feed publishes prices for.
+     *
+     * @return a copy of the currency pairs published by this feed
+     */
+    public static String[] getCurrencyPairs() {
+        return CURRENCY_PAIRS.clone();
+    }
+
     /**
      * This method generates a message consisting of a random number of lines, where each line represents
      * a price for a currency pair. It uses the {@link #generateLine()} method to generate each line.
@@ -53,7 +153,7 @@ public class PriceFeedSource {
      * @return a message consisting of a random number of lines, where each line represents a price for a
      * currency pair
      */
-    private static String generateMessage() {
+    public static String generateMessage() {
         int liensCount = RANDOM.nextInt(5) + 1;
         StringBuilder message = new StringBuilder();
         for (int i = 0; i < liensCount; i++) {
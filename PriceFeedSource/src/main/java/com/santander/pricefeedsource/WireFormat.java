@@ -0,0 +1,35 @@
+package com.santander.pricefeedsource;
+
+import java.util.Locale;
+
+/**
+ * The encodings of the price feed messages exchanged between the source and its clients.
+ */
+public enum WireFormat {
+
+    /**
+     * Newline-separated lines in the format UUID,CURRENCY_PAIR,BID,ASK,TIMESTAMP.
+     */
+    CSV,
+
+    /**
+     * Consecutive fixed-width records, see {@link BinaryPriceFormat}.
+     */
+    BINARY;
+
+    /**
+     * The system property selecting the wire format on both sides of the feed.
+     */
+    public static final String WIRE_FORMAT_PROPERTY = "pricefeed.wire";
+
+    /**
+     * Returns the wire format selected by the {@value #WIRE_FORMAT_PROPERTY} system property, defaulting to
+     * {@link #CSV}.
+     *
+     * @return the selected wire format
+     * @throws IllegalArgumentException if the property names an unknown format
+     */
+    public static WireFormat fromSystemProperties() {
+        return valueOf(System.getProperty(WIRE_FORMAT_PROPERTY, CSV.name()).toUpperCase(Locale.ROOT));
+    }
+}
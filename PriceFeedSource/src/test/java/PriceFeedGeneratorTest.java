@@ -0,0 +1,96 @@
+import com.santander.pricefeedsource.BinaryPriceFormat;
+import com.santander.pricefeedsource.PriceFeedGenerator;
+import com.santander.pricefeedsource.PriceFeedSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+public class PriceFeedGeneratorTest {
+    private static final int MESSAGE_COUNT = 1000;
+    private static final int COLUMNS_COUNT = 5;
+
+    @Test
+    public void shouldGenerateSameMessagesForSameSeed() {
+        List<String> first = PriceFeedSource.runPriceFeed(newGenerator(42, 100), MESSAGE_COUNT,
+                PriceFeedSource.UNTHROTTLED).collect(Collectors.toList());
+        List<String> second = PriceFeedSource.runPriceFeed(newGenerator(42, 100), MESSAGE_COUNT,
+                PriceFeedSource.UNTHROTTLED).collect(Collectors.toList());
+        List<String> other = PriceFeedSource.runPriceFeed(newGenerator(43, 100), MESSAGE_COUNT,
+                PriceFeedSource.UNTHROTTLED).collect(Collectors.toList());
+        Assert.assertEquals(MESSAGE_COUNT, first.size());
+        Assert.assertEquals(first, second);
+        Assert.assertNotEquals(first, other);
+    }
+
+    @Test
+    public void shouldGenerateMessagesWithValidFormat() {
+        PriceFeedGenerator generator = newGenerator(7, 5000);
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            message.setLength(0);
+            for (String line : generator.appendMessage(message).toString().split("\n")) {
+                String[] parts = line.split(",");
+                Assert.assertEquals(COLUMNS_COUNT, parts.length);
+                Assert.assertTrue(parts[0].matches("[a-f0-9]{8}(-[a-f0-9]{4}){3}-[a-f0-9]{12}"));
+                Assert.assertTrue(parts[1].matches("^[A-Z]{3}/[A-Z]{3}$"));
+                Assert.assertTrue(parts[2].matches("\\d+\\.\\d{4}"));
+                Assert.assertTrue(parts[3].matches("\\d+\\.\\d{4}"));
+                Assert.assertEquals("1700000000000", parts[4]);
+                Assert.assertTrue(Double.parseDouble(parts[2]) <= Double.parseDouble(parts[3]));
+            }
+        }
+    }
+
+    @Test
+    public void shouldGenerateDistinctInstruments() {
+        String[] instruments = newGenerator(1, 20000).getInstruments();
+        Assert.assertEquals(20000, new HashSet<>(Arrays.asList(instruments)).size());
+        Assert.assertEquals(Arrays.asList(PriceFeedSource.getCurrencyPairs()),
+                Arrays.asList(instruments).subList(0, PriceFeedSource.getCurrencyPairs().length));
+    }
+
+    @Test
+    public void shouldPaceMessagesAtTargetRate() {
+        long start = System.nanoTime();
+        long count = PriceFeedSource.runPriceFeed(newGenerator(1, 6), 200, 2000).count();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        Assert.assertEquals(200, count);
+        Assert.assertTrue("Elapsed " + elapsedMillis + "ms", elapsedMillis >= 90);
+    }
+
+    @Test
+    public void shouldEncodeSameTicksInBinaryFormat() {
+        PriceFeedGenerator csvGenerator = newGenerator(11, 100);
+        PriceFeedGenerator binaryGenerator = newGenerator(11, 100);
+        String[] instruments = binaryGenerator.getInstruments();
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            String[] lines = csvGenerator.nextMessage().split("\n");
+            ByteBuffer message = binaryGenerator.nextBinaryMessage();
+            Assert.assertEquals(lines.length * BinaryPriceFormat.RECORD_SIZE, message.remaining());
+            for (String line : lines) {
+                String[] parts = line.split(",");
+                Assert.assertEquals(parts[0], new UUID(message.getLong(), message.getLong()).toString());
+                Assert.assertEquals(parts[1], instruments[message.getInt()]);
+                Assert.assertEquals(parts[2], scaled(message.getLong()));
+                Assert.assertEquals(parts[3], scaled(message.getLong()));
+                Assert.assertEquals(Long.parseLong(parts[4]), message.getLong());
+            }
+        }
+    }
+
+    private static String scaled(long price) {
+        return String.format(Locale.ROOT, "%d.%04d", price / BinaryPriceFormat.PRICE_SCALE,
+                price % BinaryPriceFormat.PRICE_SCALE);
+    }
+
+    private static PriceFeedGenerator newGenerator(long seed, int instrumentCount) {
+        return new PriceFeedGenerator(seed, instrumentCount, 5, () -> 1_700_000_000_000L);
+    }
+}
@@ -0,0 +1,82 @@
+import com.santander.pricefeedsource.FrameFormat;
+import com.santander.pricefeedsource.PriceFeedGenerator;
+import com.santander.pricefeedsource.PriceFeedServer;
+import com.santander.pricefeedsource.PriceFeedSource;
+import com.santander.pricefeedsource.WireFormat;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class PriceFeedServerTest {
+    private static final int MESSAGE_COUNT = 1000;
+    private static final long TIMESTAMP = 1_700_000_000_000L;
+
+    @Test
+    public void shouldPublishFramedTextMessages() throws Exception {
+        PriceFeedGenerator expected = newGenerator();
+        try (PriceFeedServer server = new PriceFeedServer(newGenerator(), WireFormat.CSV, MESSAGE_COUNT,
+                PriceFeedSource.UNTHROTTLED)) {
+            InetSocketAddress address = server.bindTcp(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+                server.start();
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                for (long sequence = 0; sequence < MESSAGE_COUNT; sequence++) {
+                    byte[] message = new byte[in.readInt()];
+                    Assert.assertEquals(sequence, in.readLong());
+                    in.readFully(message);
+                    Assert.assertEquals(expected.nextMessage(), new String(message, StandardCharsets.US_ASCII));
+                }
+                assertEndOfFeed(in);
+            }
+            server.awaitTermination();
+            Assert.assertEquals(MESSAGE_COUNT, server.getSentFrames());
+            Assert.assertEquals(0, server.getDroppedFrames());
+        }
+    }
+
+    @Test
+    public void shouldPublishFramedBinaryMessages() throws Exception {
+        PriceFeedGenerator expected = newGenerator();
+        try (PriceFeedServer server = new PriceFeedServer(newGenerator(), WireFormat.BINARY, MESSAGE_COUNT,
+                PriceFeedSource.UNTHROTTLED)) {
+            InetSocketAddress address = server.bindTcp(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+                server.start();
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                for (long sequence = 0; sequence < MESSAGE_COUNT; sequence++) {
+                    byte[] message = new byte[in.readInt()];
+                    Assert.assertEquals(sequence, in.readLong());
+                    in.readFully(message);
+                    Assert.assertEquals(expected.nextBinaryMessage(), ByteBuffer.wrap(message));
+                }
+                assertEndOfFeed(in);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMessagesLargerThanAFrame() {
+        new PriceFeedServer(new PriceFeedGenerator(42, 6, FrameFormat.MAX_MESSAGE_SIZE, () -> TIMESTAMP),
+                WireFormat.CSV, MESSAGE_COUNT, PriceFeedSource.UNTHROTTLED);
+    }
+
+    private static void assertEndOfFeed(DataInputStream in) throws Exception {
+        try {
+            in.readByte();
+            Assert.fail("The connection should be closed after the last message");
+        } catch (EOFException e) {
+            // expected
+        }
+    }
+
+    private static PriceFeedGenerator newGenerator() {
+        return new PriceFeedGenerator(42, 100, 5, () -> TIMESTAMP);
+    }
+}